@@ -0,0 +1,78 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the admission of the proxied requests bound from the {@code integrator.admission} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.admission")
+public class AdmissionProperties {
+
+    /**
+     * If the proxied requests wait in the admission queue when the server is busy. Disabled by default, as the max
+     * concurrent requests is for the whole server and must be sized to what it takes.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Max proxied requests processed at the same time, the others wait in the queue.
+     */
+    private int maxConcurrent = 100;
+
+    /**
+     * Max requests waiting in the queue.
+     */
+    private int maxQueue = 1000;
+
+    /**
+     * Time in milliseconds a request may wait in the queue without counting as a delay.
+     */
+    private long target = 5;
+
+    /**
+     * Time in milliseconds the delay must last to consider the server overloaded, also the max wait of a request.
+     */
+    private long interval = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void setMaxQueue(int maxQueue) {
+        this.maxQueue = maxQueue;
+    }
+
+    public long getTarget() {
+        return target;
+    }
+
+    public void setTarget(long target) {
+        this.target = target;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the proxied responses cache bound from the {@code integrator.cache} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.cache")
+public class CacheProperties {
+
+    /**
+     * If the GET responses allowed by the applications are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Max size in bytes of all cached responses, the least recently used are evicted above it.
+     */
+    private long maxSize = 64 * 1024 * 1024;
+
+    /**
+     * Max size in bytes of a single cached response.
+     */
+    private long maxEntrySize = 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the circuit breaker of each application host bound from the {@code integrator.circuit-breaker}
+ * properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    /**
+     * If the hosts that keep failing stop receiving requests.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time in milliseconds of the window with the outcomes of the requests.
+     */
+    private long window = 10_000;
+
+    /**
+     * Min requests in the window before the circuit may open.
+     */
+    private int minimumRequests = 10;
+
+    /**
+     * Percentage of failed requests in the window that opens the circuit.
+     */
+    private int failureRate = 50;
+
+    /**
+     * Time in milliseconds for a request to be considered slow.
+     */
+    private long slowCallDuration = 5_000;
+
+    /**
+     * Percentage of slow requests in the window that opens the circuit.
+     */
+    private int slowCallRate = 80;
+
+    /**
+     * Time in milliseconds the circuit stays open before letting the probe requests through.
+     */
+    private long openDuration = 5_000;
+
+    /**
+     * Number of probe requests that must succeed to close the circuit again.
+     */
+    private int halfOpenRequests = 3;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+
+    public void setMinimumRequests(int minimumRequests) {
+        this.minimumRequests = minimumRequests;
+    }
+
+    public int getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(int failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public long getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(long slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    public int getSlowCallRate() {
+        return slowCallRate;
+    }
+
+    public void setSlowCallRate(int slowCallRate) {
+        this.slowCallRate = slowCallRate;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenRequests() {
+        return halfOpenRequests;
+    }
+
+    public void setHalfOpenRequests(int halfOpenRequests) {
+        this.halfOpenRequests = halfOpenRequests;
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the adaptive concurrency limit bound from the {@code integrator.concurrency-limit} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * If the requests in flight to each application are limited. Disabled by default, the requests beyond the limit
+     * wait for room until their deadline.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Requests in flight allowed before the application responds to any request, or {@code 0} to start at the max
+     * connections of the application.
+     */
+    private int initialLimit = 0;
+
+    /**
+     * Min requests in flight allowed, even when the application is slow.
+     */
+    private int minLimit = 1;
+
+    /**
+     * Max requests in flight allowed, even when the application stays fast.
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * How much the response times may grow over the usual before the limit decreases.
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Fraction of each new limit computed that is applied to the current limit.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Responses averaged on the usual response time of the application.
+     */
+    private int longWindow = 600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+}
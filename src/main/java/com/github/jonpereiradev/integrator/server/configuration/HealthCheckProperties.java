@@ -0,0 +1,131 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the health checks of the applications bound from the {@code integrator.health-check} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.health-check")
+public class HealthCheckProperties {
+
+    /**
+     * If the applications are checked periodically, removing the ones with all the hosts offline.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time in milliseconds between the checks of an application just deployed.
+     */
+    private long interval = 60_000;
+
+    /**
+     * Min time in milliseconds between the checks of an application that keeps changing its status.
+     */
+    private long minInterval = 15_000;
+
+    /**
+     * Max time in milliseconds between the checks of an application that keeps the same status.
+     */
+    private long maxInterval = 300_000;
+
+    /**
+     * Fraction of the interval added or removed at random from each check, so they don't run all at once.
+     */
+    private double jitter = 0.2;
+
+    /**
+     * Max connections open at the same time by the probes of the hosts.
+     */
+    private int maxInFlight = 32;
+
+    /**
+     * Checks in a row with all the hosts offline before the application is removed.
+     */
+    private int unhealthyThreshold = 2;
+
+    /**
+     * If the proxied requests count as checks, the hosts are only probed when the application received no successful
+     * request since the last check or when it is suspected to be offline.
+     */
+    private boolean passive = true;
+
+    /**
+     * Proxied requests failed in a row before the application is suspected to be offline and checked without waiting
+     * for its interval, no sooner than the min interval after the last probe.
+     */
+    private int suspectThreshold = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public void setMinInterval(long minInterval) {
+        this.minInterval = minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setMaxInterval(long maxInterval) {
+        this.maxInterval = maxInterval;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getUnhealthyThreshold() {
+        return unhealthyThreshold;
+    }
+
+    public void setUnhealthyThreshold(int unhealthyThreshold) {
+        this.unhealthyThreshold = unhealthyThreshold;
+    }
+
+    public boolean isPassive() {
+        return passive;
+    }
+
+    public void setPassive(boolean passive) {
+        this.passive = passive;
+    }
+
+    public int getSuspectThreshold() {
+        return suspectThreshold;
+    }
+
+    public void setSuspectThreshold(int suspectThreshold) {
+        this.suspectThreshold = suspectThreshold;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the hedged requests bound from the {@code integrator.hedging} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.hedging")
+public class HedgingProperties {
+
+    /**
+     * If a second attempt is sent for the idempotent requests that take longer than usual.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Percentile of the recent latencies of the application to wait before sending the second attempt.
+     */
+    private double percentile = 95;
+
+    /**
+     * Min time in milliseconds to wait before sending the second attempt.
+     */
+    private long minDelay = 10;
+
+    /**
+     * Extra attempts allowed for each request sent, as a fraction of the requests.
+     */
+    private double budgetRatio = 0.1;
+
+    /**
+     * Max extra attempts saved in the budget of each application.
+     */
+    private int budgetMax = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(long minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetMax() {
+        return budgetMax;
+    }
+
+    public void setBudgetMax(int budgetMax) {
+        this.budgetMax = budgetMax;
+    }
+}
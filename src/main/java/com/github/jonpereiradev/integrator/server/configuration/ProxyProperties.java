@@ -0,0 +1,91 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import com.github.jonpereiradev.integrator.server.service.ProxyMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the proxy execution bound from the {@code integrator.proxy} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.proxy")
+public class ProxyProperties {
+
+    /**
+     * How the proxied requests are executed against the applications.
+     */
+    private ProxyMode mode = ProxyMode.BUFFERED;
+
+    /**
+     * Size in bytes of each buffer used to copy the streamed bodies.
+     */
+    private int bufferSize = 8 * 1024;
+
+    /**
+     * Max number of idle buffers kept in the pool for reuse.
+     */
+    private int bufferPoolSize = 256;
+
+    /**
+     * Time in milliseconds for a host added to an application to receive its full share of requests.
+     */
+    private long slowStart = 30_000;
+
+    /**
+     * Max number of verified proxy authorizations kept, so the repeated ones are not verified again.
+     */
+    private int authorizationCacheSize = 10_000;
+
+    /**
+     * Time in milliseconds a verified proxy authorization is kept, unless it expires before.
+     */
+    private long authorizationCacheTtl = 300_000;
+
+    public ProxyMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ProxyMode mode) {
+        this.mode = mode;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getBufferPoolSize() {
+        return bufferPoolSize;
+    }
+
+    public void setBufferPoolSize(int bufferPoolSize) {
+        this.bufferPoolSize = bufferPoolSize;
+    }
+
+    public long getSlowStart() {
+        return slowStart;
+    }
+
+    public void setSlowStart(long slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    public int getAuthorizationCacheSize() {
+        return authorizationCacheSize;
+    }
+
+    public void setAuthorizationCacheSize(int authorizationCacheSize) {
+        this.authorizationCacheSize = authorizationCacheSize;
+    }
+
+    public long getAuthorizationCacheTtl() {
+        return authorizationCacheTtl;
+    }
+
+    public void setAuthorizationCacheTtl(long authorizationCacheTtl) {
+        this.authorizationCacheTtl = authorizationCacheTtl;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the storage of the applications bound from the {@code integrator.registry} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.registry")
+public class RegistryProperties {
+
+    /**
+     * The store of the applications, {@code jpa} for the database or {@code log} for the embedded event log.
+     */
+    private String store = "jpa";
+
+    /**
+     * Path of the event log file when the store is {@code log}.
+     */
+    private String logPath = "./integrator.log";
+
+    /**
+     * Min size in bytes appended to the log since the last compaction before it is compacted again. The log is only
+     * compacted when it also doubled the size it had after the last compaction.
+     */
+    private long compactionMinSize = 1024 * 1024;
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public String getLogPath() {
+        return logPath;
+    }
+
+    public void setLogPath(String logPath) {
+        this.logPath = logPath;
+    }
+
+    public long getCompactionMinSize() {
+        return compactionMinSize;
+    }
+
+    public void setCompactionMinSize(long compactionMinSize) {
+        this.compactionMinSize = compactionMinSize;
+    }
+}
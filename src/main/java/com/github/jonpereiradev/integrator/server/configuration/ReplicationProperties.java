@@ -0,0 +1,97 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the replication of the deploys between the servers bound from the {@code integrator.replication}
+ * properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.replication")
+public class ReplicationProperties {
+
+    /**
+     * If the deploys and the undeploys are sent to the peers and received from them.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Identifier of this server on the version of the applications, unique between the peers and kept between the
+     * starts, required when the replication is enabled. The peers accept the messages of this server by it.
+     */
+    private String nodeId;
+
+    /**
+     * Addresses of the other servers with the context path, as {@code http://host:8080/integrator-server}.
+     */
+    private List<String> peers = new ArrayList<>();
+
+    /**
+     * Identifiers of the servers whose replication messages are accepted, the peers and the ones that ask this server
+     * for the changes.
+     */
+    private List<String> peerNodes = new ArrayList<>();
+
+    /**
+     * Secret shared by the servers, required when the replication is enabled. The messages between the servers are
+     * signed with it and the secrets of the applications are encrypted with it.
+     */
+    private String secret;
+
+    /**
+     * Time in milliseconds between the exchanges with a peer at random, that repair the changes not received.
+     */
+    private long interval = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    public List<String> getPeerNodes() {
+        return peerNodes;
+    }
+
+    public void setPeerNodes(List<String> peerNodes) {
+        this.peerNodes = peerNodes;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+}
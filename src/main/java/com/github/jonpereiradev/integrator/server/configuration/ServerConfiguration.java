@@ -1,10 +1,49 @@
 package com.github.jonpereiradev.integrator.server.configuration;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 @EnableScheduling
-public class ServerConfiguration {
+@EnableConfigurationProperties({
+    ProxyProperties.class,
+    CacheProperties.class,
+    CircuitBreakerProperties.class,
+    HedgingProperties.class,
+    ConcurrencyLimitProperties.class,
+    AdmissionProperties.class,
+    HealthCheckProperties.class,
+    SnapshotProperties.class,
+    RegistryProperties.class,
+    ReplicationProperties.class,
+    WatchProperties.class
+})
+public class ServerConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Calls the applications on the request thread, unless the virtual threads are enabled.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "integrator.threads.virtual", havingValue = "false", matchIfMissing = true)
+    public TaskExecutor upstreamExecutor() {
+        return new SyncTaskExecutor();
+    }
+
+    @Bean
+    public StreamingBodyHttpMessageConverter streamingBodyHttpMessageConverter() {
+        return new StreamingBodyHttpMessageConverter();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerDeferredResultInterceptors(new StreamingBodyDiscardInterceptor());
+    }
 
 }
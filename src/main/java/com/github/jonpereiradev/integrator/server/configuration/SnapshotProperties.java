@@ -0,0 +1,39 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the snapshot of the deployed applications bound from the {@code integrator.snapshot} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * If the applications and the resources are written to a file after each deploy and undeploy, and read from it on
+     * the start instead of the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Path of the snapshot file, replaced as a whole on each write.
+     */
+    private String path = "./integrator.snapshot";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import com.github.jonpereiradev.integrator.server.service.StreamingBody;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+/**
+ * Releases the connection of a {@link StreamingBody} that is not written to the client when the async request
+ * completes, as when it fails before the response is committed or the client is gone.
+ *
+ * @author Jonathan Pereira
+ */
+public class StreamingBodyDiscardInterceptor implements DeferredResultProcessingInterceptor {
+
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        discard(deferredResult.getResult());
+    }
+
+    /**
+     * Releases the body of the response when it is streamed.
+     *
+     * @param response the response of the proxy, or anything else that is ignored.
+     */
+    public static void discard(Object response) {
+        if (response instanceof HttpEntity && ((HttpEntity<?>) response).getBody() instanceof StreamingBody) {
+            ((StreamingBody) ((HttpEntity<?>) response).getBody()).discard();
+        }
+    }
+}
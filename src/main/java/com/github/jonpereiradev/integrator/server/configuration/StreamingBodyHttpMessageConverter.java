@@ -0,0 +1,48 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import com.github.jonpereiradev.integrator.server.service.StreamingBody;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes the {@link StreamingBody} of the applications to the client with any content type.
+ *
+ * @author Jonathan Pereira
+ */
+public class StreamingBodyHttpMessageConverter extends AbstractHttpMessageConverter<StreamingBody> {
+
+    public StreamingBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamingBody readInternal(Class<? extends StreamingBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamingBody is only written to the client.");
+    }
+
+    @Override
+    protected Long getContentLength(StreamingBody body, MediaType contentType) {
+        long contentLength = body.getContentLength();
+        return contentLength < 0 ? null : contentLength;
+    }
+
+    @Override
+    protected void writeInternal(StreamingBody body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
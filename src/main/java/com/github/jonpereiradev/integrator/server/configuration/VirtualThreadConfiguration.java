@@ -0,0 +1,83 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Runs the requests, the scheduled tasks and the calls to the applications on virtual threads.
+ * Enabled with {@code integrator.threads.virtual=true} and requires Java 21 or newer.
+ *
+ * @author Jonathan Pereira
+ */
+@Configuration
+@ConditionalOnProperty(name = "integrator.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration implements WebMvcConfigurer, DisposableBean {
+
+    private final ExecutorService executorService = VirtualThreads.newExecutor("integrator-virtual-");
+    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(VirtualThreads.factory("integrator-scheduling-"));
+
+    /**
+     * Starts a new virtual thread for each task submitted.
+     */
+    @Bean(destroyMethod = "")
+    public ExecutorService virtualThreadExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Calls the applications on a new virtual thread, releasing the container thread while it waits. Tomcat 8.5
+     * holds a monitor while processing a request, so a blocking call made there would pin the carrier thread.
+     */
+    @Bean
+    public TaskExecutor upstreamExecutor() {
+        return new ConcurrentTaskExecutor(executorService);
+    }
+
+    /**
+     * Replaces the Tomcat worker pool, so each request runs on its own virtual thread.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadWebServerCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) connector.getProtocolHandler();
+            protocol.setExecutor(executorService);
+        });
+    }
+
+    /**
+     * Runs the {@code @Scheduled} tasks, as the applications health check, on a virtual thread.
+     */
+    @Bean
+    public TaskScheduler taskScheduler() {
+        return new ConcurrentTaskScheduler(scheduledExecutorService);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(executorService));
+    }
+
+    /**
+     * Stops the executors here because the JDK executors can't be closed by reflection as a bean destroy method.
+     */
+    @Override
+    public void destroy() {
+        scheduledExecutorService.shutdownNow();
+        executorService.shutdown();
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the watch of the changes of the applications bound from the {@code integrator.watch} properties.
+ *
+ * @author Jonathan Pereira
+ */
+@ConfigurationProperties(prefix = "integrator.watch")
+public class WatchProperties {
+
+    /**
+     * Max time in milliseconds a watch waits for a change before responding that there is none.
+     */
+    private long timeout = 30_000;
+
+    /**
+     * Max changes kept to answer the watches behind, the ones further behind receive all the applications again.
+     */
+    private int history = 1024;
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getHistory() {
+        return history;
+    }
+
+    public void setHistory(int history) {
+        this.history = history;
+    }
+}
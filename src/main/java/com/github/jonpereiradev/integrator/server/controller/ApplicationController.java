@@ -1,28 +1,51 @@
 package com.github.jonpereiradev.integrator.server.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.CursorPage;
+import com.github.jonpereiradev.integrator.server.model.RegistryChanges;
 import com.github.jonpereiradev.integrator.server.model.Resource;
 import com.github.jonpereiradev.integrator.server.service.IntegratorServer;
+import com.github.jonpereiradev.integrator.server.service.RegistryWatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping(path = "/applications", produces = MediaType.APPLICATION_JSON_VALUE)
 public class ApplicationController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int STREAM_PAGE_SIZE = 500;
+
     private final IntegratorServer integratorServer;
+    private final RegistryWatcher registryWatcher;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ApplicationController(IntegratorServer integratorServer) {
+    public ApplicationController(IntegratorServer integratorServer, RegistryWatcher registryWatcher, ObjectMapper objectMapper) {
         this.integratorServer = integratorServer;
+        this.registryWatcher = registryWatcher;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -35,6 +58,29 @@ public class ApplicationController {
         return integratorServer.findAllApplications();
     }
 
+    /**
+     * Get a page of the applications deployed ordered by key.
+     *
+     * @param cursor the cursor of the page, {@code null} for the first page.
+     * @param limit  the max applications of the page, up to 1000.
+     * @return the applications of the page and the cursor of the next one.
+     */
+    @GetMapping(params = "limit")
+    public CursorPage<Application> findApplications(@RequestParam(required = false) String cursor, @RequestParam int limit) {
+        int size = limit(limit);
+        return page(integratorServer.findApplications(cursor, size + 1), size, Application::getId);
+    }
+
+    /**
+     * Writes the applications deployed one JSON by line as they are read, a page at a time.
+     *
+     * @return the body written on the async thread.
+     */
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApplications() {
+        return ndjson(output -> writeLines(output, null, after -> integratorServer.findApplications(after, STREAM_PAGE_SIZE), Application::getId));
+    }
+
     /**
      * Get all resources registered for an application by key.
      *
@@ -46,6 +92,34 @@ public class ApplicationController {
         return integratorServer.findAllResourcesByApplication(id);
     }
 
+    /**
+     * Get a page of the resources registered for an application ordered by id.
+     *
+     * @param id     the application key identifier.
+     * @param cursor the cursor of the page, {@code null} for the first page.
+     * @param limit  the max resources of the page, up to 1000.
+     * @return the resources of the page and the cursor of the next one.
+     */
+    @GetMapping(path = "/{id}/resources", params = "limit")
+    public CursorPage<Resource> findResourcesByApplication(@PathVariable String id, @RequestParam(required = false) Long cursor, @RequestParam int limit) {
+        int size = limit(limit);
+        List<Resource> resources = integratorServer.findResourcesByApplication(id, cursor == null ? 0 : cursor, size + 1);
+
+        return page(resources, size, resource -> String.valueOf(resource.getId()));
+    }
+
+    /**
+     * Writes the resources of the application one JSON by line as they are read. Each page is read with its own query,
+     * so no connection is held while the body is written.
+     *
+     * @param id the application key identifier.
+     * @return the body written on the async thread.
+     */
+    @GetMapping(path = "/{id}/resources", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamResourcesByApplication(@PathVariable String id) {
+        return ndjson(output -> writeLines(output, 0L, after -> integratorServer.findResourcesByApplication(id, after, STREAM_PAGE_SIZE), Resource::getId));
+    }
+
     /**
      * Get one resource by identifier.
      *
@@ -57,4 +131,63 @@ public class ApplicationController {
         return integratorServer.findResourceByIdentifierEquals(identifier);
     }
 
+    /**
+     * Waits for the applications deployed or undeployed after a revision of the registry.
+     *
+     * @param revision the revision of the last changes received, {@code 0} to receive all the applications.
+     * @param timeout  the max time in milliseconds to wait for a change.
+     * @return the applications changed with their resources and the revision to watch from next.
+     */
+    @GetMapping(path = "/watch")
+    public DeferredResult<RegistryChanges> watch(@RequestParam(defaultValue = "0") long revision, @RequestParam(defaultValue = "0") long timeout) {
+        return registryWatcher.watch(revision, timeout);
+    }
+
+    private static int limit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Makes the page from the items read with one more than the size, the extra item tells there is a next page.
+     */
+    private static <T> CursorPage<T> page(List<T> items, int size, Function<T, String> cursor) {
+        if (items.size() <= size) {
+            return new CursorPage<>(items, null);
+        }
+
+        List<T> page = items.subList(0, size);
+        return new CursorPage<>(page, cursor.apply(page.get(size - 1)));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Writes the items of each page until a page is not full, flushing only when the output buffer is full.
+     */
+    private <T, C> void writeLines(OutputStream output, C start, Function<C, List<T>> pages, Function<T, C> cursor) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        C after = start;
+        List<T> page;
+
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        do {
+            page = pages.apply(after);
+
+            for (T item : page) {
+                writer.writeValue(generator, item);
+                generator.writeRaw('\n');
+            }
+
+            if (!page.isEmpty()) {
+                after = cursor.apply(page.get(page.size() - 1));
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+
+        generator.flush();
+    }
 }
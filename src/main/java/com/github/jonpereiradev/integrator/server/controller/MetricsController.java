@@ -0,0 +1,189 @@
+package com.github.jonpereiradev.integrator.server.controller;
+
+
+import com.github.jonpereiradev.integrator.server.service.AdmissionQueue;
+import com.github.jonpereiradev.integrator.server.service.ConcurrencyLimiters;
+import com.github.jonpereiradev.integrator.server.service.HealthCheckScheduler;
+import com.github.jonpereiradev.integrator.server.service.HostSelector;
+import com.github.jonpereiradev.integrator.server.service.ProxyAuthorizationVerifier;
+import com.github.jonpereiradev.integrator.server.service.RateLimiters;
+import com.github.jonpereiradev.integrator.server.service.RegistryReplicator;
+import com.github.jonpereiradev.integrator.server.service.RegistryStore;
+import com.github.jonpereiradev.integrator.server.service.RegistryWatcher;
+import com.github.jonpereiradev.integrator.server.service.RequestCoalescer;
+import com.github.jonpereiradev.integrator.server.service.RequestHedger;
+import com.github.jonpereiradev.integrator.server.service.ResponseCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping(path = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+public class MetricsController {
+
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final HostSelector hostSelector;
+    private final RequestHedger requestHedger;
+    private final RateLimiters rateLimiters;
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final AdmissionQueue admissionQueue;
+    private final ProxyAuthorizationVerifier proxyAuthorizationVerifier;
+    private final HealthCheckScheduler healthCheckScheduler;
+    private final RegistryStore registryStore;
+    private final RegistryReplicator registryReplicator;
+    private final RegistryWatcher registryWatcher;
+
+    @Autowired
+    public MetricsController(
+        ResponseCache responseCache,
+        RequestCoalescer requestCoalescer,
+        HostSelector hostSelector,
+        RequestHedger requestHedger,
+        RateLimiters rateLimiters,
+        ConcurrencyLimiters concurrencyLimiters,
+        AdmissionQueue admissionQueue,
+        ProxyAuthorizationVerifier proxyAuthorizationVerifier,
+        HealthCheckScheduler healthCheckScheduler,
+        RegistryStore registryStore,
+        RegistryReplicator registryReplicator,
+        RegistryWatcher registryWatcher) {
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.hostSelector = hostSelector;
+        this.requestHedger = requestHedger;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.admissionQueue = admissionQueue;
+        this.proxyAuthorizationVerifier = proxyAuthorizationVerifier;
+        this.healthCheckScheduler = healthCheckScheduler;
+        this.registryStore = registryStore;
+        this.registryReplicator = registryReplicator;
+        this.registryWatcher = registryWatcher;
+    }
+
+    /**
+     * Get the hits, misses, revalidations and evictions of the responses cache.
+     *
+     * @return the counters of the cache usage.
+     */
+    @GetMapping(path = "/cache")
+    public Map<String, Long> cache() {
+        return responseCache.getStatistics();
+    }
+
+    /**
+     * Get the requests sent to the applications and the ones that waited an identical request in flight.
+     *
+     * @return the counters of the coalesced requests.
+     */
+    @GetMapping(path = "/coalescing")
+    public Map<String, Long> coalescing() {
+        return requestCoalescer.getStatistics();
+    }
+
+    /**
+     * Get the requests in flight, the slow start weight and the circuit state of each host of the applications.
+     *
+     * @return the hosts by application.
+     */
+    @GetMapping(path = "/hosts")
+    public Map<String, List<Map<String, Object>>> hosts() {
+        return hostSelector.getStatistics();
+    }
+
+    /**
+     * Get the second attempts sent to the slow applications and how many of them responded first.
+     *
+     * @return the counters of the hedged requests.
+     */
+    @GetMapping(path = "/hedging")
+    public Map<String, Long> hedging() {
+        return requestHedger.getStatistics();
+    }
+
+    /**
+     * Get the requests accepted and rejected by the rate limits of the applications.
+     *
+     * @return the counters of the rate limits.
+     */
+    @GetMapping(path = "/rate-limits")
+    public Map<String, Long> rateLimits() {
+        return rateLimiters.getStatistics();
+    }
+
+    /**
+     * Get the concurrency limit found for each application and the requests in flight to it.
+     *
+     * @return the concurrency limits by application.
+     */
+    @GetMapping(path = "/concurrency")
+    public Map<String, Map<String, Long>> concurrency() {
+        return concurrencyLimiters.getStatistics();
+    }
+
+    /**
+     * Get the proxied requests admitted, waiting and dropped by priority when the server is overloaded.
+     *
+     * @return the counters of the admission queue.
+     */
+    @GetMapping(path = "/admission")
+    public Map<String, Object> admission() {
+        return admissionQueue.getStatistics();
+    }
+
+    /**
+     * Get the proxy authorizations found already verified and the ones that had the signature verified.
+     *
+     * @return the counters of the verified authorizations.
+     */
+    @GetMapping(path = "/authorizations")
+    public Map<String, Long> authorizations() {
+        return proxyAuthorizationVerifier.getStatistics();
+    }
+
+    /**
+     * Get the status of the last health check and the interval between the checks of each application.
+     *
+     * @return the health checks by application.
+     */
+    @GetMapping(path = "/health")
+    public Map<String, Map<String, Object>> health() {
+        return healthCheckScheduler.getStatistics();
+    }
+
+    /**
+     * Get the writes of the deploys and the undeploys to the store of the applications.
+     *
+     * @return the counters of the registry store.
+     */
+    @GetMapping(path = "/registry")
+    public Map<String, Long> registry() {
+        return registryStore.getStatistics();
+    }
+
+    /**
+     * Get the changes of the applications sent to the peers and received from them.
+     *
+     * @return the counters of the replication.
+     */
+    @GetMapping(path = "/replication")
+    public Map<String, Long> replication() {
+        return registryReplicator.getStatistics();
+    }
+
+    /**
+     * Get the revision of the registry and the watches of its changes.
+     *
+     * @return the counters of the watches.
+     */
+    @GetMapping(path = "/watch")
+    public Map<String, Long> watch() {
+        return registryWatcher.getStatistics();
+    }
+}
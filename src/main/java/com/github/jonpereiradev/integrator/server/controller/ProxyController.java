@@ -1,30 +1,71 @@
 package com.github.jonpereiradev.integrator.server.controller;
 
 
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.configuration.StreamingBodyDiscardInterceptor;
 import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.model.Timeouts;
+import com.github.jonpereiradev.integrator.server.service.AdmissionQueue;
+import com.github.jonpereiradev.integrator.server.service.BufferPool;
+import com.github.jonpereiradev.integrator.server.service.CircuitBreaker;
+import com.github.jonpereiradev.integrator.server.service.ConcurrencyLimiter;
+import com.github.jonpereiradev.integrator.server.service.ConcurrencyLimiters;
+import com.github.jonpereiradev.integrator.server.service.Deadline;
+import com.github.jonpereiradev.integrator.server.service.DeadlineTimer;
+import com.github.jonpereiradev.integrator.server.service.HealthCheckScheduler;
+import com.github.jonpereiradev.integrator.server.service.HostSelector;
 import com.github.jonpereiradev.integrator.server.service.IntegratorServer;
+import com.github.jonpereiradev.integrator.server.service.PooledInputStreamEntity;
+import com.github.jonpereiradev.integrator.server.service.ProxyAuthorizationVerifier;
+import com.github.jonpereiradev.integrator.server.service.RateLimiters;
 import com.github.jonpereiradev.integrator.server.service.Request;
-import com.mashape.unirest.http.HttpResponse;
+import com.github.jonpereiradev.integrator.server.service.RequestCoalescer;
+import com.github.jonpereiradev.integrator.server.service.RequestHedger;
+import com.github.jonpereiradev.integrator.server.service.ResponseCache;
+import com.github.jonpereiradev.integrator.server.service.StreamingBody;
+import com.github.jonpereiradev.integrator.server.service.UpstreamHost;
 import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.HttpRequestWithBody;
+import org.apache.http.Header;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.json.JSONException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.springframework.web.bind.annotation.RequestMethod.*;
 
@@ -32,127 +73,596 @@ import static org.springframework.web.bind.annotation.RequestMethod.*;
 @RequestMapping("/proxy")
 public class ProxyController {
 
-    private static final List<String> IGNORE_HEADERS = Arrays.asList(HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST);
+    /**
+     * Milliseconds that the async request waits after the deadline, for the deadline to answer the client first.
+     */
+    private static final long ASYNC_TIMEOUT_GRACE = 5_000;
+
+    private static final Set<String> IGNORE_HEADERS = caseInsensitiveSet(HttpHeaders.CONTENT_LENGTH, HttpHeaders.HOST, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
 
     private final IntegratorServer integratorServer;
     private final HttpServletRequest httpServletRequest;
     private final Request request;
+    private final ProxyProperties proxyProperties;
+    private final BufferPool bufferPool;
+    private final TaskExecutor upstreamExecutor;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final HostSelector hostSelector;
+    private final RequestHedger requestHedger;
+    private final DeadlineTimer deadlineTimer;
+    private final RateLimiters rateLimiters;
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final AdmissionQueue admissionQueue;
+    private final ProxyAuthorizationVerifier proxyAuthorizationVerifier;
+    private final HealthCheckScheduler healthCheckScheduler;
 
     @Autowired
-    public ProxyController(IntegratorServer integratorServer, HttpServletRequest httpServletRequest, Request request) {
+    public ProxyController(
+        IntegratorServer integratorServer,
+        HttpServletRequest httpServletRequest,
+        Request request,
+        ProxyProperties proxyProperties,
+        BufferPool bufferPool,
+        @Qualifier("upstreamExecutor") TaskExecutor upstreamExecutor,
+        ResponseCache responseCache,
+        RequestCoalescer requestCoalescer,
+        HostSelector hostSelector,
+        RequestHedger requestHedger,
+        DeadlineTimer deadlineTimer,
+        RateLimiters rateLimiters,
+        ConcurrencyLimiters concurrencyLimiters,
+        AdmissionQueue admissionQueue,
+        ProxyAuthorizationVerifier proxyAuthorizationVerifier,
+        HealthCheckScheduler healthCheckScheduler) {
         this.integratorServer = integratorServer;
         this.httpServletRequest = httpServletRequest;
         this.request = request;
+        this.proxyProperties = proxyProperties;
+        this.bufferPool = bufferPool;
+        this.upstreamExecutor = upstreamExecutor;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.hostSelector = hostSelector;
+        this.requestHedger = requestHedger;
+        this.deadlineTimer = deadlineTimer;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.admissionQueue = admissionQueue;
+        this.proxyAuthorizationVerifier = proxyAuthorizationVerifier;
+        this.healthCheckScheduler = healthCheckScheduler;
     }
 
+    /**
+     * Proxies the request to the application. The deadline starts when the request arrives, so the time waiting for
+     * the admission counts against it. The async request times out a moment after the deadline, so the deadline
+     * answers first; when the container still times out, the deadline is cancelled and the work of the request with
+     * the application is aborted.
+     */
     @RequestMapping(path = "/{apiKey}/**", method = {GET, POST, PUT, DELETE, PATCH})
-    public ResponseEntity<String> execute(@PathVariable String apiKey, @RequestBody(required = false) String body) throws JSONException, UnirestException {
+    public DeferredResult<ResponseEntity<?>> execute(@PathVariable String apiKey) throws JSONException, IOException {
         String requestURI = httpServletRequest.getRequestURI();
         int indexOfExpose = requestURI.indexOf(apiKey);
         String resource = requestURI.substring(indexOfExpose).replaceFirst(apiKey, "");
         String proxyAuthorization = httpServletRequest.getHeader(HttpHeaders.PROXY_AUTHORIZATION);
 
         if (proxyAuthorization == null) {
-            return ResponseEntity.status(HttpStatus.PROXY_AUTHENTICATION_REQUIRED).build();
+            return completed(ResponseEntity.status(HttpStatus.PROXY_AUTHENTICATION_REQUIRED).build());
         }
 
-        integratorServer.validateProxyAuthorization(proxyAuthorization);
+        String subject = proxyAuthorizationVerifier.verify(apiKey, proxyAuthorization);
 
         Application application = integratorServer.findOneApplicationByKey(apiKey);
+        HttpMethod method = HttpMethod.resolve(httpServletRequest.getMethod());
+        Resource matchedResource = application == null ? null : integratorServer.findOneResourceByApplication(apiKey, method, resource);
 
-        if (application == null || !integratorServer.existsResourceByApplication(apiKey, resource)) {
-            return ResponseEntity.notFound().build();
+        // no subject means the application was not deployed when the authorization was verified.
+        if (subject == null || matchedResource == null) {
+            return completed(ResponseEntity.notFound().build());
         }
 
+        Timeouts timeouts = Timeouts.of(application, matchedResource);
+        Deadline deadline = Deadline.of(timeouts.getDeadline(), httpServletRequest.getHeader(Deadline.HEADER));
+
+        RateLimiters.Permit permit = rateLimiters.tryAcquire(application, matchedResource, subject);
+
+        if (permit.getWait() > 0) {
+            return completed(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(permit.getWait() + 999_999_999))))
+                .build());
+        }
+
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(deadline.remaining() + ASYNC_TIMEOUT_GRACE);
+        Supplier<CompletableFuture<ResponseEntity<?>>> upstream = prepare(application, matchedResource, method, resource, timeouts, deadline, permit);
+
+        // the request waiting for the admission holds no thread, it runs on the thread that admits it.
+        CompletableFuture<ResponseEntity<?>> future = admissionQueue.admit(matchedResource.getPriority(), deadline.remaining()).thenCompose(admitted -> {
+            if (!admitted) {
+                // the request is not sent, the rate limits take it back.
+                permit.release();
+                return CompletableFuture.completedFuture(ResponseEntity.status(deadline.isExpired() ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE).build());
+            }
+
+            CompletableFuture<ResponseEntity<?>> response;
+
+            try {
+                response = upstream.get();
+            } catch (RuntimeException e) {
+                admissionQueue.release();
+                throw e;
+            }
+
+            return response.whenComplete((value, throwable) -> admissionQueue.release());
+        });
+
+        result.onTimeout(() -> {
+            deadline.cancel();
+            result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build());
+        });
+
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                result.setErrorResult(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            } else if (!result.setResult(response)) {
+                StreamingBodyDiscardInterceptor.discard(response);
+            }
+        });
+
+        return result;
+    }
+
+    private static DeferredResult<ResponseEntity<?>> completed(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+
+    /**
+     * Reads the headers and the body of the request, on the request thread, and returns the call that sends it to the
+     * application as the proxy mode once admitted.
+     */
+    private Supplier<CompletableFuture<ResponseEntity<?>>> prepare(
+        Application application,
+        Resource matchedResource,
+        HttpMethod method,
+        String resource,
+        Timeouts timeouts,
+        Deadline deadline,
+        RateLimiters.Permit permit) throws IOException {
+
         HttpHeaders httpHeaders = new HttpHeaders();
-        String uri = application.getHost() + resource;
-        HttpMethod method = HttpMethod.resolve(httpServletRequest.getMethod());
         Enumeration<?> headerNames = httpServletRequest.getHeaderNames();
 
         while (headerNames.hasMoreElements()) {
             String nextElement = headerNames.nextElement().toString();
 
-            if (!IGNORE_HEADERS.contains(nextElement.toLowerCase())) {
+            if (!IGNORE_HEADERS.contains(nextElement)) {
                 httpHeaders.set(nextElement, httpServletRequest.getHeader(nextElement));
             }
         }
 
-        return execute(uri, Objects.requireNonNull(method), httpHeaders, body);
+        Objects.requireNonNull(method);
+
+        switch (proxyProperties.getMode()) {
+            case STREAMING:
+                InputStream input = hasBody() ? httpServletRequest.getInputStream() : null;
+                long contentLength = httpServletRequest.getContentLengthLong();
+                return () -> executeOnHost(application, deadline, permit,
+                    host -> executeOnUpstreamExecutor(onRequest -> executeStreaming(application, host + resource, method, httpHeaders, timeouts, deadline, input, contentLength, onRequest)));
+            case ASYNC:
+                String asyncBody = readBody();
+                return () -> executeCacheable(application, matchedResource, resource, method, httpHeaders,
+                    headers -> requestHedger.execute(application.getId(), method,
+                        () -> executeOnHost(application, deadline, permit, host -> executeAsync(application, host + resource, method, headers, timeouts, deadline, asyncBody))));
+            default:
+                String body = readBody();
+                return () -> executeCacheable(application, matchedResource, resource, method, httpHeaders,
+                    headers -> requestHedger.execute(application.getId(), method,
+                        () -> executeOnHost(application, deadline, permit,
+                            host -> executeOnUpstreamExecutor(onRequest -> execute(application, host + resource, method, headers, timeouts, deadline, body, onRequest)))));
+        }
     }
 
-    private ResponseEntity<String> execute(String uri, HttpMethod method, HttpHeaders httpHeaders, String body) throws UnirestException {
-        Map<String, String> headers = httpHeaders.toSingleValueMap();
+    /**
+     * Looks for the GET responses on the cache before sending them to the application, sharing the request with the
+     * identical ones in flight when the resource allows. The streamed bodies are not cached or shared, as they are
+     * never held in memory.
+     */
+    private CompletableFuture<ResponseEntity<?>> executeCacheable(
+        Application application,
+        Resource matchedResource,
+        String resource,
+        HttpMethod method,
+        HttpHeaders httpHeaders,
+        Function<HttpHeaders, CompletableFuture<ResponseEntity<?>>> upstream) {
+
+        if (method != HttpMethod.GET) {
+            return upstream.apply(httpHeaders);
+        }
 
-        switch (method) {
-            case GET:
-                return executeGet(uri, headers);
-            case POST:
-                return executePost(uri, headers, body);
-            case PUT:
-                return executePut(uri, headers, body);
-            case DELETE:
-                return executeDelete(uri, headers, body);
-            default:
-                return executePatch(uri, headers, body);
+        if (!matchedResource.isCoalesce()) {
+            return responseCache.execute(application.getId(), resource, httpHeaders, upstream);
+        }
+
+        return responseCache.execute(application.getId(), resource, httpHeaders,
+            headers -> requestCoalescer.execute(application.getId(), resource, headers, () -> upstream.apply(headers)));
+    }
+
+    /**
+     * Sends the request to the host chosen for it, counting it in flight until the application responds. The outcome
+     * goes to the circuit breaker of the host, when the circuit of all hosts is open the request fails fast. The
+     * requests that pass the deadline are answered with a gateway timeout. The requests beyond the concurrency that
+     * the application takes wait for room until the deadline, before choosing a host. The request not sent by any
+     * attempt is given back to the rate limits.
+     */
+    private CompletableFuture<ResponseEntity<?>> executeOnHost(
+        Application application,
+        Deadline deadline,
+        RateLimiters.Permit permit,
+        Function<String, CompletableFuture<ResponseEntity<?>>> call) {
+
+        if (deadline.isExpired()) {
+            permit.release();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build());
+        }
+
+        ConcurrencyLimiter limiter = concurrencyLimiters.get(application);
+        CompletableFuture<Boolean> acquired = limiter.acquire(deadline.remaining());
+        CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        // the attempt cancelled while waiting, as the one that loses a hedge, gives up its place.
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                acquired.cancel(false);
+            }
+        });
+
+        acquired.whenComplete((room, throwable) -> {
+            if (throwable != null) {
+                return;
+            }
+
+            if (!room) {
+                permit.release();
+                result.complete(ResponseEntity.status(deadline.isExpired() ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE).build());
+            } else if (result.isDone()) {
+                limiter.release();
+            } else {
+                try {
+                    executeOnHost(application, deadline, permit, call, limiter, result);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Sends the request that has room on the application, completing the result with the response.
+     */
+    private void executeOnHost(
+        Application application,
+        Deadline deadline,
+        RateLimiters.Permit permit,
+        Function<String, CompletableFuture<ResponseEntity<?>>> call,
+        ConcurrencyLimiter limiter,
+        CompletableFuture<ResponseEntity<?>> result) {
+
+        UpstreamHost host;
+
+        try {
+            host = hostSelector.select(application);
+        } catch (RuntimeException e) {
+            // the application was undeployed while the request waited for room.
+            limiter.release();
+            throw e;
+        }
+
+        if (host == null) {
+            limiter.release();
+            permit.release();
+            long retryAfter = TimeUnit.MILLISECONDS.toSeconds(hostSelector.getRetryAfter(application) + 999);
+            result.complete(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter)))
+                .build());
+            return;
+        }
+
+        CircuitBreaker circuitBreaker = host.getCircuitBreaker();
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        CompletableFuture<ResponseEntity<?>> attempt;
+
+        host.acquire();
+        permit.sent();
+
+        try {
+            attempt = call.apply(host.getAddress());
+        } catch (RuntimeException e) {
+            host.release();
+            circuitBreaker.release();
+            limiter.release();
+            throw e;
+        }
+
+        // the attempt cancelled, as the one that loses a hedge, is aborted and its outcome is not counted.
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                attempt.cancel(true);
+            }
+        });
+
+        attempt.handle((response, throwable) -> {
+            if (throwable == null) {
+                return response;
+            }
+
+            if (deadline.isExpired()) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+
+            throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+        }).whenComplete((response, throwable) -> {
+            host.release();
+
+            if (result.isCancelled()) {
+                circuitBreaker.release();
+                limiter.release();
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            boolean failed = throwable != null || response.getStatusCode().is5xxServerError();
+            boolean dropped = throwable != null || response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE
+                || response.getStatusCode() == HttpStatus.GATEWAY_TIMEOUT;
+
+            circuitBreaker.onComplete(failed, now - start, now);
+            limiter.onComplete(System.nanoTime() - startNanos, dropped);
+            healthCheckScheduler.onProxyOutcome(application.getId(), failed);
+
+            if (throwable == null) {
+                result.complete(response);
+            } else {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    /**
+     * Runs a blocking call to the application on the upstream executor, that is the request thread unless the
+     * server runs with virtual threads. Everything from the servlet request must be read before. Cancelling the
+     * future aborts the request to the application, and a streamed body that arrives after is released, as nothing
+     * will write it.
+     */
+    private CompletableFuture<ResponseEntity<?>> executeOnUpstreamExecutor(UpstreamCall call) {
+        CompletableFuture<ResponseEntity<?>> future = new CompletableFuture<>();
+
+        upstreamExecutor.execute(() -> {
+            try {
+                ResponseEntity<?> response = call.execute(upstreamRequest -> future.whenComplete((value, throwable) -> {
+                    if (future.isCancelled()) {
+                        upstreamRequest.abort();
+                    }
+                }));
+
+                if (!future.complete(response)) {
+                    StreamingBodyDiscardInterceptor.discard(response);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Sends the request with the non blocking client, releasing the container thread until the application responds.
+     */
+    private CompletableFuture<ResponseEntity<?>> executeAsync(
+        Application application,
+        String uri,
+        HttpMethod method,
+        HttpHeaders httpHeaders,
+        Timeouts timeouts,
+        Deadline deadline,
+        String body) {
+
+        RequestBuilder builder = requestBuilder(uri, method, httpHeaders, timeouts, deadline);
+
+        if (body != null) {
+            MediaType contentType = httpHeaders.getContentType();
+            builder.setEntity(new StringEntity(body, contentType == null ? ContentType.APPLICATION_JSON : ContentType.parse(contentType.toString())));
         }
+
+        CompletableFuture<org.apache.http.HttpResponse> future = request.executeAsync(application, builder.build());
+        ScheduledFuture<?> timer = deadlineTimer.onExpired(deadline, () -> future.cancel(true));
+        CompletableFuture<ResponseEntity<?>> response = future.whenComplete((value, throwable) -> timer.cancel(false)).thenApply(this::toResponseEntity);
+
+        response.whenComplete((value, throwable) -> {
+            if (response.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+
+        return response;
     }
 
-    private ResponseEntity<String> executeGet(String uri, Map<String, String> httpHeaders) throws UnirestException {
-        HttpResponse<JsonNode> get = request.get(uri).headers(httpHeaders).asJson();
-        HttpStatus getStatus = HttpStatus.valueOf(get.getStatus());
+    private ResponseEntity<?> toResponseEntity(org.apache.http.HttpResponse response) {
+        HttpStatus status = HttpStatus.valueOf(response.getStatusLine().getStatusCode());
 
-        if (getStatus == HttpStatus.NOT_FOUND) {
+        if (status == HttpStatus.NOT_FOUND) {
+            EntityUtils.consumeQuietly(response.getEntity());
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        HttpHeaders headers = new HttpHeaders();
+        try {
+            String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            return new ResponseEntity<>(body, responseHeaders(response), status);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        get.getHeaders().forEach(headers::put);
+    /**
+     * Sends the client body to the application and the application body to the client as they are read.
+     */
+    private ResponseEntity<?> executeStreaming(
+        Application application,
+        String uri,
+        HttpMethod method,
+        HttpHeaders httpHeaders,
+        Timeouts timeouts,
+        Deadline deadline,
+        InputStream input,
+        long contentLength,
+        Consumer<HttpUriRequest> onRequest) throws IOException {
+
+        RequestBuilder builder = requestBuilder(uri, method, httpHeaders, timeouts, deadline);
+
+        if (input != null) {
+            builder.setEntity(new PooledInputStreamEntity(input, contentLength, bufferPool));
+        }
 
-        return new ResponseEntity<>(get.getBody().toString(), headers, getStatus);
+        // the deadline covers until the application responds, the body is streamed while the client reads it.
+        HttpUriRequest upstreamRequest = builder.build();
+        ScheduledFuture<?> timer = deadlineTimer.onExpired(deadline, upstreamRequest::abort);
+        org.apache.http.HttpResponse response;
+
+        onRequest.accept(upstreamRequest);
+
+        try {
+            response = request.execute(application, upstreamRequest);
+        } finally {
+            timer.cancel(false);
+        }
+        HttpHeaders headers = responseHeaders(response);
+        HttpStatus status = HttpStatus.valueOf(response.getStatusLine().getStatusCode());
+
+        if (response.getEntity() == null) {
+            return new ResponseEntity<>(headers, status);
+        }
+
+        return new ResponseEntity<>(new StreamingBody(upstreamRequest, response.getEntity(), bufferPool), headers, status);
     }
 
-    private ResponseEntity<String> executePost(String uri, Map<String, String> httpHeaders, String body) throws UnirestException {
-        return executeRequest(body, request.post(uri).headers(httpHeaders));
+    /**
+     * Creates the request to the application with the timeouts limited by the deadline, that is sent to the
+     * application as the milliseconds remaining.
+     */
+    private RequestBuilder requestBuilder(String uri, HttpMethod method, HttpHeaders httpHeaders, Timeouts timeouts, Deadline deadline) {
+        RequestBuilder builder = RequestBuilder.create(method.name()).setUri(uri);
+        // zero is an infinite timeout for the client.
+        int remaining = (int) Math.max(1, Math.min(Integer.MAX_VALUE, deadline.remaining()));
+
+        httpHeaders.forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        builder.setHeader(Deadline.HEADER, String.valueOf(remaining));
+        builder.setConfig(RequestConfig.custom()
+            .setConnectTimeout((int) Math.min(remaining, timeouts.getConnect()))
+            .setConnectionRequestTimeout(remaining)
+            .setSocketTimeout((int) Math.min(remaining, timeouts.getRead()))
+            .build());
+
+        return builder;
     }
 
-    private ResponseEntity<String> executePut(String uri, Map<String, String> httpHeaders, String body) throws UnirestException {
-        return executeRequest(body, request.put(uri).headers(httpHeaders));
+    private HttpHeaders responseHeaders(org.apache.http.HttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+
+        for (Header header : response.getAllHeaders()) {
+            if (!IGNORE_HEADERS.contains(header.getName())) {
+                headers.add(header.getName(), header.getValue());
+            }
+        }
+
+        return headers;
     }
 
-    private ResponseEntity<String> executePatch(String uri, Map<String, String> httpHeaders, String body) throws UnirestException {
-        return executeRequest(body, request.patch(uri).headers(httpHeaders));
+    /**
+     * Reads the client body as text, as the application only receives json when buffered.
+     *
+     * @return the body or {@code null} when the request has no body.
+     */
+    private String readBody() throws IOException {
+        if (!hasBody()) {
+            return null;
+        }
+
+        String encoding = httpServletRequest.getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        String body = StreamUtils.copyToString(httpServletRequest.getInputStream(), charset);
+
+        return body.isEmpty() ? null : body;
     }
 
-    private ResponseEntity<String> executeDelete(String uri, Map<String, String> httpHeaders, String body) throws UnirestException {
-        return executeRequest(body, request.delete(uri).headers(httpHeaders));
+    private boolean hasBody() {
+        return httpServletRequest.getContentLengthLong() > 0 || httpServletRequest.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
     }
 
-    private ResponseEntity<String> executeRequest(String body, HttpRequestWithBody request) throws UnirestException {
+    /**
+     * Sends the client body as json and reads the application body as json.
+     */
+    private ResponseEntity<String> execute(
+        Application application,
+        String uri,
+        HttpMethod method,
+        HttpHeaders httpHeaders,
+        Timeouts timeouts,
+        Deadline deadline,
+        String body,
+        Consumer<HttpUriRequest> onRequest) throws IOException {
+
+        RequestBuilder builder = requestBuilder(uri, method, httpHeaders, timeouts, deadline);
+
         if (body != null) {
-            request.body(new JsonNode(body));
+            builder.setEntity(new StringEntity(new JsonNode(body).toString(), ContentType.APPLICATION_JSON));
         }
 
-        HttpResponse<JsonNode> post = request.asJson();
-        HttpStatus postStatus = HttpStatus.valueOf(post.getStatus());
+        HttpUriRequest upstreamRequest = builder.build();
+        ScheduledFuture<?> timer = deadlineTimer.onExpired(deadline, upstreamRequest::abort);
+
+        onRequest.accept(upstreamRequest);
 
-        return executeOptionalBody(postStatus, post);
+        try {
+            return execute(application, method, upstreamRequest);
+        } finally {
+            timer.cancel(false);
+        }
     }
 
-    private ResponseEntity<String> executeOptionalBody(HttpStatus status, HttpResponse<JsonNode> response) {
+    private ResponseEntity<String> execute(Application application, HttpMethod method, HttpUriRequest upstreamRequest) throws IOException {
+        org.apache.http.HttpResponse response = request.execute(application, upstreamRequest);
+        HttpStatus status = HttpStatus.valueOf(response.getStatusLine().getStatusCode());
+
         if (status == HttpStatus.NOT_FOUND) {
+            EntityUtils.consumeQuietly(response.getEntity());
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        HttpHeaders headers = new HttpHeaders();
-        JsonNode jsonBody = response.getBody();
-
-        response.getHeaders().forEach(headers::put);
+        String text = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+        String json = new JsonNode(text).toString();
 
-        if (jsonBody.toString().equals("{}")) {
-            return new ResponseEntity<>("", headers, status);
+        if (method != HttpMethod.GET && json.equals("{}")) {
+            return new ResponseEntity<>("", responseHeaders(response), status);
         }
 
-        return new ResponseEntity<>(jsonBody.toString(), headers, status);
+        return new ResponseEntity<>(json, responseHeaders(response), status);
+    }
+
+    @FunctionalInterface
+    private interface UpstreamCall {
+
+        /**
+         * @param onRequest receives the request sent to the application, to abort it when the call is cancelled.
+         */
+        ResponseEntity<?> execute(Consumer<HttpUriRequest> onRequest) throws Exception;
+    }
+
+    private static Set<String> caseInsensitiveSet(String... values) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(Arrays.asList(values));
+        return set;
     }
 }
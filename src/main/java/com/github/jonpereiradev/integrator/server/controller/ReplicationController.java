@@ -0,0 +1,99 @@
+package com.github.jonpereiradev.integrator.server.controller;
+
+import com.github.jonpereiradev.integrator.server.service.RegistryReplicator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Receives the changes of the applications from the peers, not found when the replication is disabled. The messages
+ * are read as they were signed, and rejected when not signed by a peer node with the replication secret.
+ *
+ * @author Jonathan Pereira
+ */
+@RestController
+@RequestMapping(path = "/replication", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReplicationController {
+
+    private final RegistryReplicator registryReplicator;
+
+    @Autowired
+    public ReplicationController(RegistryReplicator registryReplicator) {
+        this.registryReplicator = registryReplicator;
+    }
+
+    /**
+     * Applies the changes made on a peer.
+     *
+     * @param node the peer that sent the changes.
+     * @param signature the signature of the changes by the peer.
+     * @param changes the changes of the applications.
+     */
+    @PostMapping(path = "/entries")
+    public ResponseEntity<Void> receive(
+        @RequestHeader(name = RegistryReplicator.NODE_HEADER, required = false) String node,
+        @RequestHeader(name = RegistryReplicator.SIGNATURE_HEADER, required = false) String signature,
+        @RequestBody String changes
+    ) {
+        if (!registryReplicator.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (!registryReplicator.isAuthorized(node, RegistryReplicator.ENTRIES_MESSAGE, changes, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            registryReplicator.receive(changes);
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Get the changes that a peer doesn't know.
+     *
+     * @param node the peer that asks for the changes.
+     * @param signature the signature of the digest by the peer.
+     * @param digest the version of each application known by the peer.
+     * @return the changes after or concurrent to the versions of the peer, signed by this server.
+     */
+    @PostMapping(path = "/digest")
+    public ResponseEntity<String> digest(
+        @RequestHeader(name = RegistryReplicator.NODE_HEADER, required = false) String node,
+        @RequestHeader(name = RegistryReplicator.SIGNATURE_HEADER, required = false) String signature,
+        @RequestBody String digest
+    ) {
+        if (!registryReplicator.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (!registryReplicator.isAuthorized(node, RegistryReplicator.DIGEST_MESSAGE, digest, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String changes;
+
+        try {
+            changes = registryReplicator.findChanges(digest);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .header(RegistryReplicator.NODE_HEADER, registryReplicator.getNodeId())
+            .header(RegistryReplicator.SIGNATURE_HEADER, registryReplicator.sign(RegistryReplicator.CHANGES_MESSAGE, changes))
+            .body(changes);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.jonpereiradev.integrator.server.event;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+
+/**
+ * Published by the integrator server after an application is deployed.
+ *
+ * @author Jonathan Pereira
+ */
+public class ApplicationDeployedEvent {
+
+    private final Application application;
+
+    public ApplicationDeployedEvent(Application application) {
+        this.application = application;
+    }
+
+    public Application getApplication() {
+        return application;
+    }
+}
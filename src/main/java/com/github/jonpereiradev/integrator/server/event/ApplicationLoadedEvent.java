@@ -0,0 +1,22 @@
+package com.github.jonpereiradev.integrator.server.event;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+
+/**
+ * Published by the integrator server for each application loaded from the registry on the start, before the requests
+ * are accepted, as these applications were deployed before the server started.
+ *
+ * @author Jonathan Pereira
+ */
+public class ApplicationLoadedEvent {
+
+    private final Application application;
+
+    public ApplicationLoadedEvent(Application application) {
+        this.application = application;
+    }
+
+    public Application getApplication() {
+        return application;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.jonpereiradev.integrator.server.event;
+
+/**
+ * Published by the integrator server after an application is removed.
+ *
+ * @author Jonathan Pereira
+ */
+public class ApplicationUndeployedEvent {
+
+    private final String applicationId;
+
+    public ApplicationUndeployedEvent(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+}
@@ -1,22 +1,39 @@
 package com.github.jonpereiradev.integrator.server.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
+import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "APPLICATIONS")
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class Application implements Serializable {
 
+    private static final String HOST_PATTERN = "(http:\\/\\/|https:\\/\\/)+([\\w\\.\\d]+)+\\:?(\\d{0,5}).*";
+
     @Id
     @NotNull
     @Size(min = 1, max = 10)
@@ -40,10 +57,47 @@ public class Application implements Serializable {
 
     @NotNull
     @Size(min = 1, max = 200)
-    @Pattern(regexp = "(http:\\/\\/|https:\\/\\/)+([\\w\\.\\d]+)+\\:?(\\d{0,5}).*")
+    @Pattern(regexp = HOST_PATTERN)
     @Column(name = "NO_HOST", columnDefinition = "VARCHAR2(200)", nullable = false, length = 200)
     private String host;
 
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "APPLICATION_HOSTS", joinColumns = @JoinColumn(name = "ID_APPLICATION"))
+    @Column(name = "NO_HOST", columnDefinition = "VARCHAR2(200)", nullable = false, length = 200)
+    private List<@NotNull @Size(min = 1, max = 200) @Pattern(regexp = HOST_PATTERN) String> hosts = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TP_PROTOCOL", columnDefinition = "VARCHAR2(10)", length = 10)
+    private UpstreamProtocol protocol = UpstreamProtocol.HTTP_1_1;
+
+    @Valid
+    @Embedded
+    private ConnectionPool pool = new ConnectionPool();
+
+    @Valid
+    @Embedded
+    private Timeouts timeouts = new Timeouts();
+
+    @Valid
+    @Embedded
+    private RateLimit rateLimit;
+
+    @Valid
+    @Embedded
+    @AttributeOverrides({
+        @AttributeOverride(name = "rate", column = @Column(name = "NR_SUBJECT_RATE_LIMIT", columnDefinition = "NUMBER(12,3)")),
+        @AttributeOverride(name = "burst", column = @Column(name = "QT_SUBJECT_RATE_LIMIT_BURST", columnDefinition = "NUMBER(9,0)"))
+    })
+    private RateLimit subjectRateLimit;
+
+    /**
+     * Stored in plain text on the database, the registry snapshot and the event log, as the server signs the proxy
+     * authorizations with it. The access to them must be restricted as to the secret itself.
+     */
+    @JsonIgnore
+    @Column(name = "DS_SECRET", columnDefinition = "VARCHAR2(200)", length = 200)
+    private String secret;
+
     public String getId() {
         return id;
     }
@@ -84,4 +138,90 @@ public class Application implements Serializable {
         this.host = host;
     }
 
+    /**
+     * @return the other hosts of the application, that receive requests with the main host.
+     */
+    public List<String> getHosts() {
+        return hosts;
+    }
+
+    public void setHosts(List<String> hosts) {
+        this.hosts = hosts;
+    }
+
+    /**
+     * @return the main host followed by the other hosts, without repeating them.
+     */
+    @JsonIgnore
+    public List<String> getAllHosts() {
+        Set<String> allHosts = new LinkedHashSet<>();
+
+        allHosts.add(host);
+
+        if (hosts != null) {
+            allHosts.addAll(hosts);
+        }
+
+        return new ArrayList<>(allHosts);
+    }
+
+    public UpstreamProtocol getProtocol() {
+        return protocol == null ? UpstreamProtocol.HTTP_1_1 : protocol;
+    }
+
+    public void setProtocol(UpstreamProtocol protocol) {
+        this.protocol = protocol;
+    }
+
+    public ConnectionPool getPool() {
+        // hibernate sets null when all the columns are empty, as the applications deployed before the pool settings.
+        return pool == null ? new ConnectionPool() : pool;
+    }
+
+    public void setPool(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public Timeouts getTimeouts() {
+        return timeouts == null ? new Timeouts() : timeouts;
+    }
+
+    public void setTimeouts(Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @return the limit of requests to the application from all clients or {@code null} when there is no limit.
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * @return the limit of requests to the application from each subject of the proxy authorization.
+     */
+    public RateLimit getSubjectRateLimit() {
+        return subjectRateLimit;
+    }
+
+    public void setSubjectRateLimit(RateLimit subjectRateLimit) {
+        this.subjectRateLimit = subjectRateLimit;
+    }
+
+
+    /**
+     * @return the secret that signs the proxy authorization of the application, never serialized as JSON but stored
+     * in plain text.
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
 }
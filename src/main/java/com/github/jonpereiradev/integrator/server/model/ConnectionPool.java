@@ -0,0 +1,67 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * Limits of the connection pool that the server keeps with an application.
+ *
+ * @author Jonathan Pereira
+ */
+@Embeddable
+public class ConnectionPool implements Serializable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final long DEFAULT_KEEP_ALIVE = 30_000;
+    public static final long DEFAULT_IDLE_TIMEOUT = 60_000;
+
+    @Min(1)
+    @Max(10000)
+    @Column(name = "QT_POOL_MAX_CONNECTIONS", columnDefinition = "NUMBER(5,0)")
+    private Integer maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    // the client keeps forever the connections with a keep alive of zero.
+    @Min(1)
+    @Column(name = "NR_POOL_KEEP_ALIVE", columnDefinition = "NUMBER(12,0)")
+    private Long keepAlive = DEFAULT_KEEP_ALIVE;
+
+    @Min(0)
+    @Column(name = "NR_POOL_IDLE_TIMEOUT", columnDefinition = "NUMBER(12,0)")
+    private Long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    /**
+     * @return max number of connections opened with the application.
+     */
+    public int getMaxConnections() {
+        return maxConnections == null ? DEFAULT_MAX_CONNECTIONS : maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * @return max time in milliseconds that a connection is reused when the application don't say it.
+     */
+    public long getKeepAlive() {
+        return keepAlive == null ? DEFAULT_KEEP_ALIVE : keepAlive;
+    }
+
+    public void setKeepAlive(Long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * @return time in milliseconds that an unused connection stays opened.
+     */
+    public long getIdleTimeout() {
+        return idleTimeout == null ? DEFAULT_IDLE_TIMEOUT : idleTimeout;
+    }
+
+    public void setIdleTimeout(Long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of a listing with the cursor of the next page, read after the last item of this one.
+ *
+ * @author Jonathan Pereira
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private List<T> items = new ArrayList<>();
+    private String next;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * @return the cursor of the next page or {@code null} when this is the last page.
+     */
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+/**
+ * The class of a resource when the server is overloaded, the requests of the lower classes are dropped first.
+ *
+ * @author Jonathan Pereira
+ */
+public enum Priority {
+
+    /**
+     * Keeps waiting for the server while the other classes are dropped.
+     */
+    CRITICAL,
+
+    /**
+     * Waits shortly for the server when it is overloaded.
+     */
+    NORMAL,
+
+    /**
+     * Dropped at once when the server is overloaded.
+     */
+    BEST_EFFORT
+}
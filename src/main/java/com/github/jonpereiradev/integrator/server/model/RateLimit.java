@@ -0,0 +1,54 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * Limit of requests accepted by the proxy, as a sustained rate with room for a burst above it.
+ *
+ * @author Jonathan Pereira
+ */
+@Embeddable
+public class RateLimit implements Serializable {
+
+    @DecimalMin(value = "0", inclusive = false)
+    @Column(name = "NR_RATE_LIMIT", columnDefinition = "NUMBER(12,3)")
+    private Double rate;
+
+    @Min(1)
+    @Column(name = "QT_RATE_LIMIT_BURST", columnDefinition = "NUMBER(9,0)")
+    private Integer burst;
+
+    public RateLimit() {
+    }
+
+    public RateLimit(Double rate, Integer burst) {
+        this.rate = rate;
+        this.burst = burst;
+    }
+
+    /**
+     * @return requests per second accepted or {@code null} when there is no limit.
+     */
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+
+    /**
+     * @return requests accepted at once above the rate, at least one.
+     */
+    public int getBurst() {
+        return burst == null ? 1 : burst;
+    }
+
+    public void setBurst(Integer burst) {
+        this.burst = burst;
+    }
+}
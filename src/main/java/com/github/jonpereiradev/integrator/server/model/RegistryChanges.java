@@ -0,0 +1,100 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The applications changed since a revision of the registry, with the revision they are at.
+ *
+ * @author Jonathan Pereira
+ */
+public class RegistryChanges {
+
+    private long revision;
+    private boolean reset;
+    private List<Change> changes = new ArrayList<>();
+
+    public RegistryChanges() {
+    }
+
+    public RegistryChanges(long revision, boolean reset) {
+        this.revision = revision;
+        this.reset = reset;
+    }
+
+    /**
+     * @return the revision of the registry to watch the next changes from.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    /**
+     * @return {@code true} if the changes are all the applications deployed, replacing the ones known.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * An application deployed with its resources, or undeployed when there is no application.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Change {
+
+        private String applicationId;
+        private Application application;
+        private List<Resource> resources;
+
+        public Change() {
+        }
+
+        public Change(String applicationId, Application application, List<Resource> resources) {
+            this.applicationId = applicationId;
+            this.application = application;
+            this.resources = resources;
+        }
+
+        public String getApplicationId() {
+            return applicationId;
+        }
+
+        public void setApplicationId(String applicationId) {
+            this.applicationId = applicationId;
+        }
+
+        public Application getApplication() {
+            return application;
+        }
+
+        public void setApplication(Application application) {
+            this.application = application;
+        }
+
+        public List<Resource> getResources() {
+            return resources;
+        }
+
+        public void setResources(List<Resource> resources) {
+            this.resources = resources;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The last change of an application replicated between the servers, the deploy with its resources or the undeploy
+ * when there is no application.
+ *
+ * @author Jonathan Pereira
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplicationEntry {
+
+    private String applicationId;
+    private ApplicationRequest application;
+    private VersionVector version = VersionVector.empty();
+    private long timestamp;
+    private String node;
+    private String secret;
+
+    public ReplicationEntry() {
+    }
+
+    public ReplicationEntry(String applicationId, ApplicationRequest application, VersionVector version, long timestamp, String node) {
+        this.applicationId = applicationId;
+        this.application = application;
+        this.version = version;
+        this.timestamp = timestamp;
+        this.node = node;
+    }
+
+    /**
+     * @param version the version that replaces the one of the entry.
+     * @return a copy of the entry with the version.
+     */
+    public ReplicationEntry withVersion(VersionVector version) {
+        return new ReplicationEntry(applicationId, application, version, timestamp, node);
+    }
+
+    /**
+     * Chooses the same entry on all the servers between two concurrent changes, the last one written.
+     *
+     * @param other the concurrent change of the application.
+     * @return {@code true} if this entry wins over the other.
+     */
+    public boolean wins(ReplicationEntry other) {
+        return timestamp != other.timestamp ? timestamp > other.timestamp : node.compareTo(other.node) > 0;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    /**
+     * @return the application deployed with the resources, or {@code null} if it was undeployed. The secret is set
+     * only when the entry is on a server, it is sent encrypted apart from the application.
+     */
+    public ApplicationRequest getApplication() {
+        return application;
+    }
+
+    public void setApplication(ApplicationRequest application) {
+        this.application = application;
+    }
+
+    @JsonIgnore
+    public boolean isUndeployed() {
+        return application == null;
+    }
+
+    public VersionVector getVersion() {
+        return version;
+    }
+
+    public void setVersion(VersionVector version) {
+        this.version = version;
+    }
+
+    /**
+     * @return the time in milliseconds of the change on the server that made it.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the server that made the change.
+     */
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    /**
+     * @return the secret of the application encrypted with the replication secret, set only when sent to a server.
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+}
@@ -2,28 +2,42 @@ package com.github.jonpereiradev.integrator.server.model;
 
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpMethod;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
+import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.io.Serializable;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 @Entity
 @Table(name = "RESOURCES", uniqueConstraints = @UniqueConstraint(name = "RESOURCES_UQ_IDENTIFIER", columnNames = "NO_RESOURCE"))
-@SequenceGenerator(name = "SQ_SERVER_RESOURCES", sequenceName = "SQ_SERVER_RESOURCES", allocationSize = 1)
+@SequenceGenerator(name = Resource.SEQUENCE, sequenceName = Resource.SEQUENCE, allocationSize = Resource.SEQUENCE_ALLOCATION_SIZE)
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class Resource implements Serializable {
 
+    public static final String SEQUENCE = "SQ_SERVER_RESOURCES";
+    public static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SQ_SERVER_RESOURCES")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
     @Column(name = "ID_RESOURCE", columnDefinition = "NUMBER(12,0)", nullable = false, scale = 12)
     private Long id;
 
@@ -40,6 +54,27 @@ public class Resource implements Serializable {
     @Column(name = "ID_APPLICATION", columnDefinition = "VARCHAR2(10)", nullable = false, scale = 10)
     private String application;
 
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "RESOURCE_METHODS", joinColumns = @JoinColumn(name = "ID_RESOURCE"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TP_METHOD", columnDefinition = "VARCHAR2(7)", nullable = false, length = 7)
+    private Set<@NotNull HttpMethod> methods = new LinkedHashSet<>();
+
+    @Column(name = "FL_COALESCE", columnDefinition = "BOOLEAN")
+    private Boolean coalesce;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "TP_PRIORITY", columnDefinition = "VARCHAR2(11)", length = 11)
+    private Priority priority;
+
+    @Valid
+    @Embedded
+    private Timeouts timeouts;
+
+    @Valid
+    @Embedded
+    private RateLimit rateLimit;
+
     public boolean matches(String resource) {
         if (path.equals(resource)) {
             return true;
@@ -85,6 +120,10 @@ public class Resource implements Serializable {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public String getIdentifier() {
         return identifier;
     }
@@ -108,4 +147,59 @@ public class Resource implements Serializable {
     public void setApplication(String application) {
         this.application = application;
     }
+
+    /**
+     * @return the methods accepted by the resource, all of them when empty.
+     */
+    public Set<HttpMethod> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(Set<HttpMethod> methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * @return {@code true} if identical concurrent GET requests share one request to the application.
+     */
+    public boolean isCoalesce() {
+        return Boolean.TRUE.equals(coalesce);
+    }
+
+    public void setCoalesce(Boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    /**
+     * @return the class of the resource when the server is overloaded, {@link Priority#NORMAL} when not declared.
+     */
+    public Priority getPriority() {
+        return priority == null ? Priority.NORMAL : priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return the time limits of the resource or {@code null} to use the ones of the application.
+     */
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Timeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @return the limit of requests to the resource or {@code null} when there is no limit.
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
 }
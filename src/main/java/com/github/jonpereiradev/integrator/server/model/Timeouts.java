@@ -0,0 +1,102 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * Time limits of the requests sent to an application. The ones declared by a resource take the place of the ones
+ * declared by its application, and the ones declared by none of them use the defaults.
+ *
+ * @author Jonathan Pereira
+ */
+@Embeddable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Timeouts implements Serializable {
+
+    public static final long DEFAULT_CONNECT = 10_000;
+    public static final long DEFAULT_READ = 60_000;
+    public static final long DEFAULT_DEADLINE = 60_000;
+
+    @Min(1)
+    @Column(name = "NR_TIMEOUT_CONNECT", columnDefinition = "NUMBER(12,0)")
+    private Long connect;
+
+    @Min(1)
+    @Column(name = "NR_TIMEOUT_READ", columnDefinition = "NUMBER(12,0)")
+    private Long read;
+
+    @Min(1)
+    @Column(name = "NR_TIMEOUT_DEADLINE", columnDefinition = "NUMBER(12,0)")
+    private Long deadline;
+
+    public Timeouts() {
+    }
+
+    public Timeouts(Long connect, Long read, Long deadline) {
+        this.connect = connect;
+        this.read = read;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Resolves the time limits of a request to the resource of an application.
+     *
+     * @param application the application that receives the request.
+     * @param resource the resource requested, that may declare its own time limits, or {@code null}.
+     * @return the time limits with all values set.
+     */
+    public static Timeouts of(Application application, Resource resource) {
+        Timeouts applicationTimeouts = application.getTimeouts();
+        Timeouts resourceTimeouts = resource == null || resource.getTimeouts() == null ? new Timeouts() : resource.getTimeouts();
+
+        return new Timeouts(
+            first(resourceTimeouts.connect, applicationTimeouts.connect, DEFAULT_CONNECT),
+            first(resourceTimeouts.read, applicationTimeouts.read, DEFAULT_READ),
+            first(resourceTimeouts.deadline, applicationTimeouts.deadline, DEFAULT_DEADLINE));
+    }
+
+    /**
+     * @return max time in milliseconds to open a connection with the application.
+     */
+    public Long getConnect() {
+        return connect;
+    }
+
+    public void setConnect(Long connect) {
+        this.connect = connect;
+    }
+
+    /**
+     * @return max time in milliseconds waiting for data from the application.
+     */
+    public Long getRead() {
+        return read;
+    }
+
+    public void setRead(Long read) {
+        this.read = read;
+    }
+
+    /**
+     * @return max time in milliseconds of the whole request, including the retries.
+     */
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
+    private static Long first(Long value, Long fallback, long defaultValue) {
+        if (value != null) {
+            return value;
+        }
+
+        return fallback == null ? defaultValue : fallback;
+    }
+}
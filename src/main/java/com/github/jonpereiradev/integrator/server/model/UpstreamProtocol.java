@@ -0,0 +1,20 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+/**
+ * The protocol used by the server to send the requests to an application.
+ *
+ * @author Jonathan Pereira
+ */
+public enum UpstreamProtocol {
+
+    /**
+     * One request at time for each connection.
+     */
+    HTTP_1_1,
+
+    /**
+     * Concurrent requests multiplexed on the same connection. Negotiated with ALPN for https hosts, falling back to
+     * HTTP/1.1, and sent with prior knowledge (h2c) for http hosts, falling back to HTTP/1.1 when refused.
+     */
+    HTTP_2
+}
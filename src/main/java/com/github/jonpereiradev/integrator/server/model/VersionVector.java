@@ -0,0 +1,106 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The changes of an application seen from each server, a counter by server. A version happened before another when
+ * none of its counters is greater, and the two are concurrent when each one has a greater counter.
+ *
+ * @author Jonathan Pereira
+ */
+public final class VersionVector {
+
+    private static final VersionVector EMPTY = new VersionVector(Collections.emptyMap());
+
+    private final Map<String, Long> counters;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public VersionVector(Map<String, Long> counters) {
+        this.counters = Collections.unmodifiableMap(new TreeMap<>(counters));
+    }
+
+    public static VersionVector empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param node the server that changed the application.
+     * @return a new version with the counter of the server incremented.
+     */
+    public VersionVector increment(String node) {
+        Map<String, Long> incremented = new TreeMap<>(counters);
+        incremented.merge(node, 1L, Long::sum);
+        return new VersionVector(incremented);
+    }
+
+    /**
+     * @param other the version of the same application on another server.
+     * @return a new version with the greatest counter of each server.
+     */
+    public VersionVector merge(VersionVector other) {
+        Map<String, Long> merged = new TreeMap<>(counters);
+        other.counters.forEach((node, counter) -> merged.merge(node, counter, Math::max));
+        return new VersionVector(merged);
+    }
+
+    /**
+     * @param other the version of the same application on another server.
+     * @return how this version is ordered in relation to the other.
+     */
+    public Order compare(VersionVector other) {
+        Set<String> nodes = new HashSet<>(counters.keySet());
+        boolean before = false;
+        boolean after = false;
+
+        nodes.addAll(other.counters.keySet());
+
+        for (String node : nodes) {
+            long counter = get(node);
+            long otherCounter = other.get(node);
+
+            before |= counter < otherCounter;
+            after |= counter > otherCounter;
+        }
+
+        if (before && after) {
+            return Order.CONCURRENT;
+        }
+
+        return before ? Order.BEFORE : after ? Order.AFTER : Order.EQUAL;
+    }
+
+    public long get(String node) {
+        return counters.getOrDefault(node, 0L);
+    }
+
+    @JsonValue
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof VersionVector && counters.equals(((VersionVector) o).counters);
+    }
+
+    @Override
+    public int hashCode() {
+        return counters.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return counters.toString();
+    }
+
+    public enum Order {
+        BEFORE, AFTER, EQUAL, CONCURRENT
+    }
+}
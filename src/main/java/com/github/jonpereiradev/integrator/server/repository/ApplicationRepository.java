@@ -3,8 +3,11 @@ package com.github.jonpereiradev.integrator.server.repository;
 
 import com.github.jonpereiradev.integrator.server.model.Application;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Application repository for database.
  *
@@ -13,4 +16,6 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ApplicationRepository extends JpaRepository<Application, String> {
 
+    @Query("SELECT a.id FROM Application a")
+    List<String> findAllIds();
 }
@@ -2,8 +2,12 @@ package com.github.jonpereiradev.integrator.server.repository;
 
 
 import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,7 +22,34 @@ public interface ResourceRepository extends JpaRepository<Resource, Long> {
 
     List<Resource> findAllByApplication(String application);
 
+    /**
+     * Reads the resources of the application after an identifier, the page starts on the index of the identifier
+     * instead of skipping the rows of the previous pages.
+     */
+    List<Resource> findByApplicationAndIdGreaterThanOrderByIdAsc(String application, Long id, Pageable pageable);
+
     Optional<Resource> findOneByApplicationAndPath(String application, String path);
 
     Resource findResourceByIdentifierEquals(String identifier);
+
+    @Query("SELECT MAX(r.id) FROM Resource r")
+    Long findMaxId();
+
+    /**
+     * Removes the methods of all the resources of the application with one statement, the element collection is not
+     * removed by the bulk delete of the resources.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}RESOURCE_METHODS WHERE ID_RESOURCE IN "
+        + "(SELECT ID_RESOURCE FROM {h-schema}RESOURCES WHERE ID_APPLICATION = ?1)", nativeQuery = true)
+    int deleteMethodsByApplication(String application);
+
+    /**
+     * Removes all the resources of the application with one statement, without loading them.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Resource r WHERE r.application = ?1")
+    int deleteResourcesByApplication(String application);
 }
@@ -0,0 +1,225 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.AdmissionProperties;
+import com.github.jonpereiradev.integrator.server.model.Priority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits the proxied requests while the server has room for them, the others wait in a queue by priority. The time
+ * the requests wait is measured as in CoDel: when it stays above the target for a whole interval the server is
+ * overloaded, then the best effort requests are dropped at once and the normal ones only wait the target, while the
+ * critical ones keep waiting the interval. The dropped requests are answered fast instead of timing out together.
+ *
+ * <p>No thread waits for the admission, the requests queued are completed by the release of another request or by
+ * a timer when they give up.</p>
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class AdmissionQueue {
+
+    private static final CompletableFuture<Boolean> ADMITTED = CompletableFuture.completedFuture(true);
+    private static final CompletableFuture<Boolean> DROPPED = CompletableFuture.completedFuture(false);
+
+    private final AdmissionProperties properties;
+    private final Map<Priority, Deque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "integrator-admission");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int inFlight;
+    private int queued;
+    private long firstAboveTime;
+    private boolean overloaded;
+
+    @Autowired
+    public AdmissionQueue(AdmissionProperties properties) {
+        this.properties = properties;
+
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            shed.put(priority, new LongAdder());
+        }
+
+        // most requests are admitted before they give up, the cancelled timers must not wait there until then.
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Admits the request when the server has room for it, or queues it until another request is released.
+     *
+     * @param priority the class of the resource requested.
+     * @param maxWait the max time in milliseconds the request waits, as the time remaining to its deadline.
+     * @return completed with {@code true} if the request is admitted, that must be followed by {@link #release}, or
+     * with {@code false} when it is dropped.
+     */
+    public CompletableFuture<Boolean> admit(Priority priority, long maxWait) {
+        if (!properties.isEnabled()) {
+            return ADMITTED;
+        }
+
+        Waiter waiter;
+        long wait;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+
+            if (inFlight < properties.getMaxConcurrent() && queued == 0) {
+                inFlight++;
+                observe(0, now);
+                admitted.increment();
+                return ADMITTED;
+            }
+
+            wait = Math.min(maxWait, !overloaded || priority == Priority.CRITICAL ? properties.getInterval() : properties.getTarget());
+
+            if (wait <= 0 || queued >= properties.getMaxQueue() || (overloaded && priority == Priority.BEST_EFFORT)) {
+                shed.get(priority).increment();
+                return DROPPED;
+            }
+
+            waiter = new Waiter(priority, now);
+            waiter.timeout = scheduler.schedule(() -> giveUp(waiter), wait, TimeUnit.MILLISECONDS);
+            queues.get(priority).addLast(waiter);
+            queued++;
+        }
+
+        delayed.increment();
+        return waiter.result;
+    }
+
+    /**
+     * Gives the room of a finished request to the next one waiting, the critical ones first.
+     */
+    public void release() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Waiter next = null;
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+
+            for (Deque<Waiter> queue : queues.values()) {
+                Waiter waiter;
+
+                while (next == null && (waiter = queue.pollFirst()) != null) {
+                    queued--;
+
+                    if (!waiter.done) {
+                        waiter.done = true;
+                        waiter.timeout.cancel(false);
+                        observe(now - waiter.enqueuedAt, now);
+                        next = waiter;
+                    }
+                }
+            }
+
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+
+        // the room passes to the request admitted, that runs outside of the lock.
+        admitted.increment();
+        next.result.complete(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the requests in flight and waiting, if the server is overloaded and the requests admitted and dropped.
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        Map<String, Long> shedStatistics = new LinkedHashMap<>();
+
+        shed.forEach((priority, counter) -> shedStatistics.put(priority.name().toLowerCase(Locale.ENGLISH), counter.sum()));
+
+        statistics.put("inFlight", inFlight);
+        statistics.put("queued", queued);
+        statistics.put("overloaded", overloaded);
+        statistics.put("admitted", admitted.sum());
+        statistics.put("delayed", delayed.sum());
+        statistics.put("shed", shedStatistics);
+
+        return statistics;
+    }
+
+    /**
+     * Drops the request that waited as long as it could, unless the admission arrived meanwhile.
+     */
+    private void giveUp(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.done) {
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+
+            waiter.done = true;
+            queues.get(waiter.priority).remove(waiter);
+            queued--;
+            observe(now - waiter.enqueuedAt, now);
+        }
+
+        shed.get(waiter.priority).increment();
+        waiter.result.complete(false);
+    }
+
+    /**
+     * Tracks if the time waiting in the queue stays above the target for a whole interval.
+     */
+    private void observe(long sojourn, long now) {
+        if (sojourn < properties.getTarget()) {
+            firstAboveTime = 0;
+            overloaded = false;
+        } else if (firstAboveTime == 0) {
+            firstAboveTime = now + properties.getInterval();
+        } else if (now >= firstAboveTime) {
+            overloaded = true;
+        }
+    }
+
+    /**
+     * A request waiting in the queue, completed with {@code true} when admitted or {@code false} when dropped. It is
+     * done, guarded by the queue, once taken by a release or dropped, so only one of them completes it.
+     */
+    private static class Waiter {
+
+        private final Priority priority;
+        private final long enqueuedAt;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private boolean done;
+        private ScheduledFuture<?> timeout;
+
+        private Waiter(Priority priority, long enqueuedAt) {
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of byte buffers used to copy the proxied bodies without allocating on each request.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    @Autowired
+    public BufferPool(ProxyProperties proxyProperties) {
+        this(proxyProperties.getBufferSize(), proxyProperties.getBufferPoolSize());
+    }
+
+    public BufferPool(int bufferSize, int poolSize) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Takes a buffer from the pool or creates a new one when the pool is empty.
+     *
+     * @return a buffer that must be given back with {@link #release(byte[])}.
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[bufferSize] : buffer;
+    }
+
+    /**
+     * Gives back a buffer to the pool, discarding it when the pool is full.
+     *
+     * @param buffer the buffer acquired from this pool.
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Copies all bytes from the input to the output using one pooled buffer.
+     *
+     * @param input  the source of the bytes.
+     * @param output the destination of the bytes.
+     * @return the number of bytes copied.
+     */
+    public long copy(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = acquire();
+        long count = 0;
+
+        try {
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+                count += read;
+            }
+
+            output.flush();
+        } finally {
+            release(buffer);
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the number of idle buffers in the pool.
+     */
+    public int available() {
+        return buffers.size();
+    }
+}
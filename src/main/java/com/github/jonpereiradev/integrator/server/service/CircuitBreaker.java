@@ -0,0 +1,209 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CircuitBreakerProperties;
+
+/**
+ * Stops sending requests to a host while it keeps failing or responding slowly. The outcomes are counted on a window
+ * of time split in buckets, when the failures or the slow requests pass the limit the circuit opens and the host is
+ * ejected. After a while a few probe requests are let through, closing the circuit again when all of them succeed.
+ * While the circuit is closed, a request is let through reading the volatile state without taking the lock, so the
+ * hosts are chosen without locks in the common case.
+ *
+ * @author Jonathan Pereira
+ */
+public class CircuitBreaker {
+
+    private static final int BUCKETS = 10;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerProperties properties;
+    private final long[] epochs = new long[BUCKETS];
+    private final int[] requests = new int[BUCKETS];
+    private final int[] failures = new int[BUCKETS];
+    private final int[] slowCalls = new int[BUCKETS];
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int probes;
+    private int succeededProbes;
+
+    public CircuitBreaker(CircuitBreakerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param now the current time in milliseconds.
+     * @return {@code true} if a request may be sent, that must be followed by {@link #onComplete} or {@link #release}.
+     */
+    public boolean tryAcquire(long now) {
+        if (!properties.isEnabled() || state == State.CLOSED) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (!isAvailable(now)) {
+                return false;
+            }
+
+            if (state == State.OPEN) {
+                state = State.HALF_OPEN;
+                probes = 0;
+                succeededProbes = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                probes++;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * @param now the current time in milliseconds.
+     * @return {@code true} if a request would be accepted, without taking a probe.
+     */
+    public boolean isAvailable(long now) {
+        State current = state;
+
+        if (!properties.isEnabled() || current == State.CLOSED) {
+            return true;
+        }
+
+        if (current == State.OPEN) {
+            return now - openedAt >= properties.getOpenDuration();
+        }
+
+        synchronized (this) {
+            // the circuit may have changed since the state was read.
+            switch (state) {
+                case OPEN:
+                    return now - openedAt >= properties.getOpenDuration();
+                case HALF_OPEN:
+                    return probes < properties.getHalfOpenRequests();
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a request acquired that was never sent.
+     */
+    public void release() {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+
+        synchronized (this) {
+            if (state == State.HALF_OPEN && probes > 0) {
+                probes--;
+            }
+        }
+    }
+
+    /**
+     * Counts the outcome of a request sent to the host.
+     *
+     * @param failed {@code true} if the host failed or responded with a server error.
+     * @param duration time in milliseconds that the host took to respond.
+     * @param now the current time in milliseconds.
+     */
+    public synchronized void onComplete(boolean failed, long duration, long now) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        boolean slow = duration >= properties.getSlowCallDuration();
+
+        switch (state) {
+            case HALF_OPEN:
+                if (failed || slow) {
+                    open(now);
+                } else if (++succeededProbes >= properties.getHalfOpenRequests()) {
+                    close();
+                }
+                break;
+            case CLOSED:
+                record(failed, slow, now);
+                break;
+            default:
+                // requests sent before the circuit opened don't change it.
+                break;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @param now the current time in milliseconds.
+     * @return time in milliseconds until the host accepts probe requests, zero if it accepts requests now.
+     */
+    public long getRetryAfter(long now) {
+        if (state != State.OPEN || !properties.isEnabled()) {
+            return 0;
+        }
+
+        return Math.max(0, openedAt + properties.getOpenDuration() - now);
+    }
+
+    private void record(boolean failed, boolean slow, long now) {
+        long bucketSize = Math.max(1, properties.getWindow() / BUCKETS);
+        long epoch = now / bucketSize;
+        int index = (int) (epoch % BUCKETS);
+
+        if (epochs[index] != epoch) {
+            epochs[index] = epoch;
+            requests[index] = 0;
+            failures[index] = 0;
+            slowCalls[index] = 0;
+        }
+
+        requests[index]++;
+        failures[index] += failed ? 1 : 0;
+        slowCalls[index] += slow ? 1 : 0;
+
+        int totalRequests = 0;
+        int totalFailures = 0;
+        int totalSlowCalls = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            if (epoch - epochs[i] < BUCKETS) {
+                totalRequests += requests[i];
+                totalFailures += failures[i];
+                totalSlowCalls += slowCalls[i];
+            }
+        }
+
+        if (totalRequests < properties.getMinimumRequests()) {
+            return;
+        }
+
+        if (totalFailures * 100 >= properties.getFailureRate() * totalRequests
+            || totalSlowCalls * 100 >= properties.getSlowCallRate() * totalRequests) {
+            open(now);
+        }
+    }
+
+    private void open(long now) {
+        // the instant is set before the state, so the readers without the lock that see the circuit open see it too.
+        openedAt = now;
+        state = State.OPEN;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            epochs[i] = 0;
+            requests[i] = 0;
+            failures[i] = 0;
+            slowCalls[i] = 0;
+        }
+    }
+}
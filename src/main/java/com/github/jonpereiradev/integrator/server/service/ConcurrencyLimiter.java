@@ -0,0 +1,236 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.ConcurrencyLimitProperties;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds how many requests in flight an application takes by comparing the last response times with the usual ones.
+ * While they are close the limit grows, when the application starts to queue the requests and the responses take
+ * longer the limit shrinks by the same gradient, so the requests wait on the proxy instead of on the application.
+ * The requests beyond the limit wait in line, without a thread, until a request finishes or they give up.
+ *
+ * @author Jonathan Pereira
+ */
+public class ConcurrencyLimiter {
+
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double BACKOFF = 0.9;
+    private static final CompletableFuture<Boolean> ACQUIRED = CompletableFuture.completedFuture(true);
+    private static final CompletableFuture<Boolean> REJECTED = CompletableFuture.completedFuture(false);
+
+    private final ConcurrencyLimitProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+
+    /**
+     * @param properties the configuration of the limit.
+     * @param initialLimit the requests in flight allowed before the application responds to any request.
+     * @param scheduler drops the requests that waited as long as they could.
+     */
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, int initialLimit, ScheduledExecutorService scheduler) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), initialLimit));
+    }
+
+    /**
+     * Takes the request at once while the application has room, or waits in line until a request finishes.
+     *
+     * @param maxWait the max time in milliseconds to wait, as the time remaining to the deadline of the request.
+     * @return completed with {@code true} when the request may be sent, that must be followed by {@link #onComplete}
+     * or {@link #release}, or with {@code false} when it gave up. Cancelling it gives up the place in line.
+     */
+    public CompletableFuture<Boolean> acquire(long maxWait) {
+        if (waiting.get() == 0 && tryAcquire()) {
+            return ACQUIRED;
+        }
+
+        if (maxWait <= 0) {
+            rejected.increment();
+            return REJECTED;
+        }
+
+        Waiter waiter = new Waiter();
+
+        synchronized (waiters) {
+            waiter.timeout = scheduler.schedule(() -> giveUp(waiter), maxWait, TimeUnit.MILLISECONDS);
+            waiters.addLast(waiter);
+            waiting.incrementAndGet();
+        }
+
+        // a request may have finished before the waiter was in line.
+        drain();
+        return waiter.result;
+    }
+
+    /**
+     * @return {@code true} if the request may be sent, that must be followed by {@link #onComplete} or {@link #release}.
+     */
+    public boolean tryAcquire() {
+        if (!properties.isEnabled()) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= (int) limit) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a request acquired that was never sent.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Updates the limit with the response time of a request sent to the application.
+     *
+     * @param rtt time in nanoseconds that the application took to respond.
+     * @param dropped {@code true} if the request failed or the application was overloaded.
+     */
+    public void onComplete(long rtt, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+
+        if (properties.isEnabled()) {
+            update(rtt, dropped, current);
+        }
+
+        drain();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the requests waiting in line for the application.
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * @return the requests that gave up before the application had room for them.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Gives the room of the application to the requests waiting, in the order they arrived. The one that was
+     * cancelled meanwhile gives the room back to the next.
+     */
+    private void drain() {
+        while (waiting.get() > 0) {
+            Waiter next;
+
+            synchronized (waiters) {
+                if (waiters.isEmpty() || !tryAcquire()) {
+                    return;
+                }
+
+                next = waiters.pollFirst();
+                waiting.decrementAndGet();
+                next.timeout.cancel(false);
+            }
+
+            if (!next.result.complete(true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private void giveUp(Waiter waiter) {
+        synchronized (waiters) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+
+            waiting.decrementAndGet();
+        }
+
+        rejected.increment();
+        waiter.result.complete(false);
+    }
+
+    /**
+     * @return the usual response time of the application in nanoseconds.
+     */
+    public synchronized long getRtt() {
+        return (long) longRtt;
+    }
+
+    private synchronized void update(long rtt, boolean dropped, int inFlight) {
+        if (dropped) {
+            apply(limit * BACKOFF);
+            return;
+        }
+
+        if (samples++ == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+
+        shortRtt += (rtt - shortRtt) * SHORT_SMOOTHING;
+        longRtt += (rtt - longRtt) / Math.min(samples, properties.getLongWindow());
+
+        // after a long slowdown the usual time follows the recent one, so the limit is not stuck at the bottom.
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+
+        // the limit only grows while it is used, an idle application says nothing about the load it takes.
+        if (inFlight * 2 < limit) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRtt / shortRtt));
+        apply(limit * gradient + Math.sqrt(limit));
+    }
+
+    private void apply(double newLimit) {
+        double smoothed = limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), smoothed));
+    }
+
+    /**
+     * A request waiting for room on the application.
+     */
+    private static class Waiter {
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private ScheduledFuture<?> timeout;
+    }
+}
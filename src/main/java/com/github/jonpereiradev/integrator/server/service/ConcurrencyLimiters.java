@@ -0,0 +1,105 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.ConcurrencyLimitProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the adaptive concurrency limiter of each application, that starts at the connections of the application
+ * unless an initial limit is declared.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "integrator-concurrency-limit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ConcurrencyLimiters(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        // most requests get room before they give up, the cancelled timers must not wait there until then.
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @param application the application that receives the request.
+     * @return the limiter of the application, where the request waits for room.
+     * @throws IllegalStateException if the application is not deployed anymore, the limiters are only created by the
+     * deploy.
+     */
+    public ConcurrencyLimiter get(Application application) {
+        ConcurrencyLimiter limiter = limiters.get(application.getId());
+
+        if (limiter == null) {
+            throw new IllegalStateException("Application " + application.getId() + " not deployed.");
+        }
+
+        return limiter;
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        // the requests in flight release the previous limiter, a new deploy may point to other hosts.
+        limiters.put(event.getApplication().getId(), create(event.getApplication()));
+    }
+
+    @EventListener
+    public void onApplicationLoaded(ApplicationLoadedEvent event) {
+        limiters.putIfAbsent(event.getApplication().getId(), create(event.getApplication()));
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        limiters.remove(event.getApplicationId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return the limit, the requests in flight and waiting, the usual response time and the rejected requests by
+     * application.
+     */
+    public Map<String, Map<String, Long>> getStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+
+        limiters.forEach((applicationId, limiter) -> {
+            Map<String, Long> application = new LinkedHashMap<>();
+
+            application.put("limit", (long) limiter.getLimit());
+            application.put("inFlight", (long) limiter.getInFlight());
+            application.put("waiting", (long) limiter.getWaiting());
+            application.put("rtt", TimeUnit.NANOSECONDS.toMillis(limiter.getRtt()));
+            application.put("rejected", limiter.getRejected());
+            statistics.put(applicationId, application);
+        });
+
+        return statistics;
+    }
+
+    private ConcurrencyLimiter create(Application application) {
+        int initialLimit = properties.getInitialLimit() > 0 ? properties.getInitialLimit() : application.getPool().getMaxConnections();
+        return new ConcurrencyLimiter(properties, initialLimit, scheduler);
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The instant that a proxied request must be answered. It is sent to the applications as the milliseconds remaining,
+ * so they don't depend on the clock of the server, and it is honored when the client sends one shorter. It is
+ * cancelled before the instant when the client response can no longer wait, as when the async request times out.
+ *
+ * @author Jonathan Pereira
+ */
+public class Deadline {
+
+    /**
+     * Header with the milliseconds remaining until the client gives up the request.
+     */
+    public static final String HEADER = "X-Request-Timeout";
+
+    private final long expiresAt;
+    private final Queue<Runnable> cancelActions = new ConcurrentLinkedQueue<>();
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param timeout milliseconds from now.
+     */
+    public static Deadline after(long timeout) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    /**
+     * @param timeout milliseconds from now configured for the request.
+     * @param header the value of the {@link #HEADER} sent by the client, ignored when it is not a number.
+     */
+    public static Deadline of(long timeout, String header) {
+        if (header != null) {
+            try {
+                timeout = Math.min(timeout, Math.max(0, Long.parseLong(header.trim())));
+            } catch (NumberFormatException e) {
+                // an invalid header is the same as no header.
+            }
+        }
+
+        return after(timeout);
+    }
+
+    /**
+     * @return milliseconds until the deadline, zero when expired.
+     */
+    public long remaining() {
+        if (cancelled) {
+            return 0;
+        }
+
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Expires the deadline now, running the actions that cancel the work of the request.
+     */
+    public void cancel() {
+        cancelled = true;
+        Runnable action;
+
+        while ((action = cancelActions.poll()) != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action when the deadline is cancelled, or now when it is already cancelled.
+     *
+     * @param action cancels the work of the request.
+     */
+    public void onCancel(Runnable action) {
+        cancelActions.add(action);
+
+        if (cancelled && cancelActions.remove(action)) {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels the work of the requests that pass their deadline, when the client has already given up the response.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class DeadlineTimer {
+
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "integrator-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeadlineTimer() {
+        // most requests finish before the deadline, the cancelled tasks must not wait there until it.
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs the action when the deadline expires or is cancelled, unless the task returned is cancelled before.
+     *
+     * @param deadline the deadline of the request.
+     * @param action cancels the work of the request.
+     * @return the task, that must be cancelled when the request finishes.
+     */
+    public ScheduledFuture<?> onExpired(Deadline deadline, Runnable action) {
+        ScheduledFuture<?> task = scheduler.schedule(action, deadline.remaining(), TimeUnit.MILLISECONDS);
+
+        deadline.onCancel(() -> {
+            if (task.cancel(false)) {
+                action.run();
+            }
+        });
+
+        return task;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,541 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.RegistryProperties;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the applications in a log of deploy and undeploy events, replayed on the start. The events appended at the
+ * same time are written by one thread with a single fsync, so a burst of deploys doesn't wait on one fsync each. The
+ * log is compacted in the background to the deploy events of the applications still stored.
+ *
+ * <p>Each event is framed by its length and its checksum. An event torn by a crash in the middle of a write is
+ * discarded on the replay, with everything after it.</p>
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+@ConditionalOnProperty(name = "integrator.registry.store", havingValue = "log")
+public class EventLogRegistryStore implements RegistryStore {
+
+    private static final byte DEPLOY = 1;
+    private static final byte UNDEPLOY = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final long POLL_INTERVAL = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(EventLogRegistryStore.class);
+    private final RegistryProperties properties;
+    private final Path path;
+
+    private final Map<String, Application> applications = new ConcurrentHashMap<>();
+    private final Map<String, List<Resource>> resources = new ConcurrentHashMap<>();
+    private final Map<String, Resource> identifiers = new ConcurrentHashMap<>();
+    private final AtomicLong nextResourceId = new AtomicLong(1);
+
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(daemon("integrator-registry-compactor"));
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    // accessed only by the writer thread once it is started.
+    private FileChannel channel;
+    private long size;
+    private long compactedSize;
+    private boolean compacting;
+
+    private volatile boolean running;
+    private volatile IOException failure;
+    private Thread writer;
+
+    @Autowired
+    public EventLogRegistryStore(RegistryProperties properties) {
+        this.properties = properties;
+        this.path = Paths.get(properties.getLogPath());
+    }
+
+    /**
+     * Replays the log and starts the thread that appends to it.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        size = replay();
+        compactedSize = size;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(size);
+        running = true;
+        writer = daemon("integrator-registry-writer").newThread(this::write);
+        writer.start();
+    }
+
+    /**
+     * Stops after writing the events already appended.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+
+        if (writer != null) {
+            writer.join();
+        }
+
+        compactor.shutdownNow();
+
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public RegistrySnapshot.Registry load() {
+        return new RegistrySnapshot.Registry(new ArrayList<>(applications.values()), new LinkedHashMap<>(resources));
+    }
+
+    @Override
+    public Application save(Application application, List<Resource> applicationResources) {
+        for (Resource resource : applicationResources) {
+            resource.setApplication(application.getId());
+            resource.setId(nextResourceId.getAndIncrement());
+        }
+
+        List<Resource> saved = new ArrayList<>(applicationResources);
+
+        append(frame(output -> {
+            output.writeByte(DEPLOY);
+            RegistryCodec.write(output, application, saved);
+        }), () -> deployed(application, saved));
+
+        return application;
+    }
+
+    @Override
+    public boolean remove(String applicationId) {
+        if (!applications.containsKey(applicationId)) {
+            return false;
+        }
+
+        append(frame(output -> {
+            output.writeByte(UNDEPLOY);
+            RegistryCodec.writeString(output, applicationId);
+        }), () -> undeployed(applicationId));
+
+        return true;
+    }
+
+    @Override
+    public List<Resource> findAllResources(String applicationId) {
+        return resources.getOrDefault(applicationId, Collections.emptyList());
+    }
+
+    /**
+     * The resources of each application are kept in the order of their identifiers, assigned in sequence on the
+     * deploy, so the page starts on the binary search of the identifier.
+     */
+    @Override
+    public List<Resource> findResources(String applicationId, long after, int limit) {
+        List<Resource> applicationResources = findAllResources(applicationId);
+        int low = 0;
+        int high = applicationResources.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (applicationResources.get(middle).getId() <= after) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return new ArrayList<>(applicationResources.subList(low, Math.min(applicationResources.size(), low + limit)));
+    }
+
+    @Override
+    public Resource findResourceByIdentifier(String identifier) {
+        return identifiers.get(identifier);
+    }
+
+    /**
+     * @return the events appended, the fsyncs that made them durable and the compactions of the log.
+     */
+    @Override
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("appended", appended.sum());
+        statistics.put("commits", commits.sum());
+        statistics.put("compactions", compactions.sum());
+
+        return statistics;
+    }
+
+    /**
+     * Waits until the event is durable and applied to the registry.
+     */
+    private void append(byte[] record, Runnable apply) {
+        if (!running) {
+            throw new IllegalStateException("Registry log is closed.");
+        }
+
+        if (failure != null) {
+            throw new IllegalStateException("Registry log failed, no event is appended until it is opened again.", failure);
+        }
+
+        Event event = new Event(record, apply, null);
+
+        events.add(event);
+
+        try {
+            event.done.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Registry log not written.", e.getCause());
+        }
+    }
+
+    private void deployed(Application application, List<Resource> applicationResources) {
+        undeployed(application.getId());
+        applications.put(application.getId(), application);
+        resources.put(application.getId(), applicationResources);
+        applicationResources.forEach(resource -> identifiers.put(resource.getIdentifier(), resource));
+    }
+
+    private void undeployed(String applicationId) {
+        applications.remove(applicationId);
+        resources.getOrDefault(applicationId, Collections.emptyList()).forEach(resource -> identifiers.remove(resource.getIdentifier()));
+        resources.remove(applicationId);
+    }
+
+    /**
+     * @return the size of the valid events, the log is truncated to it when it ends with a torn event.
+     */
+    private long replay() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+
+        long valid = 0;
+        long fileSize;
+
+        try (FileChannel input = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            fileSize = input.size();
+            ByteBuffer buffer = input.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                long checksum = buffer.getLong();
+
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+
+                ByteBuffer record = buffer.slice();
+                record.limit(length);
+
+                CRC32 crc = new CRC32();
+                crc.update(record.duplicate());
+
+                if (crc.getValue() != checksum) {
+                    break;
+                }
+
+                apply(record);
+                buffer.position(buffer.position() + length);
+                valid = buffer.position();
+            }
+
+            if (valid < fileSize) {
+                logger.warn("Registry log {} truncated from {} to {} bytes, the events after are torn", path, fileSize, valid);
+                input.truncate(valid);
+                input.force(true);
+            }
+        }
+
+        return valid;
+    }
+
+    private void apply(ByteBuffer record) {
+        byte type = record.get();
+
+        if (type == DEPLOY) {
+            List<Resource> applicationResources = new ArrayList<>();
+            Application application = RegistryCodec.read(record, applicationResources);
+
+            applicationResources.forEach(resource -> nextResourceId.accumulateAndGet(resource.getId() + 1, Math::max));
+            deployed(application, applicationResources);
+        } else if (type == UNDEPLOY) {
+            undeployed(RegistryCodec.readString(record));
+        } else {
+            throw new IllegalStateException("Registry log event " + type + " is unknown.");
+        }
+    }
+
+    /**
+     * Writes the events in batches, each batch with one fsync, until the store is closed.
+     */
+    private void write() {
+        List<Event> batch = new ArrayList<>();
+
+        while (running || !events.isEmpty()) {
+            try {
+                // polls instead of waiting for the interrupt, an interrupted write closes the channel.
+                Event first = events.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            events.drainTo(batch);
+
+            List<Event> records = new ArrayList<>();
+
+            for (Event event : batch) {
+                if (event.task == null) {
+                    records.add(event);
+                    continue;
+                }
+
+                commit(records);
+                records.clear();
+                event.task.run();
+            }
+
+            commit(records);
+            batch.clear();
+            compactIfNeeded();
+        }
+
+        events.forEach(event -> event.done.completeExceptionally(new IllegalStateException("Registry log is closed.")));
+    }
+
+    private void commit(List<Event> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        if (failure != null) {
+            records.forEach(event -> event.done.completeExceptionally(failure));
+            return;
+        }
+
+        try {
+            ByteBuffer[] buffers = new ByteBuffer[records.size()];
+            long length = 0;
+
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.wrap(records.get(i).record);
+                length += buffers[i].remaining();
+            }
+
+            for (long written = 0; written < length; ) {
+                written += channel.write(buffers);
+            }
+
+            channel.force(false);
+            size += length;
+            commits.increment();
+        } catch (IOException e) {
+            rollback(e);
+            records.forEach(event -> event.done.completeExceptionally(e));
+            return;
+        }
+
+        for (Event event : records) {
+            event.apply.run();
+            appended.increment();
+            event.done.complete(null);
+        }
+    }
+
+    /**
+     * Removes the part of the batch written before the failure, so the next batch is not appended after a torn event
+     * that ends the replay. When the log cannot be restored, no event is appended anymore.
+     */
+    private void rollback(IOException cause) {
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException e) {
+            e.addSuppressed(cause);
+            failure = e;
+            logger.error("Registry log {} not restored to {} bytes after a failed write, no event is appended", path, size, e);
+        }
+    }
+
+    /**
+     * Writes the deploy events of the applications stored to a new log in the background, from the registry as it is
+     * now. The events appended in the meantime are copied to the new log when it replaces the current one.
+     */
+    private void compactIfNeeded() {
+        long grown = size - compactedSize;
+
+        if (compacting || grown < properties.getCompactionMinSize() || grown < compactedSize) {
+            return;
+        }
+
+        compacting = true;
+
+        long position = size;
+        Path temporary = path.resolveSibling(path.getFileName() + ".compact");
+        List<byte[]> records = new ArrayList<>();
+
+        applications.values().forEach(application -> records.add(frame(output -> {
+            output.writeByte(DEPLOY);
+            RegistryCodec.write(output, application, resources.getOrDefault(application.getId(), Collections.emptyList()));
+        })));
+
+        compactor.execute(() -> {
+            try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (byte[] record : records) {
+                    ByteBuffer buffer = ByteBuffer.wrap(record);
+
+                    while (buffer.hasRemaining()) {
+                        output.write(buffer);
+                    }
+                }
+
+                output.force(true);
+                events.add(new Event(null, null, () -> replace(temporary, position)));
+            } catch (IOException e) {
+                logger.warn("Registry log {} not compacted", path, e);
+                events.add(new Event(null, null, () -> compacting = false));
+            }
+        });
+    }
+
+    /**
+     * Replaces the log with the compacted one, on the writer thread so no event is appended while it is replaced.
+     */
+    private void replace(Path temporary, long position) {
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            output.position(output.size());
+
+            for (long copied = position; copied < size; ) {
+                copied += channel.transferTo(copied, size - copied, output);
+            }
+
+            output.force(true);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            channel.close();
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            channel.position(size);
+            compactedSize = size;
+            compactions.increment();
+        } catch (IOException e) {
+            logger.warn("Registry log {} not replaced by the compacted one", path, e);
+            reopen();
+        } finally {
+            compacting = false;
+        }
+    }
+
+    /**
+     * Opens the log again after a failed replace, the events are appended where they were before.
+     */
+    private void reopen() {
+        try {
+            if (!channel.isOpen()) {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] frame(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            output.writeInt(0);
+            output.writeLong(0);
+            writer.write(output);
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            CRC32 crc = new CRC32();
+
+            crc.update(buffer.array(), HEADER_SIZE, buffer.limit() - HEADER_SIZE);
+            buffer.putInt(0, buffer.limit() - HEADER_SIZE);
+            buffer.putLong(Integer.BYTES, crc.getValue());
+
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    /**
+     * A record to append and the change it makes to the registry, or a task to run on the writer thread.
+     */
+    private static class Event {
+
+        private final byte[] record;
+        private final Runnable apply;
+        private final Runnable task;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Event(byte[] record, Runnable apply, Runnable task) {
+            this.record = record;
+            this.apply = apply;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.HealthCheckProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Checks each application on its own schedule, removing the ones with all the hosts offline. The checks are spread
+ * over the interval with jitter, the ones due at the same time are probed together by the {@link PingServer}, so
+ * thousands of applications don't wait on each other. An application that keeps its status is checked less often,
+ * one that changes it is checked more.
+ *
+ * <p>The proxied requests are checks too: an application that answered a request since its last check is not probed,
+ * so only the idle applications receive the probes. The requests failed in a row make the application suspected, it is
+ * probed right away instead of waiting for its interval.</p>
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class HealthCheckScheduler {
+
+    private static final double BACKOFF = 1.5;
+
+    private final HealthCheckProperties properties;
+    private final IntegratorServer integratorServer;
+    private final Map<String, HealthCheck> checks = new ConcurrentHashMap<>();
+    private final Queue<HealthCheck> due = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public HealthCheckScheduler(HealthCheckProperties properties, IntegratorServer integratorServer) {
+        this.properties = properties;
+        this.integratorServer = integratorServer;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory("integrator-health-scheduler"));
+        this.executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory("integrator-health-check"));
+
+        scheduler.setRemoveOnCancelPolicy(true);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Schedules the applications loaded on the start, spread over the whole interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        integratorServer.findAllApplications().forEach(application ->
+            schedule(application, ThreadLocalRandom.current().nextLong(Math.max(1, properties.getInterval()))));
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        schedule(event.getApplication(), jitter(properties.getInterval()));
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        HealthCheck check = checks.remove(event.getApplicationId());
+
+        if (check != null) {
+            check.cancel();
+        }
+    }
+
+    /**
+     * Records the outcome of a request proxied to the application.
+     *
+     * @param applicationId the application that received the request.
+     * @param failed if the host could not be reached, did not respond in time or responded a server error.
+     */
+    public void onProxyOutcome(String applicationId, boolean failed) {
+        HealthCheck check = properties.isPassive() ? checks.get(applicationId) : null;
+
+        if (check == null) {
+            return;
+        }
+
+        if (!failed) {
+            check.proxySuccesses.incrementAndGet();
+            check.proxyFailures.set(0);
+        } else if (check.proxyFailures.incrementAndGet() >= properties.getSuspectThreshold()) {
+            check.suspect();
+        }
+    }
+
+    /**
+     * @return the status of the last check, the current interval and the failures in a row by application.
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+
+        checks.forEach((applicationId, check) -> {
+            Map<String, Object> application = new LinkedHashMap<>();
+
+            application.put("online", check.online);
+            application.put("interval", check.interval);
+            application.put("failures", check.failures);
+            application.put("probes", check.probes.sum());
+            application.put("passiveChecks", check.passiveChecks.sum());
+            application.put("suspicions", check.suspicions.sum());
+            statistics.put(applicationId, application);
+        });
+
+        return statistics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void schedule(Application application, long delay) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        HealthCheck check = new HealthCheck(application);
+        HealthCheck previous = checks.put(application.getId(), check);
+
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        check.scheduleNext(delay);
+    }
+
+    /**
+     * Queues a check that is due, starting the probe of the queue unless it is already running.
+     */
+    private void enqueue(HealthCheck check) {
+        if (!check.queued.compareAndSet(false, true)) {
+            return;
+        }
+
+        due.add(check);
+
+        if (probing.compareAndSet(false, true)) {
+            executor.execute(this::probe);
+        }
+    }
+
+    /**
+     * Probes the checks due together, until the queue is empty.
+     */
+    private void probe() {
+        while (true) {
+            List<HealthCheck> batch = new ArrayList<>();
+            HealthCheck check;
+
+            while ((check = due.poll()) != null) {
+                if (!check.cancelled) {
+                    batch.add(check);
+                }
+            }
+
+            if (batch.isEmpty()) {
+                probing.set(false);
+
+                // a check queued after the queue was found empty must not wait for the next one.
+                if (due.isEmpty() || !probing.compareAndSet(false, true)) {
+                    return;
+                }
+
+                continue;
+            }
+
+            Set<String> online;
+
+            try {
+                online = integratorServer.findOnlineApplications(batch.stream().map(c -> c.application).collect(Collectors.toList()));
+            } catch (RuntimeException e) {
+                online = Collections.emptySet();
+            }
+
+            for (HealthCheck checked : batch) {
+                checked.queued.set(false);
+                checked.probes.increment();
+                checked.lastProbe = now();
+                checked.complete(online.contains(checked.application.getId()));
+            }
+        }
+    }
+
+    private long jitter(long interval) {
+        double jitter = properties.getJitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1, (long) (interval * (1 + jitter)));
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The schedule of the checks of one application, each check schedules the next one when finished.
+     */
+    private class HealthCheck {
+
+        private final Application application;
+
+        private volatile Boolean online;
+        private volatile long interval = properties.getInterval();
+        private volatile int failures;
+        private volatile boolean cancelled;
+        private volatile long lastProbe = now() - properties.getMinInterval();
+        private ScheduledFuture<?> next;
+
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private final AtomicBoolean suspected = new AtomicBoolean();
+        private final AtomicInteger proxySuccesses = new AtomicInteger();
+        private final AtomicInteger proxyFailures = new AtomicInteger();
+        private final LongAdder probes = new LongAdder();
+        private final LongAdder passiveChecks = new LongAdder();
+        private final LongAdder suspicions = new LongAdder();
+
+        private HealthCheck(Application application) {
+            this.application = application;
+        }
+
+        /**
+         * Replaces the next check, there is only one scheduled by application.
+         */
+        private synchronized void scheduleNext(long delay) {
+            if (cancelled) {
+                return;
+            }
+
+            if (next != null) {
+                next.cancel(false);
+            }
+
+            next = scheduler.schedule(this::onDue, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+
+        /**
+         * The application answered requests since the last check and is not suspected, the traffic is the check.
+         */
+        private void onDue() {
+            if (properties.isPassive() && !suspected.get() && proxySuccesses.getAndSet(0) > 0) {
+                passiveChecks.increment();
+                complete(true);
+            } else {
+                enqueue(this);
+            }
+        }
+
+        /**
+         * Moves the next check to now, or to the min interval after the last probe, so the suspected failure is
+         * confirmed in seconds without probing an application whose requests keep failing all the time.
+         */
+        private void suspect() {
+            if (!suspected.compareAndSet(false, true)) {
+                return;
+            }
+
+            suspicions.increment();
+            scheduleNext(Math.max(0, lastProbe + properties.getMinInterval() - now()));
+        }
+
+        private void complete(boolean result) {
+            if (cancelled) {
+                return;
+            }
+
+            suspected.set(false);
+            proxyFailures.set(0);
+
+            // a change of status means the application is flapping, it is checked at the shortest interval.
+            if (online != null && online != result) {
+                interval = properties.getMinInterval();
+            } else if (online != null) {
+                interval = Math.min(properties.getMaxInterval(), Math.max(properties.getMinInterval(), (long) (interval * BACKOFF)));
+            }
+
+            online = result;
+            failures = result ? 0 : failures + 1;
+
+            if (failures >= properties.getUnhealthyThreshold()) {
+                undeploy();
+                return;
+            }
+
+            scheduleNext(jitter(result ? interval : properties.getMinInterval()));
+        }
+
+        private void undeploy() {
+            if (!checks.remove(application.getId(), this)) {
+                return;
+            }
+
+            try {
+                integratorServer.undeployApplication(application.getId());
+            } catch (IllegalStateException e) {
+                // the application was undeployed while it was checked.
+            }
+        }
+    }
+}
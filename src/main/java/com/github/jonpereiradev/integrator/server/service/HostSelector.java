@@ -0,0 +1,169 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CircuitBreakerProperties;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the host of an application for each request by the power of two random choices: two hosts are drawn and the
+ * one with less requests in flight, relative to its slow start weight, receives the request. The hosts with the circuit
+ * open are ejected until the probe requests are let through. The hosts of each application never change after the
+ * deploy and the circuit breakers only lock while their circuit is not closed, so choosing a healthy host don't need
+ * locks.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class HostSelector {
+
+    private final ProxyProperties proxyProperties;
+    private final CircuitBreakerProperties circuitBreakerProperties;
+    private final Map<String, UpstreamHost[]> hosts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HostSelector(ProxyProperties proxyProperties, CircuitBreakerProperties circuitBreakerProperties) {
+        this.proxyProperties = proxyProperties;
+        this.circuitBreakerProperties = circuitBreakerProperties;
+    }
+
+    /**
+     * Chooses the host that receives the next request of the application.
+     *
+     * @param application the application that receives the request.
+     * @return the host chosen, that must be acquired while the request is in flight, or {@code null} if the circuit of
+     * all hosts is open.
+     */
+    public UpstreamHost select(Application application) {
+        UpstreamHost[] candidates = hosts(application);
+        long now = System.currentTimeMillis();
+        UpstreamHost chosen = candidates.length == 1 ? candidates[0] : choose(candidates, now);
+
+        if (chosen.getCircuitBreaker().tryAcquire(now)) {
+            return chosen;
+        }
+
+        // the chosen host is ejected or all of its probes are in flight, any other host that accepts is used.
+        for (UpstreamHost candidate : candidates) {
+            if (candidate != chosen && candidate.getCircuitBreaker().tryAcquire(now)) {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param application the application with the circuit of all hosts open.
+     * @return time in milliseconds until a host of the application accepts probe requests.
+     */
+    public long getRetryAfter(Application application) {
+        long now = System.currentTimeMillis();
+
+        return Arrays.stream(hosts(application)).mapToLong(host -> host.getCircuitBreaker().getRetryAfter(now)).min().orElse(0);
+    }
+
+    /**
+     * Replaces the hosts of the application keeping the existing ones, so only the new hosts make the slow start and
+     * the circuits already open stay open.
+     */
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        Application application = event.getApplication();
+        Map<String, UpstreamHost> previous = new HashMap<>();
+        UpstreamHost[] previousHosts = hosts.get(application.getId());
+
+        if (previousHosts != null) {
+            Arrays.stream(previousHosts).forEach(host -> previous.put(host.getAddress(), host));
+        }
+
+        hosts.put(application.getId(), create(application, previous, System.currentTimeMillis()));
+    }
+
+    /**
+     * Creates the hosts of an application loaded on the start, that are already warm.
+     */
+    @EventListener
+    public void onApplicationLoaded(ApplicationLoadedEvent event) {
+        Application application = event.getApplication();
+        hosts.putIfAbsent(application.getId(), create(application, new HashMap<>(), 0));
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        hosts.remove(event.getApplicationId());
+    }
+
+    /**
+     * @return the requests in flight and the weight of each host by application.
+     */
+    public Map<String, List<Map<String, Object>>> getStatistics() {
+        Map<String, List<Map<String, Object>>> statistics = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+
+        hosts.forEach((applicationId, applicationHosts) -> {
+            List<Map<String, Object>> hostStatistics = new ArrayList<>();
+
+            for (UpstreamHost host : applicationHosts) {
+                Map<String, Object> hostStatistic = new LinkedHashMap<>();
+
+                hostStatistic.put("host", host.getAddress());
+                hostStatistic.put("inFlight", host.getInFlight());
+                hostStatistic.put("weight", host.weight(now, proxyProperties.getSlowStart()));
+                hostStatistic.put("circuit", host.getCircuitBreaker().getState());
+                hostStatistics.add(hostStatistic);
+            }
+
+            statistics.put(applicationId, hostStatistics);
+        });
+
+        return statistics;
+    }
+
+    /**
+     * The hosts are only created by the deploy, so a request in flight during the undeploy does not create them again.
+     */
+    private UpstreamHost[] hosts(Application application) {
+        UpstreamHost[] applicationHosts = hosts.get(application.getId());
+
+        if (applicationHosts == null) {
+            throw new IllegalStateException("Application " + application.getId() + " not deployed.");
+        }
+
+        return applicationHosts;
+    }
+
+    private UpstreamHost choose(UpstreamHost[] candidates, long now) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.length);
+        int second = random.nextInt(candidates.length - 1);
+
+        if (second >= first) {
+            second++;
+        }
+
+        long slowStart = proxyProperties.getSlowStart();
+
+        return candidates[first].load(now, slowStart) <= candidates[second].load(now, slowStart) ? candidates[first] : candidates[second];
+    }
+
+    private UpstreamHost[] create(Application application, Map<String, UpstreamHost> previous, long now) {
+        return application.getAllHosts().stream()
+            .map(address -> previous.containsKey(address) ? previous.get(address) : new UpstreamHost(address, now, new CircuitBreaker(circuitBreakerProperties)))
+            .toArray(UpstreamHost[]::new);
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.ConnectionPool;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http2.ErrorCode;
+import okhttp3.internal.http2.StreamResetException;
+import okio.BufferedSink;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the requests of an application over HTTP/2, multiplexing the concurrent requests on a few connections.
+ * The requests and responses are the same of the HTTP/1.1 client, so the proxy don't know the protocol used.
+ *
+ * @author Jonathan Pereira
+ */
+public class Http2Transport implements Closeable {
+
+    static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+    /**
+     * Requests allowed in flight for each connection of the pool, the same default of most HTTP/2 servers.
+     */
+    private static final int MAX_STREAMS_PER_CONNECTION = 100;
+
+    private final OkHttpClient client;
+
+    /**
+     * @param pool the limits of the application connections to each host.
+     * @param maxTotal the limit of connections to all the hosts of the application.
+     * @param cleartext {@code true} to send with prior knowledge (h2c), without TLS and ALPN.
+     * @param connectTimeout max time in milliseconds to open a connection.
+     * @param socketTimeout max time in milliseconds waiting for data.
+     */
+    public Http2Transport(ConnectionPool pool, int maxTotal, boolean cleartext, long connectTimeout, long socketTimeout) {
+        Dispatcher dispatcher = new Dispatcher();
+
+        dispatcher.setMaxRequests(maxTotal * MAX_STREAMS_PER_CONNECTION);
+        dispatcher.setMaxRequestsPerHost(pool.getMaxConnections() * MAX_STREAMS_PER_CONNECTION);
+
+        this.client = new OkHttpClient.Builder()
+            .protocols(cleartext ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE) : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectionPool(new okhttp3.ConnectionPool(maxTotal, pool.getIdleTimeout(), TimeUnit.MILLISECONDS))
+            .dispatcher(dispatcher)
+            .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+            .readTimeout(socketTimeout, TimeUnit.MILLISECONDS)
+            .writeTimeout(socketTimeout, TimeUnit.MILLISECONDS)
+            // an application that refuses h2c would be retried forever, the fallback to HTTP/1.1 is done by the caller.
+            .retryOnConnectionFailure(false)
+            .build();
+    }
+
+    /**
+     * Executes the request blocking until the application responds.
+     *
+     * @return the response with the body not consumed, that must be read or closed to release the stream.
+     */
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        return toHttpResponse(newCall(request).execute());
+    }
+
+    /**
+     * Executes the request without waiting the application, cancelling the call when the future is cancelled.
+     *
+     * @return the future completed with the response and the body not consumed.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        Call call = newCall(request);
+
+        call.enqueue(new Callback() {
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                future.complete(toHttpResponse(response));
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+        });
+
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * @return the calls running or queued, that hold a stream with the application.
+     */
+    public int getCalls() {
+        return client.dispatcher().runningCallsCount() + client.dispatcher().queuedCallsCount();
+    }
+
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * An application without h2c support answers the connection preface with HTTP/1.1, which the frame reader fails
+     * as a protocol error, or closes the connection before its preface. The timeouts and the cancelled calls are not.
+     *
+     * @return {@code true} if the application refused to talk HTTP/2.
+     */
+    static boolean isRefused(IOException e) {
+        if (e instanceof StreamResetException) {
+            ErrorCode errorCode = ((StreamResetException) e).errorCode;
+            return errorCode == ErrorCode.PROTOCOL_ERROR || errorCode == ErrorCode.HTTP_1_1_REQUIRED;
+        }
+
+        String message = e.getMessage();
+
+        return e instanceof ProtocolException || message != null && (message.startsWith("PROTOCOL_ERROR")
+            || message.startsWith("FRAME_SIZE_ERROR")
+            || message.startsWith("Expected a SETTINGS frame")
+            || message.startsWith("Required SETTINGS preface not received"));
+    }
+
+    /**
+     * Creates the call with the timeouts of the request when it has them, sharing the connections of the client. The
+     * connection request timeout, that the proxy sets to the time remaining to the deadline, limits the whole call,
+     * and aborting the request cancels the call.
+     */
+    private Call newCall(HttpUriRequest request) {
+        RequestConfig config = request instanceof Configurable ? ((Configurable) request).getConfig() : null;
+        OkHttpClient.Builder builder = null;
+
+        if (config != null && config.getConnectTimeout() > 0 && config.getSocketTimeout() > 0) {
+            builder = client.newBuilder()
+                .connectTimeout(config.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getSocketTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getSocketTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        if (config != null && config.getConnectionRequestTimeout() > 0) {
+            builder = (builder == null ? client.newBuilder() : builder).callTimeout(config.getConnectionRequestTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        Call call = (builder == null ? client : builder.build()).newCall(toRequest(request));
+
+        if (request instanceof HttpExecutionAware) {
+            HttpExecutionAware executionAware = (HttpExecutionAware) request;
+
+            executionAware.setCancellable(() -> {
+                call.cancel();
+                return true;
+            });
+
+            // the cancellable is not kept when the request was aborted before.
+            if (executionAware.isAborted()) {
+                call.cancel();
+            }
+        }
+
+        return call;
+    }
+
+    private static okhttp3.Request toRequest(HttpUriRequest request) {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder().url(request.getURI().toString());
+        HttpEntity entity = request instanceof HttpEntityEnclosingRequest ? ((HttpEntityEnclosingRequest) request).getEntity() : null;
+
+        for (Header header : request.getAllHeaders()) {
+            builder.addHeader(header.getName(), header.getValue());
+        }
+
+        return builder.method(request.getMethod(), toRequestBody(request.getMethod(), entity)).build();
+    }
+
+    /**
+     * Creates the body writing the entity as it is sent, as GET and HEAD can't have one and POST, PUT and PATCH must.
+     */
+    private static RequestBody toRequestBody(String method, HttpEntity entity) {
+        if (method.equals("GET") || method.equals("HEAD")) {
+            return null;
+        }
+
+        if (entity == null) {
+            return method.equals("DELETE") ? null : RequestBody.create(null, new byte[0]);
+        }
+
+        MediaType contentType = entity.getContentType() == null ? null : MediaType.parse(entity.getContentType().getValue());
+
+        return new RequestBody() {
+
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return entity.getContentLength();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                entity.writeTo(sink.outputStream());
+            }
+        };
+    }
+
+    private static HttpResponse toHttpResponse(Response response) {
+        BasicHttpResponse httpResponse = new BasicHttpResponse(toProtocolVersion(response.protocol()), response.code(), response.message());
+        Headers headers = response.headers();
+
+        for (int i = 0; i < headers.size(); i++) {
+            httpResponse.addHeader(headers.name(i), headers.value(i));
+        }
+
+        ResponseBody body = response.body();
+
+        if (body != null) {
+            BasicHttpEntity entity = new BasicHttpEntity();
+
+            entity.setContent(body.byteStream());
+            entity.setContentLength(body.contentLength());
+
+            if (body.contentType() != null) {
+                entity.setContentType(body.contentType().toString());
+            }
+
+            httpResponse.setEntity(entity);
+        }
+
+        return httpResponse;
+    }
+
+    private static ProtocolVersion toProtocolVersion(Protocol protocol) {
+        switch (protocol) {
+            case HTTP_1_0:
+                return HttpVersion.HTTP_1_0;
+            case HTTP_1_1:
+                return HttpVersion.HTTP_1_1;
+            default:
+                return HTTP_2;
+        }
+    }
+}
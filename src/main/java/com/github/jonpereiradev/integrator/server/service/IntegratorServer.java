@@ -4,32 +4,48 @@ package com.github.jonpereiradev.integrator.server.service;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.jonpereiradev.integrator.server.configuration.HealthCheckProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
 import com.github.jonpereiradev.integrator.server.model.Application;
 import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
 import com.github.jonpereiradev.integrator.server.model.Resource;
-import com.github.jonpereiradev.integrator.server.repository.ApplicationRepository;
-import com.github.jonpereiradev.integrator.server.repository.ResourceRepository;
 import com.mashape.unirest.http.exceptions.UnirestException;
 import com.mashape.unirest.request.GetRequest;
 import org.assertj.core.util.VisibleForTesting;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.annotation.ApplicationScope;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NavigableSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A server component that stores all deployed applications and manages then.
@@ -38,37 +54,66 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 @Service
 @ApplicationScope
-@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class IntegratorServer {
 
     private final Map<String, Application> applications;
+    private final NavigableSet<String> applicationKeys;
+    private final Map<String, RouteTrie> routes;
 
     private final Request request;
     private final PingServer pingServer;
-    private final ApplicationRepository applicationRepository;
-    private final ResourceRepository resourceRepository;
+    private final RegistryStore registryStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor statusExecutor;
 
     @Autowired
     public IntegratorServer(
         Request request,
         PingServer pingServer,
-        ResourceRepository resourceRepository,
-        ApplicationRepository applicationRepository) {
+        RegistryStore registryStore,
+        ApplicationEventPublisher eventPublisher,
+        HealthCheckProperties healthCheckProperties) {
+        AtomicInteger count = new AtomicInteger();
+
         this.request = request;
         this.pingServer = pingServer;
-        this.resourceRepository = resourceRepository;
-        this.applicationRepository = applicationRepository;
+        this.registryStore = registryStore;
+        this.eventPublisher = eventPublisher;
         this.applications = new ConcurrentHashMap<>();
+        this.applicationKeys = new ConcurrentSkipListSet<>();
+        this.routes = new ConcurrentHashMap<>();
+        this.statusExecutor = new ThreadPoolExecutor(
+            healthCheckProperties.getMaxInFlight(), healthCheckProperties.getMaxInFlight(), 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "integrator-status-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.statusExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
-     * Starts the server deploying all applications.
+     * Starts the server deploying all applications stored.
      */
     @PostConstruct
-    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @VisibleForTesting
     void onPostConstruct() {
-        applicationRepository.findAll().forEach(app -> applications.put(app.getId(), app));
+        RegistrySnapshot.Registry registry = registryStore.load();
+
+        registry.getApplications().forEach(app -> {
+            routes.put(app.getId(), RouteTrie.compile(registry.getResources(app.getId())));
+            applications.put(app.getId(), app);
+            applicationKeys.add(app.getId());
+            request.open(app);
+        });
+    }
+
+    /**
+     * Tells the components that keep a state by application about the applications loaded on the start, that have no
+     * deploy event. The context is refreshed before the server accepts requests.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        applications.values().forEach(application -> eventPublisher.publishEvent(new ApplicationLoadedEvent(application)));
     }
 
     /**
@@ -76,18 +121,16 @@ public class IntegratorServer {
      *
      * @param applicationRequest the application that will be deployed.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public String deployApplication(ApplicationRequest applicationRequest) {
-        // make the undeploy if the applicationRequest already exists on integrator server.
-        if (findOneApplicationByKey(applicationRequest.getApplication().getId()) != null) {
-            undeployApplication(applicationRequest.getApplication().getId());
-        }
+        applicationRequest.getApplication().setSecret(applicationRequest.getSecret());
 
-        Application application = applicationRepository.save(applicationRequest.getApplication());
-
-        deployResources(application, applicationRequest.getResources());
+        // replaces the application if already exists on integrator server, the deploy event tells that it was replaced.
+        Application application = registryStore.save(applicationRequest.getApplication(), applicationRequest.getResources());
 
+        routes.put(application.getId(), RouteTrie.compile(applicationRequest.getResources()));
         applications.put(application.getId(), application);
+        applicationKeys.add(application.getId());
+        eventPublisher.publishEvent(new ApplicationDeployedEvent(application));
 
         return generateProxyAuthorization(applicationRequest);
     }
@@ -97,32 +140,70 @@ public class IntegratorServer {
      *
      * @param appKey the application key that will be removed.
      */
-    @Transactional(propagation = Propagation.REQUIRED)
     public void undeployApplication(String appKey) {
         if (findOneApplicationByKey(appKey) == null) {
             throw new IllegalStateException("Application " + appKey + " not deployed.");
         }
 
-        applicationRepository.findById(appKey).ifPresent(application -> {
-            resourceRepository.deleteAll(resourceRepository.findAllByApplication(application.getId()));
-            applicationRepository.delete(application);
-
+        if (registryStore.remove(appKey)) {
             applications.remove(appKey);
-        });
+            applicationKeys.remove(appKey);
+            routes.remove(appKey);
+            eventPublisher.publishEvent(new ApplicationUndeployedEvent(appKey));
+        }
     }
 
     /**
-     * Removes applications that are offline.
+     * Removes applications that have all the hosts offline, checking all of them at once. The periodic checks are
+     * spread over time by the {@link HealthCheckScheduler}.
      */
-    @Scheduled(fixedDelay = 1000 * 60)
     public void undeployOfflineApplications() {
+        Set<String> online = findOnlineApplications(applications.values());
+
         applications.forEach((key, application) -> {
-            if (!isApplicationOnline(application.getHost())) {
+            if (!online.contains(application.getId())) {
                 undeployApplication(application.getId());
             }
         });
     }
 
+    /**
+     * Check if any host of an application is reachable and online.
+     *
+     * @param application the application with the hosts.
+     * @return {@code true} if at least one host is online.
+     */
+    public boolean isApplicationOnline(Application application) {
+        return findOnlineApplications(Collections.singletonList(application)).contains(application.getId());
+    }
+
+    /**
+     * Probes the hosts of the applications together, each host only once even when shared by applications. The status
+     * of the secure hosts that accepted the connection is requested concurrently, at most max in flight at a time.
+     *
+     * @param applications the applications with the hosts.
+     * @return the keys of the applications with at least one host online.
+     */
+    public Set<String> findOnlineApplications(Collection<Application> applications) {
+        Map<String, PingServer.Status> statuses = pingServer.pingAll(applications);
+        Map<String, Future<Boolean>> secureStatuses = new HashMap<>();
+        Set<String> online = new HashSet<>();
+
+        statuses.forEach((address, status) -> {
+            if (status == PingServer.Status.REACHABLE) {
+                secureStatuses.put(address, statusExecutor.submit(() -> isSecureHostOnline(address)));
+            }
+        });
+
+        for (Application application : applications) {
+            if (application.getAllHosts().stream().anyMatch(address -> isHostOnline(statuses.get(address), secureStatuses.get(address)))) {
+                online.add(application.getId());
+            }
+        }
+
+        return online;
+    }
+
     /**
      * Get all applications that are deployed on the server.
      *
@@ -132,6 +213,30 @@ public class IntegratorServer {
         return applications.values();
     }
 
+    /**
+     * Get a page of the applications deployed ordered by key, the keys are kept sorted apart from the applications so
+     * a page is read without sorting all of them.
+     *
+     * @param after the key of the last application of the previous page, {@code null} for the first page.
+     * @param limit the max applications of the page.
+     * @return the applications with key greater than {@code after}.
+     */
+    public List<Application> findApplications(String after, int limit) {
+        List<Application> page = new ArrayList<>(limit);
+        Iterator<String> keys = (after == null ? applicationKeys : applicationKeys.tailSet(after, false)).iterator();
+
+        while (page.size() < limit && keys.hasNext()) {
+            Application application = applications.get(keys.next());
+
+            // undeployed while the page is read.
+            if (application != null) {
+                page.add(application);
+            }
+        }
+
+        return page;
+    }
+
     /**
      * Get an application deployed by application key.
      *
@@ -149,7 +254,19 @@ public class IntegratorServer {
      * @return application deployed with the key.
      */
     public List<Resource> findAllResourcesByApplication(String appKey) {
-        return resourceRepository.findAllByApplication(appKey);
+        return registryStore.findAllResources(appKey);
+    }
+
+    /**
+     * Get a page of the resources registered for an application ordered by id.
+     *
+     * @param appKey the application key identifier.
+     * @param after  the identifier of the last resource of the previous page, {@code 0} for the first page.
+     * @param limit  the max resources of the page.
+     * @return the resources with identifier greater than {@code after}.
+     */
+    public List<Resource> findResourcesByApplication(String appKey, long after, int limit) {
+        return registryStore.findResources(appKey, after, limit);
     }
 
     /**
@@ -159,7 +276,7 @@ public class IntegratorServer {
      * @return the resource registered by the identifier.
      */
     public Resource findResourceByIdentifierEquals(String identifier) {
-        return resourceRepository.findResourceByIdentifierEquals(identifier);
+        return registryStore.findResourceByIdentifier(identifier);
     }
 
     /**
@@ -170,64 +287,63 @@ public class IntegratorServer {
      * @return {@code true} if the application has the resource endpoint.
      */
     public boolean existsResourceByApplication(String application, String resource) {
-        Optional<Resource> optional = resourceRepository.findOneByApplicationAndPath(application, resource);
-
-        if (optional.isPresent()) {
-            return true;
-        }
-
-        List<Resource> resources = resourceRepository.findAllByApplication(application);
-
-        return resources.stream().anyMatch((r) -> (r.matches(resource)));
+        return findOneResourceByApplication(application, null, resource) != null;
     }
 
     /**
-     * Validates the proxy authorization token.
+     * Get the resource of the application that matches the path, from the routes compiled on the deploy.
      *
-     * @param proxyAuthorization token with the authorization.
+     * @param application the application key.
+     * @param method      the method of the request or {@code null} to accept any method.
+     * @param resource    the resource path.
+     * @return the resource registered for the path or {@code null} if the application don't have it.
      */
-    public void validateProxyAuthorization(String proxyAuthorization) {
-        DecodedJWT decode = JWT.decode(proxyAuthorization);
+    public Resource findOneResourceByApplication(String application, HttpMethod method, String resource) {
+        RouteTrie routeTrie = routes.get(application);
+        return routeTrie == null ? null : routeTrie.match(method, resource);
+    }
 
-        if (decode.getSubject() == null || decode.getNotBefore().after(new Date())) {
-            throw new IllegalStateException("Proxy-Authorization is invalid");
-        }
+    @PreDestroy
+    public void shutdown() {
+        statusExecutor.shutdownNow();
     }
 
     /**
-     * Deploy the resources of an application.
+     * Check if a host probed is online, waiting the status requested of the secure hosts that accepted the connection.
      *
-     * @param application the application object from request.
+     * @param status the result of the probe of the host.
+     * @param secureStatus the status requested when the host is secure and reachable.
+     * @return {@code true} if the host is online.
      */
-    private void deployResources(Application application, List<Resource> resources) {
-        resources.forEach(resource -> {
-            resource.setApplication(application.getId());
-            resourceRepository.save(resource);
-        });
+    private boolean isHostOnline(PingServer.Status status, Future<Boolean> secureStatus) {
+        if (status != PingServer.Status.REACHABLE) {
+            return status == PingServer.Status.ONLINE;
+        }
+
+        try {
+            return secureStatus.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
     }
 
     /**
-     * Check if an application is reachable and if is online.
+     * Requests the status of a secure host, as the probe only knows that it accepted the connection.
      *
      * @param address the URI of the application.
-     * @return {@code true} if the application is online.
+     * @return {@code true} if the host responded OK.
      */
-    private boolean isApplicationOnline(String address) {
-        boolean online = pingServer.ping(address);
-
-        if (online) {
-            String pingAddress = address + "/status";
-
-            try {
-                GetRequest getRequest = request.get(pingAddress).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-                online = getRequest.asString().getStatus() == HttpStatus.OK.value();
-            } catch (UnirestException e) {
-                // exception is not important, just want to know if application is reacheable.
-                online = false;
-            }
+    private boolean isSecureHostOnline(String address) {
+        try {
+            GetRequest getRequest = request.get(address + "/status").header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            return getRequest.asString().getStatus() == HttpStatus.OK.value();
+        } catch (UnirestException e) {
+            // exception is not important, just want to know if application is reacheable.
+            return false;
         }
-
-        return online;
     }
 
     /**
@@ -0,0 +1,247 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.repository.ApplicationRepository;
+import com.github.jonpereiradev.integrator.server.repository.ResourceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stores the applications on the database through the repositories. The {@link RegistrySnapshot} is written after
+ * each change is committed and read on the start instead of the database, when it is consistent with it. The snapshot
+ * is written by a single thread apart from the callers, and the changes committed while it writes are written together
+ * by the next write.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+@DependsOn("resourceSequenceMigration")
+@ConditionalOnProperty(name = "integrator.registry.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRegistryStore implements RegistryStore {
+
+    private final ApplicationRepository applicationRepository;
+    private final ResourceRepository resourceRepository;
+    private final RegistrySnapshot registrySnapshot;
+    private final Map<String, Application> applications = new LinkedHashMap<>();
+    private final Map<String, List<Resource>> resources = new LinkedHashMap<>();
+    private final LongAdder saved = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "integrator-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public JpaRegistryStore(ApplicationRepository applicationRepository, ResourceRepository resourceRepository, RegistrySnapshot registrySnapshot) {
+        this.applicationRepository = applicationRepository;
+        this.resourceRepository = resourceRepository;
+        this.registrySnapshot = registrySnapshot;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized RegistrySnapshot.Registry load() {
+        RegistrySnapshot.Registry snapshot = registrySnapshot.read();
+        RegistrySnapshot.Registry registry = snapshot != null && isConsistent(snapshot) ? snapshot : findAll();
+
+        applications.clear();
+        resources.clear();
+        registry.getApplications().forEach(app -> {
+            applications.put(app.getId(), app);
+            resources.put(app.getId(), registry.getResources(app.getId()));
+        });
+
+        if (registry != snapshot) {
+            writeSnapshot();
+        }
+
+        return registry;
+    }
+
+    /**
+     * Writes the changes not written yet to the snapshot before the shutdown.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        snapshotWriter.shutdown();
+        snapshotWriter.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Application save(Application application, List<Resource> applicationResources) {
+        delete(application.getId());
+
+        Application stored = applicationRepository.save(application);
+
+        // the inserts are sent in JDBC batches when the transaction is flushed.
+        if (!applicationResources.isEmpty()) {
+            applicationResources.forEach(resource -> resource.setApplication(stored.getId()));
+            resourceRepository.saveAll(applicationResources);
+        }
+
+        afterCommit(() -> {
+            saved.increment();
+            applications.put(stored.getId(), stored);
+            resources.put(stored.getId(), new ArrayList<>(applicationResources));
+        });
+
+        return stored;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean remove(String applicationId) {
+        if (!delete(applicationId)) {
+            return false;
+        }
+
+        afterCommit(() -> {
+            removed.increment();
+            applications.remove(applicationId);
+            resources.remove(applicationId);
+        });
+
+        return true;
+    }
+
+    @Override
+    public List<Resource> findAllResources(String applicationId) {
+        return resourceRepository.findAllByApplication(applicationId);
+    }
+
+    @Override
+    public List<Resource> findResources(String applicationId, long after, int limit) {
+        return resourceRepository.findByApplicationAndIdGreaterThanOrderByIdAsc(applicationId, after, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Resource findResourceByIdentifier(String identifier) {
+        return resourceRepository.findResourceByIdentifierEquals(identifier);
+    }
+
+    /**
+     * @return the applications saved and removed since the start.
+     */
+    @Override
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("saved", saved.sum());
+        statistics.put("removed", removed.sum());
+
+        return statistics;
+    }
+
+    private RegistrySnapshot.Registry findAll() {
+        List<Application> stored = applicationRepository.findAll();
+        Map<String, List<Resource>> storedResources = new LinkedHashMap<>();
+
+        stored.forEach(app -> storedResources.put(app.getId(), resourceRepository.findAllByApplication(app.getId())));
+
+        return new RegistrySnapshot.Registry(stored, storedResources);
+    }
+
+    /**
+     * Removes the application and its resources with bulk statements, without loading the resources.
+     *
+     * @return {@code true} if the application was stored on database.
+     */
+    private boolean delete(String applicationId) {
+        Optional<Application> optional = applicationRepository.findById(applicationId);
+
+        optional.ifPresent(application -> {
+            resourceRepository.deleteMethodsByApplication(applicationId);
+            resourceRepository.deleteResourcesByApplication(applicationId);
+            applicationRepository.delete(application);
+        });
+
+        return optional.isPresent();
+    }
+
+    /**
+     * The snapshot has the same applications and resources of the database, checked by the identifiers of the
+     * applications and by the count and the greatest identifier of the resources, as a deploy creates new resources.
+     */
+    private boolean isConsistent(RegistrySnapshot.Registry registry) {
+        Set<String> ids = new HashSet<>();
+
+        registry.getApplications().forEach(app -> ids.add(app.getId()));
+
+        return ids.equals(new HashSet<>(applicationRepository.findAllIds()))
+            && registry.getResourceCount() == resourceRepository.count()
+            && Objects.equals(registry.getMaxResourceId(), resourceRepository.findMaxId());
+    }
+
+    /**
+     * Applies the change to the applications of the snapshot and writes it once the transaction is committed, or
+     * right away when there is no transaction.
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        writeSnapshot();
+    }
+
+    /**
+     * Schedules the write of the applications stored, when no write is waiting already to take the change.
+     */
+    private void writeSnapshot() {
+        if (pending.compareAndSet(false, true)) {
+            snapshotWriter.execute(() -> {
+                pending.set(false);
+                registrySnapshot.write(copy());
+            });
+        }
+    }
+
+    private synchronized RegistrySnapshot.Registry copy() {
+        return new RegistrySnapshot.Registry(new ArrayList<>(applications.values()), new LinkedHashMap<>(resources));
+    }
+
+    /**
+     * Waits the writes of the snapshot scheduled before.
+     */
+    void flush() throws InterruptedException, ExecutionException {
+        snapshotWriter.submit(() -> { }).get();
+    }
+}
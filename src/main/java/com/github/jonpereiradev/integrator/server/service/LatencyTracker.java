@@ -0,0 +1,59 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latencies of an application to know how long a request usually takes. The percentile is computed
+ * again only after some new samples, so reading it is cheap on each request.
+ *
+ * @author Jonathan Pereira
+ */
+public class LatencyTracker {
+
+    private static final int SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final double percentile;
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    private int next;
+    private int sinceComputed;
+    private long computed = -1;
+
+    /**
+     * @param percentile the percentile tracked, between 0 and 100.
+     */
+    public LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * @param latency time in milliseconds of a request.
+     */
+    public synchronized void record(long latency) {
+        samples[next] = latency;
+        next = (next + 1) % SAMPLES;
+        count = Math.min(SAMPLES, count + 1);
+        sinceComputed++;
+    }
+
+    /**
+     * @return the latency in milliseconds of the percentile or {@code -1} while there are few samples.
+     */
+    public synchronized long getPercentile() {
+        if (count < MIN_SAMPLES) {
+            return -1;
+        }
+
+        if (computed < 0 || sinceComputed >= RECOMPUTE_INTERVAL) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+
+            computed = sorted[(int) Math.max(0, Math.min(count - 1, Math.ceil(percentile / 100 * count) - 1))];
+            sinceComputed = 0;
+        }
+
+        return computed;
+    }
+}
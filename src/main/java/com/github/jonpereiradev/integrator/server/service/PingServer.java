@@ -1,10 +1,37 @@
 package com.github.jonpereiradev.integrator.server.service;
 
+import com.github.jonpereiradev.integrator.server.configuration.HealthCheckProperties;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Timeouts;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -12,8 +39,59 @@ import java.util.regex.Pattern;
 public class PingServer {
 
     private static final Pattern HOST_PATTERN = Pattern.compile("(http:\\/\\/|https:\\/\\/)?([\\w\\.\\d]+)+\\:?(\\d{0,5}).*");
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The result of the probe of a host.
+     */
+    public enum Status {
+
+        /**
+         * The host refused the connection, did not respond in time or the status is not OK.
+         */
+        OFFLINE,
+
+        /**
+         * The host accepted the connection, the status was not requested as the connection is secure.
+         */
+        REACHABLE,
+
+        /**
+         * The host responded OK to the status request.
+         */
+        ONLINE
+    }
+
+    private final int maxConnections;
+    private final ThreadPoolExecutor resolver;
+
+    public PingServer() {
+        this(new HealthCheckProperties());
+    }
+
+    @Autowired
+    public PingServer(HealthCheckProperties properties) {
+        AtomicInteger count = new AtomicInteger();
+
+        this.maxConnections = properties.getMaxInFlight();
+        this.resolver = new ThreadPoolExecutor(maxConnections, maxConnections, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "integrator-ping-resolver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.resolver.allowCoreThreadTimeOut(true);
+    }
 
     public boolean ping(String address) {
+        return ping(address, Timeouts.DEFAULT_CONNECT);
+    }
+
+    /**
+     * @param address the address of the application.
+     * @param timeout max time in milliseconds to open the connection.
+     * @return {@code true} if a connection was opened with the application.
+     */
+    public boolean ping(String address, long timeout) {
         Matcher matcher = HOST_PATTERN.matcher(address);
 
         if (!matcher.matches()) {
@@ -24,7 +102,7 @@ public class PingServer {
         int port = matcher.group(3).isEmpty() ? 80 : Integer.valueOf(matcher.group(3));
 
         try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port));
+            socket.connect(new InetSocketAddress(host, port), (int) Math.min(Integer.MAX_VALUE, timeout));
         } catch (IOException ex) {
             return false;
         }
@@ -32,4 +110,380 @@ public class PingServer {
         return true;
     }
 
+    /**
+     * Probes all the hosts of the applications at once with non blocking connections on the calling thread. Each host
+     * receives a status request, the addresses on the same host and port share one connection when the host keeps it
+     * alive. The connect and each status request have the connect timeout of the application as limit. The hosts are
+     * resolved before, at most max in flight at the same time, so a slow name lookup don't stop the other probes.
+     *
+     * @param applications the applications with the hosts.
+     * @return the status by address of the hosts.
+     */
+    public Map<String, Status> pingAll(Collection<Application> applications) {
+        Map<String, Status> statuses = new HashMap<>();
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        Map<String, Long> timeouts = new LinkedHashMap<>();
+
+        for (Application application : applications) {
+            long timeout = Timeouts.of(application, null).getConnect();
+            application.getAllHosts().forEach(address -> timeouts.merge(address, timeout, Math::max));
+        }
+
+        timeouts.forEach((address, timeout) -> {
+            Matcher matcher = HOST_PATTERN.matcher(address);
+            statuses.put(address, Status.OFFLINE);
+
+            if (!matcher.matches()) {
+                return;
+            }
+
+            boolean secure = "https://".equals(matcher.group(1));
+            String host = matcher.group(2);
+            int port = matcher.group(3).isEmpty() ? (secure ? 443 : 80) : Integer.valueOf(matcher.group(3));
+            String path = address.substring(matcher.end(3));
+            Endpoint endpoint = endpoints.computeIfAbsent((secure ? "https://" : "http://") + host + ":" + port,
+                key -> new Endpoint(host, port, secure, statuses));
+
+            endpoint.targets.add(new Target(address, (path.startsWith("/") ? path : "/" + path).replaceAll("/+$", "") + "/status"));
+            endpoint.timeout = Math.max(endpoint.timeout, timeout);
+        });
+
+        if (!endpoints.isEmpty()) {
+            probe(endpoints.values());
+        }
+
+        return statuses;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resolver.shutdownNow();
+    }
+
+    private void probe(Collection<Endpoint> endpoints) {
+        resolve(endpoints);
+
+        Deque<Endpoint> waiting = new ArrayDeque<>(endpoints);
+        Set<Endpoint> active = new HashSet<>();
+
+        try (Selector selector = Selector.open()) {
+            while (!waiting.isEmpty() || !active.isEmpty()) {
+                while (active.size() < maxConnections && !waiting.isEmpty()) {
+                    Endpoint endpoint = waiting.poll();
+
+                    endpoint.connect(selector, now());
+
+                    if (!endpoint.done) {
+                        active.add(endpoint);
+                    }
+                }
+
+                long now = now();
+                long next = active.stream().mapToLong(endpoint -> endpoint.deadline).min().orElse(now);
+
+                selector.select(Math.max(1, next - now));
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid()) {
+                        ((Endpoint) key.attachment()).onReady(key, now());
+                    }
+                }
+
+                selector.selectedKeys().clear();
+
+                long expiredAt = now();
+                active.removeIf(endpoint -> endpoint.expire(expiredAt));
+            }
+        } catch (IOException e) {
+            // the selector could not be opened, the hosts not probed stay offline.
+            active.forEach(Endpoint::close);
+        }
+    }
+
+    /**
+     * Resolves the hosts of the endpoints out of the selector loop, each host once. The hosts not resolved until the
+     * longest timeout of the endpoints stay unresolved and are offline.
+     */
+    private void resolve(Collection<Endpoint> endpoints) {
+        Map<String, CompletableFuture<InetAddress>> addresses = new HashMap<>();
+        long deadline = now() + endpoints.stream().mapToLong(endpoint -> endpoint.timeout).max().orElse(0);
+
+        for (Endpoint endpoint : endpoints) {
+            addresses.computeIfAbsent(endpoint.host, host -> CompletableFuture.supplyAsync(() -> resolve(host), resolver));
+        }
+
+        for (Endpoint endpoint : endpoints) {
+            try {
+                endpoint.address = addresses.get(endpoint.host).get(Math.max(0, deadline - now()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                // the host not resolved is offline.
+            }
+        }
+    }
+
+    private static InetAddress resolve(String host) {
+        InetSocketAddress address = new InetSocketAddress(host, 0);
+        return address.isUnresolved() ? null : address.getAddress();
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * An address to probe and the path of its status.
+     */
+    private static class Target {
+
+        private final String address;
+        private final String statusPath;
+
+        private Target(String address, String statusPath) {
+            this.address = address;
+            this.statusPath = statusPath;
+        }
+    }
+
+    /**
+     * A connection to a host and port, sending the status request of each address after the response of the
+     * previous one.
+     */
+    private static class Endpoint {
+
+        private final String host;
+        private final int port;
+        private final boolean secure;
+        private final Map<String, Status> statuses;
+        private final Deque<Target> targets = new ArrayDeque<>();
+        private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private InetAddress address;
+        private long timeout;
+        private long deadline;
+        private boolean done;
+        private int served;
+
+        private Selector selector;
+        private SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer out;
+
+        private int status;
+        private boolean headersRead;
+        private boolean keepAlive;
+        private long remaining;
+
+        private Endpoint(String host, int port, boolean secure, Map<String, Status> statuses) {
+            this.host = host;
+            this.port = port;
+            this.secure = secure;
+            this.statuses = statuses;
+        }
+
+        private void connect(Selector selector, long now) {
+            this.selector = selector;
+
+            if (address == null) {
+                finish(Status.OFFLINE);
+                return;
+            }
+
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                deadline = now + timeout;
+
+                if (channel.connect(new InetSocketAddress(address, port))) {
+                    key = channel.register(selector, 0, this);
+                    onConnected(now);
+                } else {
+                    key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+                }
+            } catch (IOException e) {
+                finish(Status.OFFLINE);
+            }
+        }
+
+        private void onReady(SelectionKey key, long now) {
+            try {
+                if (key.isConnectable()) {
+                    if (channel.finishConnect()) {
+                        onConnected(now);
+                    }
+                } else if (key.isWritable()) {
+                    channel.write(out);
+
+                    if (!out.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } else if (key.isReadable()) {
+                    if (channel.read(in) < 0) {
+                        onFailed(now);
+                    } else {
+                        read(now);
+                    }
+                }
+            } catch (IOException e) {
+                onFailed(now);
+            }
+        }
+
+        /**
+         * @return {@code true} if the endpoint is finished, by the responses or by the deadline.
+         */
+        private boolean expire(long now) {
+            if (!done && now >= deadline) {
+                finish(Status.OFFLINE);
+            }
+
+            return done;
+        }
+
+        private void onConnected(long now) {
+            if (secure) {
+                finish(Status.REACHABLE);
+                return;
+            }
+
+            send(now);
+        }
+
+        private void send(long now) {
+            String request = "GET " + targets.peek().statusPath + " HTTP/1.1\r\n"
+                + "Host: " + host + ":" + port + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Connection: keep-alive\r\n\r\n";
+
+            out = ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII));
+            in.clear();
+            status = 0;
+            headersRead = false;
+            deadline = now + timeout;
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+
+        private void read(long now) {
+            in.flip();
+
+            if (!headersRead && !readHeaders()) {
+                if (in.limit() == in.capacity()) {
+                    // the headers don't fit in the buffer, the status is known but the connection can't be reused.
+                    onResponse(now, false);
+                } else {
+                    in.compact();
+                }
+
+                return;
+            }
+
+            long skipped = Math.min(remaining, in.remaining());
+
+            in.position(in.position() + (int) skipped);
+            remaining -= skipped;
+            in.clear();
+
+            if (remaining == 0) {
+                onResponse(now, keepAlive);
+            }
+        }
+
+        private boolean readHeaders() {
+            byte[] bytes = in.array();
+            int end = -1;
+
+            for (int i = in.position(); i + 3 < in.limit(); i++) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+
+            String head = new String(bytes, in.position(), (end < 0 ? in.limit() : end) - in.position(), StandardCharsets.ISO_8859_1);
+            String[] lines = head.split("\r\n");
+            String[] statusLine = lines[0].split(" ");
+
+            if (statusLine.length > 1 && statusLine[1].matches("\\d{3}")) {
+                status = Integer.parseInt(statusLine[1]);
+            }
+
+            if (end < 0) {
+                return false;
+            }
+
+            keepAlive = lines[0].startsWith("HTTP/1.1");
+            remaining = -1;
+
+            for (int i = 1; i < lines.length; i++) {
+                String line = lines[i].toLowerCase(Locale.ENGLISH);
+
+                if (line.startsWith("content-length:")) {
+                    remaining = Long.parseLong(line.substring(15).trim());
+                } else if (line.startsWith("connection:")) {
+                    keepAlive = line.contains("keep-alive") || (keepAlive && !line.contains("close"));
+                }
+            }
+
+            // without the length the end of the body is unknown, the connection is not reused.
+            if (remaining < 0) {
+                remaining = 0;
+                keepAlive = false;
+            }
+
+            headersRead = true;
+            in.position(end + 4);
+
+            return true;
+        }
+
+        private void onResponse(long now, boolean reusable) {
+            statuses.put(targets.poll().address, status == 200 ? Status.ONLINE : Status.OFFLINE);
+            served++;
+
+            if (targets.isEmpty()) {
+                finish(null);
+            } else if (reusable) {
+                send(now);
+            } else {
+                reconnect(now);
+            }
+        }
+
+        private void onFailed(long now) {
+            // a connection already used may have been closed by the host, the next address tries a new one.
+            if (served > 0) {
+                served = 0;
+                reconnect(now);
+            } else {
+                finish(Status.OFFLINE);
+            }
+        }
+
+        private void reconnect(long now) {
+            close();
+            connect(selector, now);
+        }
+
+        private void finish(Status status) {
+            if (status != null) {
+                targets.forEach(target -> statuses.put(target.address, status));
+                targets.clear();
+            }
+
+            done = true;
+            close();
+        }
+
+        private void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // the status is already known, the connection is discarded.
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A request entity that sends the client body to the application as it is read, using pooled buffers.
+ *
+ * @author Jonathan Pereira
+ */
+public class PooledInputStreamEntity extends AbstractHttpEntity {
+
+    private final InputStream content;
+    private final long length;
+    private final BufferPool bufferPool;
+
+    public PooledInputStreamEntity(InputStream content, long length, BufferPool bufferPool) {
+        this.content = content;
+        this.length = length;
+        this.bufferPool = bufferPool;
+        setChunked(length < 0);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return content;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (InputStream input = content) {
+            bufferPool.copy(input, outputStream);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+}
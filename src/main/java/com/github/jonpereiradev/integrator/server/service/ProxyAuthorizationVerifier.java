@@ -0,0 +1,253 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies the signature of the proxy authorizations with the secret of the application called, that must be the
+ * subject of the token. The verifier of each application is built once on the deploy and the authorizations already
+ * verified are kept by their digest, so the repeated ones skip the decoding and the signature. An authorization is
+ * only used with the deploy it was verified with, and the least recently used one of a sample is evicted when the
+ * cache is full, so the requests do not wait on each other.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class ProxyAuthorizationVerifier {
+
+    /**
+     * Number of authorizations compared to evict the least recently used one when the cache is full.
+     */
+    private static final int EVICTION_SAMPLE = 8;
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ProxyProperties properties;
+    private final IntegratorServer integratorServer;
+    private final Map<String, Deployment> deployments = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, VerifiedAuthorization> verified = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public ProxyAuthorizationVerifier(ProxyProperties properties, IntegratorServer integratorServer) {
+        this.properties = properties;
+        this.integratorServer = integratorServer;
+    }
+
+    /**
+     * Validates the proxy authorization for the application called.
+     *
+     * @param applicationId the key of the application called.
+     * @param proxyAuthorization token with the authorization.
+     * @return the subject of the token verified with the secret of the application, or {@code null} when the
+     * application is not deployed, as there is no secret to verify the token with.
+     * @throws IllegalStateException when the token is invalid.
+     */
+    public String verify(String applicationId, String proxyAuthorization) {
+        ByteBuffer key = ByteBuffer.wrap(DIGESTS.get().digest(proxyAuthorization.getBytes(StandardCharsets.UTF_8)));
+        VerifiedAuthorization authorization = verified.get(key);
+        long now = System.currentTimeMillis();
+
+        if (authorization != null && authorization.applicationId.equals(applicationId) && now < authorization.expiresAt
+            && deployments.get(applicationId) == authorization.deployment) {
+            authorization.accessedAt = System.nanoTime();
+            hits.increment();
+            return authorization.subject;
+        }
+
+        misses.increment();
+
+        DecodedJWT decode = JWT.decode(proxyAuthorization);
+
+        if (decode.getSubject() == null || decode.getNotBefore() == null || decode.getNotBefore().after(new Date(now))) {
+            throw new IllegalStateException("Proxy-Authorization is invalid");
+        }
+
+        Application application = integratorServer.findOneApplicationByKey(applicationId);
+
+        if (application == null) {
+            return null;
+        }
+
+        Deployment deployment = deployment(application);
+
+        if (deployment == null) {
+            return null;
+        }
+
+        try {
+            deployment.verifier.verify(proxyAuthorization);
+        } catch (JWTVerificationException e) {
+            throw new IllegalStateException("Proxy-Authorization is invalid", e);
+        }
+
+        long expiresAt = now + properties.getAuthorizationCacheTtl();
+
+        if (decode.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, decode.getExpiresAt().getTime());
+        }
+
+        // a deploy during the verification forgets the authorizations of the previous one, so this one is not kept.
+        if (deployments.get(applicationId) == deployment) {
+            verified.put(key, new VerifiedAuthorization(applicationId, deployment, decode.getSubject(), expiresAt));
+            evict();
+        }
+
+        return decode.getSubject();
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        Application application = event.getApplication();
+
+        // the secret may have changed, the authorizations verified with the previous one are not valid anymore.
+        deployments.put(application.getId(), new Deployment(application));
+        forget(application.getId());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        deployments.remove(event.getApplicationId());
+        forget(event.getApplicationId());
+    }
+
+    /**
+     * @return the authorizations found verified, the ones verified now and the ones kept.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        statistics.put("size", (long) verified.size());
+
+        return statistics;
+    }
+
+    /**
+     * The deploy of an application loaded when the server started has no event, so it is created on the first request
+     * unless the application was undeployed meanwhile.
+     *
+     * @return the deploy of the application, or {@code null} when it is not deployed anymore.
+     */
+    private Deployment deployment(Application application) {
+        Deployment deployment = deployments.get(application.getId());
+
+        if (deployment != null) {
+            return deployment;
+        }
+
+        deployment = new Deployment(application);
+        Deployment previous = deployments.putIfAbsent(application.getId(), deployment);
+
+        if (previous != null) {
+            return previous;
+        }
+
+        // the undeploy removes the application before its event, so an undeploy missed here is seen by the server.
+        if (integratorServer.findOneApplicationByKey(application.getId()) != application) {
+            deployments.remove(application.getId(), deployment);
+            return null;
+        }
+
+        return deployment;
+    }
+
+    private void forget(String applicationId) {
+        verified.values().removeIf(authorization -> authorization.applicationId.equals(applicationId));
+    }
+
+    /**
+     * Removes the least recently used authorization of a sample until the cache is back to its size.
+     */
+    private void evict() {
+        while (verified.size() > properties.getAuthorizationCacheSize()) {
+            Map.Entry<ByteBuffer, VerifiedAuthorization> eldest = null;
+            Iterator<Map.Entry<ByteBuffer, VerifiedAuthorization>> iterator = verified.entrySet().iterator();
+
+            for (int i = 0; i < EVICTION_SAMPLE && iterator.hasNext(); i++) {
+                Map.Entry<ByteBuffer, VerifiedAuthorization> entry = iterator.next();
+
+                if (eldest == null || entry.getValue().accessedAt - eldest.getValue().accessedAt < 0) {
+                    eldest = entry;
+                }
+            }
+
+            if (eldest == null) {
+                return;
+            }
+
+            verified.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static JWTVerifier verifier(Application application) {
+        if (application.getSecret() == null) {
+            throw new IllegalStateException("Application " + application.getId() + " must be deployed again to verify the Proxy-Authorization");
+        }
+
+        return JWT.require(Algorithm.HMAC256(application.getSecret().getBytes()))
+            .withSubject(application.getId())
+            .build();
+    }
+
+    /**
+     * The verifier of a deploy of an application, compared by identity with the authorizations verified with it.
+     */
+    private static class Deployment {
+
+        private final JWTVerifier verifier;
+
+        private Deployment(Application application) {
+            this.verifier = verifier(application);
+        }
+    }
+
+    /**
+     * A proxy authorization verified for an application.
+     */
+    private static class VerifiedAuthorization {
+
+        private final String applicationId;
+        private final Deployment deployment;
+        private final String subject;
+        private final long expiresAt;
+        private volatile long accessedAt = System.nanoTime();
+
+        private VerifiedAuthorization(String applicationId, Deployment deployment, String subject, long expiresAt) {
+            this.applicationId = applicationId;
+            this.deployment = deployment;
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
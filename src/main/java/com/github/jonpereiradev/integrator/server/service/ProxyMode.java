@@ -0,0 +1,24 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+/**
+ * The ways the proxy can execute a request against the application.
+ *
+ * @author Jonathan Pereira
+ */
+public enum ProxyMode {
+
+    /**
+     * Reads the whole body as json before sending it to the application and back to the client.
+     */
+    BUFFERED,
+
+    /**
+     * Copies the bodies between the client and the application as they arrive, with any content type.
+     */
+    STREAMING,
+
+    /**
+     * Same as buffered, but waits the application response without holding a container thread.
+     */
+    ASYNC
+}
@@ -0,0 +1,65 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the requests with the generic cell rate algorithm (GCRA). The only state is the theoretical arrival time of
+ * the next request, updated with compare and set, so the requests of a client never wait a lock.
+ *
+ * @author Jonathan Pereira
+ */
+public class RateLimiter {
+
+    private final long emissionInterval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param rateLimit the rate and the burst accepted.
+     * @param now the current time in nanoseconds.
+     */
+    public RateLimiter(RateLimit rateLimit, long now) {
+        this.emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / rateLimit.getRate());
+        this.tolerance = emissionInterval * rateLimit.getBurst();
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * @param now the current time in nanoseconds.
+     * @return zero when the request is accepted or the nanoseconds to wait until it would be.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            // nano times are only compared by the difference, as they may overflow.
+            long next = (current - now > 0 ? current : now) + emissionInterval;
+            long wait = next - now - tolerance;
+
+            if (wait > 0) {
+                return wait;
+            }
+
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a request accepted that was rejected by another limit.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-emissionInterval);
+    }
+
+    /**
+     * @param now the current time in nanoseconds.
+     * @return {@code true} if the limiter is back to the initial state, so it may be discarded.
+     */
+    public boolean isIdle(long now) {
+        return theoreticalArrival.get() - now <= 0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the rate limiters of each application: one for all the requests to the application, one for each subject of
+ * the proxy authorization and one for each resource, as declared on the deploy.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RateLimiters {
+
+    private final Map<String, Map<String, RateLimiter>> limiters = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    /**
+     * Takes a request from all the limits of the application that apply to it.
+     *
+     * @param application the application that receives the request.
+     * @param resource the resource requested.
+     * @param subject the subject of the proxy authorization.
+     * @return the permit of the request, that gives the request back to the limits when it is not sent.
+     */
+    public Permit tryAcquire(Application application, Resource resource, String subject) {
+        Map<String, RateLimiter> applicationLimiters = limiters.computeIfAbsent(application.getId(), id -> new ConcurrentHashMap<>());
+        List<RateLimiter> acquired = new ArrayList<>(3);
+        long now = System.nanoTime();
+
+        long wait = tryAcquire(applicationLimiters, "application", application.getRateLimit(), now, acquired);
+
+        if (wait == 0) {
+            wait = tryAcquire(applicationLimiters, "subject:" + subject, application.getSubjectRateLimit(), now, acquired);
+        }
+
+        if (wait == 0) {
+            wait = tryAcquire(applicationLimiters, "resource:" + resource.getIdentifier(), resource.getRateLimit(), now, acquired);
+        }
+
+        if (wait > 0) {
+            // the limits that accepted the request give it back, as it is not sent.
+            acquired.forEach(RateLimiter::release);
+            rejected.increment();
+            return new Permit(wait, Collections.emptyList());
+        }
+
+        accepted.increment();
+
+        return new Permit(0, acquired);
+    }
+
+    /**
+     * Discards the limiters back to the initial state, as the subjects that stopped sending requests.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleLimiters() {
+        long now = System.nanoTime();
+        limiters.values().forEach(applicationLimiters -> applicationLimiters.values().removeIf(limiter -> limiter.isIdle(now)));
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        limiters.remove(event.getApplication().getId());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        limiters.remove(event.getApplicationId());
+    }
+
+    /**
+     * @return the requests accepted and rejected by the limits and the limiters in use.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("accepted", accepted.sum());
+        statistics.put("rejected", rejected.sum());
+        statistics.put("released", released.sum());
+        statistics.put("limiters", limiters.values().stream().mapToLong(Map::size).sum());
+
+        return statistics;
+    }
+
+    private static long tryAcquire(Map<String, RateLimiter> applicationLimiters, String key, RateLimit rateLimit, long now, List<RateLimiter> acquired) {
+        if (rateLimit == null || rateLimit.getRate() == null) {
+            return 0;
+        }
+
+        RateLimiter limiter = applicationLimiters.computeIfAbsent(key, k -> new RateLimiter(rateLimit, now));
+        long wait = limiter.tryAcquire(now);
+
+        if (wait == 0) {
+            acquired.add(limiter);
+        }
+
+        return wait;
+    }
+
+    /**
+     * The request taken from the limits of an application. A request accepted but then rejected by the proxy, as by the
+     * admission or the concurrency limit, is given back to the limits so it doesn't count against the rate.
+     */
+    public class Permit {
+
+        private final long wait;
+        private final List<RateLimiter> acquired;
+        // set once the request is sent to the application or given back.
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Permit(long wait, List<RateLimiter> acquired) {
+            this.wait = wait;
+            this.acquired = acquired;
+        }
+
+        /**
+         * @return zero when the request is accepted or the nanoseconds to wait until it would be.
+         */
+        public long getWait() {
+            return wait;
+        }
+
+        /**
+         * Keeps the request taken from the limits, as it was sent to the application by one of its attempts.
+         */
+        public void sent() {
+            settled.set(true);
+        }
+
+        /**
+         * Gives the request back to the limits, unless it was already sent to the application.
+         */
+        public void release() {
+            if (wait == 0 && settled.compareAndSet(false, true)) {
+                acquired.forEach(RateLimiter::release);
+                released.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ConnectionPool;
+import com.github.jonpereiradev.integrator.server.model.Priority;
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.model.Timeouts;
+import com.github.jonpereiradev.integrator.server.model.UpstreamProtocol;
+import org.springframework.http.HttpMethod;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The binary format of an application and its resources, shared by the snapshot and the event log of the registry.
+ * The values are written big endian, the strings with their length in bytes. The secret of the applications is
+ * written in plain text, so the files must be readable only by the server.
+ *
+ * @author Jonathan Pereira
+ */
+final class RegistryCodec {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final UpstreamProtocol[] PROTOCOLS = UpstreamProtocol.values();
+
+    private RegistryCodec() {
+    }
+
+    static void write(DataOutputStream output, Application application, List<Resource> resources) throws IOException {
+        writeApplication(output, application);
+        output.writeInt(resources.size());
+
+        for (Resource resource : resources) {
+            writeResource(output, resource);
+        }
+    }
+
+    /**
+     * @param buffer the buffer positioned on the application.
+     * @param resources receives the resources of the application.
+     * @return the application read.
+     */
+    static Application read(ByteBuffer buffer, List<Resource> resources) {
+        Application application = readApplication(buffer);
+
+        for (int i = buffer.getInt(); i > 0; i--) {
+            resources.add(readResource(buffer, application.getId()));
+        }
+
+        return application;
+    }
+
+    private static void writeApplication(DataOutputStream output, Application application) throws IOException {
+        ConnectionPool pool = application.getPool();
+
+        writeString(output, application.getId());
+        writeString(output, application.getName());
+        writeString(output, application.getDescription());
+        writeString(output, application.getVersion());
+        writeString(output, application.getHost());
+        output.writeInt(application.getHosts() == null ? 0 : application.getHosts().size());
+
+        if (application.getHosts() != null) {
+            for (String host : application.getHosts()) {
+                writeString(output, host);
+            }
+        }
+
+        output.writeByte(application.getProtocol().ordinal());
+        output.writeInt(pool.getMaxConnections());
+        output.writeLong(pool.getKeepAlive());
+        output.writeLong(pool.getIdleTimeout());
+        writeTimeouts(output, application.getTimeouts());
+        writeRateLimit(output, application.getRateLimit());
+        writeRateLimit(output, application.getSubjectRateLimit());
+        writeString(output, application.getSecret());
+    }
+
+    private static Application readApplication(ByteBuffer buffer) {
+        Application application = new Application();
+        ConnectionPool pool = new ConnectionPool();
+
+        application.setId(readString(buffer));
+        application.setName(readString(buffer));
+        application.setDescription(readString(buffer));
+        application.setVersion(readString(buffer));
+        application.setHost(readString(buffer));
+
+        List<String> hosts = new ArrayList<>();
+
+        for (int i = buffer.getInt(); i > 0; i--) {
+            hosts.add(readString(buffer));
+        }
+
+        application.setHosts(hosts);
+        application.setProtocol(PROTOCOLS[buffer.get()]);
+        pool.setMaxConnections(buffer.getInt());
+        pool.setKeepAlive(buffer.getLong());
+        pool.setIdleTimeout(buffer.getLong());
+        application.setPool(pool);
+        application.setTimeouts(readTimeouts(buffer));
+        application.setRateLimit(readRateLimit(buffer));
+        application.setSubjectRateLimit(readRateLimit(buffer));
+        application.setSecret(readString(buffer));
+
+        return application;
+    }
+
+    private static void writeResource(DataOutputStream output, Resource resource) throws IOException {
+        writeLong(output, resource.getId());
+        writeString(output, resource.getIdentifier());
+        writeString(output, resource.getPath());
+        output.writeByte(resource.getMethods() == null ? 0 : resource.getMethods().size());
+
+        if (resource.getMethods() != null) {
+            for (HttpMethod method : resource.getMethods()) {
+                output.writeByte(method.ordinal());
+            }
+        }
+
+        output.writeBoolean(resource.isCoalesce());
+        output.writeByte(resource.getPriority().ordinal());
+        writeTimeouts(output, resource.getTimeouts());
+        writeRateLimit(output, resource.getRateLimit());
+    }
+
+    private static Resource readResource(ByteBuffer buffer, String application) {
+        Resource resource = new Resource();
+        Set<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
+
+        resource.setId(readLong(buffer));
+        resource.setIdentifier(readString(buffer));
+        resource.setPath(readString(buffer));
+        resource.setApplication(application);
+
+        for (int i = buffer.get(); i > 0; i--) {
+            methods.add(METHODS[buffer.get()]);
+        }
+
+        resource.setMethods(methods);
+        resource.setCoalesce(buffer.get() != 0);
+        resource.setPriority(PRIORITIES[buffer.get()]);
+        resource.setTimeouts(readTimeouts(buffer));
+        resource.setRateLimit(readRateLimit(buffer));
+
+        return resource;
+    }
+
+    private static void writeTimeouts(DataOutputStream output, Timeouts timeouts) throws IOException {
+        output.writeBoolean(timeouts != null);
+
+        if (timeouts != null) {
+            writeLong(output, timeouts.getConnect());
+            writeLong(output, timeouts.getRead());
+            writeLong(output, timeouts.getDeadline());
+        }
+    }
+
+    private static Timeouts readTimeouts(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : new Timeouts(readLong(buffer), readLong(buffer), readLong(buffer));
+    }
+
+    private static void writeRateLimit(DataOutputStream output, RateLimit rateLimit) throws IOException {
+        output.writeBoolean(rateLimit != null);
+
+        if (rateLimit != null) {
+            output.writeBoolean(rateLimit.getRate() != null);
+            output.writeDouble(rateLimit.getRate() == null ? 0 : rateLimit.getRate());
+            output.writeInt(rateLimit.getBurst());
+        }
+    }
+
+    private static RateLimit readRateLimit(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+
+        boolean limited = buffer.get() != 0;
+        double rate = buffer.getDouble();
+
+        return new RateLimit(limited ? rate : null, buffer.getInt());
+    }
+
+    private static void writeLong(DataOutputStream output, Long value) throws IOException {
+        output.writeBoolean(value != null);
+        output.writeLong(value == null ? 0 : value);
+    }
+
+    private static Long readLong(ByteBuffer buffer) {
+        boolean present = buffer.get() != 0;
+        long value = buffer.getLong();
+
+        return present ? value : null;
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,451 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jonpereiradev.integrator.server.configuration.ReplicationProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.ReplicationEntry;
+import com.github.jonpereiradev.integrator.server.model.VersionVector;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Replicates the deploys and the undeploys between the servers, so each one routes to all the applications. A change
+ * is sent to the peers as soon as it is made, and at each interval the server asks a peer at random for the changes
+ * it doesn't have yet, which repairs the changes lost while a peer was down.
+ *
+ * <p>Each application has a {@link VersionVector}, a change replaces the one of another server only when it happened
+ * after it. Two concurrent changes are resolved the same way on all the servers, the last one written wins and the
+ * versions are merged.</p>
+ *
+ * <p>The messages between the servers are signed with the replication secret by the server that sends them, and
+ * accepted only from the peer nodes declared. The secrets of the applications are sent encrypted with it.</p>
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RegistryReplicator {
+
+    private static final TypeReference<List<ReplicationEntry>> ENTRIES = new TypeReference<List<ReplicationEntry>>() {
+    };
+    private static final TypeReference<Map<String, VersionVector>> DIGEST = new TypeReference<Map<String, VersionVector>>() {
+    };
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    public static final String NODE_HEADER = "X-Integrator-Node";
+    public static final String SIGNATURE_HEADER = "X-Integrator-Signature";
+    public static final String ENTRIES_MESSAGE = "entries";
+    public static final String DIGEST_MESSAGE = "digest";
+    public static final String CHANGES_MESSAGE = "changes";
+
+    private final Logger logger = LoggerFactory.getLogger(RegistryReplicator.class);
+    private final ReplicationProperties properties;
+    private final IntegratorServer integratorServer;
+    private final Request request;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final ReplicationCipher cipher;
+    private final Map<String, ReplicationEntry> entries = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> replicating = ThreadLocal.withInitial(() -> false);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemon("integrator-replication"));
+    private final ExecutorService sender;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder exchanges = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public RegistryReplicator(ReplicationProperties properties, IntegratorServer integratorServer, Request request, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.integratorServer = integratorServer;
+        this.request = request;
+        this.objectMapper = objectMapper;
+        this.nodeId = properties.getNodeId();
+        this.cipher = properties.getSecret() == null || properties.getSecret().isEmpty() ? null : new ReplicationCipher(properties.getSecret());
+        this.sender = Executors.newFixedThreadPool(Math.max(1, properties.getPeers().size()), daemon("integrator-replication-sender"));
+
+        // a new identifier on each start would make the changes before it look concurrent to the ones after.
+        if (properties.isEnabled() && (nodeId == null || nodeId.isEmpty())) {
+            throw new IllegalStateException("Replication enabled without the integrator.replication.node-id kept between the starts.");
+        }
+
+        if (properties.isEnabled() && cipher == null) {
+            throw new IllegalStateException("Replication enabled without the integrator.replication.secret shared by the servers.");
+        }
+    }
+
+    /**
+     * Starts the exchanges with the peers. The applications loaded on the start have no version, any change of them
+     * received from a peer replaces them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        integratorServer.findAllApplications().forEach(application -> entries.putIfAbsent(application.getId(),
+            new ReplicationEntry(application.getId(), toRequest(application), VersionVector.empty(), 0, nodeId)));
+
+        scheduler.scheduleWithFixedDelay(this::exchange, properties.getInterval(), properties.getInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        changed(event.getApplication().getId());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        changed(event.getApplicationId());
+    }
+
+    /**
+     * Applies the changes received from a peer that happened after the ones of this server.
+     *
+     * @param changes the changes of the applications.
+     */
+    public void receive(List<ReplicationEntry> changes) {
+        changes.forEach(this::merge);
+    }
+
+    /**
+     * Applies the changes of the message received from a peer.
+     *
+     * @param body the changes of the applications, with the secrets encrypted.
+     * @throws IOException if the message is not valid.
+     */
+    public void receive(String body) throws IOException {
+        receive(open(objectMapper.readValue(body, ENTRIES)));
+    }
+
+    /**
+     * @param body the version of each application known by a peer.
+     * @return the message with the changes that the peer doesn't know, with the secrets encrypted.
+     * @throws IOException if the message is not valid.
+     */
+    public String findChanges(String body) throws IOException {
+        return objectMapper.writeValueAsString(seal(findChanges(objectMapper.<Map<String, VersionVector>>readValue(body, DIGEST))));
+    }
+
+    /**
+     * @param node the server that sent the message.
+     * @param kind the kind of the message.
+     * @param body the body of the message.
+     * @param signature the signature of the message.
+     * @return {@code true} if the message was sent by a peer node and signed with the replication secret.
+     */
+    public boolean isAuthorized(String node, String kind, String body, String signature) {
+        boolean authorized = cipher != null && node != null && !node.equals(nodeId)
+            && properties.getPeerNodes().contains(node) && cipher.verify(node, kind, body, signature);
+
+        if (!authorized) {
+            rejected.increment();
+        }
+
+        return authorized;
+    }
+
+    /**
+     * @return the signature of a message sent by this server.
+     */
+    public String sign(String kind, String body) {
+        return cipher.sign(nodeId, kind, body);
+    }
+
+    /**
+     * @return the version of each application known by this server.
+     */
+    public Map<String, VersionVector> getDigest() {
+        Map<String, VersionVector> digest = new LinkedHashMap<>();
+        entries.forEach((applicationId, entry) -> digest.put(applicationId, entry.getVersion()));
+        return digest;
+    }
+
+    /**
+     * @param digest the version of each application known by a peer.
+     * @return the changes that the peer doesn't know, the ones after or concurrent to its versions.
+     */
+    public List<ReplicationEntry> findChanges(Map<String, VersionVector> digest) {
+        return entries.values().stream().filter(entry -> {
+            VersionVector known = digest.get(entry.getApplicationId());
+            VersionVector.Order order = known == null ? VersionVector.Order.AFTER : entry.getVersion().compare(known);
+
+            return order == VersionVector.Order.AFTER || order == VersionVector.Order.CONCURRENT;
+        }).collect(Collectors.toList());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return the changes sent and received, the ones applied, the concurrent ones and the exchanges with the peers.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("sent", sent.sum());
+        statistics.put("received", received.sum());
+        statistics.put("applied", applied.sum());
+        statistics.put("conflicts", conflicts.sum());
+        statistics.put("exchanges", exchanges.sum());
+        statistics.put("failures", failures.sum());
+        statistics.put("rejected", rejected.sum());
+
+        return statistics;
+    }
+
+    /**
+     * Stops the exchanges as soon as the context is closing, waiting for the one running so no change is applied
+     * while the beans are destroyed.
+     */
+    @PreDestroy
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdownNow();
+        sender.shutdownNow();
+        scheduler.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+        sender.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Versions a change made on this server and sends it to the peers. The change is read from the server, not from
+     * the event, so the entry has the state of the application on this server even when changed concurrently.
+     */
+    private void changed(String applicationId) {
+        if (!properties.isEnabled() || replicating.get()) {
+            return;
+        }
+
+        ReplicationEntry entry;
+
+        synchronized (this) {
+            Application application = integratorServer.findOneApplicationByKey(applicationId);
+            ReplicationEntry previous = entries.get(applicationId);
+            VersionVector version = (previous == null ? VersionVector.empty() : previous.getVersion()).increment(nodeId);
+
+            entry = new ReplicationEntry(applicationId, application == null ? null : toRequest(application), version, System.currentTimeMillis(), nodeId);
+            entries.put(applicationId, entry);
+        }
+
+        List<ReplicationEntry> changes = Collections.singletonList(entry);
+
+        properties.getPeers().forEach(peer -> sender.execute(() -> send(peer, changes)));
+    }
+
+    private synchronized void merge(ReplicationEntry change) {
+        received.increment();
+
+        ReplicationEntry local = entries.get(change.getApplicationId());
+
+        if (local == null) {
+            apply(change);
+            return;
+        }
+
+        switch (change.getVersion().compare(local.getVersion())) {
+            case AFTER:
+                apply(change);
+                break;
+            case CONCURRENT:
+                conflicts.increment();
+
+                VersionVector merged = local.getVersion().merge(change.getVersion());
+
+                if (change.wins(local)) {
+                    apply(change.withVersion(merged));
+                } else {
+                    // the peer receives the local change on its next exchange, as it is now after the one of the peer.
+                    entries.put(local.getApplicationId(), local.withVersion(merged));
+                }
+
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Deploys or undeploys the application on this server without sending the change back to the peers. A change not
+     * applied is received again on the next exchange.
+     */
+    private void apply(ReplicationEntry change) {
+        String applicationId = change.getApplicationId();
+
+        replicating.set(true);
+
+        try {
+            if (!change.isUndeployed()) {
+                // the identifiers of the resources are generated by the store of each server.
+                change.getApplication().getResources().forEach(resource -> resource.setId(null));
+                integratorServer.deployApplication(change.getApplication());
+            } else if (integratorServer.findOneApplicationByKey(applicationId) != null) {
+                integratorServer.undeployApplication(applicationId);
+            }
+
+            entries.put(applicationId, change);
+            applied.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Change of the application {} received from {} not applied", applicationId, change.getNode(), e);
+        } finally {
+            replicating.remove();
+        }
+    }
+
+    /**
+     * Asks a peer at random for the changes this server doesn't have.
+     */
+    private void exchange() {
+        List<String> peers = properties.getPeers();
+
+        if (peers.isEmpty()) {
+            return;
+        }
+
+        String peer = peers.get(ThreadLocalRandom.current().nextInt(peers.size()));
+
+        try {
+            HttpResponse<String> response = post(peer + "/replication/digest", DIGEST_MESSAGE, getDigest());
+
+            if (response.getStatus() != HttpStatus.OK.value()) {
+                failures.increment();
+                return;
+            }
+
+            String node = response.getHeaders().getFirst(NODE_HEADER);
+
+            if (!isAuthorized(node, CHANGES_MESSAGE, response.getBody(), response.getHeaders().getFirst(SIGNATURE_HEADER))) {
+                failures.increment();
+                logger.warn("Changes of the applications from {} rejected, not signed by a peer node", peer);
+                return;
+            }
+
+            exchanges.increment();
+            receive(response.getBody());
+        } catch (UnirestException | IOException | RuntimeException e) {
+            failures.increment();
+            logger.debug("Changes of the applications not received from {}", peer, e);
+        }
+    }
+
+    private void send(String peer, List<ReplicationEntry> changes) {
+        try {
+            if (post(peer + "/replication/entries", ENTRIES_MESSAGE, seal(changes)).getStatus() == HttpStatus.OK.value()) {
+                sent.add(changes.size());
+            } else {
+                failures.increment();
+            }
+        } catch (UnirestException | JsonProcessingException | RuntimeException e) {
+            // the peer receives the change on the next exchange.
+            failures.increment();
+            logger.debug("Changes of the applications not sent to {}", peer, e);
+        }
+    }
+
+    private HttpResponse<String> post(String url, String kind, Object body) throws UnirestException, JsonProcessingException {
+        String json = objectMapper.writeValueAsString(body);
+
+        // the charset is declared so the peer reads the body signed with the same bytes.
+        return request.post(url)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE)
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .header(NODE_HEADER, nodeId)
+            .header(SIGNATURE_HEADER, sign(kind, json))
+            .body(json)
+            .asString();
+    }
+
+    /**
+     * Copies the entries to send with the secrets of the applications encrypted apart from them.
+     */
+    private List<ReplicationEntry> seal(List<ReplicationEntry> changes) {
+        return changes.stream().map(entry -> {
+            if (entry.isUndeployed()) {
+                return entry;
+            }
+
+            ApplicationRequest application = new ApplicationRequest();
+
+            application.setApplication(entry.getApplication().getApplication());
+            application.getResources().addAll(entry.getApplication().getResources());
+
+            ReplicationEntry sealed = new ReplicationEntry(entry.getApplicationId(), application, entry.getVersion(), entry.getTimestamp(), entry.getNode());
+
+            if (entry.getApplication().getSecret() != null) {
+                sealed.setSecret(cipher.encrypt(entry.getApplication().getSecret()));
+            }
+
+            return sealed;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Decrypts the secrets of the applications received back into them.
+     */
+    private List<ReplicationEntry> open(List<ReplicationEntry> changes) {
+        changes.forEach(entry -> {
+            if (!entry.isUndeployed() && entry.getSecret() != null) {
+                entry.getApplication().setSecret(cipher.decrypt(entry.getSecret()));
+                entry.setSecret(null);
+            }
+        });
+
+        return changes;
+    }
+
+    private ApplicationRequest toRequest(Application application) {
+        ApplicationRequest applicationRequest = new ApplicationRequest();
+
+        applicationRequest.setApplication(application);
+        applicationRequest.setSecret(application.getSecret());
+        applicationRequest.getResources().addAll(integratorServer.findAllResourcesByApplication(application.getId()));
+
+        return applicationRequest;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
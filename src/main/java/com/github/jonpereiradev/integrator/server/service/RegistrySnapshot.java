@@ -0,0 +1,195 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.SnapshotProperties;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes the deployed applications and their resources to a binary file, read on the start instead of the database.
+ * The file is written to a temporary one and moved over the previous, so it is always complete, and it ends with the
+ * checksum of the content. It is read from a memory mapped buffer.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RegistrySnapshot {
+
+    private static final int MAGIC = 0x49534E50;
+    private static final int VERSION = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(RegistrySnapshot.class);
+    private final SnapshotProperties properties;
+
+    @Autowired
+    public RegistrySnapshot(SnapshotProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Replaces the snapshot with the registry. A failure is logged, the previous snapshot is found inconsistent with
+     * the database on the next start.
+     *
+     * @param registry the applications deployed and their resources.
+     */
+    public synchronized void write(Registry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Path path = Paths.get(properties.getPath());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try {
+            byte[] content = encode(registry);
+
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                channel.force(true);
+            }
+
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Snapshot of the applications not written to {}", path, e);
+        }
+    }
+
+    /**
+     * @return the registry of the snapshot or {@code null} when there is none or it is not valid.
+     */
+    public Registry read() {
+        Path path = Paths.get(properties.getPath());
+
+        if (!properties.isEnabled() || !Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return decode(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.warn("Snapshot of the applications not read from {}", path, e);
+            return null;
+        }
+    }
+
+    private static byte[] encode(Registry registry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(registry.applications.size());
+
+        for (Application application : registry.applications) {
+            RegistryCodec.write(output, application, registry.getResources(application.getId()));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeLong(crc.getValue());
+
+        return bytes.toByteArray();
+    }
+
+    private static Registry decode(ByteBuffer buffer) {
+        int end = buffer.limit() - Long.BYTES;
+
+        if (end < 3 * Integer.BYTES) {
+            throw new IllegalArgumentException("Snapshot is truncated.");
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+
+        content.limit(end);
+        crc.update(content);
+
+        if (crc.getValue() != buffer.getLong(end)) {
+            throw new IllegalArgumentException("Snapshot checksum does not match.");
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Snapshot format is not supported.");
+        }
+
+        int count = buffer.getInt();
+        List<Application> applications = new ArrayList<>(count);
+        Map<String, List<Resource>> resources = new LinkedHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            List<Resource> applicationResources = new ArrayList<>();
+            Application application = RegistryCodec.read(buffer, applicationResources);
+
+            applications.add(application);
+            resources.put(application.getId(), applicationResources);
+        }
+
+        return new Registry(applications, resources);
+    }
+
+    /**
+     * The applications deployed and the resources of each one.
+     */
+    public static final class Registry {
+
+        private final List<Application> applications;
+        private final Map<String, List<Resource>> resources;
+
+        public Registry(List<Application> applications, Map<String, List<Resource>> resources) {
+            this.applications = applications;
+            this.resources = resources;
+        }
+
+        public List<Application> getApplications() {
+            return applications;
+        }
+
+        public List<Resource> getResources(String application) {
+            return resources.getOrDefault(application, Collections.emptyList());
+        }
+
+        /**
+         * @return the number of resources of all the applications.
+         */
+        public long getResourceCount() {
+            return resources.values().stream().mapToLong(List::size).sum();
+        }
+
+        /**
+         * @return the greatest identifier of the resources or {@code null} when there is no resource.
+         */
+        public Long getMaxResourceId() {
+            return resources.values().stream().flatMap(List::stream).map(Resource::getId)
+                .filter(id -> id != null).max(Long::compare).orElse(null);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of the applications deployed and their resources, selected by the {@code integrator.registry.store}
+ * property. The server keeps the registry in memory, the store only needs to keep it across restarts.
+ *
+ * @author Jonathan Pereira
+ */
+public interface RegistryStore {
+
+    /**
+     * @return all the applications stored and their resources, read once on the start.
+     */
+    RegistrySnapshot.Registry load();
+
+    /**
+     * Stores the application with its resources, replacing the ones stored before with the same key.
+     *
+     * @param application the application deployed.
+     * @param resources the resources of the application.
+     * @return the application stored.
+     */
+    Application save(Application application, List<Resource> resources);
+
+    /**
+     * @param applicationId the key of the application.
+     * @return {@code true} if the application was stored and is removed with its resources.
+     */
+    boolean remove(String applicationId);
+
+    /**
+     * @param applicationId the key of the application.
+     * @return the resources stored for the application.
+     */
+    List<Resource> findAllResources(String applicationId);
+
+    /**
+     * Reads a page of the resources of the application ordered by id, each page starting after the last id of the
+     * one before, so no page skips over the previous ones.
+     *
+     * @param applicationId the key of the application.
+     * @param after the id of the last resource of the previous page, {@code 0} for the first page.
+     * @param limit the max resources of the page.
+     * @return the resources of the application with identifier greater than {@code after}.
+     */
+    List<Resource> findResources(String applicationId, long after, int limit);
+
+    /**
+     * @param identifier the identifier of the resource.
+     * @return the resource with the identifier or {@code null} if there is none.
+     */
+    Resource findResourceByIdentifier(String identifier);
+
+    /**
+     * @return the counters of the writes to the store.
+     */
+    Map<String, Long> getStatistics();
+}
@@ -0,0 +1,223 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.WatchProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.RegistryChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Numbers each deploy and undeploy with a revision of the registry, so the clients wait for the applications changed
+ * after the revision they know instead of reading all of them again. A watch at the current revision is held until the
+ * next change or the timeout; a watch behind receives the applications changed since, or all of them when the
+ * changes are no longer kept.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RegistryWatcher {
+
+    private final WatchProperties properties;
+    private final IntegratorServer integratorServer;
+    private final Deque<Revision> history = new ArrayDeque<>();
+    private final List<Watch> watches = new ArrayList<>();
+    private final LongAdder notified = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    // the applications loaded on the start are the first revision, a watch from 0 receives them.
+    private long revision = 1;
+
+    @Autowired
+    public RegistryWatcher(WatchProperties properties, IntegratorServer integratorServer) {
+        this.properties = properties;
+        this.integratorServer = integratorServer;
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        changed(event.getApplication().getId());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        changed(event.getApplicationId());
+    }
+
+    /**
+     * Watches the applications changed after a revision.
+     *
+     * @param since the revision known by the client, {@code 0} to receive all the applications.
+     * @param timeout the max time in milliseconds to wait for a change, limited by the configured one.
+     * @return the result set with the changes, or with none at the same revision when the timeout expires.
+     */
+    public DeferredResult<RegistryChanges> watch(long since, long timeout) {
+        long wait = timeout > 0 ? Math.min(timeout, properties.getTimeout()) : properties.getTimeout();
+        DeferredResult<RegistryChanges> result = new DeferredResult<>(wait, new RegistryChanges(since, false));
+
+        synchronized (this) {
+            if (since == revision) {
+                Watch watch = new Watch(since, result);
+
+                watches.add(watch);
+                result.onTimeout(timeouts::increment);
+                result.onCompletion(() -> remove(watch));
+
+                return result;
+            }
+        }
+
+        result.setResult(findChanges(since));
+        return result;
+    }
+
+    /**
+     * @return the current revision, the watches waiting and the ones answered by a change, by the timeout or with
+     * all the applications.
+     */
+    public synchronized Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("revision", revision);
+        statistics.put("watching", (long) watches.size());
+        statistics.put("notified", notified.sum());
+        statistics.put("timeouts", timeouts.sum());
+        statistics.put("resets", resets.sum());
+
+        return statistics;
+    }
+
+    /**
+     * Records the change with the next revision and answers the watches waiting, the ones at the same revision share
+     * the changes read once.
+     */
+    private void changed(String applicationId) {
+        List<Watch> ready;
+
+        synchronized (this) {
+            history.addLast(new Revision(++revision, applicationId));
+
+            while (history.size() > properties.getHistory()) {
+                history.removeFirst();
+            }
+
+            ready = new ArrayList<>(watches);
+            watches.clear();
+        }
+
+        Map<Long, RegistryChanges> changes = new HashMap<>();
+
+        for (Watch watch : ready) {
+            if (watch.result.isSetOrExpired()) {
+                continue;
+            }
+
+            if (watch.result.setResult(changes.computeIfAbsent(watch.since, this::findChanges))) {
+                notified.increment();
+            }
+        }
+    }
+
+    /**
+     * Finds the applications changed after the revision and reads them without holding the lock.
+     */
+    private RegistryChanges findChanges(long since) {
+        Set<String> changed;
+        long current;
+
+        synchronized (this) {
+            changed = findChanged(since);
+            current = revision;
+        }
+
+        return changes(current, changed);
+    }
+
+    /**
+     * @return the applications changed after the revision, or {@code null} when the changes are not kept anymore.
+     */
+    private Set<String> findChanged(long since) {
+        Revision oldest = history.peekFirst();
+
+        if (since == 0 || since > revision || oldest == null || oldest.revision > since + 1) {
+            return null;
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+
+        history.descendingIterator().forEachRemaining(change -> {
+            if (change.revision > since) {
+                changed.add(change.applicationId);
+            }
+        });
+
+        return changed;
+    }
+
+    /**
+     * Reads the applications changed as they are now, the ones not found were undeployed.
+     */
+    private RegistryChanges changes(long current, Set<String> changed) {
+        RegistryChanges changes = new RegistryChanges(current, changed == null);
+        Collection<String> applicationIds = changed;
+
+        if (changed == null) {
+            resets.increment();
+            applicationIds = new ArrayList<>();
+
+            for (Application application : integratorServer.findAllApplications()) {
+                applicationIds.add(application.getId());
+            }
+        }
+
+        for (String applicationId : applicationIds) {
+            Application application = integratorServer.findOneApplicationByKey(applicationId);
+
+            changes.getChanges().add(new RegistryChanges.Change(applicationId, application,
+                application == null ? null : integratorServer.findAllResourcesByApplication(applicationId)));
+        }
+
+        return changes;
+    }
+
+    private synchronized void remove(Watch watch) {
+        watches.remove(watch);
+    }
+
+    private static class Revision {
+
+        private final long revision;
+        private final String applicationId;
+
+        private Revision(long revision, String applicationId) {
+            this.revision = revision;
+            this.applicationId = applicationId;
+        }
+    }
+
+    private static class Watch {
+
+        private final long since;
+        private final DeferredResult<RegistryChanges> result;
+
+        private Watch(long since, DeferredResult<RegistryChanges> result) {
+            this.since = since;
+            this.result = result;
+        }
+    }
+}
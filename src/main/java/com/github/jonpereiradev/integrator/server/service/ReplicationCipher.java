@@ -0,0 +1,109 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Signs the replication messages exchanged between the servers and encrypts the secrets of the applications they
+ * carry, with keys derived from the replication secret shared by the servers. The signature is a HMAC SHA-256 of the
+ * node that sends the message, the kind of the message and its body; the secrets are encrypted with AES/GCM.
+ *
+ * @author Jonathan Pereira
+ */
+public class ReplicationCipher {
+
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final String ENCRYPTION_ALGORITHM = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec signatureKey;
+    private final SecretKeySpec encryptionKey;
+
+    public ReplicationCipher(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM);
+
+        this.signatureKey = new SecretKeySpec(hmac(key, "signature".getBytes(StandardCharsets.UTF_8)), SIGNATURE_ALGORITHM);
+        this.encryptionKey = new SecretKeySpec(hmac(key, "encryption".getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    /**
+     * @param node the server that sends the message.
+     * @param kind the kind of the message, so a message is not accepted as another one.
+     * @param body the body of the message.
+     * @return the signature encoded as base 64.
+     */
+    public String sign(String node, String kind, String body) {
+        byte[] message = (node + "\n" + kind + "\n" + body).getBytes(StandardCharsets.UTF_8);
+        return Base64.getEncoder().encodeToString(hmac(signatureKey, message));
+    }
+
+    /**
+     * @return {@code true} if the signature is the one of the message, compared in constant time.
+     */
+    public boolean verify(String node, String kind, String body, String signature) {
+        if (node == null || signature == null) {
+            return false;
+        }
+
+        byte[] expected = sign(node, kind, body).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param plain the secret of an application.
+     * @return the random IV followed by the encrypted secret, encoded as base 64.
+     */
+    public String encrypt(String plain) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+
+        try {
+            Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, iv));
+
+            byte[] encrypted = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Secret of the application not encrypted.", e);
+        }
+    }
+
+    /**
+     * @param encrypted the secret encrypted by a server with the same replication secret.
+     * @return the secret of the application.
+     * @throws IllegalArgumentException if the secret was not encrypted with the same replication secret.
+     */
+    public String decrypt(String encrypted) {
+        try {
+            byte[] content = Base64.getDecoder().decode(encrypted);
+            Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, content, 0, IV_LENGTH));
+
+            return new String(cipher.doFinal(content, IV_LENGTH, content.length - IV_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Secret of the application not decrypted.", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] message) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(message);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.github.jonpereiradev.integrator.server.service;
 
+import com.github.jonpereiradev.integrator.server.model.Application;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.request.GetRequest;
 import com.mashape.unirest.request.HttpRequestWithBody;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class Request {
 
+    private final UpstreamClients upstreamClients;
+
+    @Autowired
+    public Request(UpstreamClients upstreamClients) {
+        this.upstreamClients = upstreamClients;
+    }
+
     public GetRequest get(String url) {
         return Unirest.get(url);
     }
@@ -27,4 +41,36 @@ public class Request {
     public HttpRequestWithBody put(String url) {
         return Unirest.put(url);
     }
+
+    /**
+     * Opens the connection pool of an application loaded when the server starts, the deployed ones are opened by the
+     * deploy event.
+     *
+     * @param application the application loaded.
+     */
+    public void open(Application application) {
+        upstreamClients.open(application);
+    }
+
+    /**
+     * Executes a request with the connection pool of the application without reading the response body.
+     *
+     * @param application the application that receives the request.
+     * @param request the request for the application.
+     * @return the response with the body not consumed.
+     */
+    public HttpResponse execute(Application application, HttpUriRequest request) throws IOException {
+        return upstreamClients.execute(application, request);
+    }
+
+    /**
+     * Executes a request with the non blocking client, that don't hold a thread while waiting the response.
+     *
+     * @param application the application that receives the request.
+     * @param request the request for the application.
+     * @return the future completed with the response.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(Application application, HttpUriRequest request) {
+        return upstreamClients.executeAsync(application, request);
+    }
 }
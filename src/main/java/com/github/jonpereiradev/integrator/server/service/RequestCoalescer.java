@@ -0,0 +1,116 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares one request to the application between identical requests that arrive while it is in flight, so a cold
+ * resource don't receive the same request from every client at once.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RequestCoalescer {
+
+    /**
+     * Headers that change the response of the application, the requests are only identical when they are equal.
+     */
+    private static final List<String> KEY_HEADERS = Arrays.asList(
+        HttpHeaders.AUTHORIZATION,
+        HttpHeaders.PROXY_AUTHORIZATION,
+        HttpHeaders.COOKIE,
+        HttpHeaders.ACCEPT,
+        HttpHeaders.ACCEPT_ENCODING,
+        HttpHeaders.ACCEPT_LANGUAGE,
+        HttpHeaders.IF_NONE_MATCH,
+        HttpHeaders.IF_MODIFIED_SINCE);
+
+    private final Map<String, CompletableFuture<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Executes the request or waits the identical one in flight.
+     *
+     * @param applicationId the application of the resource.
+     * @param resource the path of the resource on the application.
+     * @param headers the headers sent to the application.
+     * @param upstream sends the request to the application.
+     * @return the response, the same for all the identical requests.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(
+        String applicationId,
+        String resource,
+        HttpHeaders headers,
+        Supplier<CompletableFuture<ResponseEntity<?>>> upstream) {
+
+        String key = key(applicationId, resource, headers);
+        CompletableFuture<ResponseEntity<?>> created = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing = inFlight.putIfAbsent(key, created);
+
+        // each caller receives a dependent future, so one client cancelling don't cancel the others.
+        if (existing != null) {
+            coalesced.increment();
+            return existing.thenApply(Function.identity());
+        }
+
+        executed.increment();
+
+        try {
+            upstream.get().whenComplete((response, throwable) -> {
+                inFlight.remove(key, created);
+
+                if (throwable == null) {
+                    created.complete(response);
+                } else {
+                    created.completeExceptionally(throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+
+        return created.thenApply(Function.identity());
+    }
+
+    /**
+     * @return the counters of the requests executed and coalesced.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("executed", executed.sum());
+        statistics.put("coalesced", coalesced.sum());
+        statistics.put("inFlight", (long) inFlight.size());
+
+        return statistics;
+    }
+
+    private static String key(String applicationId, String resource, HttpHeaders headers) {
+        StringBuilder key = new StringBuilder(applicationId).append(' ').append(resource);
+
+        for (String name : KEY_HEADERS) {
+            List<String> values = headers.get(name);
+
+            if (values != null) {
+                key.append('\n').append(name.toLowerCase(Locale.ROOT)).append(':').append(values);
+            }
+        }
+
+        return key.toString();
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.HedgingProperties;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second attempt of an idempotent request when the application takes longer than the usual for most requests,
+ * using the first response that arrives. A failed attempt only fails the request when no other one is in flight.
+ * The second attempts are limited by a retry budget of each application, so
+ * they don't double the load of an application that is already slow for every request.
+ *
+ * <p>The second attempt is only sent while the first one is in flight, so the hedging needs the async mode or the
+ * virtual threads. With the blocking calls on the request thread the first attempt has finished before, which is
+ * warned on start. Once an attempt responds, the second attempt not sent yet is cancelled and the attempt still in
+ * flight is cancelled, aborting its request to the application.</p>
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class RequestHedger {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private final Logger logger = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final HedgingProperties properties;
+    private final Map<String, Hedging> hedgings = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "integrator-hedging");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder won = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    @Autowired
+    public RequestHedger(HedgingProperties properties, ProxyProperties proxyProperties, @Qualifier("upstreamExecutor") TaskExecutor upstreamExecutor) {
+        this.properties = properties;
+        // most requests respond before the second attempt, the cancelled ones must not wait there until the delay.
+        this.scheduler.setRemoveOnCancelPolicy(true);
+
+        if (properties.isEnabled() && !canHedge(proxyProperties.getMode(), upstreamExecutor)) {
+            logger.warn("Hedging enabled with the proxy mode {} calling the applications on the request thread, no second attempt "
+                + "will be sent; use the async mode or the virtual threads", proxyProperties.getMode());
+        }
+    }
+
+    /**
+     * @return {@code true} if the first attempt is still in flight when the second one is due, that is with the async
+     * mode or with the blocking calls out of the request thread. The streamed requests are never hedged.
+     */
+    static boolean canHedge(ProxyMode mode, TaskExecutor upstreamExecutor) {
+        return mode == ProxyMode.ASYNC || (mode == ProxyMode.BUFFERED && !(upstreamExecutor instanceof SyncTaskExecutor));
+    }
+
+    /**
+     * Executes the request, sending a second attempt if the first one is slower than the percentile configured.
+     *
+     * @param applicationId the application that receives the request.
+     * @param method the method of the request, only the idempotent ones are hedged.
+     * @param attempt sends one attempt of the request to the application.
+     * @return the response of the attempt that completes first.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(String applicationId, HttpMethod method, Supplier<CompletableFuture<ResponseEntity<?>>> attempt) {
+        // the latencies are only created by the deploy, a request in flight during the undeploy is not hedged.
+        Hedging hedging = hedgings.get(applicationId);
+
+        if (!properties.isEnabled() || !IDEMPOTENT_METHODS.contains(method) || hedging == null) {
+            return attempt.get();
+        }
+
+        Attempts attempts = new Attempts();
+        long delay = hedging.latency.getPercentile();
+
+        hedging.budget.deposit();
+        send(hedging, attempt, attempts, false);
+
+        if (delay >= 0 && !attempts.result.isDone()) {
+            ScheduledFuture<?> task = scheduler.schedule(() -> hedge(hedging, attempt, attempts), Math.max(delay, properties.getMinDelay()), TimeUnit.MILLISECONDS);
+
+            attempts.result.whenComplete((response, throwable) -> task.cancel(false));
+        }
+
+        // the attempt that responded first is done, cancelling it does nothing.
+        attempts.result.whenComplete((response, throwable) -> attempts.futures.forEach(future -> future.cancel(true)));
+
+        return attempts.result;
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        hedgings.put(event.getApplication().getId(), new Hedging());
+    }
+
+    @EventListener
+    public void onApplicationLoaded(ApplicationLoadedEvent event) {
+        hedgings.putIfAbsent(event.getApplication().getId(), new Hedging());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        hedgings.remove(event.getApplicationId());
+    }
+
+    /**
+     * @return the second attempts sent, the ones that responded first and the ones not sent for lack of budget.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("hedged", hedged.sum());
+        statistics.put("won", won.sum());
+        statistics.put("budgetExhausted", budgetExhausted.sum());
+
+        return statistics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void hedge(Hedging hedging, Supplier<CompletableFuture<ResponseEntity<?>>> attempt, Attempts attempts) {
+        if (attempts.result.isDone()) {
+            return;
+        }
+
+        if (!hedging.budget.tryWithdraw()) {
+            budgetExhausted.increment();
+            return;
+        }
+
+        hedged.increment();
+        send(hedging, attempt, attempts, true);
+    }
+
+    private void send(Hedging hedging, Supplier<CompletableFuture<ResponseEntity<?>>> attempt, Attempts attempts, boolean hedge) {
+        // the first attempt failed meanwhile, the request already failed with it.
+        if (!attempts.start()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        CompletableFuture<ResponseEntity<?>> future;
+
+        try {
+            future = attempt.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        attempts.futures.add(future);
+
+        // the other attempt may have responded before this one was added.
+        if (attempts.result.isDone()) {
+            future.cancel(true);
+        }
+
+        future.whenComplete((response, throwable) -> {
+            if (!(throwable instanceof CancellationException)) {
+                hedging.latency.record(System.currentTimeMillis() - start);
+            }
+
+            if (attempts.complete(response, throwable) && hedge) {
+                won.increment();
+            }
+        });
+    }
+
+    /**
+     * The attempts of one request, that completes with the first response or fails with the last attempt failed.
+     */
+    private static class Attempts {
+
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+        private final List<CompletableFuture<ResponseEntity<?>>> futures = new CopyOnWriteArrayList<>();
+        private int inFlight;
+        private boolean failed;
+
+        /**
+         * @return {@code false} if the request already completed, so the attempt is not sent.
+         */
+        private synchronized boolean start() {
+            if (failed || result.isDone()) {
+                return false;
+            }
+
+            inFlight++;
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the request completed with this attempt.
+         */
+        private boolean complete(ResponseEntity<?> response, Throwable throwable) {
+            if (throwable == null) {
+                return result.complete(response);
+            }
+
+            synchronized (this) {
+                // another attempt in flight may still respond.
+                if (--inFlight > 0) {
+                    return false;
+                }
+
+                failed = true;
+            }
+
+            return result.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * The latencies and the retry budget of an application.
+     */
+    private class Hedging {
+
+        private final LatencyTracker latency = new LatencyTracker(properties.getPercentile());
+        private final RetryBudget budget = new RetryBudget(properties.getBudgetRatio(), properties.getBudgetMax());
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes the increment of the resource sequence to the allocation size of the identifiers. The schema update does not
+ * change a sequence created before with another increment, and the identifiers allocated by the server would collide
+ * with the ones already stored. The start fails when the sequence cannot be changed.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+@ConditionalOnProperty(name = "integrator.registry.store", havingValue = "jpa", matchIfMissing = true)
+public class ResourceSequenceMigration {
+
+    private final Logger logger = LoggerFactory.getLogger(ResourceSequenceMigration.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ResourceSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        List<Map<String, Object>> sequences = jdbcTemplate.queryForList(
+            "SELECT SEQUENCE_SCHEMA, CURRENT_VALUE, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+            Resource.SEQUENCE
+        );
+
+        for (Map<String, Object> sequence : sequences) {
+            String name = sequence.get("SEQUENCE_SCHEMA") + "." + Resource.SEQUENCE;
+            long current = ((Number) sequence.get("CURRENT_VALUE")).longValue();
+            long increment = ((Number) sequence.get("INCREMENT")).longValue();
+
+            if (increment != Resource.SEQUENCE_ALLOCATION_SIZE) {
+                alter(name, current, increment);
+            }
+        }
+    }
+
+    private void alter(String name, long current, long increment) {
+        // the server allocates the identifiers up to the value of the sequence, so the next value is the last one
+        // allocated plus the allocation size and no identifier is allocated twice.
+        long next = current + Resource.SEQUENCE_ALLOCATION_SIZE;
+
+        try {
+            jdbcTemplate.execute("ALTER SEQUENCE " + name + " RESTART WITH " + next + " INCREMENT BY " + Resource.SEQUENCE_ALLOCATION_SIZE);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Sequence " + name + " increments by " + increment + " and the resources "
+                + "allocate " + Resource.SEQUENCE_ALLOCATION_SIZE + " identifiers at a time, change the increment of the "
+                + "sequence to " + Resource.SEQUENCE_ALLOCATION_SIZE + ".", e);
+        }
+
+        logger.info("Sequence {} changed from increment {} to {}", name, increment, Resource.SEQUENCE_ALLOCATION_SIZE);
+    }
+}
@@ -0,0 +1,466 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CacheProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Shared cache of the GET responses following the HTTP caching rules of the applications (Cache-Control, Expires,
+ * ETag, Last-Modified and Vary). The entries are evicted by least recently used when the size in bytes is exceeded.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class ResponseCache {
+
+    private final CacheProperties cacheProperties;
+
+    /**
+     * Entries in access order, so the eldest is the least recently used.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Request headers that select the variant of each resource, from the Vary of the last response stored, removed
+     * with the last entry of the resource.
+     */
+    private final Map<String, Variants> variants = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long size;
+
+    /**
+     * Incremented on each purge, so a response requested before the purge is not stored after it.
+     */
+    private long generation;
+
+    @Autowired
+    public ResponseCache(CacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+    }
+
+    /**
+     * Responds from the cache when the entry is fresh, revalidates it when stale and stores the application response
+     * when allowed.
+     *
+     * @param applicationId the application of the resource.
+     * @param resource the path of the resource on the application.
+     * @param requestHeaders the headers sent by the client.
+     * @param upstream sends the request to the application with the headers given.
+     * @return the response for the client.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(
+        String applicationId,
+        String resource,
+        HttpHeaders requestHeaders,
+        Function<HttpHeaders, CompletableFuture<ResponseEntity<?>>> upstream) {
+
+        CacheControl requestCacheControl = CacheControl.parse(requestHeaders.getCacheControl());
+
+        if (!cacheProperties.isEnabled() || requestCacheControl.noStore) {
+            return upstream.apply(requestHeaders);
+        }
+
+        String baseKey = applicationId + " " + resource;
+        Entry entry = get(baseKey, requestHeaders);
+        long now = System.currentTimeMillis();
+
+        if (entry != null && entry.isFresh(now) && !requestCacheControl.noCache && entry.isYoungerThan(requestCacheControl.maxAge, now)) {
+            hits.increment();
+
+            if (entry.headers.getETag() != null && requestHeaders.getIfNoneMatch().contains(entry.headers.getETag())) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entry.headers.getETag()).build());
+            }
+
+            return CompletableFuture.completedFuture(entry.toResponseEntity(now));
+        }
+
+        misses.increment();
+
+        HttpHeaders headers = requestHeaders;
+        long requestedAt = generation();
+        boolean conditional = entry != null && entry.hasValidators();
+
+        if (conditional) {
+            headers = new HttpHeaders();
+            headers.putAll(requestHeaders);
+
+            if (entry.headers.getETag() != null) {
+                headers.setIfNoneMatch(entry.headers.getETag());
+            }
+
+            if (entry.headers.getFirst(HttpHeaders.LAST_MODIFIED) != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, entry.headers.getFirst(HttpHeaders.LAST_MODIFIED));
+            }
+        }
+
+        return upstream.apply(headers).thenApply(response -> {
+            if (conditional && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                revalidations.increment();
+                Entry revalidated = entry.revalidate(response.getHeaders(), System.currentTimeMillis());
+
+                if (!response.getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                    put(baseKey, requestHeaders, revalidated, requestedAt);
+                }
+
+                return revalidated.toResponseEntity(System.currentTimeMillis());
+            }
+
+            store(applicationId, baseKey, requestHeaders, response, requestedAt);
+
+            return response;
+        });
+    }
+
+    /**
+     * Removes the responses of an application deployed again, as the resources may have changed.
+     */
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        purge(event.getApplication().getId());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        purge(event.getApplicationId());
+    }
+
+    /**
+     * Removes all the responses of an application.
+     *
+     * @param applicationId the application key.
+     */
+    public synchronized void purge(String applicationId) {
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        generation++;
+
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+
+            if (entry.applicationId.equals(applicationId)) {
+                iterator.remove();
+                removed(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the counters of the cache usage.
+     */
+    public synchronized Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        statistics.put("revalidations", revalidations.sum());
+        statistics.put("evictions", evictions.sum());
+        statistics.put("entries", (long) entries.size());
+        statistics.put("resources", (long) variants.size());
+        statistics.put("size", size);
+
+        return statistics;
+    }
+
+    private synchronized Entry get(String baseKey, HttpHeaders requestHeaders) {
+        Variants resource = variants.get(baseKey);
+        return resource == null ? null : entries.get(key(baseKey, resource.vary, requestHeaders));
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private void store(String applicationId, String baseKey, HttpHeaders requestHeaders, ResponseEntity<?> response, long requestedAt) {
+        if (response.getStatusCode() != HttpStatus.OK || !(response.getBody() instanceof String)) {
+            return;
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        CacheControl cacheControl = CacheControl.parse(headers.getCacheControl());
+        List<String> vary = headers.getVary();
+
+        // a shared cache only stores responses of authorized requests allowed explicitly.
+        boolean authorized = requestHeaders.containsKey(HttpHeaders.AUTHORIZATION) && !cacheControl.isPublic && cacheControl.sharedMaxAge < 0 && !cacheControl.mustRevalidate;
+
+        // the cookies of a client are never sent to another one.
+        if (cacheControl.noStore || cacheControl.isPrivate || vary.contains("*") || authorized || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(applicationId, baseKey, response.getStatusCode(), headers, (String) response.getBody(), now, freshness(cacheControl, headers, now), vary);
+
+        if ((entry.expiresAt > now || entry.hasValidators()) && entry.size <= cacheProperties.getMaxEntrySize()) {
+            put(baseKey, requestHeaders, entry, requestedAt);
+        }
+    }
+
+    /**
+     * Stores the entry unless the cache was purged after the response was requested, as it may be of the application
+     * deployed before.
+     */
+    private synchronized void put(String baseKey, HttpHeaders requestHeaders, Entry entry, long requestedAt) {
+        if (requestedAt != generation) {
+            return;
+        }
+
+        Variants resource = variants.computeIfAbsent(baseKey, key -> new Variants());
+        resource.vary = entry.vary;
+
+        Entry previous = entries.put(key(baseKey, entry.vary, requestHeaders), entry);
+
+        if (previous == null) {
+            resource.entries++;
+        }
+
+        size += entry.size - (previous == null ? 0 : previous.size);
+
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (size > cacheProperties.getMaxSize() && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            removed(eldest);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Releases the size of an entry removed and the variants of its resource when it was the last one.
+     */
+    private void removed(Entry entry) {
+        Variants resource = variants.get(entry.baseKey);
+
+        size -= entry.size;
+
+        if (resource != null && --resource.entries == 0) {
+            variants.remove(entry.baseKey);
+        }
+    }
+
+    private static String key(String baseKey, List<String> vary, HttpHeaders requestHeaders) {
+        StringBuilder key = new StringBuilder(baseKey);
+
+        for (String name : vary) {
+            key.append('\n').append(name.toLowerCase(Locale.ROOT)).append(':').append(requestHeaders.getValuesAsList(name));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * @return the time in milliseconds when the response stops being fresh, from the s-maxage, max-age or Expires.
+     */
+    private static long freshness(CacheControl cacheControl, HttpHeaders headers, long now) {
+        long age = headers.getFirst(HttpHeaders.AGE) == null ? 0 : parseSeconds(headers.getFirst(HttpHeaders.AGE));
+
+        if (cacheControl.noCache) {
+            return now;
+        }
+
+        if (cacheControl.sharedMaxAge >= 0) {
+            return now + TimeUnit.SECONDS.toMillis(cacheControl.sharedMaxAge - age);
+        }
+
+        if (cacheControl.maxAge >= 0) {
+            return now + TimeUnit.SECONDS.toMillis(cacheControl.maxAge - age);
+        }
+
+        if (headers.getFirst(HttpHeaders.EXPIRES) != null) {
+            return headers.getExpires() < 0 ? now : now + headers.getExpires() - date(headers, now);
+        }
+
+        return now;
+    }
+
+    /**
+     * @return the Date of the response, as the Expires is relative to the application clock.
+     */
+    private static long date(HttpHeaders headers, long now) {
+        try {
+            long date = headers.getFirstDate(HttpHeaders.DATE);
+            return date < 0 ? now : date;
+        } catch (IllegalArgumentException e) {
+            return now;
+        }
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The directives of a Cache-Control header that the cache uses.
+     */
+    private static class CacheControl {
+
+        private boolean noStore;
+        private boolean noCache;
+        private boolean isPrivate;
+        private boolean isPublic;
+        private boolean mustRevalidate;
+        private long maxAge = -1;
+        private long sharedMaxAge = -1;
+
+        private static CacheControl parse(String header) {
+            CacheControl cacheControl = new CacheControl();
+
+            if (header == null) {
+                return cacheControl;
+            }
+
+            for (String directive : header.toLowerCase(Locale.ROOT).split(",")) {
+                String[] pair = directive.trim().split("=", 2);
+                String value = pair.length > 1 ? pair[1].replace("\"", "") : "";
+
+                switch (pair[0]) {
+                    case "no-store":
+                        cacheControl.noStore = true;
+                        break;
+                    case "no-cache":
+                        cacheControl.noCache = true;
+                        break;
+                    case "private":
+                        cacheControl.isPrivate = true;
+                        break;
+                    case "public":
+                        cacheControl.isPublic = true;
+                        break;
+                    case "must-revalidate":
+                    case "proxy-revalidate":
+                        cacheControl.mustRevalidate = true;
+                        break;
+                    case "max-age":
+                        cacheControl.maxAge = parseSeconds(value);
+                        break;
+                    case "s-maxage":
+                        cacheControl.sharedMaxAge = parseSeconds(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            return cacheControl;
+        }
+    }
+
+    /**
+     * The request headers that select the variant of a resource and the number of entries stored for it.
+     */
+    private static class Variants {
+
+        private List<String> vary;
+        private int entries;
+    }
+
+    /**
+     * A response stored with the time it stops being fresh.
+     */
+    private static class Entry {
+
+        private final String applicationId;
+        private final String baseKey;
+        private final HttpStatus status;
+        private final HttpHeaders headers;
+        private final String body;
+        private final long storedAt;
+        private final long expiresAt;
+        private final List<String> vary;
+        private final long size;
+
+        private Entry(String applicationId, String baseKey, HttpStatus status, HttpHeaders headers, String body, long storedAt, long expiresAt, List<String> vary) {
+            this.applicationId = applicationId;
+            this.baseKey = baseKey;
+            this.status = status;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+            this.vary = Collections.unmodifiableList(new ArrayList<>(vary));
+            this.size = estimateSize(headers, body);
+        }
+
+        private boolean isFresh(long now) {
+            return expiresAt > now;
+        }
+
+        /**
+         * @param maxAge the max-age in seconds of the client, negative when not sent.
+         */
+        private boolean isYoungerThan(long maxAge, long now) {
+            return maxAge < 0 || now - storedAt < TimeUnit.SECONDS.toMillis(maxAge);
+        }
+
+        private boolean hasValidators() {
+            return headers.getETag() != null || headers.getFirst(HttpHeaders.LAST_MODIFIED) != null;
+        }
+
+        /**
+         * @return the entry with the headers of the not modified response updating the stored ones.
+         */
+        private Entry revalidate(HttpHeaders notModifiedHeaders, long now) {
+            HttpHeaders updated = new HttpHeaders();
+
+            updated.putAll(headers);
+            notModifiedHeaders.forEach((name, values) -> {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    updated.put(name, values);
+                }
+            });
+
+            return new Entry(applicationId, baseKey, status, updated, body, now, freshness(CacheControl.parse(updated.getCacheControl()), updated, now), vary);
+        }
+
+        private ResponseEntity<String> toResponseEntity(long now) {
+            HttpHeaders responseHeaders = new HttpHeaders();
+
+            responseHeaders.putAll(headers);
+            responseHeaders.set(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(now - storedAt)));
+
+            return new ResponseEntity<>(body, responseHeaders, status);
+        }
+
+        private static long estimateSize(HttpHeaders headers, String body) {
+            long size = body.length() * 2L;
+
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                size += header.getKey().length() * 2L;
+
+                for (String value : header.getValue()) {
+                    size += value.length() * 2L;
+                }
+            }
+
+            return size;
+        }
+    }
+}
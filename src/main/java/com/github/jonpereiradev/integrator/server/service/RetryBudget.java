@@ -0,0 +1,50 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+/**
+ * A token bucket that limits the extra attempts sent to an application. Each request deposits a fraction of a token
+ * and each extra attempt withdraws a whole one, so the extra attempts never pass that fraction of the requests when
+ * the application is failing.
+ *
+ * @author Jonathan Pereira
+ */
+public class RetryBudget {
+
+    /**
+     * The tokens are counted in thousandths, so the fractions deposited add up without rounding errors.
+     */
+    private static final long SCALE = 1000;
+
+    private final long ratio;
+    private final long max;
+    private long tokens;
+
+    /**
+     * @param ratio tokens deposited by each request.
+     * @param max max tokens saved, also the tokens available at the start.
+     */
+    public RetryBudget(double ratio, int max) {
+        this.ratio = Math.round(ratio * SCALE);
+        this.max = max * SCALE;
+        this.tokens = this.max;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(max, tokens + ratio);
+    }
+
+    /**
+     * @return {@code true} if there was a token for an extra attempt.
+     */
+    public synchronized boolean tryWithdraw() {
+        if (tokens < SCALE) {
+            return false;
+        }
+
+        tokens -= SCALE;
+        return true;
+    }
+
+    public synchronized double getTokens() {
+        return (double) tokens / SCALE;
+    }
+}
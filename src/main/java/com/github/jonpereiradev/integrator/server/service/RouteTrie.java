@@ -0,0 +1,212 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resources of an application compiled in a tree of path segments, so a request finds its resource walking one
+ * node by segment. The literal segments are preferred over the {@code {var}} ones, falling back to them when the rest
+ * of the path don't match. The match reads the path in place, without allocating.
+ *
+ * @author Jonathan Pereira
+ */
+public final class RouteTrie {
+
+    private final Node root;
+    private final List<Resource> resources;
+
+    private RouteTrie(Node root, List<Resource> resources) {
+        this.root = root;
+        this.resources = resources;
+    }
+
+    /**
+     * Compiles the paths of the resources. When two resources have the same path and method the first one is used.
+     *
+     * @param resources the resources of the application.
+     * @return the routes of the resources.
+     */
+    public static RouteTrie compile(Collection<Resource> resources) {
+        Node root = new Node();
+
+        for (Resource resource : resources) {
+            Node node = root;
+            String path = resource.getPath();
+            int from = skipSlashes(path, 0);
+
+            while (from < path.length()) {
+                int to = endOfSegment(path, from);
+
+                node = path.charAt(from) == '{' ? node.variable() : node.literal(path.substring(from, to));
+                from = skipSlashes(path, to);
+            }
+
+            node.add(resource);
+        }
+
+        root.freeze();
+
+        return new RouteTrie(root, Collections.unmodifiableList(new ArrayList<>(resources)));
+    }
+
+    /**
+     * @return the resources compiled, in the order they were given.
+     */
+    public List<Resource> getResources() {
+        return resources;
+    }
+
+    /**
+     * @param method the method of the request or {@code null} to accept any method.
+     * @param path the path of the request on the application.
+     * @return the resource for the path and the method or {@code null} if there is none.
+     */
+    public Resource match(HttpMethod method, String path) {
+        return match(root, method, path, skipSlashes(path, 0));
+    }
+
+    private static Resource match(Node node, HttpMethod method, String path, int from) {
+        if (from == path.length()) {
+            return node.resource(method);
+        }
+
+        int to = endOfSegment(path, from);
+        int next = skipSlashes(path, to);
+        Node literal = node.child(path, from, to);
+
+        if (literal != null) {
+            Resource resource = match(literal, method, path, next);
+
+            if (resource != null) {
+                return resource;
+            }
+        }
+
+        return node.variable == null ? null : match(node.variable, method, path, next);
+    }
+
+    private static int skipSlashes(String path, int from) {
+        while (from < path.length() && path.charAt(from) == '/') {
+            from++;
+        }
+
+        return from;
+    }
+
+    private static int endOfSegment(String path, int from) {
+        int to = path.indexOf('/', from);
+        return to < 0 ? path.length() : to;
+    }
+
+    /**
+     * Same hash of {@link String#hashCode()} for a region of the path.
+     */
+    private static int hash(String path, int from, int to) {
+        int hash = 0;
+
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A segment of the paths. The literal children are kept in an open addressing table looked up by a region of the
+     * path, as a map would need the segment as a new string.
+     */
+    private static final class Node {
+
+        private Map<String, Node> literals = new LinkedHashMap<>();
+        private String[] keys;
+        private Node[] children;
+        private int mask;
+
+        private Node variable;
+        private Resource any;
+        private final Map<HttpMethod, Resource> byMethod = new EnumMap<>(HttpMethod.class);
+
+        private Node literal(String segment) {
+            return literals.computeIfAbsent(segment, s -> new Node());
+        }
+
+        private Node variable() {
+            if (variable == null) {
+                variable = new Node();
+            }
+
+            return variable;
+        }
+
+        private void add(Resource resource) {
+            if (resource.getMethods() == null || resource.getMethods().isEmpty()) {
+                if (any == null) {
+                    any = resource;
+                }
+            } else {
+                resource.getMethods().forEach(method -> byMethod.putIfAbsent(method, resource));
+            }
+        }
+
+        private Resource resource(HttpMethod method) {
+            if (method == null) {
+                return any != null || byMethod.isEmpty() ? any : byMethod.values().iterator().next();
+            }
+
+            Resource resource = byMethod.get(method);
+            return resource == null ? any : resource;
+        }
+
+        private Node child(String path, int from, int to) {
+            if (keys == null) {
+                return null;
+            }
+
+            int length = to - from;
+
+            for (int i = hash(path, from, to) & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].length() == length && path.regionMatches(from, keys[i], 0, length)) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        private void freeze() {
+            if (!literals.isEmpty()) {
+                int size = Integer.highestOneBit(literals.size() * 2 - 1) << 1;
+
+                keys = new String[size];
+                children = new Node[size];
+                mask = size - 1;
+
+                literals.forEach((segment, child) -> {
+                    int i = hash(segment, 0, segment.length()) & mask;
+
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+
+                    keys[i] = segment;
+                    children[i] = child;
+                    child.freeze();
+                });
+            }
+
+            if (variable != null) {
+                variable.freeze();
+            }
+
+            literals = null;
+        }
+    }
+}
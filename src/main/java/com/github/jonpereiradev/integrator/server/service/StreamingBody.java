@@ -0,0 +1,70 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A response body from the application that is copied to the client as it is read. The connection with the
+ * application is released once, by the write or by the discard, whichever comes first.
+ *
+ * @author Jonathan Pereira
+ */
+public class StreamingBody {
+
+    private final HttpUriRequest request;
+    private final HttpEntity entity;
+    private final BufferPool bufferPool;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    public StreamingBody(HttpUriRequest request, HttpEntity entity, BufferPool bufferPool) {
+        this.request = request;
+        this.entity = entity;
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Copies the body to the output and releases the connection with the application. When the copy fails, as the
+     * client is gone, the request is aborted instead of reading the rest of the body.
+     *
+     * @param output the client response output.
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        if (!released.compareAndSet(false, true)) {
+            throw new IOException("The body of the application was already released.");
+        }
+
+        InputStream input;
+
+        try {
+            input = entity.getContent();
+            bufferPool.copy(input, output);
+        } catch (IOException | RuntimeException e) {
+            request.abort();
+            throw e;
+        }
+
+        input.close();
+    }
+
+    /**
+     * Releases the connection with the application without reading the body, when it is not written to the client.
+     * Does nothing when the body was already written or discarded.
+     */
+    public void discard() {
+        if (released.compareAndSet(false, true)) {
+            request.abort();
+        }
+    }
+
+    /**
+     * @return the length of the body or a negative number when it is unknown.
+     */
+    public long getContentLength() {
+        return entity.getContentLength();
+    }
+}
@@ -0,0 +1,353 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ConnectionPool;
+import com.github.jonpereiradev.integrator.server.model.UpstreamProtocol;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The connections opened with one application. The non blocking client is only started when the proxy needs it and
+ * the HTTP/2 transport only exists when the application was deployed with it.
+ *
+ * @author Jonathan Pereira
+ */
+public class UpstreamClient implements Closeable {
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+    private static final int SOCKET_TIMEOUT = 60_000;
+
+    private final ConnectionPool pool;
+    private final int maxTotal;
+    private final boolean cleartext;
+    private final Http2Transport http2Transport;
+    private final RequestConfig requestConfig;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    // the requests that hold the client, or -1 once it is closed by the retirement.
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
+    private CloseableHttpAsyncClient httpAsyncClient;
+    private volatile boolean closed;
+    private volatile boolean http2Confirmed;
+    private volatile boolean http2Refused;
+
+    public UpstreamClient(Application application) {
+        this.pool = application.getPool();
+        this.maxTotal = pool.getMaxConnections() * application.getAllHosts().size();
+        this.cleartext = application.getHost().startsWith("http:");
+        this.http2Transport = application.getProtocol() == UpstreamProtocol.HTTP_2 ? new Http2Transport(pool, maxTotal, cleartext, CONNECT_TIMEOUT, SOCKET_TIMEOUT) : null;
+        this.requestConfig = RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT).setSocketTimeout(SOCKET_TIMEOUT).build();
+        this.keepAliveStrategy = (response, context) -> keepAlive(response);
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.connectionManager.setMaxTotal(maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(pool.getMaxConnections());
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setConnectionReuseStrategy(reuseStrategy())
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .setDefaultRequestConfig(requestConfig)
+            .build();
+    }
+
+    /**
+     * Executes the request blocking until the application responds.
+     *
+     * @return the response with the body not consumed, that must be read or closed to release the connection.
+     */
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        if (isHttp2()) {
+            try {
+                HttpResponse response = http2Transport.execute(request);
+                http2Confirmed = true;
+                return response;
+            } catch (IOException e) {
+                if (!fallbackToHttp1(request, e)) {
+                    throw e;
+                }
+            }
+        }
+
+        return httpClient.execute(request);
+    }
+
+    /**
+     * Executes the request without holding a thread while waiting the application.
+     *
+     * @return the future completed with the response, with the body already read for HTTP/1.1.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request) {
+        if (!isHttp2()) {
+            return executeHttp1Async(request);
+        }
+
+        CompletableFuture<HttpResponse> http2 = http2Transport.executeAsync(request);
+        CompletableFuture<HttpResponse> future = http2.handle((response, throwable) -> {
+            if (throwable == null) {
+                http2Confirmed = true;
+                return CompletableFuture.completedFuture(response);
+            }
+
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+
+            if (cause instanceof IOException && fallbackToHttp1(request, (IOException) cause)) {
+                return executeHttp1Async(request);
+            }
+
+            CompletableFuture<HttpResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(cause);
+            return failed;
+        }).thenCompose(Function.identity());
+
+        future.whenComplete((response, throwable) -> {
+            if (future.isCancelled()) {
+                http2.cancel(true);
+            }
+        });
+
+        return future;
+    }
+
+    private CompletableFuture<HttpResponse> executeHttp1Async(HttpUriRequest request) {
+        CompletableFuture<HttpResponse> completableFuture = new CompletableFuture<>();
+
+        Future<HttpResponse> future = async().execute(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(HttpResponse response) {
+                completableFuture.complete(response);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                completableFuture.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                completableFuture.cancel(false);
+            }
+        });
+
+        completableFuture.whenComplete((response, throwable) -> {
+            if (completableFuture.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+
+        return completableFuture;
+    }
+
+    private boolean isHttp2() {
+        return http2Transport != null && !http2Refused;
+    }
+
+    /**
+     * An application without h2c support fails the first request with a protocol error, so the next ones use HTTP/1.1.
+     * Any other failure, as a timeout or a cancelled request, keeps HTTP/2. With TLS the fallback is negotiated with
+     * ALPN. Failed requests are only sent again when the body can be repeated.
+     *
+     * @return {@code true} if the request must be sent again with HTTP/1.1.
+     */
+    private boolean fallbackToHttp1(HttpUriRequest request, IOException e) {
+        if (!cleartext || http2Confirmed || !Http2Transport.isRefused(e)) {
+            return false;
+        }
+
+        http2Refused = true;
+
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            return entity == null || entity.isRepeatable();
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the non blocking client with the same limits of the blocking one.
+     */
+    synchronized CloseableHttpAsyncClient async() {
+        if (closed) {
+            throw new IllegalStateException("Client closed.");
+        }
+
+        if (httpAsyncClient == null) {
+            try {
+                IOReactorConfig reactorConfig = IOReactorConfig.custom().setIoThreadCount(1).build();
+                asyncConnectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+            } catch (IOReactorException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            asyncConnectionManager.setMaxTotal(maxTotal);
+            asyncConnectionManager.setDefaultMaxPerRoute(pool.getMaxConnections());
+
+            httpAsyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(asyncConnectionManager)
+                .setConnectionReuseStrategy(reuseStrategy())
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+            httpAsyncClient.start();
+        }
+
+        return httpAsyncClient;
+    }
+
+    /**
+     * Closes the connections that passed the keep alive or that are not used for the idle timeout.
+     */
+    public void evictIdleConnections() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(pool.getIdleTimeout(), TimeUnit.MILLISECONDS);
+
+        synchronized (this) {
+            if (asyncConnectionManager != null) {
+                asyncConnectionManager.closeExpiredConnections();
+                asyncConnectionManager.closeIdleConnections(pool.getIdleTimeout(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Holds the client for a request, so it is not closed by the retirement until the request is released.
+     *
+     * @return {@code false} if the client was already closed.
+     */
+    boolean acquire() {
+        int current;
+
+        do {
+            current = inFlight.get();
+
+            if (current < 0 || closed) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    /**
+     * Gives back the client held by a request. The connection of a body not consumed stays leased until it is.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Closes the client replaced by a new deploy, or undeployed, when no request holds it and no connection is leased,
+     * so the requests in flight are not aborted.
+     *
+     * @return {@code true} if the client is closed.
+     */
+    boolean closeIfIdle() throws IOException {
+        if (closed) {
+            return true;
+        }
+
+        // no request starts after this, the ones finished already count their connections as leased.
+        if (!inFlight.compareAndSet(0, -1)) {
+            return false;
+        }
+
+        if (getLeased() > 0) {
+            inFlight.set(0);
+            return false;
+        }
+
+        close();
+        return true;
+    }
+
+    /**
+     * @return the connections in use or waited by the requests, the HTTP/2 ones count the calls.
+     */
+    private int getLeased() {
+        int leased = connectionManager.getTotalStats().getLeased() + connectionManager.getTotalStats().getPending();
+
+        synchronized (this) {
+            if (asyncConnectionManager != null) {
+                leased += asyncConnectionManager.getTotalStats().getLeased() + asyncConnectionManager.getTotalStats().getPending();
+            }
+        }
+
+        if (http2Transport != null) {
+            leased += http2Transport.getCalls();
+        }
+
+        return leased;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+
+            if (httpAsyncClient != null) {
+                httpAsyncClient.close();
+            }
+        }
+
+        if (http2Transport != null) {
+            http2Transport.close();
+        }
+
+        httpClient.close();
+    }
+
+    /**
+     * A keep alive of zero, stored before it was validated, closes each connection after the response, as the client
+     * would keep it forever.
+     */
+    private ConnectionReuseStrategy reuseStrategy() {
+        return pool.getKeepAlive() <= 0 ? NoConnectionReuseStrategy.INSTANCE : DefaultConnectionReuseStrategy.INSTANCE;
+    }
+
+    /**
+     * Uses the keep alive sent by the application limited to the configured one.
+     */
+    private long keepAlive(HttpResponse response) {
+        long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, null);
+        return keepAlive < 0 ? pool.getKeepAlive() : Math.min(keepAlive, pool.getKeepAlive());
+    }
+}
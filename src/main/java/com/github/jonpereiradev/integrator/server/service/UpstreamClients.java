@@ -0,0 +1,156 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps one connection pool for each deployed application, so a slow application don't hold the connections of others.
+ * The clients are only opened when the applications are deployed or loaded on start. A client replaced or undeployed
+ * is retired, and closed once the requests in flight with it finish.
+ *
+ * @author Jonathan Pereira
+ */
+@Component
+public class UpstreamClients {
+
+    private final Map<String, UpstreamClient> clients = new ConcurrentHashMap<>();
+    private final Queue<UpstreamClient> retired = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Get the client of an application.
+     *
+     * @param application the application that receives the requests.
+     * @return the client with the application pool, or {@code null} when the application is not deployed.
+     */
+    public UpstreamClient get(Application application) {
+        return clients.get(application.getId());
+    }
+
+    /**
+     * Opens the client of an application, retiring the one of the previous deploy.
+     *
+     * @param application the application deployed or loaded when the server started.
+     */
+    public void open(Application application) {
+        retire(clients.put(application.getId(), new UpstreamClient(application)));
+    }
+
+    /**
+     * Executes a request with the client of the application, holding it until the application responds.
+     *
+     * @return the response with the body not consumed, that must be read or closed to release the connection.
+     */
+    public HttpResponse execute(Application application, HttpUriRequest request) throws IOException {
+        UpstreamClient client = acquire(application);
+
+        try {
+            return client.execute(request);
+        } finally {
+            client.release();
+        }
+    }
+
+    /**
+     * Executes a request with the non blocking client of the application, holding it until the future completes.
+     *
+     * @return the future completed with the response, that cancels the request when cancelled.
+     */
+    public CompletableFuture<HttpResponse> executeAsync(Application application, HttpUriRequest request) {
+        UpstreamClient client = acquire(application);
+        CompletableFuture<HttpResponse> future;
+
+        try {
+            future = client.executeAsync(request);
+        } catch (RuntimeException e) {
+            client.release();
+            throw e;
+        }
+
+        future.whenComplete((response, throwable) -> client.release());
+
+        return future;
+    }
+
+    @EventListener
+    public void onApplicationDeployed(ApplicationDeployedEvent event) {
+        open(event.getApplication());
+    }
+
+    @EventListener
+    public void onApplicationUndeployed(ApplicationUndeployedEvent event) {
+        retire(clients.remove(event.getApplicationId()));
+    }
+
+    @Scheduled(fixedDelay = 1000 * 5)
+    public void evictIdleConnections() {
+        clients.values().forEach(UpstreamClient::evictIdleConnections);
+        retired.forEach(UpstreamClient::evictIdleConnections);
+        retired.removeIf(this::closeIfIdle);
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        clients.values().forEach(this::close);
+        clients.clear();
+        retired.forEach(this::close);
+        retired.clear();
+    }
+
+    /**
+     * Takes the current client of the application, as the one got may be retired before it is held.
+     */
+    private UpstreamClient acquire(Application application) {
+        while (true) {
+            UpstreamClient client = clients.get(application.getId());
+
+            if (client == null) {
+                throw new IllegalStateException("Application " + application.getId() + " not deployed.");
+            }
+
+            if (client.acquire()) {
+                return client;
+            }
+        }
+    }
+
+    private void retire(UpstreamClient client) {
+        if (client != null && !closeIfIdle(client)) {
+            retired.add(client);
+        }
+    }
+
+    private boolean closeIfIdle(UpstreamClient client) {
+        try {
+            return client.closeIfIdle();
+        } catch (IOException e) {
+            // the application is not used anymore, the connections will be closed by the operating system.
+            return true;
+        }
+    }
+
+    private void close(UpstreamClient client) {
+        if (client == null) {
+            return;
+        }
+
+        try {
+            client.close();
+        } catch (IOException e) {
+            // the application is not used anymore, the connections will be closed by the operating system.
+        }
+    }
+}
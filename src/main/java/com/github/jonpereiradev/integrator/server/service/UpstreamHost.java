@@ -0,0 +1,77 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A host of an application with the requests in flight to it and its circuit breaker.
+ *
+ * @author Jonathan Pereira
+ */
+public class UpstreamHost {
+
+    /**
+     * Weight of a host just added, so it receives a few requests since the start of the slow start.
+     */
+    private static final double MIN_WEIGHT = 0.1;
+
+    private final String address;
+    private final long addedAt;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CircuitBreaker circuitBreaker;
+
+    public UpstreamHost(String address, long addedAt, CircuitBreaker circuitBreaker) {
+        this.address = address;
+        this.addedAt = addedAt;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public long getAddedAt() {
+        return addedAt;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @param now the current time in milliseconds.
+     * @param slowStart time in milliseconds for a new host to receive its full share of requests.
+     * @return the share of requests of the host, growing linearly until 1 after the slow start.
+     */
+    public double weight(long now, long slowStart) {
+        long elapsed = now - addedAt;
+
+        if (slowStart <= 0 || elapsed >= slowStart) {
+            return 1;
+        }
+
+        return Math.max(MIN_WEIGHT, (double) elapsed / slowStart);
+    }
+
+    /**
+     * @return the requests in flight relative to the weight, the host with the lowest load receives the request.
+     */
+    double load(long now, long slowStart) {
+        if (!circuitBreaker.isAvailable(now)) {
+            return Double.MAX_VALUE;
+        }
+
+        return (inFlight.get() + 1) / weight(now, slowStart);
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.jonpereiradev.integrator.server;
+
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.service.IntegratorServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to deploy and undeploy an application by the number of resources, with the inserts sent in JDBC
+ * batches and with one statement by insert.
+ *
+ * <p>Run the main method from the test classpath, for example:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/classes:target/test-classes:$(cat target/classpath.txt) \
+ *     com.github.jonpereiradev.integrator.server.DeployBenchmark [resources...]
+ * </pre>
+ *
+ * @author Jonathan Pereira
+ */
+public class DeployBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int[] counts = args.length > 0 ? new int[args.length] : new int[]{100, 1000, 5000};
+
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%-10s %10s %12s %14s%n", "mode", "resources", "deploy-ms", "undeploy-ms");
+        run("batched", 50, counts);
+        run("unbatched", 1, counts);
+    }
+
+    private static void run(String mode, int batchSize, int[] counts) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:" + mode + ";INIT=CREATE SCHEMA IF NOT EXISTS SERVER",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+            "--integrator.health-check.enabled=false",
+            "--integrator.snapshot.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN");
+
+        try {
+            IntegratorServer integratorServer = context.getBean(IntegratorServer.class);
+
+            // warms up the persistence before the measures.
+            deploy(integratorServer, 100);
+            integratorServer.undeployApplication("bench");
+
+            for (int count : counts) {
+                long deploy = 0;
+                long undeploy = 0;
+
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    deploy(integratorServer, count);
+                    long deployed = System.nanoTime();
+                    integratorServer.undeployApplication("bench");
+
+                    deploy += deployed - start;
+                    undeploy += System.nanoTime() - deployed;
+                }
+
+                System.out.printf("%-10s %10d %12d %14d%n", mode, count,
+                    TimeUnit.NANOSECONDS.toMillis(deploy / ROUNDS), TimeUnit.NANOSECONDS.toMillis(undeploy / ROUNDS));
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void deploy(IntegratorServer integratorServer, int resources) {
+        ApplicationRequest request = new ApplicationRequest();
+        com.github.jonpereiradev.integrator.server.model.Application application = new com.github.jonpereiradev.integrator.server.model.Application();
+
+        application.setId("bench");
+        application.setName("bench");
+        application.setDescription("benchmark");
+        application.setVersion("v1");
+        application.setHost("http://localhost");
+
+        request.setApplication(application);
+        request.setSecret("secret");
+
+        for (int i = 0; i < resources; i++) {
+            Resource resource = new Resource();
+            resource.setIdentifier("bench-" + i);
+            resource.setPath("/resource-" + i);
+            request.getResources().add(resource);
+        }
+
+        integratorServer.deployApplication(request);
+    }
+}
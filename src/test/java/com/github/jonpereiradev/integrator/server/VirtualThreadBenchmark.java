@@ -0,0 +1,162 @@
+package com.github.jonpereiradev.integrator.server;
+
+import com.github.jonpereiradev.integrator.server.configuration.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares how many requests to a slow application the proxy keeps in flight with the Tomcat
+ * platform thread pool and with virtual threads (this one only when running on Java 21 or newer). The admission
+ * queue is disabled, so only the threads limit the requests in flight, and the requests rejected with 503 are
+ * counted apart.
+ *
+ * <p>Run the main method from the test classpath, for example:</p>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java --add-opens java.base/java.lang=ALL-UNNAMED --add-opens java.base/java.io=ALL-UNNAMED -cp target/classes:target/test-classes:$(cat target/classpath.txt) \
+ *     com.github.jonpereiradev.integrator.server.VirtualThreadBenchmark [clients] [delay-ms]
+ * </pre>
+ *
+ * @author Jonathan Pereira
+ */
+public class VirtualThreadBenchmark {
+
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger REJECTED = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long delay = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        HttpServer upstream = startSlowUpstream(delay);
+
+        try {
+            System.out.printf("%-18s %8s %16s %10s %12s%n", "mode", "clients", "max-in-flight", "rejected", "total-ms");
+            run("platform-threads", false, clients, upstream);
+
+            if (VirtualThreads.isSupported()) {
+                run("virtual-threads", true, clients, upstream);
+            } else {
+                System.out.println("virtual-threads    skipped, requires Java 21 or newer");
+            }
+        } finally {
+            upstream.stop(0);
+        }
+    }
+
+    private static void run(String mode, boolean virtual, int clients, HttpServer upstream) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(
+            "--server.port=0",
+            "--integrator.threads.virtual=" + virtual,
+            "--spring.datasource.url=jdbc:h2:mem:" + mode + ";INIT=CREATE SCHEMA IF NOT EXISTS SERVER",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--integrator.snapshot.enabled=false",
+            "--integrator.admission.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN");
+
+        try {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String server = "http://localhost:" + port + "/integrator-server";
+            String token = deploy(server, "http://localhost:" + upstream.getAddress().getPort(), clients);
+            ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+            CountDownLatch latch = new CountDownLatch(clients);
+
+            IN_FLIGHT.set(0);
+            MAX_IN_FLIGHT.set(0);
+            REJECTED.set(0);
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < clients; i++) {
+                clientPool.execute(() -> {
+                    try {
+                        HttpURLConnection connection = (HttpURLConnection) new URL(server + "/proxy/bench/slow").openConnection();
+                        connection.setRequestProperty("Proxy-Authorization", token);
+                        if (connection.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE) {
+                            REJECTED.incrementAndGet();
+                        }
+
+                        connection.disconnect();
+                    } catch (IOException e) {
+                        // a failed request is not counted as in flight.
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+
+            latch.await();
+            clientPool.shutdown();
+
+            long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.printf("%-18s %8d %16d %10d %12d%n", mode, clients, MAX_IN_FLIGHT.get(), REJECTED.get(), total);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static String deploy(String server, String host, int clients) throws IOException {
+        // the application connection pool must not be the limit, only the threads.
+        String body = "{\"application\": {\"id\": \"bench\", \"name\": \"bench\", \"description\": \"benchmark\", "
+            + "\"version\": \"v1\", \"host\": \"" + host + "\", \"pool\": {\"maxConnections\": " + clients * 2 + "}}, "
+            + "\"secret\": \"secret\", "
+            + "\"resources\": [{\"identifier\": \"bench-slow\", \"path\": \"/slow\"}]}";
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(server + "/deploy").openConnection();
+
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("Deploy failed with status " + connection.getResponseCode());
+        }
+
+        return connection.getHeaderField("Proxy-Authorization");
+    }
+
+    private static HttpServer startSlowUpstream(long delay) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 10000);
+
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/slow", exchange -> {
+            MAX_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(delay);
+                byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                exchange.getResponseBody().write(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        return server;
+    }
+}
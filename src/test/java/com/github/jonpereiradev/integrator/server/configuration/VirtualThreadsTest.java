@@ -0,0 +1,42 @@
+package com.github.jonpereiradev.integrator.server.configuration;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VirtualThreadsTest {
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(VirtualThreads.isSupported());
+    }
+
+    @Test
+    public void mustCreateVirtualThreadsWithPrefix() throws Exception {
+        Thread thread = VirtualThreads.factory("test-").newThread(() -> {
+        });
+
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        assertEquals("test-0", thread.getName());
+    }
+
+    @Test
+    public void mustRunTasksOnVirtualThreads() throws Exception {
+        ExecutorService executorService = VirtualThreads.newExecutor("test-");
+
+        try {
+            Future<Boolean> future = executorService.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            assertTrue(future.get());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -2,20 +2,29 @@ package com.github.jonpereiradev.integrator.server.controller;
 
 import com.github.jonpereiradev.integrator.server.model.Application;
 import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.RegistryChanges;
 import com.github.jonpereiradev.integrator.server.model.Resource;
 import org.json.JSONArray;
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
 
@@ -106,4 +115,142 @@ public class ApplicationIntegrationTest {
         ResponseEntity<String> undeployResponse = restTemplate.postForEntity("/undeploy", request, String.class);
         assertEquals(HttpStatus.OK, undeployResponse.getStatusCode());
     }
+
+    @Test
+    public void testWatchMustReturnApplicationDeployedAfterRevision() {
+        long revision = restTemplate.getForObject("/applications/watch?revision=0", RegistryChanges.class).getRevision();
+
+        CompletableFuture<ResponseEntity<RegistryChanges>> watch = CompletableFuture.supplyAsync(() ->
+            restTemplate.getForEntity("/applications/watch?revision=" + revision + "&timeout=10000", RegistryChanges.class));
+
+        restTemplate.postForEntity("/deploy", request, List.class);
+
+        ResponseEntity<RegistryChanges> response = watch.join();
+        restTemplate.postForEntity("/undeploy", request, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isReset());
+        assertTrue(response.getBody().getRevision() > revision);
+        assertEquals("app-v3", response.getBody().getChanges().get(0).getApplicationId());
+        assertEquals("/app/v1", response.getBody().getChanges().get(0).getResources().get(0).getPath());
+    }
+
+    @Test
+    public void testWatchMustReturnNoChangesWhenTimeoutExpires() {
+        long revision = restTemplate.getForObject("/applications/watch?revision=0", RegistryChanges.class).getRevision();
+
+        ResponseEntity<RegistryChanges> response = restTemplate.getForEntity("/applications/watch?revision=" + revision + "&timeout=100", RegistryChanges.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(revision, response.getBody().getRevision());
+        assertTrue(response.getBody().getChanges().isEmpty());
+    }
+
+    @Test
+    public void testFindApplicationsMustReturnPagesAfterCursor() {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+
+        for (String id : Arrays.asList("page-c", "page-a", "page-b")) {
+            restTemplate.postForEntity("/deploy", request(id, 1), List.class);
+        }
+
+        do {
+            String url = "/applications?limit=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            JSONObject page = new JSONObject(restTemplate.getForObject(url, String.class));
+            JSONArray items = page.getJSONArray("items");
+
+            assertTrue(items.length() <= 2);
+
+            for (int i = 0; i < items.length(); i++) {
+                ids.add(items.getJSONObject(i).getString("id"));
+            }
+
+            cursor = page.optString("next", null);
+        } while (cursor != null);
+
+        for (String id : Arrays.asList("page-a", "page-b", "page-c")) {
+            restTemplate.postForEntity("/undeploy", request(id, 1), String.class);
+        }
+
+        List<String> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+
+        assertEquals(sorted, ids);
+        assertTrue(ids.containsAll(Arrays.asList("page-a", "page-b", "page-c")));
+    }
+
+    @Test
+    public void testFindResourcesMustReturnPagesAfterCursor() {
+        restTemplate.postForEntity("/deploy", request("paged", 5), List.class);
+
+        JSONObject first = new JSONObject(restTemplate.getForObject("/applications/paged/resources?limit=2", String.class));
+        JSONObject second = new JSONObject(restTemplate.getForObject("/applications/paged/resources?limit=2&cursor=" + first.getString("next"), String.class));
+        JSONObject last = new JSONObject(restTemplate.getForObject("/applications/paged/resources?limit=2&cursor=" + second.getString("next"), String.class));
+
+        restTemplate.postForEntity("/undeploy", request("paged", 5), String.class);
+
+        assertEquals("/paged/0", first.getJSONArray("items").getJSONObject(0).getString("path"));
+        assertEquals("/paged/2", second.getJSONArray("items").getJSONObject(0).getString("path"));
+        assertEquals(1, last.getJSONArray("items").length());
+        assertEquals("/paged/4", last.getJSONArray("items").getJSONObject(0).getString("path"));
+        assertFalse(last.has("next"));
+    }
+
+    @Test
+    public void testFindResourcesMustStreamOneResourceByLine() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.parseMediaType("application/x-ndjson")));
+
+        restTemplate.postForEntity("/deploy", request("streamed", 5), List.class);
+
+        ResponseEntity<String> response = restTemplate.exchange("/applications/streamed/resources", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> applications = restTemplate.exchange("/applications", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        restTemplate.postForEntity("/undeploy", request("streamed", 5), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertNotNull(response.getBody());
+
+        String[] lines = response.getBody().split("\n");
+
+        assertEquals(5, lines.length);
+        assertEquals("/streamed/3", new JSONObject(lines[3]).getString("path"));
+        assertTrue(applications.getBody().contains("\"id\":\"streamed\""));
+    }
+
+    @Test
+    public void testFindAllApplicationsMustReturnJsonWhenAcceptAny() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.ALL));
+
+        ResponseEntity<String> response = restTemplate.exchange("/applications", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+    }
+
+    private static ApplicationRequest request(String id, int resources) {
+        ApplicationRequest request = new ApplicationRequest();
+
+        request.setApplication(new Application());
+        request.getApplication().setId(id);
+        request.getApplication().setName(id);
+        request.getApplication().setVersion("v1");
+        request.getApplication().setHost("http://" + id + ".com");
+        request.getApplication().setDescription("description");
+        request.setSecret("secret");
+
+        for (int i = 0; i < resources; i++) {
+            Resource resource = new Resource();
+            resource.setIdentifier(id + "-" + i);
+            resource.setPath("/" + id + "/" + i);
+            request.getResources().add(resource);
+        }
+
+        return request;
+    }
 }
@@ -0,0 +1,174 @@
+package com.github.jonpereiradev.integrator.server.controller;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.service.Request;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "integrator.proxy.mode=async")
+public class ProxyAsyncIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private Request request;
+
+    private HttpHeaders headers;
+    private ApplicationRequest applicationRequest;
+
+    @Before
+    public void beforeTest() {
+        applicationRequest = new ApplicationRequest();
+
+        applicationRequest.setApplication(new Application());
+        applicationRequest.getApplication().setId("app");
+        applicationRequest.getApplication().setName("app-api");
+        applicationRequest.getApplication().setVersion("1.0.0");
+        applicationRequest.getApplication().setHost("http://localhost:8080/app");
+        applicationRequest.getApplication().setDescription("description");
+
+        applicationRequest.getResources().add(new Resource());
+        applicationRequest.getResources().get(0).setIdentifier("resource-id");
+        applicationRequest.getResources().get(0).setPath("/api/resource");
+
+        applicationRequest.setSecret("secret");
+
+        ResponseEntity<List> deployResponse = restTemplate.postForEntity("/deploy", applicationRequest, List.class);
+
+        assertEquals(HttpStatus.OK, deployResponse.getStatusCode());
+
+        headers = new HttpHeaders();
+        headers.put(HttpHeaders.PROXY_AUTHORIZATION, deployResponse.getHeaders().get(HttpHeaders.PROXY_AUTHORIZATION));
+    }
+
+    @After
+    public void afterTest() {
+        ResponseEntity<String> deployResponse = restTemplate.postForEntity("/undeploy", applicationRequest, String.class);
+        assertEquals(HttpStatus.OK, deployResponse.getStatusCode());
+    }
+
+    @Test
+    public void mustExecuteWithSuccessWhenPostRequest() throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        when(request.executeAsync(any(Application.class), captor.capture())).thenReturn(future);
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        // completes the upstream response from other thread after the container thread was released.
+        new Thread(() -> future.complete(response(HttpStatus.OK, "{\"id\":1}".getBytes(), ContentType.APPLICATION_JSON))).start();
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.POST, new HttpEntity<>("{\"id\": 1}", headers), String.class);
+
+        assertEquals(HttpStatus.OK, forEntity.getStatusCode());
+        assertEquals("{\"id\":1}", forEntity.getBody());
+        assertEquals("POST", captor.getValue().getMethod());
+        assertEquals("{\"id\": 1}", EntityUtils.toString(((HttpEntityEnclosingRequest) captor.getValue()).getEntity()));
+    }
+
+    @Test
+    public void mustValidateRequestNotFoundWhenGetRequest() {
+        when(request.executeAsync(any(Application.class), any(HttpUriRequest.class))).thenReturn(CompletableFuture.completedFuture(response(HttpStatus.NOT_FOUND, "{}".getBytes(), ContentType.APPLICATION_JSON)));
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, forEntity.getStatusCode());
+        assertNull(forEntity.getBody());
+    }
+
+    @Test
+    public void mustReturnErrorWhenApplicationFails() {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        future.completeExceptionally(new ConnectException("Connection refused"));
+
+        when(request.executeAsync(any(Application.class), any(HttpUriRequest.class))).thenReturn(future);
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, forEntity.getStatusCode());
+    }
+
+    @Test
+    public void mustShareRequestWhenIdenticalGetRequestsAndResourceCoalesce() throws Exception {
+        applicationRequest.getResources().get(0).setCoalesce(true);
+        ResponseEntity<List> deployResponse = restTemplate.postForEntity("/deploy", applicationRequest, List.class);
+        headers.put(HttpHeaders.PROXY_AUTHORIZATION, deployResponse.getHeaders().get(HttpHeaders.PROXY_AUTHORIZATION));
+
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        when(request.executeAsync(any(Application.class), any(HttpUriRequest.class))).thenReturn(future);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ResponseEntity<String>> first = executor.submit(() -> restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class));
+            Future<ResponseEntity<String>> second = executor.submit(() -> restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class));
+
+            // waits both requests arrive before the application responds.
+            long deadline = System.currentTimeMillis() + 10_000;
+
+            while (((Number) restTemplate.getForObject("/metrics/coalescing", Map.class).get("coalesced")).longValue() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            future.complete(response(HttpStatus.OK, "{\"id\":1}".getBytes(), ContentType.APPLICATION_JSON));
+
+            assertEquals("{\"id\":1}", first.get(10, TimeUnit.SECONDS).getBody());
+            assertEquals("{\"id\":1}", second.get(10, TimeUnit.SECONDS).getBody());
+            verify(request, times(1)).executeAsync(any(Application.class), any(HttpUriRequest.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BasicHttpResponse response(HttpStatus status, byte[] body, ContentType contentType) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status.value(), status.getReasonPhrase());
+        ByteArrayEntity entity = new ByteArrayEntity(body, contentType);
+
+        response.setEntity(entity);
+        response.setHeader(entity.getContentType());
+
+        return response;
+    }
+
+}
@@ -1,19 +1,26 @@
 package com.github.jonpereiradev.integrator.server.controller;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.github.jonpereiradev.integrator.server.model.Application;
 import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
 import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.service.Deadline;
 import com.github.jonpereiradev.integrator.server.service.Request;
-import com.mashape.unirest.http.Headers;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.GetRequest;
-import com.mashape.unirest.request.HttpRequestWithBody;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -22,20 +29,26 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@SuppressWarnings("unchecked")
 public class ProxyIntegrationTest {
 
     @Autowired
@@ -201,6 +214,17 @@ public class ProxyIntegrationTest {
         return restTemplate.exchange("/proxy/example/request", httpMethod, new HttpEntity<>(headers), String.class);
     }
 
+    @Test
+    public void mustValidateSignatureTokenProxyAuthenticationWhenRequest() {
+        String forged = JWT.create().withSubject("app").withNotBefore(new Date()).sign(Algorithm.HMAC256("forged".getBytes()));
+
+        headers.put(HttpHeaders.PROXY_AUTHORIZATION, Collections.singletonList(forged));
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, forEntity.getStatusCode());
+        verifyZeroInteractions(request);
+    }
+
     @Test
     public void mustValidateApplicationNotExistsWhenGetRequest() {
         ResponseEntity<String> forEntity = mustValidateApplicationNotExistsWhenRequest(HttpMethod.GET);
@@ -280,66 +304,28 @@ public class ProxyIntegrationTest {
     }
 
     @Test
-    public void mustValidateRequestNotFoundWhenGetRequest() throws UnirestException {
-        GetRequest getRequest = mock(GetRequest.class);
-        HttpResponse<JsonNode> response = mock(HttpResponse.class);
-
-        when(request.get("http://localhost:8080/app/api/resource")).thenReturn(getRequest);
-        when(getRequest.headers(any())).thenReturn(getRequest);
-        when(getRequest.asJson()).thenReturn(response);
-        when(response.getStatus()).thenReturn(HttpStatus.NOT_FOUND.value());
-
-        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
-        assertEquals(HttpStatus.NOT_FOUND, forEntity.getStatusCode());
-
-        verify(request).get("http://localhost:8080/app/api/resource");
-        verify(getRequest).headers(any());
-        verify(getRequest).asJson();
-        verify(response).getStatus();
+    public void mustValidateRequestNotFoundWhenGetRequest() throws IOException {
+        mustValidateRequestNotFoundWhenRequest(HttpMethod.GET);
     }
 
     @Test
-    public void mustValidateRequestNotFoundWhenPostRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
-
-        when(request.post("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
-
-        mustValidateRequestNotFoundWhenRequest(requestWithBody, HttpMethod.POST);
-
-        verify(request).post("http://localhost:8080/app/api/resource");
+    public void mustValidateRequestNotFoundWhenPostRequest() throws IOException {
+        mustValidateRequestNotFoundWhenRequest(HttpMethod.POST);
     }
 
     @Test
-    public void mustValidateRequestNotFoundWhenPutRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
-
-        when(request.put("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
-
-        mustValidateRequestNotFoundWhenRequest(requestWithBody, HttpMethod.PUT);
-
-        verify(request).put("http://localhost:8080/app/api/resource");
+    public void mustValidateRequestNotFoundWhenPutRequest() throws IOException {
+        mustValidateRequestNotFoundWhenRequest(HttpMethod.PUT);
     }
 
     @Test
-    public void mustValidateRequestNotFoundWhenDeleteRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
-
-        when(request.delete("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
-
-        mustValidateRequestNotFoundWhenRequest(requestWithBody, HttpMethod.DELETE);
-
-        verify(request).delete("http://localhost:8080/app/api/resource");
+    public void mustValidateRequestNotFoundWhenDeleteRequest() throws IOException {
+        mustValidateRequestNotFoundWhenRequest(HttpMethod.DELETE);
     }
 
     @Test
-    public void mustValidateRequestNotFoundWhenPatchRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
-
-        when(request.patch("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
-
-        mustValidateRequestNotFoundWhenRequest(requestWithBody, HttpMethod.PATCH);
-
-        verify(request).patch("http://localhost:8080/app/api/resource");
+    public void mustValidateRequestNotFoundWhenPatchRequest() throws IOException {
+        mustValidateRequestNotFoundWhenRequest(HttpMethod.PATCH);
     }
 
     /**
@@ -347,180 +333,249 @@ public class ProxyIntegrationTest {
      *
      * @param httpMethod the http method execution on request.
      */
-    private void mustValidateRequestNotFoundWhenRequest(HttpRequestWithBody requestWithBody, HttpMethod httpMethod) throws UnirestException {
-        HttpResponse<JsonNode> response = mock(HttpResponse.class);
+    private void mustValidateRequestNotFoundWhenRequest(HttpMethod httpMethod) throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
 
-        when(requestWithBody.headers(any())).thenReturn(requestWithBody);
-        when(requestWithBody.asJson()).thenReturn(response);
-        when(response.getStatus()).thenReturn(HttpStatus.NOT_FOUND.value());
+        when(request.execute(any(Application.class), captor.capture())).thenReturn(response(HttpStatus.NOT_FOUND, "{}"));
 
         ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", httpMethod, new HttpEntity<>(headers), String.class);
         assertEquals(HttpStatus.NOT_FOUND, forEntity.getStatusCode());
 
-        verify(requestWithBody).headers(any());
-        verify(requestWithBody).asJson();
-        verify(response).getStatus();
+        verify(request).execute(any(Application.class), any(HttpUriRequest.class));
+        assertEquals(httpMethod.name(), captor.getValue().getMethod());
+        assertEquals("http://localhost:8080/app/api/resource", captor.getValue().getURI().toString());
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenGetRequest() throws UnirestException {
-        GetRequest getRequest = mock(GetRequest.class);
-        HttpResponse<JsonNode> response = mock(HttpResponse.class);
-
-        when(request.get("http://localhost:8080/app/api/resource")).thenReturn(getRequest);
-        when(getRequest.headers(any())).thenReturn(getRequest);
-        when(getRequest.asJson()).thenReturn(response);
-        when(response.getStatus()).thenReturn(HttpStatus.OK.value());
-        when(response.getHeaders()).thenReturn(new Headers());
-        when(response.getBody()).thenReturn(new JsonNode("{}"));
+    public void mustExecuteWithSuccessWhenGetRequest() throws IOException {
+        ResponseEntity<String> forEntity = mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.GET, null, "{}");
 
-        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
         assertEquals(HttpStatus.OK, forEntity.getStatusCode());
+        assertEquals("{}", forEntity.getBody());
+    }
 
-        verify(request).get("http://localhost:8080/app/api/resource");
-        verify(getRequest).headers(any());
-        verify(getRequest).asJson();
-        verify(response).getStatus();
-        verify(response).getHeaders();
-        verify(response).getBody();
+    @Test
+    public void mustExecuteWithSuccessWhenPostRequest() throws IOException {
+        mustExecuteWithSuccessWhenRequest(HttpMethod.POST);
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPostRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustExecuteWithSuccessWhenPutRequest() throws IOException {
+        mustExecuteWithSuccessWhenRequest(HttpMethod.PUT);
+    }
 
-        when(request.post("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+    @Test
+    public void mustExecuteWithSuccessWhenDeleteRequest() throws IOException {
+        mustExecuteWithSuccessWhenRequest(HttpMethod.DELETE);
+    }
 
-        mustExecuteWithSuccessWhenRequest(requestWithBody, HttpMethod.POST);
+    @Test
+    public void mustExecuteWithSuccessWhenPatchRequest() throws IOException {
+        mustExecuteWithSuccessWhenRequest(HttpMethod.PATCH);
+    }
 
-        verify(request).post("http://localhost:8080/app/api/resource");
+    @Test
+    public void mustExecuteWithSuccessWhenPostRequestWithBody() throws IOException {
+        mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.POST);
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPutRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustExecuteWithSuccessWhenPutRequestWithBody() throws IOException {
+        mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.PUT);
+    }
 
-        when(request.put("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+    @Test
+    public void mustExecuteWithSuccessWhenDeleteRequestWithBody() throws IOException {
+        mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.DELETE);
+    }
 
-        mustExecuteWithSuccessWhenRequest(requestWithBody, HttpMethod.PUT);
+    @Test
+    public void mustExecuteWithSuccessWhenPatchRequestWithBody() throws IOException {
+        mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.PATCH);
+    }
 
-        verify(request).put("http://localhost:8080/app/api/resource");
+    @Test
+    public void mustExecuteWithApplicationDeployed() throws IOException {
+        ArgumentCaptor<Application> captor = ArgumentCaptor.forClass(Application.class);
+
+        mustExecuteWithSuccessWhenRequestWithBody(HttpMethod.GET, null, "{}");
+
+        verify(request).execute(captor.capture(), any(HttpUriRequest.class));
+        assertEquals("app", captor.getValue().getId());
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenDeleteRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustRespondFromCacheWhenGetRequestIsFresh() throws IOException {
+        BasicHttpResponse response = response(HttpStatus.OK, "{\"id\":1}");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60");
 
-        when(request.delete("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenReturn(response);
 
-        mustExecuteWithSuccessWhenRequest(requestWithBody, HttpMethod.DELETE);
+        ResponseEntity<String> first = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> second = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
-        verify(request).delete("http://localhost:8080/app/api/resource");
+        assertEquals("{\"id\":1}", first.getBody());
+        assertEquals("{\"id\":1}", second.getBody());
+        assertNotNull(second.getHeaders().getFirst(HttpHeaders.AGE));
+        verify(request).execute(any(Application.class), any(HttpUriRequest.class));
+
+        ResponseEntity<Map> metrics = restTemplate.getForEntity("/metrics/cache", Map.class);
+        assertTrue(((Number) metrics.getBody().get("hits")).longValue() >= 1);
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPatchRequest() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    @SuppressWarnings("unchecked")
+    public void mustExposeConcurrencyLimitOfApplication() throws IOException {
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenAnswer(invocation -> response(HttpStatus.OK, "{}"));
 
-        when(request.patch("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
-        mustExecuteWithSuccessWhenRequest(requestWithBody, HttpMethod.PATCH);
+        ResponseEntity<Map> metrics = restTemplate.getForEntity("/metrics/concurrency", Map.class);
+        Map<String, Number> application = (Map<String, Number>) metrics.getBody().get("app");
 
-        verify(request).patch("http://localhost:8080/app/api/resource");
+        assertTrue(application.get("limit").longValue() > 0);
+        assertEquals(0, application.get("inFlight").longValue());
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPostRequestWithBody() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustSendRemainingDeadlineWhenClientSendsTimeout() throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+
+        when(request.execute(any(Application.class), captor.capture())).thenReturn(response(HttpStatus.OK, "{}"));
+        headers.set(Deadline.HEADER, "2000");
+
+        restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        long remaining = Long.parseLong(captor.getValue().getFirstHeader(Deadline.HEADER).getValue());
+
+        assertTrue(remaining > 0 && remaining <= 2000);
+        assertTrue(((Configurable) captor.getValue()).getConfig().getSocketTimeout() <= 2000);
+    }
+
+    @Test
+    public void mustRespondGatewayTimeoutWhenDeadlineExpires() throws IOException {
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            throw new IOException("Request aborted");
+        });
+
+        headers.set(Deadline.HEADER, "100");
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
-        when(request.post("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, forEntity.getStatusCode());
+    }
 
-        mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, HttpMethod.POST);
+    @Test
+    public void mustNotCallApplicationWhenClientHasNoTimeRemaining() throws IOException {
+        headers.set(Deadline.HEADER, "0");
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
-        verify(request).post("http://localhost:8080/app/api/resource");
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, forEntity.getStatusCode());
+        verify(request, never()).execute(any(Application.class), any(HttpUriRequest.class));
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPutRequestWithBody() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustRespondNotFoundWhenResourceDontAcceptMethod() throws IOException {
+        applicationRequest.getResources().get(0).setMethods(EnumSet.of(HttpMethod.GET));
+        restTemplate.postForEntity("/deploy", applicationRequest, List.class);
 
-        when(request.put("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenAnswer(invocation -> response(HttpStatus.OK, "{}"));
 
-        mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, HttpMethod.PUT);
+        ResponseEntity<String> get = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> delete = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.DELETE, new HttpEntity<>(headers), String.class);
 
-        verify(request).put("http://localhost:8080/app/api/resource");
+        assertEquals(HttpStatus.OK, get.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, delete.getStatusCode());
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenDeleteRequestWithBody() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustRespondTooManyRequestsWhenRateLimitExceeded() throws IOException {
+        applicationRequest.getApplication().setRateLimit(new RateLimit(1.0, 2));
+        restTemplate.postForEntity("/deploy", applicationRequest, List.class);
 
-        when(request.delete("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenAnswer(invocation -> response(HttpStatus.OK, "{}"));
 
-        mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, HttpMethod.DELETE);
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+            assertEquals(HttpStatus.OK, forEntity.getStatusCode());
+        }
 
-        verify(request).delete("http://localhost:8080/app/api/resource");
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, forEntity.getStatusCode());
+        assertEquals("1", forEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(request, times(2)).execute(any(Application.class), any(HttpUriRequest.class));
     }
 
     @Test
-    public void mustExecuteWithSuccessWhenPatchRequestWithBody() throws UnirestException {
-        HttpRequestWithBody requestWithBody = mock(HttpRequestWithBody.class);
+    public void mustFailFastWhenCircuitIsOpen() throws IOException {
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenAnswer(invocation -> response(HttpStatus.BAD_GATEWAY, "{}"));
 
-        when(request.patch("http://localhost:8080/app/api/resource")).thenReturn(requestWithBody);
+        for (int i = 0; i < 10; i++) {
+            ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+            assertEquals(HttpStatus.BAD_GATEWAY, forEntity.getStatusCode());
+        }
 
-        mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, HttpMethod.PATCH);
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
 
-        verify(request).patch("http://localhost:8080/app/api/resource");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, forEntity.getStatusCode());
+        assertNotNull(forEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(request, times(10)).execute(any(Application.class), any(HttpUriRequest.class));
     }
 
     /**
-     * Validates request not found when request for a offline resource for http method.
+     * Validates request with success without body for http method.
      *
      * @param httpMethod the http method execution on request.
      */
-    private void mustExecuteWithSuccessWhenRequest(HttpRequestWithBody requestWithBody, HttpMethod httpMethod) throws UnirestException {
-        ResponseEntity<String> forEntity = mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, httpMethod, null, "{}");
+    private void mustExecuteWithSuccessWhenRequest(HttpMethod httpMethod) throws IOException {
+        ResponseEntity<String> forEntity = mustExecuteWithSuccessWhenRequestWithBody(httpMethod, null, "{}");
 
         assertEquals(HttpStatus.OK, forEntity.getStatusCode());
-
-        verify(requestWithBody).headers(any());
-        verify(requestWithBody).asJson();
+        assertNull(forEntity.getBody());
     }
 
     /**
-     * Validates request not found when request for a offline resource for http method.
+     * Validates request with success with a json body for http method.
      *
      * @param httpMethod the http method execution on request.
      */
-    private void mustExecuteWithSuccessWhenRequestWithBody(HttpRequestWithBody requestWithBody, HttpMethod httpMethod) throws UnirestException {
-        ResponseEntity<String> forEntity = mustExecuteWithSuccessWhenRequestWithBody(requestWithBody, httpMethod, "{\"id\": 1}", "{\"id\": 1}");
+    private void mustExecuteWithSuccessWhenRequestWithBody(HttpMethod httpMethod) throws IOException {
+        ResponseEntity<String> forEntity = mustExecuteWithSuccessWhenRequestWithBody(httpMethod, "{\"id\": 1}", "{\"id\": 1}");
 
         assertEquals(HttpStatus.OK, forEntity.getStatusCode());
-
-        verify(requestWithBody).headers(any());
-        verify(requestWithBody).asJson();
+        assertEquals("{\"id\":1}", forEntity.getBody());
     }
 
     /**
-     * Validates request not found when request for a offline resource for http method.
+     * Executes the proxy request capturing the request sent to the application.
      *
      * @param httpMethod the http method execution on request.
      */
-    private ResponseEntity<String> mustExecuteWithSuccessWhenRequestWithBody(HttpRequestWithBody requestWithBody, HttpMethod httpMethod, String body, String responseBody) throws UnirestException {
-        HttpResponse<JsonNode> response = mock(HttpResponse.class);
+    private ResponseEntity<String> mustExecuteWithSuccessWhenRequestWithBody(HttpMethod httpMethod, String body, String responseBody) throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
 
-        when(requestWithBody.headers(any())).thenReturn(requestWithBody);
-        when(requestWithBody.asJson()).thenReturn(response);
-        when(response.getStatus()).thenReturn(HttpStatus.OK.value());
-        when(response.getHeaders()).thenReturn(new Headers());
-        when(response.getBody()).thenReturn(new JsonNode(responseBody));
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        when(request.execute(any(Application.class), captor.capture())).thenReturn(response(HttpStatus.OK, responseBody));
 
         ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", httpMethod, new HttpEntity<>(body, headers), String.class);
 
-        verify(response).getStatus();
-        verify(response).getHeaders();
-        verify(response).getBody();
+        assertEquals(httpMethod.name(), captor.getValue().getMethod());
+        assertEquals("http://localhost:8080/app/api/resource", captor.getValue().getURI().toString());
+
+        if (body != null) {
+            assertEquals("{\"id\":1}", EntityUtils.toString(((HttpEntityEnclosingRequest) captor.getValue()).getEntity()));
+        }
 
         return forEntity;
     }
+
+    private static BasicHttpResponse response(HttpStatus status, String body) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status.value(), status.getReasonPhrase());
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
 }
@@ -0,0 +1,135 @@
+package com.github.jonpereiradev.integrator.server.controller;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.service.Request;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "integrator.proxy.mode=streaming")
+public class ProxyStreamingIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private Request request;
+
+    private HttpHeaders headers;
+    private ApplicationRequest applicationRequest;
+
+    @Before
+    public void beforeTest() {
+        applicationRequest = new ApplicationRequest();
+
+        applicationRequest.setApplication(new Application());
+        applicationRequest.getApplication().setId("app");
+        applicationRequest.getApplication().setName("app-api");
+        applicationRequest.getApplication().setVersion("1.0.0");
+        applicationRequest.getApplication().setHost("http://localhost:8080/app");
+        applicationRequest.getApplication().setDescription("description");
+
+        applicationRequest.getResources().add(new Resource());
+        applicationRequest.getResources().get(0).setIdentifier("resource-id");
+        applicationRequest.getResources().get(0).setPath("/api/resource");
+
+        applicationRequest.setSecret("secret");
+
+        ResponseEntity<List> deployResponse = restTemplate.postForEntity("/deploy", applicationRequest, List.class);
+
+        assertEquals(HttpStatus.OK, deployResponse.getStatusCode());
+
+        headers = new HttpHeaders();
+        headers.put(HttpHeaders.PROXY_AUTHORIZATION, deployResponse.getHeaders().get(HttpHeaders.PROXY_AUTHORIZATION));
+    }
+
+    @After
+    public void afterTest() {
+        ResponseEntity<String> deployResponse = restTemplate.postForEntity("/undeploy", applicationRequest, String.class);
+        assertEquals(HttpStatus.OK, deployResponse.getStatusCode());
+    }
+
+    @Test
+    public void mustStreamBinaryBodiesWhenPostRequest() throws IOException {
+        byte[] requestBody = randomBytes(100 * 1024);
+        byte[] responseBody = randomBytes(300 * 1024);
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        byte[][] sentBody = new byte[1][];
+
+        when(request.execute(any(Application.class), captor.capture())).thenAnswer(invocation -> {
+            HttpEntityEnclosingRequest upstreamRequest = invocation.getArgument(1);
+            sentBody[0] = EntityUtils.toByteArray(upstreamRequest.getEntity());
+            return response(HttpStatus.CREATED, responseBody, ContentType.APPLICATION_OCTET_STREAM);
+        });
+
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+
+        ResponseEntity<byte[]> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.POST, new HttpEntity<>(requestBody, headers), byte[].class);
+
+        assertEquals(HttpStatus.CREATED, forEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, forEntity.getHeaders().getContentType());
+        assertArrayEquals(responseBody, forEntity.getBody());
+        assertArrayEquals(requestBody, sentBody[0]);
+        assertEquals("POST", captor.getValue().getMethod());
+        assertEquals("http://localhost:8080/app/api/resource", captor.getValue().getURI().toString());
+        assertNull(captor.getValue().getFirstHeader(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    public void mustStreamNotFoundWhenGetRequest() throws IOException {
+        when(request.execute(any(Application.class), any(HttpUriRequest.class))).thenReturn(response(HttpStatus.NOT_FOUND, "missing".getBytes(), ContentType.TEXT_PLAIN));
+
+        ResponseEntity<String> forEntity = restTemplate.exchange("/proxy/app/api/resource", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, forEntity.getStatusCode());
+        assertEquals("missing", forEntity.getBody());
+        verify(request).execute(any(Application.class), any(HttpUriRequest.class));
+    }
+
+    private static BasicHttpResponse response(HttpStatus status, byte[] body, ContentType contentType) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status.value(), status.getReasonPhrase());
+        ByteArrayEntity entity = new ByteArrayEntity(body, contentType);
+
+        response.setEntity(entity);
+        response.setHeader(entity.getContentType());
+
+        return response;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.jonpereiradev.integrator.server.controller;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.service.IntegratorServer;
+import com.github.jonpereiradev.integrator.server.service.RegistryReplicator;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Starts three servers on the loopback, each one with the others as peers.
+ */
+@RunWith(JUnit4.class)
+public class ReplicationIntegrationTest {
+
+    private static final long TIMEOUT = 10_000;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static final List<String> addresses = new ArrayList<>();
+
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        List<Integer> ports = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            ports.add(freePort());
+            addresses.add("http://localhost:" + ports.get(i) + "/integrator-server");
+        }
+
+        for (int i = 0; i < 3; i++) {
+            List<String> peers = new ArrayList<>(addresses);
+            peers.remove(i);
+            nodes.add(start("node" + i, ports.get(i), String.join(",", peers)));
+        }
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void testMustReplicateDeployToAllNodes() {
+        server(0).deployApplication(request("deployed", "v1"));
+
+        await(() -> nodes.stream().allMatch(node -> node.getBean(IntegratorServer.class).existsResourceByApplication("deployed", "/deployed/v1")));
+
+        Application application = server(2).findOneApplicationByKey("deployed");
+
+        assertEquals("v1", application.getVersion());
+        assertEquals("secret", application.getSecret());
+        assertNotNull(server(2).findResourceByIdentifierEquals("resource-deployed"));
+    }
+
+    @Test
+    public void testMustReplicateUndeployToAllNodes() {
+        server(0).deployApplication(request("removed", "v1"));
+        await(() -> server(2).findOneApplicationByKey("removed") != null);
+
+        server(2).undeployApplication("removed");
+
+        await(() -> server(0).findOneApplicationByKey("removed") == null && server(1).findOneApplicationByKey("removed") == null);
+    }
+
+    @Test
+    public void testMustConvergeWhenDeployedConcurrently() {
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(() -> server(0).deployApplication(request("conflict", "v1"))),
+            CompletableFuture.runAsync(() -> server(1).deployApplication(request("conflict", "v2")))).join();
+
+        await(() -> {
+            String version = versionOf(0);
+            Object digest = replicator(0).getDigest().get("conflict");
+
+            // a node that has not received the deploy yet has no application, it is not converged.
+            return version != null && nodes.stream().allMatch(node -> {
+                Application application = node.getBean(IntegratorServer.class).findOneApplicationByKey("conflict");
+
+                return application != null && version.equals(application.getVersion())
+                    && digest.equals(node.getBean(RegistryReplicator.class).getDigest().get("conflict"));
+            });
+        });
+    }
+
+    @Test
+    public void testMustReceiveChangesMissedWhileDown() throws IOException {
+        server(0).deployApplication(request("missed", "v1"));
+
+        // the new node is not a peer of the others, it only receives the changes it asks for.
+        ConfigurableApplicationContext node = start("node3", freePort(), addresses.get(0));
+
+        try {
+            await(() -> node.getBean(IntegratorServer.class).existsResourceByApplication("missed", "/missed/v1"));
+            assertTrue(node.getBean(RegistryReplicator.class).getStatistics().get("exchanges") > 0);
+        } finally {
+            node.close();
+        }
+    }
+
+    @Test
+    public void testMustRejectChangesNotSignedByPeer() throws UnirestException {
+        HttpResponse<String> response = Unirest.post(addresses.get(0) + "/replication/digest")
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .header(RegistryReplicator.NODE_HEADER, "node1")
+            .header(RegistryReplicator.SIGNATURE_HEADER, "forged")
+            .body("{}")
+            .asString();
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertTrue(replicator(0).getStatistics().get("rejected") > 0);
+    }
+
+    private static ConfigurableApplicationContext start(String name, int port, String peers) {
+        return new SpringApplicationBuilder(com.github.jonpereiradev.integrator.server.Application.class).run(
+            "--server.port=" + port,
+            "--spring.datasource.url=jdbc:h2:mem:" + name + ";INIT=CREATE SCHEMA IF NOT EXISTS SERVER",
+            "--spring.jmx.enabled=false",
+            "--integrator.health-check.enabled=false",
+            "--integrator.replication.enabled=true",
+            "--integrator.replication.node-id=" + name,
+            "--integrator.replication.peers=" + peers,
+            "--integrator.replication.peer-nodes=node0,node1,node2,node3",
+            "--integrator.replication.secret=replication",
+            "--integrator.replication.interval=200");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static IntegratorServer server(int node) {
+        return nodes.get(node).getBean(IntegratorServer.class);
+    }
+
+    private static RegistryReplicator replicator(int node) {
+        return nodes.get(node).getBean(RegistryReplicator.class);
+    }
+
+    private static String versionOf(int node) {
+        Application application = server(node).findOneApplicationByKey("conflict");
+        return application == null ? null : application.getVersion();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long timeout = System.currentTimeMillis() + TIMEOUT;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                fail("Nodes not converged in " + TIMEOUT + " ms");
+            }
+
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+
+    private static ApplicationRequest request(String id, String version) {
+        ApplicationRequest request = new ApplicationRequest();
+        Resource resource = new Resource();
+
+        request.setApplication(new Application());
+        request.getApplication().setId(id);
+        request.getApplication().setName(id);
+        request.getApplication().setVersion(version);
+        request.getApplication().setHost("http://localhost");
+        request.getApplication().setDescription("description");
+        request.setSecret("secret");
+
+        resource.setIdentifier("resource-" + id);
+        resource.setPath("/" + id + "/v1");
+        request.getResources().add(resource);
+
+        return request;
+    }
+}
@@ -242,6 +242,23 @@ public class ServerIntegrationTest {
         assertEquals("must match \"(http:\\/\\/|https:\\/\\/)+([\\w\\.\\d]+)+\\:?(\\d{0,5}).*\"", jsonArray.getJSONObject(0).getString("defaultMessage"));
     }
 
+    @Test
+    public void testMustValidateApplicationHostsPattern() {
+        request.getApplication().getHosts().add("1");
+
+        ResponseEntity<String> responseEntity = restTemplate.postForEntity("/deploy", request, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+
+        JSONObject jsonObject = new JSONObject(responseEntity.getBody());
+        JSONArray jsonArray = jsonObject.getJSONArray("errors");
+
+        assertEquals(1, jsonArray.length());
+        assertTrue(jsonArray.getJSONObject(0).getString("field").startsWith("application.hosts[0]"));
+        assertEquals("must match \"(http:\\/\\/|https:\\/\\/)+([\\w\\.\\d]+)+\\:?(\\d{0,5}).*\"", jsonArray.getJSONObject(0).getString("defaultMessage"));
+    }
+
     @Test
     public void testMustValidateSecretNotNull() {
         request.setSecret(null);
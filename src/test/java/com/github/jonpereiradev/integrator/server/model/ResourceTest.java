@@ -64,4 +64,13 @@ public class ResourceTest {
         assertEquals(resource1, resource2);
         assertEquals(resource1.hashCode(), resource2.hashCode());
     }
+
+    @Test
+    public void testMustNotCoalesceWhenNotConfigured() {
+        Resource resource = new Resource();
+        assertFalse(resource.isCoalesce());
+
+        resource.setCoalesce(true);
+        assertTrue(resource.isCoalesce());
+    }
 }
@@ -0,0 +1,53 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TimeoutsTest {
+
+    private Application application;
+    private Resource resource;
+
+    @Before
+    public void beforeTest() {
+        application = new Application();
+        resource = new Resource();
+    }
+
+    @Test
+    public void testMustUseDefaultsWhenNotDeclared() {
+        Timeouts timeouts = Timeouts.of(application, resource);
+
+        assertEquals(Long.valueOf(Timeouts.DEFAULT_CONNECT), timeouts.getConnect());
+        assertEquals(Long.valueOf(Timeouts.DEFAULT_READ), timeouts.getRead());
+        assertEquals(Long.valueOf(Timeouts.DEFAULT_DEADLINE), timeouts.getDeadline());
+    }
+
+    @Test
+    public void testMustUseApplicationTimeoutsWhenResourceDoesNotDeclare() {
+        application.setTimeouts(new Timeouts(1000L, 2000L, 3000L));
+
+        Timeouts timeouts = Timeouts.of(application, resource);
+
+        assertEquals(Long.valueOf(1000), timeouts.getConnect());
+        assertEquals(Long.valueOf(2000), timeouts.getRead());
+        assertEquals(Long.valueOf(3000), timeouts.getDeadline());
+    }
+
+    @Test
+    public void testMustUseResourceTimeoutsWhenDeclared() {
+        application.setTimeouts(new Timeouts(1000L, 2000L, 3000L));
+        resource.setTimeouts(new Timeouts(null, 500L, 800L));
+
+        Timeouts timeouts = Timeouts.of(application, resource);
+
+        assertEquals(Long.valueOf(1000), timeouts.getConnect());
+        assertEquals(Long.valueOf(500), timeouts.getRead());
+        assertEquals(Long.valueOf(800), timeouts.getDeadline());
+    }
+}
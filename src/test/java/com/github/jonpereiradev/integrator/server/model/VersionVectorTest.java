@@ -0,0 +1,60 @@
+package com.github.jonpereiradev.integrator.server.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VersionVectorTest {
+
+    @Test
+    public void testMustBeAfterWhenIncremented() {
+        VersionVector version = VersionVector.empty().increment("a");
+
+        assertEquals(VersionVector.Order.AFTER, version.increment("b").compare(version));
+        assertEquals(VersionVector.Order.BEFORE, version.compare(version.increment("a")));
+        assertEquals(1, version.get("a"));
+        assertEquals(0, version.get("b"));
+    }
+
+    @Test
+    public void testMustBeEqualWhenSameCounters() {
+        assertEquals(VersionVector.Order.EQUAL, VersionVector.empty().increment("a").compare(VersionVector.empty().increment("a")));
+        assertEquals(VersionVector.Order.EQUAL, VersionVector.empty().compare(VersionVector.empty()));
+    }
+
+    @Test
+    public void testMustBeConcurrentWhenIncrementedOnDifferentNodes() {
+        VersionVector version = VersionVector.empty().increment("a");
+
+        assertEquals(VersionVector.Order.CONCURRENT, version.increment("a").compare(version.increment("b")));
+    }
+
+    @Test
+    public void testMustBeAfterBothWhenMerged() {
+        VersionVector version = VersionVector.empty().increment("a");
+        VersionVector left = version.increment("a");
+        VersionVector right = version.increment("b").increment("b");
+        VersionVector merged = left.merge(right);
+
+        assertEquals(2, merged.get("a"));
+        assertEquals(2, merged.get("b"));
+        assertEquals(VersionVector.Order.AFTER, merged.compare(left));
+        assertEquals(VersionVector.Order.AFTER, merged.compare(right));
+    }
+
+    @Test
+    public void testMustSerializeAsCounters() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        VersionVector version = VersionVector.empty().increment("a").increment("b");
+        String json = objectMapper.writeValueAsString(version);
+
+        assertEquals("{\"a\":1,\"b\":1}", json);
+        assertEquals(version, objectMapper.readValue(json, VersionVector.class));
+    }
+}
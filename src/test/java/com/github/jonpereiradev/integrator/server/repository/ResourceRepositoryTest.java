@@ -8,8 +8,15 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpMethod;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
 @DataJpaTest
 @RunWith(SpringRunner.class)
 public class ResourceRepositoryTest {
@@ -60,4 +67,48 @@ public class ResourceRepositoryTest {
         entityManager.persist(resource);
         Assert.assertFalse(resourceRepository.findOneByApplicationAndPath("none", "/app/test").isPresent());
     }
+
+    @Test
+    public void testDeleteResourcesByApplicationMustRemoveOnlyTheApplication() {
+        Resource other = new Resource();
+
+        other.setIdentifier("resource-other");
+        other.setPath("/other/test");
+        other.setApplication("other");
+        other.setMethods(EnumSet.of(HttpMethod.GET));
+        resource.setMethods(EnumSet.of(HttpMethod.GET, HttpMethod.POST));
+
+        resourceRepository.saveAll(Arrays.asList(resource, other));
+        entityManager.flush();
+
+        Assert.assertEquals(2, resourceRepository.deleteMethodsByApplication("test"));
+        Assert.assertEquals(1, resourceRepository.deleteResourcesByApplication("test"));
+        entityManager.clear();
+
+        Assert.assertTrue(resourceRepository.findAllByApplication("test").isEmpty());
+        Assert.assertEquals(EnumSet.of(HttpMethod.GET), resourceRepository.findAllByApplication("other").get(0).getMethods());
+    }
+
+    @Test
+    public void testFindByApplicationAfterIdMustReturnNextPage() {
+        List<Resource> resources = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Resource page = new Resource();
+            page.setIdentifier("resource-" + i);
+            page.setPath("/app/" + i);
+            page.setApplication("test");
+            resources.add(page);
+        }
+
+        resourceRepository.saveAll(resources);
+        entityManager.flush();
+
+        List<Resource> first = resourceRepository.findByApplicationAndIdGreaterThanOrderByIdAsc("test", 0L, PageRequest.of(0, 2));
+        List<Resource> next = resourceRepository.findByApplicationAndIdGreaterThanOrderByIdAsc("test", first.get(1).getId(), PageRequest.of(0, 2));
+
+        Assert.assertEquals(Arrays.asList("/app/0", "/app/1"), Arrays.asList(first.get(0).getPath(), first.get(1).getPath()));
+        Assert.assertEquals(Arrays.asList("/app/2", "/app/3"), Arrays.asList(next.get(0).getPath(), next.get(1).getPath()));
+        Assert.assertTrue(resourceRepository.findByApplicationAndIdGreaterThanOrderByIdAsc("none", 0L, PageRequest.of(0, 2)).isEmpty());
+    }
 }
@@ -0,0 +1,160 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.AdmissionProperties;
+import com.github.jonpereiradev.integrator.server.model.Priority;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AdmissionQueueTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private AdmissionProperties properties;
+    private AdmissionQueue admissionQueue;
+
+    @Before
+    public void beforeTest() {
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setMaxConcurrent(1);
+        properties.setTarget(5);
+        properties.setInterval(50);
+        admissionQueue = new AdmissionQueue(properties);
+    }
+
+    @After
+    public void afterTest() {
+        admissionQueue.shutdown();
+    }
+
+    @Test
+    public void mustAdmitAtOnceWhileServerHasRoom() throws Exception {
+        properties.setMaxConcurrent(2);
+
+        assertTrue(admit(Priority.NORMAL));
+        assertTrue(admit(Priority.BEST_EFFORT));
+        assertEquals(2, admissionQueue.getStatistics().get("inFlight"));
+        assertEquals(0L, admissionQueue.getStatistics().get("delayed"));
+    }
+
+    @Test
+    public void mustQueueRequestWithoutBlockingTheCaller() {
+        properties.setInterval(5_000);
+        admissionQueue.admit(Priority.NORMAL, NO_DEADLINE);
+
+        CompletableFuture<Boolean> waiting = admissionQueue.admit(Priority.NORMAL, NO_DEADLINE);
+
+        assertFalse(waiting.isDone());
+        assertEquals(1, admissionQueue.getStatistics().get("queued"));
+    }
+
+    @Test
+    public void mustAdmitWaitingRequestWhenAnotherIsReleased() throws Exception {
+        properties.setInterval(5_000);
+        admissionQueue.admit(Priority.NORMAL, NO_DEADLINE);
+
+        CompletableFuture<Boolean> waiting = admissionQueue.admit(Priority.NORMAL, NO_DEADLINE);
+
+        admissionQueue.release();
+
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        assertEquals(1, admissionQueue.getStatistics().get("inFlight"));
+        assertEquals(0, admissionQueue.getStatistics().get("queued"));
+    }
+
+    @Test
+    public void mustDropRequestWhenWaitingLongerThanInterval() throws Exception {
+        admit(Priority.NORMAL);
+
+        assertFalse(admit(Priority.NORMAL));
+        assertEquals(0, admissionQueue.getStatistics().get("queued"));
+        assertEquals(Long.valueOf(1), shed().get("normal"));
+    }
+
+    @Test
+    public void mustDropRequestWhenItsDeadlineExpires() throws Exception {
+        properties.setInterval(5_000);
+        admit(Priority.NORMAL);
+
+        long start = System.currentTimeMillis();
+
+        assertFalse(admissionQueue.admit(Priority.NORMAL, 20).get(1, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start < properties.getInterval());
+        assertFalse(admissionQueue.admit(Priority.CRITICAL, 0).get(1, TimeUnit.SECONDS));
+        assertEquals(0, admissionQueue.getStatistics().get("queued"));
+    }
+
+    @Test
+    public void mustAdmitCriticalRequestsFirst() throws Exception {
+        properties.setInterval(5_000);
+        admit(Priority.NORMAL);
+
+        List<Priority> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Boolean> normal = admissionQueue.admit(Priority.NORMAL, NO_DEADLINE);
+        CompletableFuture<Boolean> critical = admissionQueue.admit(Priority.CRITICAL, NO_DEADLINE);
+
+        normal.thenAccept(admitted -> order.add(Priority.NORMAL));
+        critical.thenAccept(admitted -> order.add(Priority.CRITICAL));
+
+        admissionQueue.release();
+        assertTrue(critical.get(1, TimeUnit.SECONDS));
+        admissionQueue.release();
+        assertTrue(normal.get(1, TimeUnit.SECONDS));
+
+        assertEquals(Priority.CRITICAL, order.get(0));
+        assertEquals(Priority.NORMAL, order.get(1));
+    }
+
+    @Test
+    public void mustShedBestEffortFirstWhenOverloaded() throws Exception {
+        admit(Priority.NORMAL);
+
+        // two requests waiting the whole interval in a row keep the delay above the target for an interval.
+        admit(Priority.NORMAL);
+        admit(Priority.NORMAL);
+
+        assertEquals(true, admissionQueue.getStatistics().get("overloaded"));
+
+        long start = System.currentTimeMillis();
+
+        assertFalse(admit(Priority.BEST_EFFORT));
+        assertTrue(System.currentTimeMillis() - start < properties.getInterval());
+        assertEquals(Long.valueOf(1), shed().get("best_effort"));
+
+        CompletableFuture<Boolean> critical = admissionQueue.admit(Priority.CRITICAL, NO_DEADLINE);
+
+        admissionQueue.release();
+
+        assertTrue(critical.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void mustAdmitAllWhenDisabled() throws Exception {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(admit(Priority.BEST_EFFORT));
+        }
+    }
+
+    private boolean admit(Priority priority) throws Exception {
+        return admissionQueue.admit(priority, NO_DEADLINE).get(1, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> shed() {
+        return (Map<String, Long>) admissionQueue.getStatistics().get("shed");
+    }
+}
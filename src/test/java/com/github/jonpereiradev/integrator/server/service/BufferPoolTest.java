@@ -0,0 +1,61 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BufferPoolTest {
+
+    private BufferPool bufferPool;
+
+    @Before
+    public void beforeTest() {
+        bufferPool = new BufferPool(16, 2);
+    }
+
+    @Test
+    public void mustReuseReleasedBuffer() {
+        byte[] buffer = bufferPool.acquire();
+        bufferPool.release(buffer);
+
+        assertSame(buffer, bufferPool.acquire());
+    }
+
+    @Test
+    public void mustDiscardBuffersWhenPoolIsFull() {
+        bufferPool.release(new byte[16]);
+        bufferPool.release(new byte[16]);
+        bufferPool.release(new byte[16]);
+
+        assertEquals(2, bufferPool.available());
+    }
+
+    @Test
+    public void mustDiscardBuffersWithOtherSize() {
+        bufferPool.release(new byte[8]);
+        assertEquals(0, bufferPool.available());
+    }
+
+    @Test
+    public void mustCopyContentLargerThanBuffer() throws IOException {
+        byte[] content = new byte[100];
+
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(100, bufferPool.copy(new ByteArrayInputStream(content), output));
+        assertArrayEquals(content, output.toByteArray());
+        assertEquals(1, bufferPool.available());
+    }
+}
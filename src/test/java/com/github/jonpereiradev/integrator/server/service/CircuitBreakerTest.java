@@ -0,0 +1,119 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CircuitBreakerProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class CircuitBreakerTest {
+
+    private static final long NOW = 1_000_000;
+
+    private CircuitBreakerProperties properties;
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void beforeTest() {
+        properties = new CircuitBreakerProperties();
+        properties.setMinimumRequests(4);
+        properties.setHalfOpenRequests(2);
+        circuitBreaker = new CircuitBreaker(properties);
+    }
+
+    @Test
+    public void mustKeepClosedWhenBelowMinimumRequests() {
+        complete(3, true, 0, NOW);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire(NOW));
+    }
+
+    @Test
+    public void mustOpenWhenFailureRateReached() {
+        complete(2, false, 0, NOW);
+        complete(2, true, 0, NOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire(NOW));
+        assertEquals(properties.getOpenDuration(), circuitBreaker.getRetryAfter(NOW));
+    }
+
+    @Test
+    public void mustOpenWhenSlowCallRateReached() {
+        complete(4, false, properties.getSlowCallDuration(), NOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void mustForgetOutcomesOutsideTheWindow() {
+        complete(3, true, 0, NOW);
+        complete(1, true, 0, NOW + properties.getWindow());
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void mustLetProbesThroughWhenOpenDurationElapsed() {
+        long halfOpen = NOW + properties.getOpenDuration();
+
+        complete(4, true, 0, NOW);
+
+        assertTrue(circuitBreaker.tryAcquire(halfOpen));
+        assertTrue(circuitBreaker.tryAcquire(halfOpen));
+        assertFalse(circuitBreaker.tryAcquire(halfOpen));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.release();
+
+        assertTrue(circuitBreaker.tryAcquire(halfOpen));
+    }
+
+    @Test
+    public void mustCloseWhenAllProbesSucceed() {
+        long halfOpen = NOW + properties.getOpenDuration();
+
+        complete(4, true, 0, NOW);
+        circuitBreaker.tryAcquire(halfOpen);
+        circuitBreaker.tryAcquire(halfOpen);
+        complete(2, false, 0, halfOpen);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        complete(3, true, 0, halfOpen);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void mustOpenAgainWhenProbeFails() {
+        long halfOpen = NOW + properties.getOpenDuration();
+
+        complete(4, true, 0, NOW);
+        circuitBreaker.tryAcquire(halfOpen);
+        complete(1, true, 0, halfOpen);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire(halfOpen));
+    }
+
+    @Test
+    public void mustAlwaysAcceptWhenDisabled() {
+        properties.setEnabled(false);
+
+        complete(10, true, 0, NOW);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire(NOW));
+    }
+
+    private void complete(int requests, boolean failed, long duration, long now) {
+        for (int i = 0; i < requests; i++) {
+            circuitBreaker.onComplete(failed, duration, now);
+        }
+    }
+}
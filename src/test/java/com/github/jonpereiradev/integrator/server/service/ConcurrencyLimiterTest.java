@@ -0,0 +1,186 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.ConcurrencyLimitProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ConcurrencyLimiterTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ConcurrencyLimitProperties properties;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void beforeTest() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        concurrencyLimiter = new ConcurrencyLimiter(properties, 10, scheduler);
+    }
+
+    @After
+    public void afterTest() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void mustRejectWhenLimitReached() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire());
+        }
+
+        assertFalse(concurrencyLimiter.tryAcquire());
+        assertEquals(10, concurrencyLimiter.getInFlight());
+
+        concurrencyLimiter.release();
+
+        assertTrue(concurrencyLimiter.tryAcquire());
+    }
+
+    @Test
+    public void mustWaitForRoomWhenLimitReached() throws Exception {
+        fill();
+
+        CompletableFuture<Boolean> first = concurrencyLimiter.acquire(5_000);
+        CompletableFuture<Boolean> second = concurrencyLimiter.acquire(5_000);
+
+        assertFalse(first.isDone());
+        assertEquals(2, concurrencyLimiter.getWaiting());
+
+        concurrencyLimiter.onComplete(RTT, false);
+
+        assertTrue(first.get(1, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        assertEquals(10, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    public void mustGiveRoomOfCancelledWaiterToTheNext() throws Exception {
+        fill();
+
+        CompletableFuture<Boolean> cancelled = concurrencyLimiter.acquire(5_000);
+        CompletableFuture<Boolean> next = concurrencyLimiter.acquire(5_000);
+
+        cancelled.cancel(false);
+        concurrencyLimiter.release();
+
+        assertTrue(next.get(1, TimeUnit.SECONDS));
+        assertEquals(10, concurrencyLimiter.getInFlight());
+        assertEquals(0, concurrencyLimiter.getWaiting());
+    }
+
+    @Test
+    public void mustRejectWhenWaitingLongerThanAllowed() throws Exception {
+        fill();
+
+        assertFalse(concurrencyLimiter.acquire(20).get(1, TimeUnit.SECONDS));
+        assertFalse(concurrencyLimiter.acquire(0).get(1, TimeUnit.SECONDS));
+        assertEquals(0, concurrencyLimiter.getWaiting());
+        assertEquals(2, concurrencyLimiter.getRejected());
+    }
+
+    @Test
+    public void mustStartAtInitialLimitBetweenMinAndMax() {
+        properties.setMaxLimit(50);
+
+        assertEquals(50, new ConcurrencyLimiter(properties, 200, scheduler).getLimit());
+    }
+
+    @Test
+    public void mustGrowLimitWhileResponseTimeStaysTheSame() {
+        load(100, RTT);
+
+        assertTrue(concurrencyLimiter.getLimit() > 10);
+    }
+
+    @Test
+    public void mustShrinkLimitWhenResponseTimeGrows() {
+        load(100, RTT);
+
+        int limit = concurrencyLimiter.getLimit();
+
+        load(20, RTT * 10);
+
+        assertTrue(concurrencyLimiter.getLimit() < limit);
+    }
+
+    @Test
+    public void mustShrinkLimitWhenRequestsAreDropped() {
+        concurrencyLimiter.tryAcquire();
+        concurrencyLimiter.onComplete(RTT, true);
+
+        assertTrue(concurrencyLimiter.getLimit() < 10);
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    public void mustKeepLimitWhenApplicationIsIdle() {
+        for (int i = 0; i < 100; i++) {
+            concurrencyLimiter.tryAcquire();
+            concurrencyLimiter.onComplete(RTT, false);
+        }
+
+        assertEquals(10, concurrencyLimiter.getLimit());
+    }
+
+    @Test
+    public void mustKeepLimitBetweenMinAndMax() {
+        properties.setMaxLimit(12);
+
+        load(200, RTT);
+
+        assertEquals(12, concurrencyLimiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            concurrencyLimiter.tryAcquire();
+            concurrencyLimiter.onComplete(RTT, true);
+        }
+
+        assertEquals(properties.getMinLimit(), concurrencyLimiter.getLimit());
+    }
+
+    @Test
+    public void mustAlwaysAcceptWhenDisabled() {
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire());
+        }
+    }
+
+    private void fill() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire());
+        }
+    }
+
+    /**
+     * Completes requests while the limiter is full, as an application under load.
+     */
+    private void load(int requests, long rtt) {
+        for (int i = 0; i < requests; i++) {
+            while (concurrencyLimiter.tryAcquire()) {
+                // fills the limit before each response.
+            }
+
+            concurrencyLimiter.onComplete(rtt, false);
+        }
+
+        while (concurrencyLimiter.getInFlight() > 0) {
+            concurrencyLimiter.release();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.ConcurrencyLimitProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ConnectionPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ConcurrencyLimitersTest {
+
+    private ConcurrencyLimitProperties properties;
+    private ConcurrencyLimiters concurrencyLimiters;
+
+    @Before
+    public void beforeTest() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(true);
+        properties.setInitialLimit(2);
+        concurrencyLimiters = new ConcurrencyLimiters(properties);
+    }
+
+    @After
+    public void afterTest() {
+        concurrencyLimiters.shutdown();
+    }
+
+    @Test
+    public void mustLimitEachApplicationApart() {
+        deploy("app");
+        deploy("other");
+
+        assertTrue(concurrencyLimiters.get(application("app")).acquire(0).join());
+        assertTrue(concurrencyLimiters.get(application("app")).acquire(0).join());
+        assertFalse(concurrencyLimiters.get(application("app")).acquire(0).join());
+        assertTrue(concurrencyLimiters.get(application("other")).acquire(0).join());
+
+        Map<String, Long> statistics = concurrencyLimiters.getStatistics().get("app");
+
+        assertEquals(Long.valueOf(2), statistics.get("limit"));
+        assertEquals(Long.valueOf(2), statistics.get("inFlight"));
+        assertEquals(Long.valueOf(1), statistics.get("rejected"));
+    }
+
+    @Test
+    public void mustStartAtMaxConnectionsOfApplication() {
+        properties.setInitialLimit(0);
+
+        Application application = application("app");
+        application.setPool(new ConnectionPool());
+        application.getPool().setMaxConnections(64);
+        concurrencyLimiters.onApplicationLoaded(new ApplicationLoadedEvent(application));
+
+        assertEquals(64, concurrencyLimiters.get(application).getLimit());
+    }
+
+    @Test
+    public void mustRemoveLimiterWhenApplicationUndeployed() {
+        deploy("app");
+        concurrencyLimiters.get(application("app")).acquire(0);
+        concurrencyLimiters.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertTrue(concurrencyLimiters.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void mustNotCreateLimiterOfApplicationUndeployed() {
+        deploy("app");
+        concurrencyLimiters.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        try {
+            concurrencyLimiters.get(application("app"));
+            fail("Must throw IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Application app not deployed.", e.getMessage());
+        }
+
+        assertTrue(concurrencyLimiters.getStatistics().isEmpty());
+    }
+
+    private void deploy(String id) {
+        concurrencyLimiters.onApplicationDeployed(new ApplicationDeployedEvent(application(id)));
+    }
+
+    private static Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        return application;
+    }
+}
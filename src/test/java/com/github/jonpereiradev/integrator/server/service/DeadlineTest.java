@@ -0,0 +1,109 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class DeadlineTest {
+
+    @Test
+    public void mustUseTimeoutWhenClientDoesNotSendHeader() {
+        Deadline deadline = Deadline.of(5000, null);
+
+        assertTrue(deadline.remaining() > 4000);
+        assertFalse(deadline.isExpired());
+    }
+
+    @Test
+    public void mustHonorClientHeaderWhenShorter() {
+        Deadline deadline = Deadline.of(5000, "1000");
+
+        assertTrue(deadline.remaining() <= 1000);
+    }
+
+    @Test
+    public void mustKeepTimeoutWhenClientHeaderIsLonger() {
+        Deadline deadline = Deadline.of(1000, "5000");
+
+        assertTrue(deadline.remaining() <= 1000);
+    }
+
+    @Test
+    public void mustIgnoreClientHeaderWhenInvalid() {
+        Deadline deadline = Deadline.of(5000, "invalid");
+
+        assertTrue(deadline.remaining() > 4000);
+    }
+
+    @Test
+    public void mustExpireWhenClientHasNoTimeRemaining() {
+        Deadline deadline = Deadline.of(5000, "0");
+
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remaining());
+    }
+
+    @Test
+    public void mustExpireAndRunActionsWhenCancelled() {
+        Deadline deadline = Deadline.of(5000, null);
+        AtomicInteger cancelled = new AtomicInteger();
+        deadline.onCancel(cancelled::incrementAndGet);
+
+        deadline.cancel();
+        deadline.cancel();
+
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remaining());
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    public void mustRunActionNowWhenAlreadyCancelled() {
+        Deadline deadline = Deadline.of(5000, null);
+        AtomicInteger cancelled = new AtomicInteger();
+
+        deadline.cancel();
+        deadline.onCancel(cancelled::incrementAndGet);
+
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    public void mustRunTimerActionWhenCancelledBeforeExpired() {
+        DeadlineTimer deadlineTimer = new DeadlineTimer();
+        Deadline deadline = Deadline.of(5000, null);
+        AtomicInteger aborted = new AtomicInteger();
+
+        try {
+            ScheduledFuture<?> task = deadlineTimer.onExpired(deadline, aborted::incrementAndGet);
+            deadline.cancel();
+
+            assertTrue(task.isCancelled());
+            assertEquals(1, aborted.get());
+        } finally {
+            deadlineTimer.shutdown();
+        }
+    }
+
+    @Test
+    public void mustNotRunTimerActionWhenTheRequestFinishedBeforeCancelled() {
+        DeadlineTimer deadlineTimer = new DeadlineTimer();
+        Deadline deadline = Deadline.of(5000, null);
+        AtomicInteger aborted = new AtomicInteger();
+
+        try {
+            deadlineTimer.onExpired(deadline, aborted::incrementAndGet).cancel(false);
+            deadline.cancel();
+
+            assertEquals(0, aborted.get());
+        } finally {
+            deadlineTimer.shutdown();
+        }
+    }
+}
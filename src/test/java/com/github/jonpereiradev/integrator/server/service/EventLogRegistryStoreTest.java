@@ -0,0 +1,215 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.RegistryProperties;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class EventLogRegistryStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RegistryProperties properties;
+    private EventLogRegistryStore registryStore;
+
+    @Before
+    public void beforeTest() throws IOException {
+        properties = new RegistryProperties();
+        properties.setStore("log");
+        properties.setLogPath(folder.getRoot().toPath().resolve("integrator.log").toString());
+        registryStore = open();
+    }
+
+    @After
+    public void afterTest() throws Exception {
+        registryStore.close();
+    }
+
+    @Test
+    public void mustReplayDeployedApplicationsWhenOpened() throws Exception {
+        registryStore.save(application("app"), resources("app", 2));
+        registryStore.close();
+        registryStore = open();
+
+        RegistrySnapshot.Registry registry = registryStore.load();
+
+        assertEquals(1, registry.getApplications().size());
+        assertEquals("app", registry.getApplications().get(0).getId());
+        assertEquals(2, registry.getResources("app").size());
+        assertEquals("/app/1", registryStore.findResourceByIdentifier("app-1").getPath());
+    }
+
+    @Test
+    public void mustReplayUndeployedApplicationsWhenOpened() throws Exception {
+        registryStore.save(application("app"), resources("app", 1));
+        registryStore.save(application("other"), resources("other", 1));
+
+        assertTrue(registryStore.remove("app"));
+        assertFalse(registryStore.remove("app"));
+
+        registryStore.close();
+        registryStore = open();
+
+        assertEquals(1, registryStore.load().getApplications().size());
+        assertNull(registryStore.findResourceByIdentifier("app-0"));
+        assertNotNull(registryStore.findResourceByIdentifier("other-0"));
+    }
+
+    @Test
+    public void mustReplaceResourcesWhenApplicationSavedAgain() {
+        registryStore.save(application("app"), resources("app", 2));
+        registryStore.save(application("app"), resources("app", 1));
+
+        assertEquals(1, registryStore.findAllResources("app").size());
+        assertNull(registryStore.findResourceByIdentifier("app-1"));
+    }
+
+    @Test
+    public void mustAssignIncreasingResourceIdsAfterReplay() throws Exception {
+        registryStore.save(application("app"), resources("app", 2));
+        registryStore.close();
+        registryStore = open();
+
+        List<Resource> resources = resources("other", 1);
+
+        registryStore.save(application("other"), resources);
+
+        assertEquals(Long.valueOf(3), resources.get(0).getId());
+    }
+
+    @Test
+    public void mustTruncateTornEventWhenOpened() throws Exception {
+        Path path = Paths.get(properties.getLogPath());
+
+        registryStore.save(application("app"), resources("app", 1));
+        registryStore.close();
+
+        long size = Files.size(path);
+
+        Files.write(path, new byte[]{0, 0, 0, 64, 1, 2, 3}, StandardOpenOption.APPEND);
+        registryStore = open();
+
+        assertEquals(size, Files.size(path));
+        assertEquals(1, registryStore.load().getApplications().size());
+    }
+
+    @Test
+    public void mustCommitConcurrentEventsInBatches() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 64; i++) {
+                String id = "app-" + i;
+                futures.add(executor.submit(() -> registryStore.save(application(id), resources(id, 1))));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(Long.valueOf(64), registryStore.getStatistics().get("appended"));
+        assertTrue(registryStore.getStatistics().get("commits") <= 64);
+        assertEquals(64, registryStore.load().getApplications().size());
+    }
+
+    @Test
+    public void mustCompactLogWhenGrown() throws Exception {
+        registryStore.close();
+        properties.setCompactionMinSize(1);
+        registryStore = open();
+
+        for (int i = 0; i < 20; i++) {
+            registryStore.save(application("app"), resources("app", 10));
+        }
+
+        long timeout = System.currentTimeMillis() + 5_000;
+
+        while (registryStore.getStatistics().get("compactions") == 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(registryStore.getStatistics().get("compactions") > 0);
+
+        registryStore.save(application("other"), resources("other", 1));
+        registryStore.close();
+        registryStore = open();
+
+        assertEquals(2, registryStore.load().getApplications().size());
+        assertEquals(10, registryStore.findAllResources("app").size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustNotSaveWhenClosed() throws Exception {
+        registryStore.close();
+        registryStore.save(application("app"), resources("app", 1));
+    }
+
+    private EventLogRegistryStore open() throws IOException {
+        EventLogRegistryStore store = new EventLogRegistryStore(properties);
+        store.open();
+        return store;
+    }
+
+    private static Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName(id);
+        application.setVersion("v1");
+        application.setHost("http://" + id + ".com");
+        return application;
+    }
+
+    private static List<Resource> resources(String application, int count) {
+        List<Resource> resources = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Resource resource = new Resource();
+            resource.setIdentifier(application + "-" + i);
+            resource.setPath("/" + application + "/" + i);
+            resources.add(resource);
+        }
+
+        return resources;
+    }
+
+    @Test
+    public void mustFindResourcesAfterIdentifier() {
+        registryStore.save(application("other"), resources("other", 2));
+        registryStore.save(application("app"), resources("app", 5));
+
+        List<Resource> first = registryStore.findResources("app", 0, 2);
+        List<Resource> last = registryStore.findResources("app", first.get(1).getId(), 10);
+
+        assertEquals("/app/0", first.get(0).getPath());
+        assertEquals(2, first.size());
+        assertEquals(3, last.size());
+        assertEquals("/app/2", last.get(0).getPath());
+        assertTrue(registryStore.findResources("app", last.get(2).getId(), 10).isEmpty());
+        assertTrue(registryStore.findResources("none", 0, 10).isEmpty());
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.HealthCheckProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HealthCheckSchedulerTest {
+
+    @Mock
+    private IntegratorServer integratorServer;
+
+    private HealthCheckProperties properties;
+    private HealthCheckScheduler healthCheckScheduler;
+    private Application application;
+
+    @Before
+    public void beforeTest() {
+        properties = new HealthCheckProperties();
+        properties.setInterval(10);
+        properties.setMinInterval(5);
+        properties.setMaxInterval(40);
+        properties.setJitter(0);
+
+        healthCheckScheduler = new HealthCheckScheduler(properties, integratorServer);
+        application = new Application();
+        application.setId("app");
+    }
+
+    @After
+    public void afterTest() {
+        healthCheckScheduler.shutdown();
+    }
+
+    @Test
+    public void mustUndeployWhenOfflineForConsecutiveChecks() {
+        when(integratorServer.findOnlineApplications(anyCollection())).thenReturn(Collections.emptySet());
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        verify(integratorServer, timeout(1_000)).undeployApplication("app");
+        verify(integratorServer, times(2)).findOnlineApplications(anyCollection());
+        assertTrue(healthCheckScheduler.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void mustCheckStableApplicationLessOften() throws InterruptedException {
+        when(integratorServer.findOnlineApplications(anyCollection())).thenReturn(Collections.singleton("app"));
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        await(statistics -> Long.valueOf(40).equals(statistics.get("interval")));
+        verify(integratorServer, never()).undeployApplication(anyString());
+    }
+
+    @Test
+    public void mustCheckFlappingApplicationMoreOften() throws InterruptedException {
+        AtomicBoolean online = new AtomicBoolean();
+
+        properties.setInterval(40);
+        when(integratorServer.findOnlineApplications(anyCollection()))
+            .thenAnswer(invocation -> online.getAndSet(!online.get()) ? Collections.emptySet() : Collections.singleton("app"));
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        await(statistics -> Long.valueOf(5).equals(statistics.get("interval")));
+        verify(integratorServer, never()).undeployApplication(anyString());
+    }
+
+    @Test
+    public void mustStopCheckingWhenUndeployed() throws InterruptedException {
+        properties.setInterval(50);
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        healthCheckScheduler.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        Thread.sleep(100);
+
+        verify(integratorServer, never()).findOnlineApplications(anyCollection());
+        assertTrue(healthCheckScheduler.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void mustCheckApplicationsLoadedOnStart() {
+        when(integratorServer.findAllApplications()).thenReturn(Collections.singletonList(application));
+        when(integratorServer.findOnlineApplications(anyCollection())).thenReturn(Collections.singleton("app"));
+
+        healthCheckScheduler.onApplicationReady();
+
+        verify(integratorServer, timeout(1_000).atLeastOnce()).findOnlineApplications(Collections.singletonList(application));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void mustProbeApplicationsDueTogether() throws InterruptedException {
+        CountDownLatch probing = new CountDownLatch(1);
+
+        when(integratorServer.findOnlineApplications(anyCollection())).thenAnswer(invocation -> {
+            probing.await(1, TimeUnit.SECONDS);
+            return Collections.singleton("app");
+        });
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        verify(integratorServer, timeout(1_000)).findOnlineApplications(anyCollection());
+
+        // the checks due while the first one is probed wait for it and are probed together.
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application("second")));
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application("third")));
+        Thread.sleep(50);
+        probing.countDown();
+
+        ArgumentCaptor<Collection<Application>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        verify(integratorServer, timeout(1_000).atLeast(2)).findOnlineApplications(captor.capture());
+        assertEquals(2, captor.getAllValues().get(1).size());
+    }
+
+    @Test
+    public void mustNotProbeWhenProxiedRequestsSucceeded() throws InterruptedException {
+        when(integratorServer.findOnlineApplications(anyCollection())).thenReturn(Collections.singleton("app"));
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        healthCheckScheduler.onProxyOutcome("app", false);
+
+        await(statistics -> Long.valueOf(1).equals(statistics.get("passiveChecks")));
+        assertEquals(Long.valueOf(0), healthCheckScheduler.getStatistics().get("app").get("probes"));
+
+        // without requests the application is idle and probed again.
+        verify(integratorServer, timeout(1_000).atLeastOnce()).findOnlineApplications(anyCollection());
+    }
+
+    @Test
+    public void mustProbeRightAwayWhenProxiedRequestsFail() throws InterruptedException {
+        properties.setInterval(60_000);
+        properties.setSuspectThreshold(3);
+        when(integratorServer.findOnlineApplications(anyCollection())).thenReturn(Collections.singleton("app"));
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        for (int i = 0; i < 3; i++) {
+            healthCheckScheduler.onProxyOutcome("app", true);
+        }
+
+        verify(integratorServer, timeout(1_000)).findOnlineApplications(anyCollection());
+        assertEquals(Long.valueOf(1), healthCheckScheduler.getStatistics().get("app").get("suspicions"));
+    }
+
+    @Test
+    public void mustIgnoreProxiedRequestsWhenNotPassive() throws InterruptedException {
+        properties.setInterval(60_000);
+        properties.setPassive(false);
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        for (int i = 0; i < 10; i++) {
+            healthCheckScheduler.onProxyOutcome("app", true);
+        }
+
+        Thread.sleep(100);
+
+        verify(integratorServer, never()).findOnlineApplications(anyCollection());
+    }
+
+    @Test
+    public void mustNotCheckWhenDisabled() {
+        properties.setEnabled(false);
+
+        healthCheckScheduler.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        assertTrue(healthCheckScheduler.getStatistics().isEmpty());
+    }
+
+    private Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        return application;
+    }
+
+    private void await(Predicate<Map<String, Object>> condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 2_000;
+
+        while (!condition.test(healthCheckScheduler.getStatistics().getOrDefault("app", Collections.emptyMap()))) {
+            assertTrue(System.currentTimeMillis() < timeout);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CircuitBreakerProperties;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class HostSelectorTest {
+
+    private ProxyProperties proxyProperties;
+    private CircuitBreakerProperties circuitBreakerProperties;
+    private HostSelector hostSelector;
+    private Application application;
+
+    @Before
+    public void beforeTest() {
+        proxyProperties = new ProxyProperties();
+        circuitBreakerProperties = new CircuitBreakerProperties();
+        hostSelector = new HostSelector(proxyProperties, circuitBreakerProperties);
+        application = new Application();
+
+        application.setId("app");
+        application.setHost("http://app-1.com");
+    }
+
+    @Test
+    public void mustSelectHostWhenApplicationHasOneHost() {
+        load();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("http://app-1.com", hostSelector.select(application).getAddress());
+        }
+    }
+
+    @Test
+    public void mustSelectHostWithLessRequestsInFlight() {
+        application.getHosts().add("http://app-2.com");
+        load();
+
+        UpstreamHost busy = hostSelector.select(application);
+
+        busy.acquire();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(busy.getAddress(), hostSelector.select(application).getAddress());
+        }
+
+        busy.release();
+    }
+
+    @Test
+    public void mustSlowStartOnlyNewHostsWhenRedeployed() {
+        proxyProperties.setSlowStart(60_000);
+        application.getHosts().add("http://app-2.com");
+        load();
+
+        application.getHosts().add("http://app-3.com");
+        hostSelector.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        List<Map<String, Object>> hosts = hostSelector.getStatistics().get("app");
+
+        assertEquals(3, hosts.size());
+        assertEquals(1.0, hosts.get(0).get("weight"));
+        assertEquals(1.0, hosts.get(1).get("weight"));
+        assertTrue((Double) hosts.get(2).get("weight") < 1.0);
+    }
+
+    @Test
+    public void mustPreferWarmHostWhenNewHostIsStarting() {
+        UpstreamHost warm = new UpstreamHost("http://app-1.com", 0, new CircuitBreaker(circuitBreakerProperties));
+        UpstreamHost starting = new UpstreamHost("http://app-2.com", System.currentTimeMillis(), new CircuitBreaker(circuitBreakerProperties));
+
+        warm.acquire();
+        warm.acquire();
+
+        long now = System.currentTimeMillis();
+
+        assertTrue(warm.load(now, 60_000) < starting.load(now, 60_000));
+    }
+
+    @Test
+    public void mustEjectHostWhenCircuitIsOpen() {
+        application.getHosts().add("http://app-2.com");
+        load();
+
+        UpstreamHost failing = hostSelector.select(application);
+
+        open(failing.getCircuitBreaker());
+
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(failing.getAddress(), hostSelector.select(application).getAddress());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, hostSelector.getStatistics().get("app").stream()
+            .filter(host -> host.get("host").equals(failing.getAddress()))
+            .findFirst().orElseThrow(AssertionError::new).get("circuit"));
+    }
+
+    @Test
+    public void mustReturnNullWhenCircuitOfAllHostsIsOpen() {
+        load();
+        open(hostSelector.select(application).getCircuitBreaker());
+
+        assertNull(hostSelector.select(application));
+        assertTrue(hostSelector.getRetryAfter(application) > 0);
+    }
+
+    @Test
+    public void mustRemoveHostsWhenApplicationUndeployed() {
+        load();
+        hostSelector.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertTrue(hostSelector.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void mustNotCreateHostsOfApplicationUndeployed() {
+        load();
+        hostSelector.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        try {
+            hostSelector.select(application);
+            fail("Must throw IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Application app not deployed.", e.getMessage());
+        }
+
+        assertTrue(hostSelector.getStatistics().isEmpty());
+    }
+
+    private void load() {
+        hostSelector.onApplicationLoaded(new ApplicationLoadedEvent(application));
+    }
+
+    private void open(CircuitBreaker circuitBreaker) {
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < circuitBreakerProperties.getMinimumRequests(); i++) {
+            circuitBreaker.onComplete(true, 0, now);
+        }
+    }
+}
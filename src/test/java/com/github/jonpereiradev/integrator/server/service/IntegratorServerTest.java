@@ -2,11 +2,14 @@ package com.github.jonpereiradev.integrator.server.service;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.jonpereiradev.integrator.server.configuration.HealthCheckProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationLoadedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
 import com.github.jonpereiradev.integrator.server.model.Application;
 import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
 import com.github.jonpereiradev.integrator.server.model.Resource;
-import com.github.jonpereiradev.integrator.server.repository.ApplicationRepository;
-import com.github.jonpereiradev.integrator.server.repository.ResourceRepository;
+import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.exceptions.UnirestException;
 import com.mashape.unirest.request.GetRequest;
 import org.junit.Before;
@@ -14,11 +17,18 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -33,10 +43,10 @@ public class IntegratorServerTest {
     private PingServer pingServer;
 
     @Mock
-    private ApplicationRepository applicationRepository;
+    private RegistryStore registryStore;
 
     @Mock
-    private ResourceRepository resourceRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     private ApplicationRequest applicationRequest;
     private IntegratorServer integratorServer;
@@ -58,29 +68,40 @@ public class IntegratorServerTest {
         applicationRequest.getResources().get(0).setPath("/app/v1");
 
 
-        integratorServer = new IntegratorServer(request, pingServer, resourceRepository, applicationRepository);
+        integratorServer = new IntegratorServer(request, pingServer, registryStore, eventPublisher, new HealthCheckProperties());
     }
 
     @Test
     public void testMustLoadApplicationsWhenServerCreated() {
-        when(applicationRepository.findAll()).thenReturn(Collections.singletonList(applicationRequest.getApplication()));
+        when(registryStore.load()).thenReturn(registry());
 
         integratorServer.onPostConstruct();
 
-        verify(applicationRepository).findAll();
+        verify(registryStore).load();
         assertEquals(applicationRequest.getApplication(), integratorServer.findOneApplicationByKey("app"));
     }
 
+    @Test
+    public void testMustPublishApplicationsLoadedWhenContextRefreshed() {
+        when(registryStore.load()).thenReturn(registry());
+
+        integratorServer.onPostConstruct();
+        integratorServer.onContextRefreshed();
+
+        verify(eventPublisher).publishEvent(any(ApplicationLoadedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(ApplicationDeployedEvent.class));
+    }
+
     @Test
     public void testMustDeployApplicationForFirstTime() {
         applicationRequest.getResources().clear();
 
-        when(applicationRepository.save(any())).thenReturn(applicationRequest.getApplication());
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
 
         DecodedJWT token = JWT.decode(integratorServer.deployApplication(applicationRequest));
 
-        verify(applicationRepository).save(any());
-        verifyNoMoreInteractions(resourceRepository);
+        verify(registryStore).save(applicationRequest.getApplication(), applicationRequest.getResources());
+        verify(eventPublisher).publishEvent(any(ApplicationDeployedEvent.class));
 
         assertEquals(applicationRequest.getApplication().getId(), token.getSubject());
     }
@@ -89,28 +110,25 @@ public class IntegratorServerTest {
     public void testMustDeployApplicationForSecondTime() {
         applicationRequest.getResources().clear();
 
-        when(applicationRepository.findAll()).thenReturn(Collections.singletonList(applicationRequest.getApplication()));
-        when(applicationRepository.save(any())).thenReturn(applicationRequest.getApplication());
-        when(applicationRepository.findById(applicationRequest.getApplication().getId())).thenReturn(Optional.of(applicationRequest.getApplication()));
+        when(registryStore.load()).thenReturn(registry());
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
 
         integratorServer.onPostConstruct();
         integratorServer.deployApplication(applicationRequest);
 
-        verify(applicationRepository).findById(applicationRequest.getApplication().getId());
-        verify(resourceRepository).findAllByApplication(applicationRequest.getApplication().getId());
-        verify(resourceRepository).deleteAll(any());
-        verify(applicationRepository).delete(applicationRequest.getApplication());
-        verify(applicationRepository).save(any());
+        verify(registryStore).save(applicationRequest.getApplication(), applicationRequest.getResources());
+        verify(registryStore, never()).remove(anyString());
+        verify(eventPublisher, never()).publishEvent(any(ApplicationUndeployedEvent.class));
+        verify(eventPublisher).publishEvent(any(ApplicationDeployedEvent.class));
     }
 
     @Test
     public void testMustDeployApplicationWithDependencies() {
-        when(applicationRepository.save(any())).thenReturn(applicationRequest.getApplication());
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
 
         integratorServer.deployApplication(applicationRequest);
 
-        verify(applicationRepository).save(any());
-        verify(resourceRepository).save(any());
+        verify(registryStore).save(applicationRequest.getApplication(), applicationRequest.getResources());
     }
 
     @Test
@@ -125,9 +143,9 @@ public class IntegratorServerTest {
 
     @Test
     public void testMustUndeployApplicationsWhenPingServerOffline() {
-        when(pingServer.ping(anyString())).thenReturn(false);
-        when(applicationRepository.save(applicationRequest.getApplication())).thenReturn(applicationRequest.getApplication());
-        when(applicationRepository.findById(applicationRequest.getApplication().getId())).thenReturn(Optional.of(applicationRequest.getApplication()));
+        when(pingServer.pingAll(anyCollection())).thenReturn(Collections.singletonMap("http://app.com", PingServer.Status.OFFLINE));
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
+        when(registryStore.remove(applicationRequest.getApplication().getId())).thenReturn(true);
 
         integratorServer.deployApplication(applicationRequest);
         assertFalse(integratorServer.findAllApplications().isEmpty());
@@ -135,19 +153,21 @@ public class IntegratorServerTest {
         integratorServer.undeployOfflineApplications();
         assertTrue(integratorServer.findAllApplications().isEmpty());
 
-        verify(pingServer).ping(anyString());
-        verify(applicationRepository).save(applicationRequest.getApplication());
-        verify(applicationRepository).findById(applicationRequest.getApplication().getId());
+        verify(pingServer).pingAll(anyCollection());
+        verify(registryStore).save(applicationRequest.getApplication(), applicationRequest.getResources());
+        verify(registryStore).remove(applicationRequest.getApplication().getId());
     }
 
     @Test
     public void testMustUndeployApplicationsWhenApplicationStatusOffline() throws UnirestException {
         GetRequest getRequest = mock(GetRequest.class);
 
-        when(pingServer.ping(anyString())).thenReturn(true);
-        when(applicationRepository.save(applicationRequest.getApplication())).thenReturn(applicationRequest.getApplication());
-        when(applicationRepository.findById(applicationRequest.getApplication().getId())).thenReturn(Optional.of(applicationRequest.getApplication()));
-        when(request.get(anyString())).thenReturn(getRequest);
+        applicationRequest.getApplication().setHost("https://app.com");
+
+        when(pingServer.pingAll(anyCollection())).thenReturn(Collections.singletonMap("https://app.com", PingServer.Status.REACHABLE));
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
+        when(registryStore.remove(applicationRequest.getApplication().getId())).thenReturn(true);
+        when(request.get("https://app.com/status")).thenReturn(getRequest);
         when(getRequest.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)).thenReturn(getRequest);
         when(getRequest.asString()).thenThrow(new UnirestException("mock exception"));
 
@@ -157,9 +177,73 @@ public class IntegratorServerTest {
         integratorServer.undeployOfflineApplications();
         assertTrue(integratorServer.findAllApplications().isEmpty());
 
-        verify(pingServer).ping(anyString());
-        verify(applicationRepository).save(applicationRequest.getApplication());
-        verify(applicationRepository).findById(applicationRequest.getApplication().getId());
+        verify(pingServer).pingAll(anyCollection());
+        verify(registryStore).save(applicationRequest.getApplication(), applicationRequest.getResources());
+        verify(registryStore).remove(applicationRequest.getApplication().getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMustKeepApplicationWhenOneHostOnline() throws UnirestException {
+        GetRequest getRequest = mock(GetRequest.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        Map<String, PingServer.Status> statuses = new HashMap<>();
+
+        applicationRequest.getApplication().getHosts().add("https://app-2.com");
+        statuses.put("http://app.com", PingServer.Status.OFFLINE);
+        statuses.put("https://app-2.com", PingServer.Status.REACHABLE);
+
+        when(pingServer.pingAll(anyCollection())).thenReturn(statuses);
+        when(registryStore.save(any(), any())).thenReturn(applicationRequest.getApplication());
+        when(request.get("https://app-2.com/status")).thenReturn(getRequest);
+        when(getRequest.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)).thenReturn(getRequest);
+        when(getRequest.asString()).thenReturn(response);
+        when(response.getStatus()).thenReturn(HttpStatus.OK.value());
+
+        integratorServer.deployApplication(applicationRequest);
+        integratorServer.undeployOfflineApplications();
+
+        assertFalse(integratorServer.findAllApplications().isEmpty());
+        verify(pingServer).pingAll(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(ApplicationUndeployedEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMustRequestStatusOfSecureHostsConcurrently() throws UnirestException {
+        GetRequest getRequest = mock(GetRequest.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        Map<String, PingServer.Status> statuses = new HashMap<>();
+        Application secondApplication = new Application();
+
+        applicationRequest.getApplication().setHost("https://app-1.com");
+        secondApplication.setId("app-2");
+        secondApplication.setHost("https://app-2.com");
+        statuses.put("https://app-1.com", PingServer.Status.REACHABLE);
+        statuses.put("https://app-2.com", PingServer.Status.REACHABLE);
+
+        when(pingServer.pingAll(anyCollection())).thenReturn(statuses);
+        when(request.get(anyString())).thenReturn(getRequest);
+        when(getRequest.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)).thenReturn(getRequest);
+        when(getRequest.asString()).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return response;
+        });
+        when(response.getStatus()).thenReturn(HttpStatus.OK.value());
+
+        long start = System.currentTimeMillis();
+        Set<String> online = integratorServer.findOnlineApplications(Arrays.asList(applicationRequest.getApplication(), secondApplication));
+
+        assertEquals(2, online.size());
+        assertTrue(System.currentTimeMillis() - start < 550);
+    }
+
+    @Test
+    public void testMustNotRequestStatusWhenHostProbedOnline() {
+        when(pingServer.pingAll(anyCollection())).thenReturn(Collections.singletonMap("http://app.com", PingServer.Status.ONLINE));
+
+        assertTrue(integratorServer.isApplicationOnline(applicationRequest.getApplication()));
+        verifyZeroInteractions(request);
     }
 
     @Test
@@ -167,11 +251,12 @@ public class IntegratorServerTest {
         Resource resource = applicationRequest.getResources().get(0);
         Application application = applicationRequest.getApplication();
 
-        when(resourceRepository.findOneByApplicationAndPath(application.getId(), resource.getPath())).thenReturn(Optional.of(resource));
+        when(registryStore.save(any(), any())).thenReturn(application);
 
+        integratorServer.deployApplication(applicationRequest);
         boolean exists = integratorServer.existsResourceByApplication(application.getId(), resource.getPath());
 
-        verify(resourceRepository).findOneByApplicationAndPath(application.getId(), resource.getPath());
+        verify(registryStore, never()).findAllResources(anyString());
 
         assertTrue(exists);
     }
@@ -181,14 +266,66 @@ public class IntegratorServerTest {
         Resource resource = applicationRequest.getResources().get(0);
         Application application = applicationRequest.getApplication();
 
-        when(resourceRepository.findOneByApplicationAndPath(application.getId(), resource.getPath())).thenReturn(Optional.empty());
-        when(resourceRepository.findAllByApplication(application.getId())).thenReturn(applicationRequest.getResources());
+        resource.setPath("/users/{id}");
+        when(registryStore.save(any(), any())).thenReturn(application);
 
-        boolean exists = integratorServer.existsResourceByApplication(application.getId(), resource.getPath());
+        integratorServer.deployApplication(applicationRequest);
 
-        verify(resourceRepository).findOneByApplicationAndPath(application.getId(), resource.getPath());
-        verify(resourceRepository).findAllByApplication(application.getId());
+        assertTrue(integratorServer.existsResourceByApplication(application.getId(), "/users/1"));
+        assertFalse(integratorServer.existsResourceByApplication(application.getId(), "/users/1/roles"));
+        verify(registryStore, never()).findAllResources(anyString());
+    }
 
-        assertTrue(exists);
+    @Test
+    public void testMustLoadRoutesWhenServerCreated() {
+        Application application = applicationRequest.getApplication();
+
+        when(registryStore.load()).thenReturn(registry());
+
+        integratorServer.onPostConstruct();
+
+        assertTrue(integratorServer.existsResourceByApplication(application.getId(), "/app/v1"));
+    }
+
+    @Test
+    public void testMustRemoveRoutesWhenApplicationUndeployed() {
+        Application application = applicationRequest.getApplication();
+
+        when(registryStore.save(any(), any())).thenReturn(application);
+        when(registryStore.remove(application.getId())).thenReturn(true);
+
+        integratorServer.deployApplication(applicationRequest);
+        integratorServer.undeployApplication(application.getId());
+
+        assertFalse(integratorServer.existsResourceByApplication(application.getId(), "/app/v1"));
+    }
+
+    private RegistrySnapshot.Registry registry() {
+        return new RegistrySnapshot.Registry(
+            Collections.singletonList(applicationRequest.getApplication()),
+            Collections.singletonMap("app", applicationRequest.getResources()));
+    }
+
+    @Test
+    public void testMustFindApplicationsAfterKeyOrderedByKey() {
+        when(registryStore.save(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (String id : Arrays.asList("c", "a", "b")) {
+            applicationRequest.setApplication(new Application());
+            applicationRequest.getApplication().setId(id);
+            integratorServer.deployApplication(applicationRequest);
+        }
+
+        assertEquals(Arrays.asList("a", "b"), ids(integratorServer.findApplications(null, 2)));
+        assertEquals(Collections.singletonList("c"), ids(integratorServer.findApplications("b", 2)));
+
+        when(registryStore.remove("b")).thenReturn(true);
+        integratorServer.undeployApplication("b");
+
+        assertEquals(Arrays.asList("a", "c"), ids(integratorServer.findApplications(null, 5)));
+    }
+
+    private static List<String> ids(List<Application> applications) {
+        return applications.stream().map(Application::getId).collect(Collectors.toList());
     }
 }
@@ -0,0 +1,198 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.repository.ApplicationRepository;
+import com.github.jonpereiradev.integrator.server.repository.ResourceRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JpaRegistryStoreTest {
+
+    @Mock
+    private ApplicationRepository applicationRepository;
+
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    @Mock
+    private RegistrySnapshot registrySnapshot;
+
+    private Application application;
+    private List<Resource> resources;
+    private JpaRegistryStore registryStore;
+
+    @Before
+    public void beforeTest() {
+        application = new Application();
+        application.setId("app");
+        application.setName("app");
+        application.setHost("http://app.com");
+
+        Resource resource = new Resource();
+        resource.setId(7L);
+        resource.setIdentifier("resource-app");
+        resource.setPath("/app/v1");
+
+        resources = new ArrayList<>(Collections.singletonList(resource));
+        registryStore = new JpaRegistryStore(applicationRepository, resourceRepository, registrySnapshot);
+    }
+
+    @Test
+    public void mustLoadApplicationsFromSnapshotWhenConsistent() throws Exception {
+        when(registrySnapshot.read()).thenReturn(registry());
+        when(applicationRepository.findAllIds()).thenReturn(Collections.singletonList("app"));
+        when(resourceRepository.count()).thenReturn(1L);
+        when(resourceRepository.findMaxId()).thenReturn(7L);
+
+        RegistrySnapshot.Registry registry = registryStore.load();
+        registryStore.flush();
+
+        assertEquals(Collections.singletonList(application), registry.getApplications());
+        assertEquals(resources, registry.getResources("app"));
+        verify(applicationRepository, never()).findAll();
+        verify(resourceRepository, never()).findAllByApplication(anyString());
+        verify(registrySnapshot, never()).write(any());
+    }
+
+    @Test
+    public void mustLoadApplicationsFromDatabaseWhenSnapshotInconsistent() throws Exception {
+        when(registrySnapshot.read()).thenReturn(registry());
+        when(applicationRepository.findAllIds()).thenReturn(Collections.singletonList("app"));
+        when(resourceRepository.count()).thenReturn(1L);
+        when(resourceRepository.findMaxId()).thenReturn(8L);
+        when(applicationRepository.findAll()).thenReturn(Collections.singletonList(application));
+        when(resourceRepository.findAllByApplication("app")).thenReturn(resources);
+
+        RegistrySnapshot.Registry registry = registryStore.load();
+        registryStore.flush();
+
+        assertEquals(resources, registry.getResources("app"));
+        verify(applicationRepository).findAll();
+        verify(registrySnapshot).write(any());
+    }
+
+    @Test
+    public void mustSaveApplicationWithResourcesInBatch() {
+        when(applicationRepository.findById("app")).thenReturn(Optional.empty());
+        when(applicationRepository.save(application)).thenReturn(application);
+
+        assertEquals(application, registryStore.save(application, resources));
+
+        verify(resourceRepository).saveAll(resources);
+        verify(resourceRepository, never()).deleteResourcesByApplication(anyString());
+        assertEquals("app", resources.get(0).getApplication());
+        assertEquals(Long.valueOf(1), registryStore.getStatistics().get("saved"));
+    }
+
+    @Test
+    public void mustNotSaveResourcesWhenEmpty() {
+        when(applicationRepository.save(application)).thenReturn(application);
+
+        registryStore.save(application, Collections.emptyList());
+
+        verify(resourceRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void mustDeletePreviousApplicationWhenSavedAgain() {
+        when(applicationRepository.findById("app")).thenReturn(Optional.of(application));
+        when(applicationRepository.save(application)).thenReturn(application);
+
+        registryStore.save(application, resources);
+
+        verify(resourceRepository).deleteMethodsByApplication("app");
+        verify(resourceRepository).deleteResourcesByApplication("app");
+        verify(applicationRepository).delete(application);
+        verify(resourceRepository, never()).findAllByApplication(anyString());
+    }
+
+    @Test
+    public void mustWriteSnapshotWhenApplicationSaved() throws Exception {
+        when(applicationRepository.save(application)).thenReturn(application);
+
+        registryStore.save(application, resources);
+        registryStore.flush();
+
+        ArgumentCaptor<RegistrySnapshot.Registry> captor = ArgumentCaptor.forClass(RegistrySnapshot.Registry.class);
+
+        verify(registrySnapshot).write(captor.capture());
+        assertEquals(Collections.singletonList(application), captor.getValue().getApplications());
+        assertEquals(resources, captor.getValue().getResources("app"));
+    }
+
+    @Test
+    public void mustRemoveApplicationFromSnapshot() throws Exception {
+        when(applicationRepository.save(application)).thenReturn(application);
+        when(applicationRepository.findById("app")).thenReturn(Optional.empty(), Optional.of(application));
+
+        registryStore.save(application, resources);
+
+        assertTrue(registryStore.remove("app"));
+        registryStore.flush();
+
+        ArgumentCaptor<RegistrySnapshot.Registry> captor = ArgumentCaptor.forClass(RegistrySnapshot.Registry.class);
+
+        verify(registrySnapshot, atLeastOnce()).write(captor.capture());
+        assertTrue(captor.getValue().getApplications().isEmpty());
+        assertEquals(Long.valueOf(1), registryStore.getStatistics().get("removed"));
+    }
+
+    @Test
+    public void mustNotRemoveApplicationNotStored() throws Exception {
+        when(applicationRepository.findById("app")).thenReturn(Optional.empty());
+
+        assertFalse(registryStore.remove("app"));
+        registryStore.flush();
+        verify(registrySnapshot, never()).write(any());
+    }
+
+    @Test
+    public void mustWriteSnapshotOnceForChangesSavedWhileWriting() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Application other = new Application();
+        other.setId("other");
+
+        when(applicationRepository.save(application)).thenReturn(application);
+        when(applicationRepository.save(other)).thenReturn(other);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).doNothing().when(registrySnapshot).write(any());
+
+        registryStore.save(application, resources);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        registryStore.save(other, Collections.emptyList());
+        registryStore.remove("missing");
+        registryStore.save(application, resources);
+        release.countDown();
+        registryStore.flush();
+
+        ArgumentCaptor<RegistrySnapshot.Registry> captor = ArgumentCaptor.forClass(RegistrySnapshot.Registry.class);
+
+        verify(registrySnapshot, times(2)).write(captor.capture());
+        assertEquals(2, captor.getValue().getApplications().size());
+    }
+
+    private RegistrySnapshot.Registry registry() {
+        return new RegistrySnapshot.Registry(Collections.singletonList(application), Collections.singletonMap("app", resources));
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class LatencyTrackerTest {
+
+    @Test
+    public void mustNotHavePercentileWhenFewSamples() {
+        LatencyTracker latencyTracker = new LatencyTracker(95);
+
+        latencyTracker.record(10);
+
+        assertEquals(-1, latencyTracker.getPercentile());
+    }
+
+    @Test
+    public void mustComputePercentileOfSamples() {
+        LatencyTracker latencyTracker = new LatencyTracker(95);
+
+        for (int i = 1; i <= 100; i++) {
+            latencyTracker.record(i);
+        }
+
+        assertEquals(95, latencyTracker.getPercentile());
+    }
+
+    @Test
+    public void mustKeepOnlyLatestSamples() {
+        LatencyTracker latencyTracker = new LatencyTracker(50);
+
+        for (int i = 0; i < 1024; i++) {
+            latencyTracker.record(1000);
+        }
+
+        for (int i = 0; i < 1024; i++) {
+            latencyTracker.record(10);
+        }
+
+        assertEquals(10, latencyTracker.getPercentile());
+    }
+}
@@ -1,19 +1,44 @@
 package com.github.jonpereiradev.integrator.server.service;
 
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Timeouts;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
 @RunWith(JUnit4.class)
 public class PingServerTest {
 
     private PingServer pingServer;
+    private MockWebServer server;
+    private String address;
 
     @Before
-    public void beforeTest() {
+    public void beforeTest() throws IOException {
         pingServer = new PingServer();
+        server = new MockWebServer();
+        server.start();
+        address = "http://localhost:" + server.getPort();
+    }
+
+    @After
+    public void afterTest() throws IOException {
+        server.shutdown();
     }
 
     @Test
@@ -26,4 +51,75 @@ public class PingServerTest {
         Assert.assertFalse(pingServer.ping("http://localhost:8080/ping"));
     }
 
+    @Test
+    public void mustProbeAddressesOfSameHostOnOneConnection() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        Map<String, PingServer.Status> statuses = pingServer.pingAll(Arrays.asList(
+            application(address + "/first/"), application(address + "/second")));
+
+        assertEquals(PingServer.Status.ONLINE, statuses.get(address + "/first/"));
+        assertEquals(PingServer.Status.ONLINE, statuses.get(address + "/second"));
+        assertEquals("/first/status", server.takeRequest().getPath());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void mustProbeSameAddressOnce() {
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        Map<String, PingServer.Status> statuses = pingServer.pingAll(Arrays.asList(application(address), application(address)));
+
+        assertEquals(PingServer.Status.ONLINE, statuses.get(address));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void mustBeOfflineWhenStatusNotOk() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        assertEquals(PingServer.Status.OFFLINE, pingServer.pingAll(Collections.singletonList(application(address))).get(address));
+    }
+
+    @Test
+    public void mustBeOfflineWhenConnectionRefused() throws IOException {
+        int port;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        String closed = "http://localhost:" + port;
+
+        assertEquals(PingServer.Status.OFFLINE, pingServer.pingAll(Collections.singletonList(application(closed))).get(closed));
+    }
+
+    @Test
+    public void mustBeOfflineWhenStatusNotRespondedInTime() {
+        Application application = application(address);
+
+        application.setTimeouts(new Timeouts(200L, null, null));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        long start = System.nanoTime();
+
+        assertEquals(PingServer.Status.OFFLINE, pingServer.pingAll(Collections.singletonList(application)).get(address));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+    }
+
+    @Test
+    public void mustOnlyConnectWhenAddressSecure() {
+        String secure = "https://localhost:" + server.getPort();
+
+        assertEquals(PingServer.Status.REACHABLE, pingServer.pingAll(Collections.singletonList(application(secure))).get(secure));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private Application application(String host) {
+        Application application = new Application();
+        application.setId(host);
+        application.setHost(host);
+        return application;
+    }
 }
@@ -0,0 +1,182 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProxyAuthorizationVerifierTest {
+
+    @Mock
+    private IntegratorServer integratorServer;
+
+    private ProxyProperties properties;
+    private ProxyAuthorizationVerifier verifier;
+    private Application application;
+
+    @Before
+    public void beforeTest() {
+        properties = new ProxyProperties();
+        verifier = new ProxyAuthorizationVerifier(properties, integratorServer);
+        application = new Application();
+
+        application.setId("app");
+        application.setSecret("secret");
+
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+        verifier.onApplicationDeployed(new ApplicationDeployedEvent(application));
+    }
+
+    @Test
+    public void mustReturnSubjectWhenSignatureValid() {
+        assertEquals("app", verifier.verify("app", token("app", "secret")));
+    }
+
+    @Test
+    public void mustThrowWhenSignedWithAnotherSecret() {
+        try {
+            verifier.verify("app", token("app", "other-secret"));
+            fail("Must throw IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Proxy-Authorization is invalid", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustThrowWhenSubjectIsAnotherApplication() {
+        verifier.verify("app", token("other", "secret"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustThrowWhenNotBeforeMissing() {
+        verifier.verify("app", JWT.create().withSubject("app").sign(Algorithm.HMAC256("secret".getBytes())));
+    }
+
+    @Test
+    public void mustKeepVerifiedAuthorizationForRepeatedRequests() {
+        String token = token("app", "secret");
+
+        verifier.verify("app", token);
+        verifier.verify("app", token);
+
+        verify(integratorServer, times(1)).findOneApplicationByKey("app");
+        assertEquals(Long.valueOf(1), verifier.getStatistics().get("hits"));
+        assertEquals(Long.valueOf(1), verifier.getStatistics().get("misses"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustNotUseVerifiedAuthorizationForAnotherApplication() {
+        Application other = new Application();
+        other.setId("other");
+        other.setSecret("secret");
+
+        when(integratorServer.findOneApplicationByKey("other")).thenReturn(other);
+
+        String token = token("app", "secret");
+
+        verifier.verify("app", token);
+        verifier.verify("other", token);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustVerifyAgainWhenApplicationDeployedWithAnotherSecret() {
+        String token = token("app", "secret");
+
+        verifier.verify("app", token);
+        application.setSecret("new-secret");
+        verifier.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        verifier.verify("app", token);
+    }
+
+    @Test
+    public void mustForgetAuthorizationsWhenApplicationUndeployed() {
+        verifier.verify("app", token("app", "secret"));
+        verifier.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertEquals(Long.valueOf(0), verifier.getStatistics().get("size"));
+    }
+
+    @Test
+    public void mustKeepAuthorizationsUpToCacheSize() {
+        properties.setAuthorizationCacheSize(2);
+
+        for (int i = 0; i < 5; i++) {
+            verifier.verify("app", JWT.create().withSubject("app").withNotBefore(new Date()).withJWTId(String.valueOf(i))
+                .sign(Algorithm.HMAC256("secret".getBytes())));
+        }
+
+        assertEquals(Long.valueOf(2), verifier.getStatistics().get("size"));
+    }
+
+    @Test
+    public void mustNotReturnUnverifiedSubjectWhenApplicationNotDeployed() {
+        assertNull(verifier.verify("missing", token("missing", "secret")));
+        assertEquals(Long.valueOf(0), verifier.getStatistics().get("size"));
+    }
+
+    @Test
+    public void mustEvictLeastRecentlyUsedAuthorizationWhenFull() {
+        properties.setAuthorizationCacheSize(2);
+        String first = token("app", "secret", "1");
+        String second = token("app", "secret", "2");
+
+        verifier.verify("app", first);
+        verifier.verify("app", second);
+        verifier.verify("app", first);
+        verifier.verify("app", token("app", "secret", "3"));
+        verifier.verify("app", first);
+
+        assertEquals(Long.valueOf(2), verifier.getStatistics().get("hits"));
+        assertEquals(Long.valueOf(2), verifier.getStatistics().get("size"));
+
+        verifier.verify("app", second);
+
+        assertEquals(Long.valueOf(4), verifier.getStatistics().get("misses"));
+    }
+
+    @Test
+    public void mustVerifyApplicationLoadedWhenServerStarted() {
+        Application loaded = new Application();
+        loaded.setId("loaded");
+        loaded.setSecret("secret");
+
+        when(integratorServer.findOneApplicationByKey("loaded")).thenReturn(loaded);
+
+        assertEquals("loaded", verifier.verify("loaded", token("loaded", "secret")));
+        assertEquals(Long.valueOf(1), verifier.getStatistics().get("size"));
+    }
+
+    @Test
+    public void mustNotRecreateVerifierOfApplicationUndeployedDuringVerification() {
+        String token = token("app", "secret");
+
+        verifier.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application, (Application) null);
+
+        assertNull(verifier.verify("app", token));
+        assertNull(verifier.verify("app", token));
+        assertEquals(Long.valueOf(0), verifier.getStatistics().get("size"));
+    }
+
+    private String token(String subject, String secret, String id) {
+        return JWT.create().withSubject(subject).withNotBefore(new Date()).withJWTId(id).sign(Algorithm.HMAC256(secret.getBytes()));
+    }
+
+    private String token(String subject, String secret) {
+        return JWT.create().withSubject(subject).withNotBefore(new Date()).sign(Algorithm.HMAC256(secret.getBytes()));
+    }
+}
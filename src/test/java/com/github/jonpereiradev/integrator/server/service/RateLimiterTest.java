@@ -0,0 +1,75 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private RateLimiter rateLimiter;
+    private long now;
+
+    @Before
+    public void beforeTest() {
+        now = System.nanoTime();
+        rateLimiter = new RateLimiter(new RateLimit(10.0, 5), now);
+    }
+
+    @Test
+    public void mustAcceptBurstAtOnce() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(now));
+        }
+
+        long wait = rateLimiter.tryAcquire(now);
+
+        assertTrue(wait > 0 && wait <= SECOND / 10);
+    }
+
+    @Test
+    public void mustAcceptAgainWhenIntervalPasses() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire(now);
+        }
+
+        long wait = rateLimiter.tryAcquire(now);
+
+        assertEquals(0, rateLimiter.tryAcquire(now + wait));
+        assertTrue(rateLimiter.tryAcquire(now + wait) > 0);
+    }
+
+    @Test
+    public void mustAcceptSustainedRate() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(now + i * SECOND / 10));
+        }
+    }
+
+    @Test
+    public void mustAcceptAgainWhenReleased() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.tryAcquire(now);
+        }
+
+        rateLimiter.release();
+
+        assertEquals(0, rateLimiter.tryAcquire(now));
+    }
+
+    @Test
+    public void mustBeIdleWhenNoRequestIsPending() {
+        rateLimiter.tryAcquire(now);
+
+        assertFalse(rateLimiter.isIdle(now));
+        assertTrue(rateLimiter.isIdle(now + SECOND));
+    }
+}
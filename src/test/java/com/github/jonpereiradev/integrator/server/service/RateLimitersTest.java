@@ -0,0 +1,108 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RateLimitersTest {
+
+    private RateLimiters rateLimiters;
+    private Application application;
+    private Resource resource;
+
+    @Before
+    public void beforeTest() {
+        rateLimiters = new RateLimiters();
+        application = new Application();
+        resource = new Resource();
+
+        application.setId("app");
+        resource.setIdentifier("resource");
+    }
+
+    @Test
+    public void mustAcceptAllWhenNoLimitDeclared() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiters.tryAcquire(application, resource, "client").getWait());
+        }
+
+        assertEquals(Long.valueOf(0), rateLimiters.getStatistics().get("limiters"));
+    }
+
+    @Test
+    public void mustLimitApplicationForAllSubjects() {
+        application.setRateLimit(new RateLimit(1.0, 2));
+
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "first").getWait());
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "second").getWait());
+        assertTrue(rateLimiters.tryAcquire(application, resource, "third").getWait() > 0);
+        assertEquals(Long.valueOf(1), rateLimiters.getStatistics().get("rejected"));
+    }
+
+    @Test
+    public void mustLimitEachSubjectApart() {
+        application.setSubjectRateLimit(new RateLimit(1.0, 1));
+
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "first").getWait());
+        assertTrue(rateLimiters.tryAcquire(application, resource, "first").getWait() > 0);
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "second").getWait());
+    }
+
+    @Test
+    public void mustGiveBackApplicationLimitWhenResourceLimitRejects() {
+        application.setRateLimit(new RateLimit(1.0, 2));
+        resource.setRateLimit(new RateLimit(1.0, 1));
+
+        Resource other = new Resource();
+        other.setIdentifier("other");
+
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "client").getWait());
+        assertTrue(rateLimiters.tryAcquire(application, resource, "client").getWait() > 0);
+        assertEquals(0, rateLimiters.tryAcquire(application, other, "client").getWait());
+    }
+
+    @Test
+    public void mustGiveBackRequestNotSent() {
+        application.setRateLimit(new RateLimit(1.0, 1));
+        resource.setRateLimit(new RateLimit(1.0, 1));
+
+        RateLimiters.Permit permit = rateLimiters.tryAcquire(application, resource, "client");
+
+        permit.release();
+        permit.release();
+
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "client").getWait());
+        assertEquals(Long.valueOf(1), rateLimiters.getStatistics().get("released"));
+    }
+
+    @Test
+    public void mustKeepRequestSent() {
+        application.setRateLimit(new RateLimit(1.0, 1));
+
+        RateLimiters.Permit permit = rateLimiters.tryAcquire(application, resource, "client");
+
+        permit.sent();
+        permit.release();
+
+        assertTrue(rateLimiters.tryAcquire(application, resource, "client").getWait() > 0);
+        assertEquals(Long.valueOf(0), rateLimiters.getStatistics().get("released"));
+    }
+
+    @Test
+    public void mustResetLimitsWhenApplicationDeployed() {
+        application.setRateLimit(new RateLimit(1.0, 1));
+
+        rateLimiters.tryAcquire(application, resource, "client");
+        rateLimiters.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        assertEquals(0, rateLimiters.tryAcquire(application, resource, "client").getWait());
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jonpereiradev.integrator.server.configuration.ReplicationProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ApplicationRequest;
+import com.github.jonpereiradev.integrator.server.model.ReplicationEntry;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.model.VersionVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RegistryReplicatorTest {
+
+    @Mock
+    private IntegratorServer integratorServer;
+
+    @Mock
+    private Request request;
+
+    private Application application;
+    private RegistryReplicator registryReplicator;
+
+    @Before
+    public void beforeTest() {
+        ReplicationProperties properties = new ReplicationProperties();
+
+        properties.setEnabled(true);
+        properties.setNodeId("local");
+        properties.setSecret("replication");
+        properties.getPeerNodes().add("peer");
+
+        application = application("v1");
+        registryReplicator = new RegistryReplicator(properties, integratorServer, request, new ObjectMapper());
+    }
+
+    @After
+    public void afterTest() throws InterruptedException {
+        registryReplicator.shutdown();
+    }
+
+    @Test
+    public void mustVersionApplicationDeployedOnServer() {
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+
+        registryReplicator.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        registryReplicator.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        assertEquals(2, registryReplicator.getDigest().get("app").get("local"));
+
+        List<ReplicationEntry> changes = registryReplicator.findChanges(Collections.emptyMap());
+
+        assertEquals(1, changes.size());
+        assertEquals("secret", changes.get(0).getApplication().getSecret());
+    }
+
+    @Test
+    public void mustVersionApplicationUndeployedOnServer() {
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application, (Application) null);
+
+        registryReplicator.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        registryReplicator.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        List<ReplicationEntry> changes = registryReplicator.findChanges(Collections.emptyMap());
+
+        assertTrue(changes.get(0).isUndeployed());
+        assertEquals(2, changes.get(0).getVersion().get("local"));
+    }
+
+    @Test
+    public void mustApplyChangeAfterLocalOne() {
+        ReplicationEntry change = entry(VersionVector.empty().increment("peer"), 1, "peer");
+
+        change.getApplication().getResources().get(0).setId(10L);
+        registryReplicator.receive(Collections.singletonList(change));
+
+        verify(integratorServer).deployApplication(change.getApplication());
+        assertNull(change.getApplication().getResources().get(0).getId());
+        assertEquals(change.getVersion(), registryReplicator.getDigest().get("app"));
+        assertEquals(Long.valueOf(1), registryReplicator.getStatistics().get("applied"));
+    }
+
+    @Test
+    public void mustNotVersionChangeAppliedFromPeer() {
+        ReplicationEntry change = entry(VersionVector.empty().increment("peer"), 1, "peer");
+
+        doAnswer(invocation -> {
+            registryReplicator.onApplicationDeployed(new ApplicationDeployedEvent(application));
+            return "token";
+        }).when(integratorServer).deployApplication(any());
+
+        registryReplicator.receive(Collections.singletonList(change));
+
+        assertEquals(0, registryReplicator.getDigest().get("app").get("local"));
+        verify(integratorServer, never()).findOneApplicationByKey("app");
+    }
+
+    @Test
+    public void mustIgnoreChangeBeforeLocalOne() {
+        VersionVector version = VersionVector.empty().increment("peer");
+
+        registryReplicator.receive(Collections.singletonList(entry(version.increment("peer"), 2, "peer")));
+        registryReplicator.receive(Collections.singletonList(entry(version, 1, "peer")));
+
+        verify(integratorServer, times(1)).deployApplication(any());
+        assertEquals(Long.valueOf(2), registryReplicator.getStatistics().get("received"));
+    }
+
+    @Test
+    public void mustApplyLastChangeWhenConcurrent() {
+        ReplicationEntry first = entry(VersionVector.empty().increment("first"), 1, "first");
+        ReplicationEntry second = entry(VersionVector.empty().increment("second"), 2, "second");
+
+        registryReplicator.receive(Collections.singletonList(first));
+        registryReplicator.receive(Collections.singletonList(second));
+
+        verify(integratorServer).deployApplication(second.getApplication());
+        assertEquals(first.getVersion().merge(second.getVersion()), registryReplicator.getDigest().get("app"));
+        assertEquals(Long.valueOf(1), registryReplicator.getStatistics().get("conflicts"));
+    }
+
+    @Test
+    public void mustKeepLocalChangeWhenConcurrentAndLast() {
+        ReplicationEntry first = entry(VersionVector.empty().increment("first"), 2, "first");
+        ReplicationEntry second = entry(VersionVector.empty().increment("second"), 1, "second");
+
+        registryReplicator.receive(Collections.singletonList(first));
+        registryReplicator.receive(Collections.singletonList(second));
+
+        verify(integratorServer, never()).deployApplication(second.getApplication());
+        assertEquals(first.getVersion().merge(second.getVersion()), registryReplicator.getDigest().get("app"));
+    }
+
+    @Test
+    public void mustUndeployApplicationWhenRemovedOnPeer() {
+        VersionVector version = VersionVector.empty().increment("peer");
+
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+
+        registryReplicator.receive(Collections.singletonList(entry(version, 1, "peer")));
+        registryReplicator.receive(Collections.singletonList(new ReplicationEntry("app", null, version.increment("peer"), 2, "peer")));
+
+        verify(integratorServer).undeployApplication("app");
+    }
+
+    @Test
+    public void mustFindChangesUnknownByPeer() {
+        VersionVector version = VersionVector.empty().increment("peer");
+
+        registryReplicator.receive(Collections.singletonList(entry(version.increment("peer"), 1, "peer")));
+
+        Map<String, VersionVector> before = Collections.singletonMap("app", version);
+        Map<String, VersionVector> equal = Collections.singletonMap("app", version.increment("peer"));
+        Map<String, VersionVector> concurrent = Collections.singletonMap("app", version.increment("other"));
+
+        assertEquals(1, registryReplicator.findChanges(before).size());
+        assertEquals(0, registryReplicator.findChanges(equal).size());
+        assertEquals(1, registryReplicator.findChanges(concurrent).size());
+    }
+
+    @Test
+    public void mustSendSecretOfApplicationEncrypted() throws Exception {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setNodeId("peer");
+        properties.setSecret("replication");
+
+        RegistryReplicator peer = new RegistryReplicator(properties, integratorServer, request, new ObjectMapper());
+
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+        registryReplicator.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        String message = registryReplicator.findChanges("{}");
+
+        try {
+            assertFalse(message.contains("\"secret\":\"secret\""));
+
+            peer.receive(message);
+
+            verify(integratorServer).deployApplication(argThat(deployed -> "secret".equals(deployed.getSecret())));
+        } finally {
+            peer.shutdown();
+        }
+    }
+
+    @Test
+    public void mustAcceptOnlyMessagesSignedByPeerNodes() {
+        ReplicationCipher cipher = new ReplicationCipher("replication");
+        ReplicationCipher other = new ReplicationCipher("other");
+
+        assertTrue(registryReplicator.isAuthorized("peer", "entries", "[]", cipher.sign("peer", "entries", "[]")));
+        assertFalse(registryReplicator.isAuthorized("peer", "digest", "[]", cipher.sign("peer", "entries", "[]")));
+        assertFalse(registryReplicator.isAuthorized("peer", "entries", "[{}]", cipher.sign("peer", "entries", "[]")));
+        assertFalse(registryReplicator.isAuthorized("peer", "entries", "[]", other.sign("peer", "entries", "[]")));
+        assertFalse(registryReplicator.isAuthorized("stranger", "entries", "[]", cipher.sign("stranger", "entries", "[]")));
+        assertFalse(registryReplicator.isAuthorized(null, "entries", "[]", null));
+        assertEquals(Long.valueOf(5), registryReplicator.getStatistics().get("rejected"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustNotStartEnabledWithoutSecret() {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setEnabled(true);
+        properties.setNodeId("local");
+
+        new RegistryReplicator(properties, integratorServer, request, new ObjectMapper());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustNotStartEnabledWithoutNodeId() {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setEnabled(true);
+        properties.setSecret("replication");
+
+        new RegistryReplicator(properties, integratorServer, request, new ObjectMapper());
+    }
+
+    private ReplicationEntry entry(VersionVector version, long timestamp, String node) {
+        ApplicationRequest applicationRequest = new ApplicationRequest();
+        Resource resource = new Resource();
+
+        resource.setIdentifier("resource-app");
+        resource.setPath("/app/v1");
+
+        applicationRequest.setApplication(application("v" + timestamp));
+        applicationRequest.setSecret("secret");
+        applicationRequest.getResources().add(resource);
+
+        return new ReplicationEntry("app", applicationRequest, version, timestamp, node);
+    }
+
+    private static Application application(String version) {
+        Application application = new Application();
+        application.setId("app");
+        application.setName("app");
+        application.setVersion(version);
+        application.setHost("http://app.com");
+        application.setSecret("secret");
+        return application;
+    }
+}
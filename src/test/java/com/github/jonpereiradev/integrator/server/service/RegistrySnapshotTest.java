@@ -0,0 +1,148 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.SnapshotProperties;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.Priority;
+import com.github.jonpereiradev.integrator.server.model.RateLimit;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import com.github.jonpereiradev.integrator.server.model.Timeouts;
+import com.github.jonpereiradev.integrator.server.model.UpstreamProtocol;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RegistrySnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SnapshotProperties properties;
+    private RegistrySnapshot registrySnapshot;
+    private Application application;
+    private Resource resource;
+
+    @Before
+    public void beforeTest() {
+        properties = new SnapshotProperties();
+        properties.setPath(folder.getRoot().toPath().resolve("integrator.snapshot").toString());
+        registrySnapshot = new RegistrySnapshot(properties);
+
+        application = new Application();
+        application.setId("app");
+        application.setName("app");
+        application.setDescription("description");
+        application.setVersion("v1");
+        application.setHost("http://app.com");
+        application.setHosts(Arrays.asList("http://app-2.com", "http://app-3.com"));
+        application.setProtocol(UpstreamProtocol.values()[UpstreamProtocol.values().length - 1]);
+        application.setTimeouts(new Timeouts(100L, null, 300L));
+        application.setRateLimit(new RateLimit(10.5, 20));
+        application.setSecret("secret");
+
+        resource = new Resource();
+        resource.setId(42L);
+        resource.setIdentifier("resource-app");
+        resource.setPath("/users/{id}");
+        resource.setApplication("app");
+        resource.setMethods(new LinkedHashSet<>(Arrays.asList(HttpMethod.GET, HttpMethod.DELETE)));
+        resource.setCoalesce(true);
+        resource.setPriority(Priority.CRITICAL);
+        resource.setRateLimit(new RateLimit(null, 5));
+    }
+
+    @Test
+    public void mustReadTheRegistryWritten() {
+        registrySnapshot.write(registry());
+
+        RegistrySnapshot.Registry registry = registrySnapshot.read();
+        Application read = registry.getApplications().get(0);
+        Resource readResource = registry.getResources("app").get(0);
+
+        assertEquals("app", read.getId());
+        assertEquals("description", read.getDescription());
+        assertEquals(application.getHosts(), read.getHosts());
+        assertEquals(application.getProtocol(), read.getProtocol());
+        assertEquals(Long.valueOf(100), read.getTimeouts().getConnect());
+        assertNull(read.getTimeouts().getRead());
+        assertEquals(10.5, read.getRateLimit().getRate(), 0);
+        assertEquals(20, read.getRateLimit().getBurst());
+        assertNull(read.getSubjectRateLimit());
+        assertEquals("secret", read.getSecret());
+
+        assertEquals(Long.valueOf(42), readResource.getId());
+        assertEquals("/users/{id}", readResource.getPath());
+        assertEquals("app", readResource.getApplication());
+        assertEquals(EnumSet.of(HttpMethod.GET, HttpMethod.DELETE), readResource.getMethods());
+        assertTrue(readResource.isCoalesce());
+        assertEquals(Priority.CRITICAL, readResource.getPriority());
+        assertNull(readResource.getTimeouts());
+        assertNull(readResource.getRateLimit().getRate());
+        assertEquals(1, registry.getResourceCount());
+        assertEquals(Long.valueOf(42), registry.getMaxResourceId());
+    }
+
+    @Test
+    public void mustReplaceTheSnapshotWhenWrittenAgain() {
+        registrySnapshot.write(registry());
+        registrySnapshot.write(new RegistrySnapshot.Registry(Collections.emptyList(), Collections.emptyMap()));
+
+        assertTrue(registrySnapshot.read().getApplications().isEmpty());
+        assertFalse(Files.exists(Paths.get(properties.getPath() + ".tmp")));
+    }
+
+    @Test
+    public void mustNotReadWhenSnapshotCorrupted() throws IOException {
+        registrySnapshot.write(registry());
+
+        Path path = Paths.get(properties.getPath());
+        byte[] bytes = Files.readAllBytes(path);
+
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertNull(registrySnapshot.read());
+    }
+
+    @Test
+    public void mustNotReadWhenSnapshotTruncated() throws IOException {
+        Files.write(Paths.get(properties.getPath()), new byte[]{1, 2, 3});
+
+        assertNull(registrySnapshot.read());
+    }
+
+    @Test
+    public void mustNotReadWhenThereIsNoSnapshot() {
+        assertNull(registrySnapshot.read());
+    }
+
+    @Test
+    public void mustNotWriteWhenDisabled() {
+        properties.setEnabled(false);
+
+        registrySnapshot.write(registry());
+
+        assertFalse(Files.exists(Paths.get(properties.getPath())));
+    }
+
+    private RegistrySnapshot.Registry registry() {
+        List<Resource> resources = Collections.singletonList(resource);
+        return new RegistrySnapshot.Registry(Collections.singletonList(application), Collections.singletonMap("app", resources));
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.WatchProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.RegistryChanges;
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RegistryWatcherTest {
+
+    @Mock
+    private IntegratorServer integratorServer;
+
+    private WatchProperties properties;
+    private Application application;
+    private RegistryWatcher registryWatcher;
+
+    @Before
+    public void beforeTest() {
+        properties = new WatchProperties();
+        application = new Application();
+        application.setId("app");
+        registryWatcher = new RegistryWatcher(properties, integratorServer);
+    }
+
+    @Test
+    public void mustReceiveAllApplicationsFromRevisionZero() {
+        when(integratorServer.findAllApplications()).thenReturn(Collections.singletonList(application));
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+        when(integratorServer.findAllResourcesByApplication("app")).thenReturn(Collections.singletonList(new Resource()));
+
+        RegistryChanges changes = result(registryWatcher.watch(0, 0));
+
+        assertTrue(changes.isReset());
+        assertEquals(1, changes.getRevision());
+        assertEquals(application, changes.getChanges().get(0).getApplication());
+        assertEquals(1, changes.getChanges().get(0).getResources().size());
+    }
+
+    @Test
+    public void mustWaitAtCurrentRevisionUntilChanged() {
+        DeferredResult<RegistryChanges> result = registryWatcher.watch(1, 0);
+
+        assertFalse(result.hasResult());
+        assertEquals(Long.valueOf(1), registryWatcher.getStatistics().get("watching"));
+
+        when(integratorServer.findOneApplicationByKey("app")).thenReturn(application);
+        registryWatcher.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        RegistryChanges changes = result(result);
+
+        assertFalse(changes.isReset());
+        assertEquals(2, changes.getRevision());
+        assertEquals("app", changes.getChanges().get(0).getApplicationId());
+        assertEquals(Long.valueOf(0), registryWatcher.getStatistics().get("watching"));
+        assertEquals(Long.valueOf(1), registryWatcher.getStatistics().get("notified"));
+    }
+
+    @Test
+    public void mustReceiveOnlyApplicationsChangedSinceRevision() {
+        Application other = new Application();
+        other.setId("other");
+
+        registryWatcher.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        registryWatcher.onApplicationDeployed(new ApplicationDeployedEvent(other));
+        registryWatcher.onApplicationDeployed(new ApplicationDeployedEvent(other));
+
+        RegistryChanges changes = result(registryWatcher.watch(2, 0));
+
+        assertEquals(4, changes.getRevision());
+        assertEquals(1, changes.getChanges().size());
+        assertEquals("other", changes.getChanges().get(0).getApplicationId());
+        verify(integratorServer, never()).findAllApplications();
+    }
+
+    @Test
+    public void mustReceiveUndeployedApplicationWithoutResources() {
+        registryWatcher.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        RegistryChanges.Change change = result(registryWatcher.watch(1, 0)).getChanges().get(0);
+
+        assertEquals("app", change.getApplicationId());
+        assertNull(change.getApplication());
+        assertNull(change.getResources());
+        verify(integratorServer, never()).findAllResourcesByApplication(anyString());
+    }
+
+    @Test
+    public void mustReceiveAllApplicationsWhenChangesNotKept() {
+        properties.setHistory(2);
+
+        for (int i = 0; i < 3; i++) {
+            registryWatcher.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        }
+
+        assertTrue(result(registryWatcher.watch(1, 0)).isReset());
+        assertFalse(result(registryWatcher.watch(2, 0)).isReset());
+    }
+
+    @Test
+    public void mustReceiveAllApplicationsWhenRevisionUnknown() {
+        RegistryChanges changes = result(registryWatcher.watch(100, 0));
+
+        assertTrue(changes.isReset());
+        assertEquals(1, changes.getRevision());
+        assertEquals(Long.valueOf(1), registryWatcher.getStatistics().get("resets"));
+    }
+
+    private static RegistryChanges result(DeferredResult<RegistryChanges> result) {
+        assertTrue(result.hasResult());
+        return (RegistryChanges) result.getResult();
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RequestCoalescerTest {
+
+    private static final String RESOURCE = "/api/resource";
+
+    private RequestCoalescer requestCoalescer;
+    private AtomicInteger upstreamRequests;
+    private CompletableFuture<ResponseEntity<?>> upstreamResponse;
+
+    @Before
+    public void beforeTest() {
+        requestCoalescer = new RequestCoalescer();
+        upstreamRequests = new AtomicInteger();
+        upstreamResponse = new CompletableFuture<>();
+    }
+
+    @Test
+    public void mustShareRequestWhenIdenticalInFlight() {
+        CompletableFuture<ResponseEntity<?>> first = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+        CompletableFuture<ResponseEntity<?>> second = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+
+        upstreamResponse.complete(ResponseEntity.ok("body"));
+
+        assertEquals("body", first.join().getBody());
+        assertSame(first.join(), second.join());
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(Long.valueOf(1), requestCoalescer.getStatistics().get("coalesced"));
+        assertEquals(Long.valueOf(0), requestCoalescer.getStatistics().get("inFlight"));
+    }
+
+    @Test
+    public void mustNotShareRequestWhenAuthorizationIsDifferent() {
+        HttpHeaders first = new HttpHeaders();
+        HttpHeaders second = new HttpHeaders();
+
+        first.set(HttpHeaders.AUTHORIZATION, "first");
+        second.set(HttpHeaders.AUTHORIZATION, "second");
+
+        requestCoalescer.execute("app", RESOURCE, first, upstream());
+        requestCoalescer.execute("app", RESOURCE, second, upstream());
+
+        assertEquals(2, upstreamRequests.get());
+    }
+
+    @Test
+    public void mustExecuteAgainWhenPreviousCompleted() {
+        upstreamResponse.complete(ResponseEntity.ok("body"));
+
+        requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream()).join();
+        requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream()).join();
+
+        assertEquals(2, upstreamRequests.get());
+    }
+
+    @Test
+    public void mustFailAllWhenRequestFails() {
+        CompletableFuture<ResponseEntity<?>> first = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+        CompletableFuture<ResponseEntity<?>> second = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+
+        upstreamResponse.completeExceptionally(new IllegalStateException("failed"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+
+        try {
+            second.join();
+            fail("Must throw CompletionException");
+        } catch (CompletionException e) {
+            assertEquals("failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void mustNotCancelOthersWhenOneIsCancelled() {
+        CompletableFuture<ResponseEntity<?>> first = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+        CompletableFuture<ResponseEntity<?>> second = requestCoalescer.execute("app", RESOURCE, new HttpHeaders(), upstream());
+
+        first.cancel(true);
+        upstreamResponse.complete(ResponseEntity.ok("body"));
+
+        assertEquals("body", second.join().getBody());
+    }
+
+    private Supplier<CompletableFuture<ResponseEntity<?>>> upstream() {
+        return () -> {
+            upstreamRequests.incrementAndGet();
+            return upstreamResponse;
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.HedgingProperties;
+import com.github.jonpereiradev.integrator.server.configuration.ProxyProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RequestHedgerTest {
+
+    private HedgingProperties properties;
+    private RequestHedger requestHedger;
+    private AtomicInteger attempts;
+
+    @Before
+    public void beforeTest() {
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        requestHedger = new RequestHedger(properties, new ProxyProperties(), new SyncTaskExecutor());
+        attempts = new AtomicInteger();
+    }
+
+    @After
+    public void afterTest() {
+        requestHedger.shutdown();
+    }
+
+    @Test
+    public void mustNotHedgeWhenLatencyIsUnknown() throws Exception {
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET, () -> attempt(slow));
+
+        Thread.sleep(100);
+        slow.complete(ResponseEntity.ok("slow"));
+
+        assertEquals("slow", response.get(1, TimeUnit.SECONDS).getBody());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void mustUseSecondAttemptWhenFirstIsSlow() throws Exception {
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET,
+            () -> attempts.get() == 0 ? attempt(slow) : attempt(CompletableFuture.completedFuture(ResponseEntity.ok("hedge"))));
+
+        assertEquals("hedge", response.get(1, TimeUnit.SECONDS).getBody());
+        assertEquals(2, attempts.get());
+
+        // the response is given to the client before the hedge is counted as the winner.
+        for (int i = 0; i < 100 && requestHedger.getStatistics().get("won") == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Long.valueOf(1), requestHedger.getStatistics().get("won"));
+    }
+
+    @Test
+    public void mustUseTheHedgeWhenTheFirstAttemptFails() throws Exception {
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> first = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> hedge = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET,
+            () -> attempts.get() == 0 ? attempt(first) : attempt(hedge));
+
+        for (int i = 0; i < 100 && attempts.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        first.completeExceptionally(new IOException("reset"));
+
+        assertFalse(hedge.isCancelled());
+        assertFalse(response.isDone());
+
+        hedge.complete(ResponseEntity.ok("hedge"));
+
+        assertEquals("hedge", response.get(1, TimeUnit.SECONDS).getBody());
+    }
+
+    @Test
+    public void mustFailWhenEveryAttemptFails() throws Exception {
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> first = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> hedge = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET,
+            () -> attempts.get() == 0 ? attempt(first) : attempt(hedge));
+
+        for (int i = 0; i < 100 && attempts.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        first.completeExceptionally(new IOException("reset"));
+        hedge.completeExceptionally(new IOException("timeout"));
+
+        try {
+            response.get(1, TimeUnit.SECONDS);
+            fail("Must throw ExecutionException");
+        } catch (ExecutionException e) {
+            assertEquals("timeout", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void mustNotHedgeWhenMethodIsNotIdempotent() throws Exception {
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.POST, () -> attempt(slow));
+
+        Thread.sleep(100);
+
+        assertFalse(response.isDone());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void mustNotHedgeWhenBudgetIsExhausted() throws Exception {
+        properties.setBudgetMax(1);
+        properties.setBudgetRatio(0);
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+
+        requestHedger.execute("app", HttpMethod.GET, () -> attempt(slow));
+        requestHedger.execute("app", HttpMethod.GET, () -> attempt(slow));
+        Thread.sleep(100);
+
+        assertEquals(3, attempts.get());
+        assertEquals(Long.valueOf(1), requestHedger.getStatistics().get("hedged"));
+        assertEquals(Long.valueOf(1), requestHedger.getStatistics().get("budgetExhausted"));
+    }
+
+    @Test
+    public void mustCancelTheSlowAttemptWhenTheHedgeResponds() throws Exception {
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET,
+            () -> attempts.get() == 0 ? attempt(slow) : attempt(CompletableFuture.completedFuture(ResponseEntity.ok("hedge"))));
+
+        assertEquals("hedge", response.get(1, TimeUnit.SECONDS).getBody());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    public void mustNotSendTheHedgeWhenTheFirstAttemptResponds() throws Exception {
+        properties.setMinDelay(50);
+        warm();
+
+        CompletableFuture<ResponseEntity<?>> first = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> response = requestHedger.execute("app", HttpMethod.GET, () -> attempt(first));
+
+        first.complete(ResponseEntity.ok("first"));
+        Thread.sleep(100);
+
+        assertEquals("first", response.get().getBody());
+        assertEquals(1, attempts.get());
+        assertEquals(Long.valueOf(0), requestHedger.getStatistics().get("hedged"));
+    }
+
+    @Test
+    public void mustHedgeOnlyWhenTheFirstAttemptIsStillInFlight() {
+        assertTrue(RequestHedger.canHedge(ProxyMode.ASYNC, new SyncTaskExecutor()));
+        assertTrue(RequestHedger.canHedge(ProxyMode.BUFFERED, new SimpleAsyncTaskExecutor()));
+        assertFalse(RequestHedger.canHedge(ProxyMode.BUFFERED, new SyncTaskExecutor()));
+        assertFalse(RequestHedger.canHedge(ProxyMode.STREAMING, new SimpleAsyncTaskExecutor()));
+    }
+
+    @Test
+    public void mustNotHedgeWhenApplicationUndeployed() throws Exception {
+        warm();
+        requestHedger.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        CompletableFuture<ResponseEntity<?>> slow = new CompletableFuture<>();
+        requestHedger.execute("app", HttpMethod.GET, () -> attempt(slow));
+        Thread.sleep(100);
+
+        assertEquals(1, attempts.get());
+        assertEquals(Long.valueOf(0), requestHedger.getStatistics().get("hedged"));
+    }
+
+    /**
+     * Deploys the application and sends fast requests until its latency is known.
+     */
+    private void warm() {
+        Application application = new Application();
+        application.setId("app");
+        requestHedger.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        for (int i = 0; i < 20; i++) {
+            requestHedger.execute("app", HttpMethod.GET, () -> CompletableFuture.completedFuture(ResponseEntity.ok("warm")));
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<?>> attempt(CompletableFuture<ResponseEntity<?>> future) {
+        attempts.incrementAndGet();
+        return future;
+    }
+}
@@ -14,7 +14,7 @@ public class RequestTest {
 
     @Before
     public void beforeTest() {
-        request = new Request();
+        request = new Request(new UpstreamClients());
     }
 
     @Test
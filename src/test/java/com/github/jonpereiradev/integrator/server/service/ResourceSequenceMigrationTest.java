@@ -0,0 +1,59 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResourceSequenceMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ResourceSequenceMigration migration;
+
+    @Before
+    public void beforeTest() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sequence;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migration = new ResourceSequenceMigration(jdbcTemplate);
+    }
+
+    @After
+    public void afterTest() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void mustChangeTheIncrementWithoutReusingAllocatedIdentifiers() {
+        jdbcTemplate.execute("CREATE SEQUENCE " + Resource.SEQUENCE + " START WITH 1 INCREMENT BY 1");
+        jdbcTemplate.queryForObject("SELECT NEXTVAL('" + Resource.SEQUENCE + "')", Long.class);
+        jdbcTemplate.queryForObject("SELECT NEXTVAL('" + Resource.SEQUENCE + "')", Long.class);
+
+        migration.migrate();
+
+        assertEquals(Resource.SEQUENCE_ALLOCATION_SIZE, increment());
+        assertEquals(2L + Resource.SEQUENCE_ALLOCATION_SIZE, (long) jdbcTemplate.queryForObject("SELECT NEXTVAL('" + Resource.SEQUENCE + "')", Long.class));
+    }
+
+    @Test
+    public void mustKeepTheSequenceWithTheAllocationSize() {
+        jdbcTemplate.execute("CREATE SEQUENCE " + Resource.SEQUENCE + " START WITH 1 INCREMENT BY " + Resource.SEQUENCE_ALLOCATION_SIZE);
+
+        migration.migrate();
+
+        assertEquals(Resource.SEQUENCE_ALLOCATION_SIZE, increment());
+    }
+
+    @Test
+    public void mustDoNothingWithoutTheSequence() {
+        migration.migrate();
+    }
+
+    private long increment() {
+        return jdbcTemplate.queryForObject("SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, Resource.SEQUENCE);
+    }
+}
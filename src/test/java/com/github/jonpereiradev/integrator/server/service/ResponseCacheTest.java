@@ -0,0 +1,243 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.configuration.CacheProperties;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ResponseCacheTest {
+
+    private static final String RESOURCE = "/api/resource";
+
+    private CacheProperties cacheProperties;
+    private ResponseCache responseCache;
+    private List<HttpHeaders> upstreamRequests;
+
+    @Before
+    public void beforeTest() {
+        cacheProperties = new CacheProperties();
+        responseCache = new ResponseCache(cacheProperties);
+        upstreamRequests = new ArrayList<>();
+    }
+
+    @Test
+    public void mustRespondFromCacheWhenFresh() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        assertEquals("body", execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body")).getBody());
+        ResponseEntity<?> cached = execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "other"));
+
+        assertEquals("body", cached.getBody());
+        assertEquals("0", cached.getHeaders().getFirst(HttpHeaders.AGE));
+        assertEquals(1, upstreamRequests.size());
+        assertEquals(Long.valueOf(1), responseCache.getStatistics().get("hits"));
+        assertEquals(Long.valueOf(1), responseCache.getStatistics().get("misses"));
+    }
+
+    @Test
+    public void mustNotCacheWhenNoStore() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("no-store, max-age=60");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    public void mustNotCacheWhenAuthorizedAndNotPublic() {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        HttpHeaders responseHeaders = new HttpHeaders();
+
+        requestHeaders.set(HttpHeaders.AUTHORIZATION, "token");
+        responseHeaders.setCacheControl("max-age=60");
+
+        execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "body"));
+        execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals(2, upstreamRequests.size());
+
+        responseHeaders.setCacheControl("public, max-age=60");
+
+        execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "body"));
+        execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals(3, upstreamRequests.size());
+    }
+
+    @Test
+    public void mustKeepOneEntryForEachVariant() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+        responseHeaders.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+
+        HttpHeaders english = new HttpHeaders();
+        english.set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+        HttpHeaders portuguese = new HttpHeaders();
+        portuguese.set(HttpHeaders.ACCEPT_LANGUAGE, "pt");
+
+        execute("app", english, upstream(HttpStatus.OK, responseHeaders, "hello"));
+        execute("app", portuguese, upstream(HttpStatus.OK, responseHeaders, "ola"));
+
+        assertEquals("hello", execute("app", english, upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+        assertEquals("ola", execute("app", portuguese, upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    public void mustRevalidateWithETagWhenStale() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("no-cache");
+        responseHeaders.setETag("\"v1\"");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+        ResponseEntity<?> revalidated = execute("app", new HttpHeaders(), upstream(HttpStatus.NOT_MODIFIED, new HttpHeaders(), null));
+
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertEquals("body", revalidated.getBody());
+        assertEquals("\"v1\"", upstreamRequests.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(Long.valueOf(1), responseCache.getStatistics().get("revalidations"));
+    }
+
+    @Test
+    public void mustBypassCacheWhenClientSendsNoCache() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setCacheControl("no-cache");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals("other", execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    public void mustEvictLeastRecentlyUsedWhenFull() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        // each entry takes a little more than 200 bytes.
+        cacheProperties.setMaxSize(500);
+
+        execute("app", "/first", upstream(HttpStatus.OK, responseHeaders, repeat('a', 100)));
+        execute("app", "/second", upstream(HttpStatus.OK, responseHeaders, repeat('b', 100)));
+        execute("app", "/first", upstream(HttpStatus.OK, responseHeaders, "other"));
+        execute("app", "/third", upstream(HttpStatus.OK, responseHeaders, repeat('c', 100)));
+
+        assertEquals(Long.valueOf(1), responseCache.getStatistics().get("evictions"));
+        assertEquals(repeat('a', 100), execute("app", "/first", upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+        assertEquals("other", execute("app", "/second", upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+    }
+
+    @Test
+    public void mustPurgeApplicationWhenUndeployed() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+        execute("other", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        responseCache.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertEquals(Long.valueOf(1), responseCache.getStatistics().get("entries"));
+        assertEquals("new", execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "new")).getBody());
+    }
+
+    @Test
+    public void mustRemoveTheVariantsWithTheLastEntryEvicted() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        cacheProperties.setMaxSize(500);
+
+        execute("app", "/first", upstream(HttpStatus.OK, responseHeaders, repeat('a', 100)));
+        execute("app", "/second", upstream(HttpStatus.OK, responseHeaders, repeat('b', 100)));
+        execute("app", "/third", upstream(HttpStatus.OK, responseHeaders, repeat('c', 100)));
+
+        assertEquals(Long.valueOf(2), responseCache.getStatistics().get("entries"));
+        assertEquals(Long.valueOf(2), responseCache.getStatistics().get("resources"));
+    }
+
+    @Test
+    public void mustNotStoreResponseRequestedBeforePurge() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> result = responseCache.execute("app", RESOURCE, new HttpHeaders(), headers -> response);
+
+        responseCache.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+        response.complete(new ResponseEntity<>("old", responseHeaders, HttpStatus.OK));
+
+        assertEquals("old", result.join().getBody());
+        assertEquals(Long.valueOf(0), responseCache.getStatistics().get("entries"));
+        assertEquals("new", execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "new")).getBody());
+    }
+
+    @Test
+    public void mustNotCacheWhenSettingCookie() {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+        responseHeaders.set(HttpHeaders.SET_COOKIE, "session=1");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    @Test
+    public void mustHonorTheMaxAgeOfTheClient() throws InterruptedException {
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("max-age=60");
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setCacheControl("max-age=1");
+
+        execute("app", new HttpHeaders(), upstream(HttpStatus.OK, responseHeaders, "body"));
+
+        assertEquals("body", execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+
+        Thread.sleep(1100);
+
+        assertEquals("other", execute("app", requestHeaders, upstream(HttpStatus.OK, responseHeaders, "other")).getBody());
+        assertEquals(2, upstreamRequests.size());
+    }
+
+    private ResponseEntity<?> execute(String applicationId, HttpHeaders requestHeaders, Function<HttpHeaders, CompletableFuture<ResponseEntity<?>>> upstream) {
+        return responseCache.execute(applicationId, RESOURCE, requestHeaders, upstream).join();
+    }
+
+    private ResponseEntity<?> execute(String applicationId, String path, Function<HttpHeaders, CompletableFuture<ResponseEntity<?>>> upstream) {
+        return responseCache.execute(applicationId, RESOURCE + path, new HttpHeaders(), upstream).join();
+    }
+
+    private Function<HttpHeaders, CompletableFuture<ResponseEntity<?>>> upstream(HttpStatus status, HttpHeaders responseHeaders, String body) {
+        return headers -> {
+            upstreamRequests.add(headers);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(body, responseHeaders, status));
+        };
+    }
+
+    private static String repeat(char c, int times) {
+        return new String(new char[times]).replace('\0', c);
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RetryBudgetTest {
+
+    @Test
+    public void mustStartWithMaxTokens() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 2);
+
+        assertTrue(retryBudget.tryWithdraw());
+        assertTrue(retryBudget.tryWithdraw());
+        assertFalse(retryBudget.tryWithdraw());
+    }
+
+    @Test
+    public void mustAllowOneAttemptForEachTenRequestsWhenRatioIsTenPercent() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 2);
+
+        retryBudget.tryWithdraw();
+        retryBudget.tryWithdraw();
+
+        for (int i = 0; i < 9; i++) {
+            retryBudget.deposit();
+        }
+
+        assertFalse(retryBudget.tryWithdraw());
+
+        retryBudget.deposit();
+
+        assertTrue(retryBudget.tryWithdraw());
+    }
+
+    @Test
+    public void mustNotSaveMoreThanMaxTokens() {
+        RetryBudget retryBudget = new RetryBudget(1, 2);
+
+        for (int i = 0; i < 10; i++) {
+            retryBudget.deposit();
+        }
+
+        assertEquals(2, retryBudget.getTokens(), 0);
+    }
+}
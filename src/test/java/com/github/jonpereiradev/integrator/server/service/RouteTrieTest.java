@@ -0,0 +1,118 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Resource;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class RouteTrieTest {
+
+    private final List<Resource> resources = new ArrayList<>();
+
+    @Test
+    public void mustMatchExactPath() {
+        Resource users = resource("users", "/users");
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(users, routeTrie.match(HttpMethod.GET, "/users"));
+        assertSame(users, routeTrie.match(HttpMethod.GET, "/users/"));
+        assertNull(routeTrie.match(HttpMethod.GET, "/user"));
+        assertNull(routeTrie.match(HttpMethod.GET, "/users/1"));
+        assertNull(routeTrie.match(HttpMethod.GET, "/"));
+    }
+
+    @Test
+    public void mustMatchVariableSegments() {
+        Resource roles = resource("roles", "/users/{id}/roles/{role}");
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(roles, routeTrie.match(HttpMethod.GET, "/users/1/roles/admin"));
+        assertNull(routeTrie.match(HttpMethod.GET, "/users/1/roles"));
+        assertNull(routeTrie.match(HttpMethod.GET, "/users/1/groups/admin"));
+    }
+
+    @Test
+    public void mustPreferLiteralSegmentOverVariable() {
+        Resource user = resource("user", "/users/{id}");
+        Resource me = resource("me", "/users/me");
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(me, routeTrie.match(HttpMethod.GET, "/users/me"));
+        assertSame(user, routeTrie.match(HttpMethod.GET, "/users/1"));
+    }
+
+    @Test
+    public void mustFallBackToVariableWhenLiteralPathDontMatch() {
+        Resource settings = resource("settings", "/users/me/settings");
+        Resource roles = resource("roles", "/users/{id}/roles");
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(settings, routeTrie.match(HttpMethod.GET, "/users/me/settings"));
+        assertSame(roles, routeTrie.match(HttpMethod.GET, "/users/me/roles"));
+    }
+
+    @Test
+    public void mustMatchResourceOfTheMethod() {
+        Resource read = resource("read", "/users", HttpMethod.GET);
+        Resource write = resource("write", "/users", HttpMethod.POST, HttpMethod.PUT);
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(read, routeTrie.match(HttpMethod.GET, "/users"));
+        assertSame(write, routeTrie.match(HttpMethod.PUT, "/users"));
+        assertNull(routeTrie.match(HttpMethod.DELETE, "/users"));
+        assertNotNull(routeTrie.match(null, "/users"));
+    }
+
+    @Test
+    public void mustFallBackToResourceOfAnyMethod() {
+        Resource read = resource("read", "/users", HttpMethod.GET);
+        Resource any = resource("any", "/users");
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        assertSame(read, routeTrie.match(HttpMethod.GET, "/users"));
+        assertSame(any, routeTrie.match(HttpMethod.DELETE, "/users"));
+    }
+
+    @Test
+    public void mustKeepFirstResourceWhenPathRepeated() {
+        Resource first = resource("first", "/users");
+        resource("second", "/users");
+
+        assertSame(first, RouteTrie.compile(resources).match(HttpMethod.GET, "/users"));
+    }
+
+    @Test
+    public void mustMatchManySiblingSegments() {
+        for (int i = 0; i < 100; i++) {
+            resource("resource-" + i, "/resource-" + i + "/{id}");
+        }
+
+        RouteTrie routeTrie = RouteTrie.compile(resources);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("resource-" + i, routeTrie.match(HttpMethod.GET, "/resource-" + i + "/1").getIdentifier());
+        }
+
+        assertNull(routeTrie.match(HttpMethod.GET, "/resource-100/1"));
+    }
+
+    private Resource resource(String identifier, String path, HttpMethod... methods) {
+        Resource resource = new Resource();
+
+        resource.setIdentifier(identifier);
+        resource.setPath(path);
+        resource.setMethods(methods.length == 0 ? EnumSet.noneOf(HttpMethod.class) : EnumSet.copyOf(Arrays.asList(methods)));
+        resources.add(resource);
+
+        return resource;
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StreamingBodyTest {
+
+    @Mock
+    private HttpUriRequest request;
+
+    @Mock
+    private HttpEntity entity;
+
+    private StreamingBody streamingBody;
+
+    @Before
+    public void beforeTest() {
+        streamingBody = new StreamingBody(request, entity, new BufferPool(16, 1));
+    }
+
+    @Test
+    public void mustCopyTheBodyWithoutAbortingTheRequest() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        when(entity.getContent()).thenReturn(new ByteArrayInputStream("streamed".getBytes()));
+
+        streamingBody.writeTo(output);
+
+        assertEquals("streamed", output.toString());
+        verify(request, never()).abort();
+    }
+
+    @Test
+    public void mustAbortTheRequestWhenTheClientIsGone() throws IOException {
+        InputStream input = mock(InputStream.class);
+        OutputStream output = mock(OutputStream.class);
+        when(entity.getContent()).thenReturn(input);
+        when(input.read(any(byte[].class))).thenReturn(16);
+        doThrow(new IOException("Broken pipe")).when(output).write(any(byte[].class), anyInt(), anyInt());
+
+        try {
+            streamingBody.writeTo(output);
+            fail();
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+
+        verify(request).abort();
+        verify(input, never()).close();
+    }
+
+    @Test
+    public void mustAbortTheRequestOnceWhenDiscarded() {
+        streamingBody.discard();
+        streamingBody.discard();
+
+        verify(request, times(1)).abort();
+    }
+
+    @Test
+    public void mustNotAbortTheRequestWhenDiscardedAfterWritten() throws IOException {
+        when(entity.getContent()).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        streamingBody.writeTo(new ByteArrayOutputStream());
+        streamingBody.discard();
+
+        verify(request, never()).abort();
+    }
+
+    @Test(expected = IOException.class)
+    public void mustNotWriteWhenDiscarded() throws IOException {
+        streamingBody.discard();
+        streamingBody.writeTo(new ByteArrayOutputStream());
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.UpstreamProtocol;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class UpstreamClientTest {
+
+    private MockWebServer server;
+    private UpstreamClient client;
+
+    @Before
+    public void beforeTest() {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(request.getMethod() + " " + request.getBody().readUtf8()).setHeadersDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    @After
+    public void afterTest() throws IOException {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void mustMultiplexConcurrentRequestsWhenHttp2() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_2, 1));
+
+        List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            futures.add(client.executeAsync(new HttpGet(server.url("/resource").uri())));
+        }
+
+        for (CompletableFuture<HttpResponse> future : futures) {
+            HttpResponse response = future.get(10, TimeUnit.SECONDS);
+
+            assertEquals(Http2Transport.HTTP_2, response.getProtocolVersion());
+            assertEquals("GET ", EntityUtils.toString(response.getEntity()));
+        }
+
+        Set<Integer> sequenceNumbers = new HashSet<>();
+
+        for (int i = 0; i < 10; i++) {
+            sequenceNumbers.add(server.takeRequest().getSequenceNumber());
+        }
+
+        // all streams were sent on the same connection.
+        assertEquals(10, sequenceNumbers.size());
+    }
+
+    @Test
+    public void mustSendBodyWhenHttp2() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_2, 1));
+
+        HttpPost post = new HttpPost(server.url("/resource").uri());
+        post.setEntity(new StringEntity("{\"id\":1}", ContentType.APPLICATION_JSON));
+
+        HttpResponse response = client.execute(post);
+
+        assertEquals(Http2Transport.HTTP_2, response.getProtocolVersion());
+        assertEquals("POST {\"id\":1}", EntityUtils.toString(response.getEntity()));
+        assertEquals("application/json; charset=UTF-8", server.takeRequest().getHeader("Content-Type"));
+    }
+
+    @Test
+    public void mustFallbackToHttp1WhenApplicationRefusesHttp2() throws Exception {
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_2, 1));
+
+        HttpResponse response = client.execute(new HttpGet(server.url("/resource").uri()));
+
+        assertEquals(HttpVersion.HTTP_1_1, response.getProtocolVersion());
+        assertEquals("GET ", EntityUtils.toString(response.getEntity()));
+
+        response = client.executeAsync(new HttpGet(server.url("/resource").uri())).get(10, TimeUnit.SECONDS);
+
+        assertEquals(HttpVersion.HTTP_1_1, response.getProtocolVersion());
+    }
+
+    @Test
+    public void mustKeepHttp2WhenRequestTimesOut() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_2, 1));
+
+        HttpGet get = new HttpGet(server.url("/resource").uri());
+        get.setConfig(RequestConfig.custom().setConnectionRequestTimeout(20).build());
+
+        try {
+            client.execute(get);
+            fail("Must throw IOException");
+        } catch (IOException e) {
+            assertEquals("timeout", e.getMessage());
+        }
+
+        HttpResponse response = client.execute(new HttpGet(server.url("/resource").uri()));
+
+        assertEquals(Http2Transport.HTTP_2, response.getProtocolVersion());
+    }
+
+    @Test
+    public void mustCancelHttp2CallWhenRequestAborted() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_2, 1));
+
+        HttpGet get = new HttpGet(server.url("/resource").uri());
+        CompletableFuture<HttpResponse> response = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.execute(get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        server.takeRequest();
+        get.abort();
+
+        try {
+            response.get(10, TimeUnit.SECONDS);
+            fail("Must throw ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+    }
+
+    @Test
+    public void mustUseHttp1WhenNotConfigured() throws Exception {
+        server.start();
+        client = new UpstreamClient(application(UpstreamProtocol.HTTP_1_1, 1));
+
+        HttpResponse response = client.execute(new HttpGet(server.url("/resource").uri()));
+
+        assertEquals(HttpVersion.HTTP_1_1, response.getProtocolVersion());
+        assertEquals("GET ", EntityUtils.toString(response.getEntity()));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void mustNotReuseConnectionsWhenKeepAliveIsZero() throws Exception {
+        server.start();
+
+        Application application = application(UpstreamProtocol.HTTP_1_1, 1);
+        application.getPool().setKeepAlive(0L);
+        client = new UpstreamClient(application);
+
+        EntityUtils.consume(client.execute(new HttpGet(server.url("/resource").uri())).getEntity());
+        EntityUtils.consume(client.execute(new HttpGet(server.url("/resource").uri())).getEntity());
+
+        // each request was the first one of its connection.
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+    }
+
+    private Application application(UpstreamProtocol protocol, int maxConnections) {
+        Application application = new Application();
+
+        application.setId("app");
+        application.setHost(server.url("/").toString());
+        application.setProtocol(protocol);
+        application.getPool().setMaxConnections(maxConnections);
+
+        return application;
+    }
+}
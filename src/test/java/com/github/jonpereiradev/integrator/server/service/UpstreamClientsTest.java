@@ -0,0 +1,140 @@
+package com.github.jonpereiradev.integrator.server.service;
+
+import com.github.jonpereiradev.integrator.server.event.ApplicationDeployedEvent;
+import com.github.jonpereiradev.integrator.server.event.ApplicationUndeployedEvent;
+import com.github.jonpereiradev.integrator.server.model.Application;
+import com.github.jonpereiradev.integrator.server.model.ConnectionPool;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class UpstreamClientsTest {
+
+    private UpstreamClients upstreamClients;
+    private Application application;
+
+    @Before
+    public void beforeTest() {
+        upstreamClients = new UpstreamClients();
+        application = new Application();
+        application.setId("app");
+        application.setHost("http://localhost:8080/app");
+        application.setPool(new ConnectionPool());
+        application.getPool().setMaxConnections(5);
+    }
+
+    @After
+    public void afterTest() {
+        upstreamClients.closeAll();
+    }
+
+    @Test
+    public void mustCreateClientWhenApplicationDeployed() {
+        upstreamClients.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        UpstreamClient client = upstreamClients.get(application);
+
+        assertEquals(5, client.getPool().getMaxConnections());
+        assertSame(client, upstreamClients.get(application));
+    }
+
+    @Test
+    public void mustCreateClientWhenApplicationLoadedOnStart() {
+        upstreamClients.open(application);
+
+        UpstreamClient client = upstreamClients.get(application);
+
+        assertFalse(client.isClosed());
+        assertSame(client, upstreamClients.get(application));
+    }
+
+    @Test
+    public void mustNotCreateClientWhenApplicationNotDeployed() {
+        assertNull(upstreamClients.get(application));
+
+        try {
+            upstreamClients.execute(application, new HttpGet("http://localhost:8080/app"));
+            fail();
+        } catch (IllegalStateException | IOException e) {
+            assertEquals("Application app not deployed.", e.getMessage());
+        }
+
+        assertNull(upstreamClients.get(application));
+    }
+
+    @Test
+    public void mustCloseClientWhenApplicationUndeployed() {
+        upstreamClients.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        UpstreamClient client = upstreamClients.get(application);
+
+        upstreamClients.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertTrue(client.isClosed());
+        assertNull(upstreamClients.get(application));
+    }
+
+    @Test
+    public void mustReplaceClientWhenApplicationDeployedAgain() {
+        upstreamClients.open(application);
+        UpstreamClient client = upstreamClients.get(application);
+
+        application.getPool().setMaxConnections(10);
+        upstreamClients.onApplicationDeployed(new ApplicationDeployedEvent(application));
+
+        assertTrue(client.isClosed());
+        assertEquals(10, upstreamClients.get(application).getPool().getMaxConnections());
+    }
+
+    @Test
+    public void mustCloseReplacedClientOnlyAfterRequestsInFlight() {
+        upstreamClients.open(application);
+        UpstreamClient client = upstreamClients.get(application);
+        assertTrue(client.acquire());
+
+        upstreamClients.onApplicationDeployed(new ApplicationDeployedEvent(application));
+        upstreamClients.evictIdleConnections();
+
+        assertFalse(client.isClosed());
+        assertNotSame(client, upstreamClients.get(application));
+
+        client.release();
+        upstreamClients.evictIdleConnections();
+
+        assertTrue(client.isClosed());
+        assertFalse(client.acquire());
+    }
+
+    @Test
+    public void mustCloseUndeployedClientOnlyAfterRequestsInFlight() {
+        upstreamClients.open(application);
+        UpstreamClient client = upstreamClients.get(application);
+        assertTrue(client.acquire());
+
+        upstreamClients.onApplicationUndeployed(new ApplicationUndeployedEvent("app"));
+
+        assertFalse(client.isClosed());
+
+        client.release();
+        upstreamClients.evictIdleConnections();
+
+        assertTrue(client.isClosed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustNotStartAsyncClientWhenClosed() throws Exception {
+        upstreamClients.open(application);
+        UpstreamClient client = upstreamClients.get(application);
+
+        client.close();
+        client.async();
+    }
+}